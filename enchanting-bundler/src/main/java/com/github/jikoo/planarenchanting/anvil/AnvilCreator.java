@@ -1,8 +1,17 @@
 package com.github.jikoo.planarenchanting.anvil;
 
+import com.github.jikoo.planarenchanting.util.ComponentDataReloadListener;
+import com.github.jikoo.planarenchanting.util.DataReloadListener;
+import com.github.jikoo.planarenchanting.util.DataReloads;
+import com.github.jikoo.planarenchanting.util.DelegateFingerprinter;
 import com.github.jikoo.planarenchanting.util.ServerCapabilities;
+import com.github.jikoo.planarenchanting.util.ShadowVerifier;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import org.bukkit.event.Listener;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.view.AnvilView;
+import org.bukkit.plugin.Plugin;
 import org.jspecify.annotations.NullMarked;
 
 /**
@@ -15,6 +24,9 @@ public final class AnvilCreator {
    * Create a new platform-dependent {@link Anvil}. It will use vanilla-style behavior to produce
    * results.
    *
+   * <p>Vanilla behaviors share caches derived from server data. Call
+   * {@link #registerReloadListener(Plugin)} once to keep them current after datapack reloads.</p>
+   *
    * @return the anvil implementation
    */
   public static Anvil create() {
@@ -25,6 +37,120 @@ public final class AnvilCreator {
     }
   }
 
+  /**
+   * Create a new platform-dependent {@link Anvil} reusing its work pieces. It will use
+   * vanilla-style behavior to produce results.
+   *
+   * <p>Work pieces are pooled per thread via a {@link WorkPieceArena}, so each thread using the
+   * anvil retains a piece. Retained pieces keep the plugin's classes loaded until they are
+   * discarded. To discard them when the plugin is disabled, create a {@link PlanarForge} with a
+   * {@code WorkPieceArena} directly and {@link WorkPieceArena#close() close} it.</p>
+   *
+   * @return the anvil implementation
+   * @see #create()
+   */
+  public static Anvil createPooled() {
+    if (ServerCapabilities.DATA_COMPONENT) {
+      return new PlanarForge<>(new WorkPieceArena<>(ComponentViewState::new, ComponentTemperer.INSTANCE), new ComponentVanillaBehavior(), ComponentAnvilFunctions.INSTANCE);
+    } else {
+      return new PlanarForge<>(new WorkPieceArena<>(MetaViewState::new, MetaTemperer.INSTANCE), new MetaVanillaBehavior(), MetaAnvilFunctions.INSTANCE);
+    }
+  }
+
+  /**
+   * Create a new platform-dependent {@link AsyncAnvil}. It will use vanilla-style behavior to
+   * produce results on virtual threads.
+   *
+   * @param ownerExecutor the {@link Executor} running tasks on the main thread
+   * @return the anvil implementation
+   */
+  public static AsyncAnvil<?> createAsync(Executor ownerExecutor) {
+    if (ServerCapabilities.DATA_COMPONENT) {
+      return new AsyncAnvil<>(AnvilCreator::createComponentPiece, new ComponentVanillaBehavior(), ComponentAnvilFunctions.INSTANCE, ownerExecutor);
+    } else {
+      return new AsyncAnvil<>(AnvilCreator::createMetaPiece, new MetaVanillaBehavior(), MetaAnvilFunctions.INSTANCE, ownerExecutor);
+    }
+  }
+
+  /**
+   * Create a new platform-dependent {@link AnvilPricer}. It will use vanilla-style behavior to
+   * produce results for inputs that do not belong to an anvil.
+   *
+   * @param parallelism the maximum number of threads used to evaluate batches
+   * @return the pricer implementation
+   */
+  public static AnvilPricer<?> createPricer(int parallelism) {
+    if (ServerCapabilities.DATA_COMPONENT) {
+      return new AnvilPricer<>(AnvilCreator::createComponentPiece, new ComponentVanillaBehavior(), ComponentAnvilFunctions.INSTANCE, parallelism);
+    } else {
+      return new AnvilPricer<>(AnvilCreator::createMetaPiece, new MetaVanillaBehavior(), MetaAnvilFunctions.INSTANCE, parallelism);
+    }
+  }
+
+  /**
+   * Create a new {@link ShadowAnvil} verifying a sample of the results of an {@link Anvil} against
+   * a platform-dependent {@link AnvilPricer}. The pricer uses a new {@link WorkPiece} for each
+   * operation, a reference behavior, and {@link CombineEnchants#createReference() reference}
+   * enchantment combination, sharing no caches with optimized anvils. Verifications run on the
+   * pricer's single thread. The shadow owns the pricer and must be
+   * {@link ShadowAnvil#close() closed} when no longer in use.
+   *
+   * @param anvil the anvil producing results
+   * @param sampleRate the fraction of results verified, between 0 and 1
+   * @param reporter the consumer of divergences, called off of the main thread
+   * @return the verifying anvil
+   */
+  public static ShadowAnvil createShadow(Anvil anvil, double sampleRate, Consumer<ShadowVerifier.Divergence<AnvilInputs, AnvilResult>> reporter) {
+    AnvilPricer<?> reference;
+    if (ServerCapabilities.DATA_COMPONENT) {
+      reference = new AnvilPricer<>(AnvilCreator::createComponentPiece, new ComponentReferenceBehavior(), new ReferenceFunctions<>(ComponentAnvilFunctions.INSTANCE, ComponentAnvilFunctions.getCombineEnchants(CombineEnchants.Platform.JAVA), ComponentAnvilFunctions.getCombineEnchants(CombineEnchants.Platform.BEDROCK)), 1);
+    } else {
+      reference = new AnvilPricer<>(AnvilCreator::createMetaPiece, new MetaReferenceBehavior(), new ReferenceFunctions<>(MetaAnvilFunctions.INSTANCE, MetaAnvilFunctions.getCombineEnchants(CombineEnchants.Platform.JAVA), MetaAnvilFunctions.getCombineEnchants(CombineEnchants.Platform.BEDROCK)), 1);
+    }
+    return new ShadowAnvil(anvil, reference, sampleRate, reporter);
+  }
+
+  /**
+   * Register a platform-dependent listener invalidating the caches shared by vanilla behaviors,
+   * such as {@link com.github.jikoo.planarenchanting.util.ApplicabilityCache#VANILLA}, when server
+   * data is reloaded. Without it, cached results may be stale after a datapack reload.
+   *
+   * @param plugin the owning plugin
+   * @see DataReloads
+   */
+  public static void registerReloadListener(Plugin plugin) {
+    Listener listener = ServerCapabilities.DATA_COMPONENT
+        ? new ComponentDataReloadListener()
+        : new DataReloadListener();
+    plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+  }
+
+  /**
+   * Create a new platform-dependent {@link MergePlanner}. It will use vanilla-style behavior to
+   * plan merges.
+   *
+   * @param platform the {@link CombineEnchants.Platform} whose costs are used
+   * @return the planner implementation
+   */
+  public static MergePlanner<?> createPlanner(CombineEnchants.Platform platform) {
+    if (ServerCapabilities.DATA_COMPONENT) {
+      return new MergePlanner<>(itemStack -> itemStack, new ComponentVanillaBehavior(), ComponentAnvilFunctions.getCombineEnchants(platform), ComponentAnvilFunctions::getPriorWork);
+    } else {
+      return new MergePlanner<>(MetaCachedStack::new, new MetaVanillaBehavior(), MetaAnvilFunctions.getCombineEnchants(platform), MetaAnvilFunctions::getPriorWork);
+    }
+  }
+
+  /**
+   * Create a new platform-dependent {@link AnvilTicketIssuer}. Tickets are fingerprinted with the
+   * platform's {@link com.github.jikoo.planarenchanting.util.ItemFingerprinter}.
+   *
+   * @return the ticket issuer
+   * @see AnvilListener#getTicketIssuer()
+   */
+  public static AnvilTicketIssuer createTicketIssuer() {
+    return new AnvilTicketIssuer(DelegateFingerprinter.INSTANCE);
+  }
+
   /**
    * Create a new anvil {@link WorkPiece} based on Paper's {@code DataComponent}.
    *
@@ -55,6 +181,55 @@ public final class AnvilCreator {
     return new WorkPiece<>(new MetaViewState(view), MetaTemperer.INSTANCE);
   }
 
+  /**
+   * Create a new anvil {@link WorkPiece} based on Paper's {@code DataComponent} from captured
+   * inputs.
+   *
+   * @param view the AnvilView the inputs were captured from
+   * @param inputs the captured inputs
+   * @return the resulting work piece
+   * @see #createComponentPiece(AnvilView)
+   */
+  public static WorkPiece<ItemStack> createComponentPiece(AnvilView view, AnvilInputs inputs) {
+    return new WorkPiece<>(new ComponentViewState(view, inputs), ComponentTemperer.INSTANCE);
+  }
+
+  /**
+   * Create a new anvil {@link WorkPiece} based on the Bukkit API from captured inputs.
+   *
+   * @param view the AnvilView the inputs were captured from
+   * @param inputs the captured inputs
+   * @return the resulting work piece
+   * @see #createMetaPiece(AnvilView)
+   */
+  public static WorkPiece<MetaCachedStack> createMetaPiece(AnvilView view, AnvilInputs inputs) {
+    return new WorkPiece<>(new MetaViewState(view, inputs), MetaTemperer.INSTANCE);
+  }
+
+  /**
+   * Create a new anvil {@link WorkPiece} based on Paper's {@code DataComponent} from inputs that
+   * do not belong to an anvil.
+   *
+   * @param inputs the inputs
+   * @return the resulting work piece
+   * @see #createComponentPiece(AnvilView)
+   */
+  public static WorkPiece<ItemStack> createComponentPiece(AnvilInputs inputs) {
+    return new WorkPiece<>(new ComponentViewState(inputs), ComponentTemperer.INSTANCE);
+  }
+
+  /**
+   * Create a new anvil {@link WorkPiece} based on the Bukkit API from inputs that do not belong to
+   * an anvil.
+   *
+   * @param inputs the inputs
+   * @return the resulting work piece
+   * @see #createMetaPiece(AnvilView)
+   */
+  public static WorkPiece<MetaCachedStack> createMetaPiece(AnvilInputs inputs) {
+    return new WorkPiece<>(new MetaViewState(inputs), MetaTemperer.INSTANCE);
+  }
+
   private AnvilCreator() {}
 
 }
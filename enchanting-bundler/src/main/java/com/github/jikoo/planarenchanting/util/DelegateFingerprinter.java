@@ -0,0 +1,29 @@
+package com.github.jikoo.planarenchanting.util;
+
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * An {@link ItemFingerprinter} wrapping a platform-dependent fingerprinter.
+ */
+@NullMarked
+public final class DelegateFingerprinter implements ItemFingerprinter {
+
+  public static final DelegateFingerprinter INSTANCE = new DelegateFingerprinter();
+
+  private final ItemFingerprinter delegate =
+      ServerCapabilities.DATA_COMPONENT ? ComponentFingerprinter.INSTANCE : MetaFingerprinter.INSTANCE;
+
+  @Override
+  public long fingerprint(ItemStack itemStack) {
+    return delegate.fingerprint(itemStack);
+  }
+
+  @Override
+  public boolean isEquivalent(ItemStack first, ItemStack second) {
+    return delegate.isEquivalent(first, second);
+  }
+
+  private DelegateFingerprinter() {}
+
+}
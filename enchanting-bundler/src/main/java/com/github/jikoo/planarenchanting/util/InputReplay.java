@@ -0,0 +1,222 @@
+package com.github.jikoo.planarenchanting.util;
+
+import com.github.jikoo.planarenchanting.anvil.AnvilCreator;
+import com.github.jikoo.planarenchanting.anvil.AnvilInputs;
+import com.github.jikoo.planarenchanting.anvil.AnvilPricer;
+import com.github.jikoo.planarenchanting.anvil.ComponentAnvilFunctions;
+import com.github.jikoo.planarenchanting.anvil.ComponentVanillaBehavior;
+import com.github.jikoo.planarenchanting.anvil.MetaAnvilFunctions;
+import com.github.jikoo.planarenchanting.anvil.MetaVanillaBehavior;
+import com.github.jikoo.planarenchanting.table.Enchantability;
+import com.github.jikoo.planarenchanting.table.EnchantingTable;
+import com.github.jikoo.planarenchanting.util.InputSample.AnvilSample;
+import com.github.jikoo.planarenchanting.util.InputSample.ItemSample;
+import com.github.jikoo.planarenchanting.util.InputSample.TableSample;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.enchantments.EnchantmentOffer;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A benchmark replaying {@link InputSample InputSamples} captured by {@link InputCapture}.
+ *
+ * <p>Every anvil sample is replayed against {@link MetaVanillaBehavior} and, if the server
+ * supports it, {@link ComponentVanillaBehavior}, regardless of the behavior it was captured with,
+ * so that the implementations are compared on the same inputs. Enchanting table samples replay
+ * the operation they were captured from with default incompatibility and maximum levels. Replay
+ * does not require any players or open inventories. Captures are read without a server, but items
+ * and enchantments are resolved through registries and item metadata, so replay needs a server or
+ * stand-ins providing them.</p>
+ */
+@NullMarked
+public final class InputReplay {
+
+  private static volatile int blackhole;
+
+  /**
+   * Replay samples on the calling thread.
+   *
+   * @param samples the samples to replay
+   * @param warmupRounds the number of unmeasured passes over the samples
+   * @param rounds the number of measured passes over the samples
+   * @return a report for each implementation that had samples to replay
+   */
+  public static List<Report> replay(List<InputSample> samples, int warmupRounds, int rounds) {
+    if (warmupRounds < 0 || rounds < 1) {
+      throw new IllegalArgumentException("Rounds must be positive and warmup must not be negative");
+    }
+
+    List<AnvilInputs> anvilInputs = new ArrayList<>();
+    List<TableInputs> tableInputs = new ArrayList<>();
+    for (InputSample sample : samples) {
+      switch (sample) {
+        case AnvilSample anvil -> anvilInputs.add(new AnvilInputs(toItemStack(anvil.base()), toItemStack(anvil.addition()), anvil.renameText(), anvil.maximumRepairCost()));
+        case TableSample table -> tableInputs.add(TableInputs.of(table));
+      }
+    }
+
+    List<Report> reports = new ArrayList<>();
+    if (!anvilInputs.isEmpty()) {
+      try (AnvilPricer<?> pricer = new AnvilPricer<>(AnvilCreator::createMetaPiece, new MetaVanillaBehavior(), MetaAnvilFunctions.INSTANCE, 1)) {
+        reports.add(run("anvil-meta", anvilInputs, inputs -> pricer.getResult(inputs).levelCost(), warmupRounds, rounds));
+      }
+      if (ServerCapabilities.DATA_COMPONENT) {
+        try (AnvilPricer<?> pricer = new AnvilPricer<>(AnvilCreator::createComponentPiece, new ComponentVanillaBehavior(), ComponentAnvilFunctions.INSTANCE, 1)) {
+          reports.add(run("anvil-component", anvilInputs, inputs -> pricer.getResult(inputs).levelCost(), warmupRounds, rounds));
+        }
+      }
+    }
+    if (!tableInputs.isEmpty()) {
+      Random random = new Random();
+      reports.add(run("table", tableInputs, inputs -> inputs.apply(random), warmupRounds, rounds));
+    }
+
+    return reports;
+  }
+
+  private static @Nullable ItemStack toItemStack(@Nullable ItemSample sample) {
+    return sample == null ? null : sample.toItemStack();
+  }
+
+  private static <T> Report run(
+      String name,
+      List<T> inputs,
+      ToIntFunction<T> operation,
+      int warmupRounds,
+      int rounds
+  ) {
+    int sink = 0;
+    for (int round = 0; round < warmupRounds; ++round) {
+      for (T input : inputs) {
+        sink += operation.applyAsInt(input);
+      }
+    }
+
+    long[] latencies = new long[inputs.size() * rounds];
+    int index = 0;
+    long start = System.nanoTime();
+    for (int round = 0; round < rounds; ++round) {
+      for (T input : inputs) {
+        long operationStart = System.nanoTime();
+        sink += operation.applyAsInt(input);
+        latencies[index++] = System.nanoTime() - operationStart;
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+
+    // Consume results so that work cannot be eliminated.
+    blackhole = sink;
+    Arrays.sort(latencies);
+    return new Report(
+        name,
+        latencies.length,
+        elapsed,
+        percentile(latencies, 0.5),
+        percentile(latencies, 0.9),
+        percentile(latencies, 0.99),
+        latencies[latencies.length - 1]
+    );
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    int index = (int) Math.ceil(sorted.length * percentile) - 1;
+    return sorted[Math.max(0, index)];
+  }
+
+  /**
+   * The results of replaying samples against an implementation.
+   *
+   * @param name the name of the implementation
+   * @param operations the number of measured operations
+   * @param elapsedNanos the total time taken by measured rounds in nanoseconds
+   * @param p50Nanos the median latency in nanoseconds
+   * @param p90Nanos the 90th percentile latency in nanoseconds
+   * @param p99Nanos the 99th percentile latency in nanoseconds
+   * @param maxNanos the maximum latency in nanoseconds
+   */
+  public record Report(
+      String name,
+      int operations,
+      long elapsedNanos,
+      long p50Nanos,
+      long p90Nanos,
+      long p99Nanos,
+      long maxNanos
+  ) {
+
+    /**
+     * Get the number of operations performed per second.
+     *
+     * @return the throughput in operations per second
+     */
+    public double getThroughput() {
+      return elapsedNanos == 0 ? 0 : operations * 1_000_000_000D / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%s: %d ops, %.0f ops/s, p50 %.1fus, p90 %.1fus, p99 %.1fus, max %.1fus",
+          name,
+          operations,
+          getThroughput(),
+          p50Nanos / 1_000D,
+          p90Nanos / 1_000D,
+          p99Nanos / 1_000D,
+          maxNanos / 1_000D
+      );
+    }
+
+  }
+
+  /**
+   * A table sample with its enchantments resolved.
+   *
+   * @param operation the operation replayed
+   * @param table the {@link EnchantingTable}
+   * @param level the enchanting level
+   * @param seed the seed of the random used
+   */
+  private record TableInputs(
+      TableSample.Operation operation,
+      EnchantingTable table,
+      int level,
+      long seed
+  ) {
+
+    private static TableInputs of(TableSample sample) {
+      List<Enchantment> enchantments = new ArrayList<>();
+      for (NamespacedKey key : sample.enchantments()) {
+        Enchantment enchantment = Registry.ENCHANTMENT.get(key);
+        if (enchantment != null) {
+          enchantments.add(enchantment);
+        }
+      }
+      EnchantingTable table = new EnchantingTable(enchantments, new Enchantability(sample.enchantability()));
+      return new TableInputs(sample.operation(), table, sample.level(), sample.seed());
+    }
+
+    private int apply(Random random) {
+      random.setSeed(seed);
+      return switch (operation) {
+        case OFFER -> {
+          EnchantmentOffer offer = table.getOffer(random, level);
+          yield offer == null ? 0 : offer.getEnchantmentLevel();
+        }
+        case APPLY -> table.apply(random, level).size();
+      };
+    }
+
+  }
+
+  private InputReplay() {}
+
+}
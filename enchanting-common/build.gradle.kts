@@ -1,4 +1,5 @@
 plugins {
+  `java-test-fixtures`
   alias(libs.plugins.shadow)
 }
 
@@ -11,6 +12,10 @@ dependencies {
   implementation(libs.com.github.jikoo.planarwrappers)
 
   testImplementation(libs.org.spigotmc.spigot.api)
+
+  // Headless server stand-ins for tests, benchmarks, and simulations.
+  testFixturesCompileOnly(libs.org.spigotmc.spigot.api)
+  testFixturesCompileOnly(libs.org.jspecify.jspecify)
 }
 
 sourceSets {
@@ -15,4 +15,21 @@ public interface Anvil {
    */
   AnvilResult getResult(AnvilView view);
 
+  /**
+   * Produce an {@link AnvilCost} for an anvil based on its inputs. If the operation would not
+   * produce a result, the cost is {@link AnvilCost#EMPTY}.
+   *
+   * <p>Implementations may override this to avoid creating a result item.</p>
+   *
+   * @param view the {@link AnvilView} to calculate a cost for
+   * @return the {@code AnvilCost} produced
+   */
+  default AnvilCost getCost(AnvilView view) {
+    AnvilResult result = getResult(view);
+    if (result == AnvilResult.EMPTY) {
+      return AnvilCost.EMPTY;
+    }
+    return new AnvilCost(result.levelCost(), result.materialCost());
+  }
+
 }
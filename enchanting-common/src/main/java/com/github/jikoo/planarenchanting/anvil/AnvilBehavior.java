@@ -2,6 +2,7 @@ package com.github.jikoo.planarenchanting.anvil;
 
 import org.bukkit.enchantments.Enchantment;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Defines areas that are most likely to be modified for convenient {@link Anvil} manipulation.
@@ -29,6 +30,21 @@ public interface AnvilBehavior<T> {
     return enchant1.conflictsWith(enchant2);
   }
 
+  /**
+   * Get a token identifying the current state of the conflicts reported by
+   * {@link #enchantsConflict(Enchantment, Enchantment)}.
+   *
+   * <p>{@link CombineEnchants} precomputes conflicts for behaviors returning a token and reuses
+   * them until a different token (compared by identity) is returned. Behaviors whose conflicts
+   * depend on configuration or other state must return {@code null}, the default, or a new token
+   * whenever that state changes.</p>
+   *
+   * @return the conflict version, or {@code null} if conflicts must be checked on every use
+   */
+  default @Nullable Object getConflictVersion() {
+    return null;
+  }
+
   /**
    * Get the maximum level for an {@link Enchantment}.
    *
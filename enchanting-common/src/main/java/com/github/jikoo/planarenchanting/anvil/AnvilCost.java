@@ -0,0 +1,14 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+/**
+ * A container for the cost of an anvil operation without its resulting item.
+ *
+ * @see AnvilResult
+ * @param levelCost the number of levels to be consumed by the operation
+ * @param materialCost the amount of items to be consumed from the addition slot
+ */
+public record AnvilCost(int levelCost, int materialCost) {
+
+  public static final AnvilCost EMPTY = new AnvilCost(0, 0);
+
+}
@@ -35,4 +35,19 @@ public interface AnvilFunction<T> {
    */
   AnvilFunctionResult<T> getResult(AnvilBehavior<T> behavior, ViewState<T> state, T result);
 
+  /**
+   * Check if the function never reads or modifies the existing result passed to it, relying only
+   * on the {@link ViewState}. Results of such functions can be computed without creating the
+   * result item, i.e. when only costs are needed. In that case, the base item is passed in place
+   * of the result and must not be modified.
+   *
+   * <p>Functions that do not ignore the result are always passed the real result item. Note that
+   * this forces it to be created.</p>
+   *
+   * @return whether the function ignores the existing result
+   */
+  default boolean ignoresResult() {
+    return false;
+  }
+
 }
@@ -0,0 +1,59 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A Java Flight Recorder event for applying an {@link AnvilFunction} to a {@link WorkPiece}.
+ *
+ * <p>Functions are applied several times per result, so the event is disabled by default. When
+ * enabled, events nest within the {@link AnvilResultEvent} of the operation on the same thread.
+ * Fields are only populated if the event will be committed.</p>
+ */
+@NullMarked
+@Name("com.github.jikoo.planarenchanting.AnvilFunction")
+@Label("Anvil Function")
+@Category({"Planar Enchanting", "Anvil"})
+@Description("Application of an anvil function")
+@Enabled(false)
+@StackTrace(false)
+final class AnvilFunctionEvent extends Event {
+
+  @Label("Function")
+  @Description("The class of the function applied")
+  @Nullable Class<?> function;
+
+  @Label("Applied")
+  @Description("Whether the function could apply")
+  boolean applied;
+
+  @Label("Level Cost")
+  @Description("The level cost of the piece after the function was applied")
+  int levelCost;
+
+  /**
+   * Populate and commit the event if it is enabled and over its threshold.
+   *
+   * @param function the function applied
+   * @param applied whether the function could apply
+   * @param levelCost the level cost of the piece after the function was applied
+   */
+  void complete(AnvilFunction<?> function, boolean applied, int levelCost) {
+    if (!shouldCommit()) {
+      return;
+    }
+
+    this.function = function.getClass();
+    this.applied = applied;
+    this.levelCost = levelCost;
+    commit();
+  }
+
+}
@@ -9,7 +9,12 @@ import org.jspecify.annotations.NullMarked;
 public interface AnvilFunctionResult<T> {
 
   /** Constant representing a result that does nothing. */
-  AnvilFunctionResult<?> EMPTY = new AnvilFunctionResult<>() {};
+  AnvilFunctionResult<?> EMPTY = new AnvilFunctionResult<>() {
+    @Override
+    public boolean changesResult() {
+      return false;
+    }
+  };
 
   @SuppressWarnings("unchecked")
   static <T> AnvilFunctionResult<T> empty() {
@@ -42,4 +47,17 @@ public interface AnvilFunctionResult<T> {
    */
   default void modifyResult(T modified) {}
 
+  /**
+   * Check if {@link #modifyResult(Object)} makes a meaningful change to the result. Changes that
+   * a {@link Temperer} ignores, such as updating the prior work penalty, are not meaningful.
+   *
+   * <p>This is used in place of {@link Temperer#hasChanged(Object, Object, Object)} when only
+   * the cost of an operation is required and no result is created.</p>
+   *
+   * @return whether the result is meaningfully changed
+   */
+  default boolean changesResult() {
+    return true;
+  }
+
 }
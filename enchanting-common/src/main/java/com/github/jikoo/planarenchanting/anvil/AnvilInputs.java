@@ -0,0 +1,46 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A snapshot of the inputs of an anvil. Items are copies, so a snapshot may be used off of the
+ * main thread while the anvil continues to be modified.
+ *
+ * @param base the base item
+ * @param addition the added item
+ * @param renameText the text entered in the rename field
+ * @param maximumRepairCost the maximum level cost of the anvil
+ */
+@NullMarked
+public record AnvilInputs(
+    @Nullable ItemStack base,
+    @Nullable ItemStack addition,
+    @Nullable String renameText,
+    int maximumRepairCost
+) {
+
+  /**
+   * Capture the current inputs of an {@link AnvilView}. This must be done on the main thread.
+   *
+   * @param view the {@code AnvilView}
+   * @return the captured inputs
+   */
+  public static AnvilInputs capture(AnvilView view) {
+    AnvilInventory anvil = view.getTopInventory();
+    return new AnvilInputs(
+        copy(anvil.getItem(0)),
+        copy(anvil.getItem(1)),
+        view.getRenameText(),
+        view.getMaximumRepairCost()
+    );
+  }
+
+  private static @Nullable ItemStack copy(@Nullable ItemStack itemStack) {
+    return itemStack != null ? itemStack.clone() : null;
+  }
+
+}
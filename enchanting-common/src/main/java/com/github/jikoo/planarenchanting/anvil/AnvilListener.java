@@ -0,0 +1,406 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import com.github.jikoo.planarenchanting.util.Ledger;
+import com.github.jikoo.planarenchanting.util.LedgerEntry;
+import com.github.jikoo.planarenchanting.util.LedgerSink;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.PrepareAnvilEvent;
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.bukkit.plugin.Plugin;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An abstraction to remove the boilerplate of producing anvil results.
+ *
+ * <p>Results are set when the anvil is prepared. Costs are applied one tick later, when all views
+ * prepared during the tick are updated at once. A view prepared repeatedly with the same inputs
+ * before its costs are applied reuses its result.</p>
+ *
+ * <p>To protect the server from clients spamming inventory changes, the number of results
+ * computed for each player per second is limited. Views prepared by a player over the limit have
+ * their result cleared until the player may compute again, at which point the result is produced
+ * from the inputs in place at that time.</p>
+ *
+ * <p>Each result is issued an {@link AnvilTicket} for its view. When a player takes the result,
+ * the ticket is checked against the anvil instead of producing the result again. If the anvil has
+ * changed since the result was produced, the result is produced again and the take is cancelled
+ * unless the result is unchanged.</p>
+ *
+ * <p>If a {@link LedgerSink} is installed, an entry is recorded when a player takes a result.
+ * Prepared results are not recorded, as they change with every input.</p>
+ */
+@NullMarked
+public abstract class AnvilListener implements Listener {
+
+  private static final int DEFAULT_MAXIMUM_COMPUTES = 20;
+  private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final int RESULT_SLOT = 2;
+  private static final AnvilTicketIssuer DEFAULT_ISSUER = new AnvilTicketIssuer();
+
+  private final Plugin plugin;
+  private final int maximumComputes;
+  private final Map<AnvilView, Prepared> prepared = new LinkedHashMap<>();
+  private final Set<AnvilView> throttled = new LinkedHashSet<>();
+  private final Map<AnvilView, AnvilTicket> tickets = new HashMap<>();
+  private final Map<UUID, Throttle> throttles = new HashMap<>();
+  private boolean flushScheduled = false;
+
+  /**
+   * Construct a new {@code AnvilListener}.
+   *
+   * @param plugin the owning plugin
+   */
+  protected AnvilListener(Plugin plugin) {
+    this(plugin, DEFAULT_MAXIMUM_COMPUTES);
+  }
+
+  /**
+   * Construct a new {@code AnvilListener}.
+   *
+   * @param plugin the owning plugin
+   * @param maximumComputesPerSecond the maximum number of results computed per player per second
+   */
+  protected AnvilListener(Plugin plugin, int maximumComputesPerSecond) {
+    if (maximumComputesPerSecond < 1) {
+      throw new IllegalArgumentException("Maximum computes must be positive");
+    }
+    this.plugin = plugin;
+    this.maximumComputes = maximumComputesPerSecond;
+  }
+
+  @EventHandler
+  public final void onPrepareAnvil(PrepareAnvilEvent event) {
+    AnvilView view = event.getView();
+
+    // Get the Anvil instance to be used.
+    Anvil anvil = getAnvil(view);
+    if (anvil == null) {
+      return;
+    }
+
+    AnvilInventory inventory = view.getTopInventory();
+    ItemStack base = inventory.getItem(0);
+    ItemStack addition = inventory.getItem(1);
+    String renameText = view.getRenameText();
+
+    Prepared previous = prepared.get(view);
+    if (previous != null && previous.matches(base, addition, renameText)) {
+      // Repeated prepare before costs were applied, reuse the result.
+      event.setResult(previous.result.item());
+      return;
+    }
+
+    if (!tryCompute(view.getPlayer().getUniqueId())) {
+      // Clear the result until the player is allowed to compute again.
+      prepared.remove(view);
+      tickets.remove(view);
+      throttled.add(view);
+      event.setResult(null);
+      scheduleFlush();
+      return;
+    }
+
+    throttled.remove(view);
+    AnvilResult result = issue(view, anvil.getResult(view));
+    event.setResult(result.item());
+    prepared.put(view, new Prepared(result, copy(base), copy(addition), renameText));
+    scheduleFlush();
+  }
+
+  @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+  public final void onTakeResult(InventoryClickEvent event) {
+    if (event.getRawSlot() != RESULT_SLOT
+        || event.getAction() == InventoryAction.NOTHING
+        || !(event.getView() instanceof AnvilView view)) {
+      return;
+    }
+
+    AnvilTicketIssuer issuer = getTicketIssuer();
+    Anvil anvil = getAnvil(view);
+    if (issuer == null || anvil == null || isEmpty(view.getTopInventory().getItem(RESULT_SLOT))) {
+      return;
+    }
+
+    AnvilTicket ticket = tickets.get(view);
+    if (ticket != null && issuer.isValid(ticket, view)) {
+      return;
+    }
+
+    // The anvil has changed since the result was produced.
+    if (!tryCompute(view.getPlayer().getUniqueId())) {
+      event.setCancelled(true);
+      return;
+    }
+
+    AnvilResult result = issue(view, anvil.getResult(view));
+    if (isSame(view.getTopInventory().getItem(RESULT_SLOT), result.item())
+        && view.getRepairCost() == result.levelCost()
+        && view.getRepairItemCountCost() == result.materialCost()) {
+      return;
+    }
+
+    event.setCancelled(true);
+    view.setItem(RESULT_SLOT, result.item());
+    applyCosts(view, result);
+  }
+
+  @EventHandler
+  public final void onInventoryClose(InventoryCloseEvent event) {
+    if (event.getView() instanceof AnvilView view) {
+      tickets.remove(view);
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public final void onInventoryClick(InventoryClickEvent event) {
+    if (event.getRawSlot() != RESULT_SLOT
+        || event.getAction() == InventoryAction.NOTHING
+        || !(event.getView() instanceof AnvilView view)) {
+      return;
+    }
+
+    LedgerSink ledger = Ledger.getSink();
+    if (ledger == null || getAnvil(view) == null) {
+      return;
+    }
+
+    AnvilInventory inventory = view.getTopInventory();
+    ItemStack result = inventory.getItem(RESULT_SLOT);
+    int levelCost = view.getRepairCost();
+    if (isEmpty(result) || !canTake(view.getPlayer(), levelCost)) {
+      return;
+    }
+
+    // Only results actually taken are recorded; previews change with every input.
+    ItemStack base = inventory.getItem(0);
+    ItemStack addition = inventory.getItem(1);
+    CombineEnchants.Platform platform = getPlatform(view);
+    ledger.record(LedgerEntry.anvil(
+        isEmpty(base) ? null : base,
+        isEmpty(addition) ? null : addition,
+        result,
+        levelCost,
+        view.getRepairItemCountCost(),
+        platform == null ? null : platform.name()));
+  }
+
+  /**
+   * Get the {@link Anvil} instance for the operation being performed. If {@code null}, the
+   * vanilla result is not modified.
+   *
+   * @param view the {@link AnvilView} being prepared
+   * @return the {@code Anvil}
+   */
+  protected abstract @Nullable Anvil getAnvil(AnvilView view);
+
+  /**
+   * Get the platform whose costs are used for the operation being performed. This is only used to
+   * label the {@link LedgerEntry LedgerEntries} recorded when results are taken.
+   *
+   * @param view the {@link AnvilView} being prepared
+   * @return the platform or {@code null} if unknown
+   */
+  protected CombineEnchants.@Nullable Platform getPlatform(AnvilView view) {
+    return null;
+  }
+
+  /**
+   * Get the {@link AnvilTicketIssuer} used to validate results when they are taken. By default,
+   * tickets only fingerprint item types and amounts. If {@code null}, results are not validated.
+   *
+   * @return the {@code AnvilTicketIssuer}
+   * @see AnvilTicketIssuer#AnvilTicketIssuer(com.github.jikoo.planarenchanting.util.ItemFingerprinter)
+   */
+  protected @Nullable AnvilTicketIssuer getTicketIssuer() {
+    return DEFAULT_ISSUER;
+  }
+
+  private AnvilResult issue(AnvilView view, AnvilResult result) {
+    AnvilTicketIssuer issuer = getTicketIssuer();
+    if (issuer == null) {
+      return result;
+    }
+
+    result = issuer.issue(view, result);
+    AnvilTicket ticket = result.ticket();
+    if (ticket == null) {
+      tickets.remove(view);
+    } else {
+      tickets.put(view, ticket);
+    }
+    return result;
+  }
+
+  private void scheduleFlush() {
+    if (flushScheduled) {
+      return;
+    }
+
+    flushScheduled = true;
+    // Depending on the server implementation, costs set during the prepare event may be replaced.
+    plugin.getServer().getScheduler().runTask(plugin, this::flush);
+  }
+
+  /**
+   * Apply costs to all views prepared since the last flush and compute results for any throttled
+   * views whose players are allowed to compute again.
+   */
+  void flush() {
+    flushScheduled = false;
+
+    for (Map.Entry<AnvilView, Prepared> entry : prepared.entrySet()) {
+      AnvilView view = entry.getKey();
+      AnvilResult result = entry.getValue().result;
+      // Only apply costs if the result has not been changed since it was set.
+      if (isOpen(view) && isSame(view.getTopInventory().getItem(RESULT_SLOT), result.item())) {
+        applyCosts(view, result);
+      }
+    }
+    prepared.clear();
+
+    Iterator<AnvilView> iterator = throttled.iterator();
+    while (iterator.hasNext()) {
+      AnvilView view = iterator.next();
+      if (!isOpen(view)) {
+        iterator.remove();
+        continue;
+      }
+
+      if (!tryCompute(view.getPlayer().getUniqueId())) {
+        continue;
+      }
+
+      iterator.remove();
+      Anvil anvil = getAnvil(view);
+      if (anvil != null) {
+        AnvilResult result = issue(view, anvil.getResult(view));
+        view.setItem(RESULT_SLOT, result.item());
+        applyCosts(view, result);
+      }
+    }
+
+    long now = System.nanoTime();
+    throttles.values().removeIf(throttle -> now - throttle.windowStart >= WINDOW_NANOS);
+
+    if (!throttled.isEmpty()) {
+      scheduleFlush();
+    }
+  }
+
+  private boolean tryCompute(UUID player) {
+    long now = System.nanoTime();
+    Throttle throttle = throttles.get(player);
+    if (throttle == null || now - throttle.windowStart >= WINDOW_NANOS) {
+      throttle = new Throttle(now);
+      throttles.put(player, throttle);
+    }
+
+    if (throttle.computes >= maximumComputes) {
+      return false;
+    }
+
+    ++throttle.computes;
+    return true;
+  }
+
+  private static void applyCosts(AnvilView view, AnvilResult result) {
+    view.setRepairItemCountCost(result.materialCost());
+    view.setRepairCost(result.levelCost());
+  }
+
+  private static boolean canTake(HumanEntity player, int levelCost) {
+    // Vanilla never allows taking results without a level cost and requires levels outside creative.
+    if (levelCost <= 0) {
+      return false;
+    }
+    return player.getGameMode() == GameMode.CREATIVE
+        || player instanceof Player taker && taker.getLevel() >= levelCost;
+  }
+
+  private static boolean isOpen(AnvilView view) {
+    return view.getPlayer().getOpenInventory().getTopInventory() == view.getTopInventory();
+  }
+
+  private static boolean isSame(@Nullable ItemStack current, ItemStack expected) {
+    if (isEmpty(current)) {
+      return isEmpty(expected);
+    }
+    return current.equals(expected);
+  }
+
+  private static boolean isEmpty(@Nullable ItemStack itemStack) {
+    return itemStack == null || itemStack.getType() == Material.AIR || itemStack.getAmount() < 1;
+  }
+
+  private static @Nullable ItemStack copy(@Nullable ItemStack itemStack) {
+    return isEmpty(itemStack) ? null : itemStack.clone();
+  }
+
+  /**
+   * A result set during the current tick.
+   *
+   * @param result the result
+   * @param base a copy of the base item
+   * @param addition a copy of the added item
+   * @param renameText the rename text
+   */
+  private record Prepared(
+      AnvilResult result,
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      @Nullable String renameText
+  ) {
+
+    private boolean matches(
+        @Nullable ItemStack base,
+        @Nullable ItemStack addition,
+        @Nullable String renameText
+    ) {
+      return Objects.equals(this.base, orNull(base))
+          && Objects.equals(this.addition, orNull(addition))
+          && Objects.equals(this.renameText, renameText);
+    }
+
+    private static @Nullable ItemStack orNull(@Nullable ItemStack itemStack) {
+      // Empty items are stored as null.
+      return isEmpty(itemStack) ? null : itemStack;
+    }
+
+  }
+
+  /**
+   * The computations performed by a player during the current window.
+   */
+  private static final class Throttle {
+
+    private final long windowStart;
+    private int computes;
+
+    private Throttle(long windowStart) {
+      this.windowStart = windowStart;
+    }
+
+  }
+
+}
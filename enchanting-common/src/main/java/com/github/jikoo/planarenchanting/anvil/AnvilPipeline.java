@@ -0,0 +1,460 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A compiled sequence of {@link AnvilFunction AnvilFunctions} producing an anvil outcome.
+ *
+ * <p>Each step declares the {@link Input Inputs} its function reads and the {@link Aspect Aspects}
+ * of the result it writes. When the pipeline is built, the steps are compiled into one flat plan
+ * for operations with an addition and one for operations without. Steps reading the addition are
+ * removed from the latter, so they are never checked when no addition is present.</p>
+ *
+ * <p>A step may be declared as an alternative to the steps before it, in which case it is only
+ * applied if none of them applied. This is how vanilla only combines durability if the addition is
+ * not a repair material.</p>
+ *
+ * <p>The pipeline produced by {@link #vanilla(AnvilFunctionsProvider)} produces the same outcomes
+ * as {@link PlanarForge}. Custom functions may be inserted into it via {@link #toBuilder()}.</p>
+ *
+ * @param <T> the type of the input and output items
+ */
+@NullMarked
+public final class AnvilPipeline<T> {
+
+  /**
+   * An input of an anvil operation that a function may read.
+   */
+  public enum Input {
+    /** The base item. */
+    BASE,
+    /** The added item. Functions reading the addition are only applied if it is present. */
+    ADDITION,
+    /** The rename text. */
+    RENAME_TEXT
+  }
+
+  /**
+   * A portion of an anvil outcome that a function may write.
+   */
+  public enum Aspect {
+    /** The number of levels consumed. */
+    LEVEL_COST(false),
+    /** The amount of items consumed from the addition slot. */
+    MATERIAL_COST(false),
+    /** The name of the result. */
+    NAME(true),
+    /** The prior work cost of the result. */
+    PRIOR_WORK(true),
+    /** The durability of the result. */
+    DURABILITY(true),
+    /** The enchantments of the result. */
+    ENCHANTMENTS(true),
+    /** Any other data of the result. */
+    OTHER(true);
+
+    private final boolean modifiesItem;
+
+    Aspect(boolean modifiesItem) {
+      this.modifiesItem = modifiesItem;
+    }
+
+    /**
+     * Get whether the aspect is a part of the result item rather than a cost.
+     *
+     * @return whether the aspect modifies the result item
+     */
+    public boolean modifiesItem() {
+      return modifiesItem;
+    }
+  }
+
+  private final List<Declaration<T>> declarations;
+  private final Step<T>[] withAddition;
+  private final Step<T>[] withoutAddition;
+
+  private AnvilPipeline(List<Declaration<T>> declarations) {
+    this.declarations = List.copyOf(declarations);
+    this.withAddition = compile(this.declarations, true);
+    this.withoutAddition = compile(this.declarations, false);
+  }
+
+  /**
+   * Create a new empty {@link Builder}.
+   *
+   * @return the {@code Builder}
+   * @param <T> the type of the input and output items
+   */
+  public static <T> Builder<T> builder() {
+    return new Builder<>(List.of());
+  }
+
+  /**
+   * Create a pipeline applying the functions of a provider in the same order as vanilla.
+   *
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @return the vanilla pipeline
+   * @param <T> the type of the input and output items
+   */
+  public static <T> AnvilPipeline<T> vanilla(AnvilFunctionsProvider<T> functions) {
+    return AnvilPipeline.<T>builder()
+        .add(
+            functions.addPriorWorkLevelCost(),
+            EnumSet.of(Input.BASE),
+            EnumSet.of(Aspect.LEVEL_COST)
+        )
+        .add(
+            functions.rename(),
+            EnumSet.of(Input.BASE, Input.RENAME_TEXT),
+            EnumSet.of(Aspect.NAME, Aspect.LEVEL_COST)
+        )
+        // Apply prior work cost after rename.
+        // Rename also applies a prior work cost but does not increase it.
+        .add(
+            functions.setItemPriorWork(),
+            EnumSet.of(Input.BASE, Input.ADDITION),
+            EnumSet.of(Aspect.PRIOR_WORK)
+        )
+        .add(
+            functions.repairWithMaterial(),
+            EnumSet.of(Input.BASE, Input.ADDITION),
+            EnumSet.of(Aspect.DURABILITY, Aspect.LEVEL_COST, Aspect.MATERIAL_COST)
+        )
+        // Only do combination repair if this is not a material repair.
+        .otherwise(
+            functions.repairWithCombine(),
+            EnumSet.of(Input.BASE, Input.ADDITION),
+            EnumSet.of(Aspect.DURABILITY, Aspect.LEVEL_COST)
+        )
+        .add(
+            functions.combineEnchantsJava(),
+            EnumSet.of(Input.BASE, Input.ADDITION),
+            EnumSet.of(Aspect.ENCHANTMENTS, Aspect.LEVEL_COST)
+        )
+        .build();
+  }
+
+  /**
+   * Create a new {@link Builder} containing the steps of this pipeline.
+   *
+   * @return the {@code Builder}
+   */
+  public Builder<T> toBuilder() {
+    return new Builder<>(declarations);
+  }
+
+  /**
+   * Get the functions applied, in order, for an operation with or without an addition.
+   *
+   * @param hasAddition whether the addition is present
+   * @return the functions applied
+   */
+  public List<AnvilFunction<T>> getFunctions(boolean hasAddition) {
+    List<AnvilFunction<T>> functions = new ArrayList<>();
+    for (Step<T> step : hasAddition ? withAddition : withoutAddition) {
+      functions.add(step.function);
+    }
+    return functions;
+  }
+
+  /**
+   * Produce an outcome by applying the compiled steps to a {@link WorkPiece}, refusing any
+   * modification once its level cost reaches a budget.
+   *
+   * @param piece the {@code WorkPiece} to operate on
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param base the base item
+   * @param addition the added item
+   * @param finish the method of finalizing the piece
+   * @param empty the outcome if no operation is occurring
+   * @param budget the level cost at which modifications are refused
+   * @param refuse the method of producing an outcome for a refused piece
+   * @param <R> the type of the outcome
+   * @return the outcome produced
+   */
+  <R> R forge(
+      WorkPiece<T> piece,
+      AnvilBehavior<T> behavior,
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      Function<WorkPiece<T>, R> finish,
+      R empty,
+      int budget,
+      Function<WorkPiece<T>, R> refuse
+  ) {
+    if (isEmpty(base)) {
+      return empty;
+    }
+
+    boolean hasAddition = !isEmpty(addition);
+    if (hasAddition && base.getAmount() != 1) {
+      // Multi-renames are allowed, multi-modifications are not.
+      return empty;
+    }
+
+    Step<T>[] steps = hasAddition ? withAddition : withoutAddition;
+    // Renaming without an addition is never refused.
+    int limit = hasAddition ? budget : Integer.MAX_VALUE;
+    boolean changed = false;
+    boolean alternativeApplied = false;
+
+    for (Step<T> step : steps) {
+      if (step.alternative && alternativeApplied) {
+        continue;
+      }
+
+      boolean applied = piece.apply(behavior, step.function);
+      alternativeApplied = applied;
+      changed |= applied && step.modifiesItem;
+
+      if (step.costsLevels && piece.getLevelCost() >= limit) {
+        return refuse.apply(piece);
+      }
+    }
+
+    if (!hasAddition && !changed) {
+      // Without an addition, nothing is happening unless the item is modified.
+      return empty;
+    }
+
+    return finish.apply(piece);
+  }
+
+  private static <T> Step<T>[] compile(List<Declaration<T>> declarations, boolean hasAddition) {
+    List<Step<T>> steps = new ArrayList<>(declarations.size());
+    // Whether a step of the current group of alternatives remains after pruning.
+    boolean groupRemains = false;
+
+    for (Declaration<T> declaration : declarations) {
+      boolean alternative = declaration.alternative && groupRemains;
+      if (!declaration.alternative) {
+        groupRemains = false;
+      }
+
+      if (!hasAddition && declaration.reads.contains(Input.ADDITION)) {
+        continue;
+      }
+
+      groupRemains = true;
+      steps.add(new Step<>(
+          declaration.function,
+          alternative,
+          declaration.writes.stream().anyMatch(Aspect::modifiesItem),
+          declaration.writes.contains(Aspect.LEVEL_COST)
+      ));
+    }
+
+    @SuppressWarnings("unchecked")
+    Step<T>[] array = steps.toArray(new Step[0]);
+    return array;
+  }
+
+  private static boolean isEmpty(@Nullable ItemStack itemStack) {
+    return itemStack == null || itemStack.getType() == Material.AIR || itemStack.getAmount() < 1;
+  }
+
+  /**
+   * A builder for an {@link AnvilPipeline}.
+   *
+   * <p>Steps are identified by their function. When inserting relative to an existing step, new
+   * steps are never placed between a step and its alternatives.</p>
+   *
+   * @param <T> the type of the input and output items
+   */
+  public static final class Builder<T> {
+
+    private final List<Declaration<T>> declarations;
+
+    private Builder(List<Declaration<T>> declarations) {
+      this.declarations = new ArrayList<>(declarations);
+    }
+
+    /**
+     * Add a step to the end of the pipeline.
+     *
+     * @param function the {@link AnvilFunction} to apply
+     * @param reads the {@link Input Inputs} read by the function
+     * @param writes the {@link Aspect Aspects} written by the function
+     * @return the builder
+     */
+    public Builder<T> add(AnvilFunction<T> function, Set<Input> reads, Set<Aspect> writes) {
+      declarations.add(new Declaration<>(function, reads, writes, false));
+      return this;
+    }
+
+    /**
+     * Add a step to the end of the pipeline that is only applied if neither the previous step nor
+     * any of its alternatives applied.
+     *
+     * @param function the {@link AnvilFunction} to apply
+     * @param reads the {@link Input Inputs} read by the function
+     * @param writes the {@link Aspect Aspects} written by the function
+     * @return the builder
+     * @throws IllegalStateException if there is no previous step
+     */
+    public Builder<T> otherwise(AnvilFunction<T> function, Set<Input> reads, Set<Aspect> writes) {
+      if (declarations.isEmpty()) {
+        throw new IllegalStateException("Alternative must follow another step");
+      }
+      declarations.add(new Declaration<>(function, reads, writes, true));
+      return this;
+    }
+
+    /**
+     * Insert a step before an existing step and its alternatives.
+     *
+     * @param existing the {@link AnvilFunction} of the existing step
+     * @param function the {@code AnvilFunction} to apply
+     * @param reads the {@link Input Inputs} read by the function
+     * @param writes the {@link Aspect Aspects} written by the function
+     * @return the builder
+     * @throws IllegalArgumentException if the existing step is not present
+     */
+    public Builder<T> addBefore(
+        AnvilFunction<T> existing,
+        AnvilFunction<T> function,
+        Set<Input> reads,
+        Set<Aspect> writes
+    ) {
+      int index = indexOf(existing);
+      while (declarations.get(index).alternative) {
+        --index;
+      }
+      declarations.add(index, new Declaration<>(function, reads, writes, false));
+      return this;
+    }
+
+    /**
+     * Insert a step after an existing step and its alternatives.
+     *
+     * @param existing the {@link AnvilFunction} of the existing step
+     * @param function the {@code AnvilFunction} to apply
+     * @param reads the {@link Input Inputs} read by the function
+     * @param writes the {@link Aspect Aspects} written by the function
+     * @return the builder
+     * @throws IllegalArgumentException if the existing step is not present
+     */
+    public Builder<T> addAfter(
+        AnvilFunction<T> existing,
+        AnvilFunction<T> function,
+        Set<Input> reads,
+        Set<Aspect> writes
+    ) {
+      int index = indexOf(existing) + 1;
+      while (index < declarations.size() && declarations.get(index).alternative) {
+        ++index;
+      }
+      declarations.add(index, new Declaration<>(function, reads, writes, false));
+      return this;
+    }
+
+    /**
+     * Replace the function of an existing step. The step remains an alternative if it was one.
+     *
+     * @param existing the {@link AnvilFunction} of the existing step
+     * @param function the {@code AnvilFunction} to apply instead
+     * @param reads the {@link Input Inputs} read by the function
+     * @param writes the {@link Aspect Aspects} written by the function
+     * @return the builder
+     * @throws IllegalArgumentException if the existing step is not present
+     */
+    public Builder<T> replace(
+        AnvilFunction<T> existing,
+        AnvilFunction<T> function,
+        Set<Input> reads,
+        Set<Aspect> writes
+    ) {
+      int index = indexOf(existing);
+      boolean alternative = declarations.get(index).alternative;
+      declarations.set(index, new Declaration<>(function, reads, writes, alternative));
+      return this;
+    }
+
+    /**
+     * Remove an existing step. If the step had alternatives, the first of them takes its place.
+     *
+     * @param existing the {@link AnvilFunction} of the existing step
+     * @return the builder
+     * @throws IllegalArgumentException if the existing step is not present
+     */
+    public Builder<T> remove(AnvilFunction<T> existing) {
+      int index = indexOf(existing);
+      Declaration<T> removed = declarations.remove(index);
+      if (!removed.alternative && index < declarations.size()) {
+        Declaration<T> next = declarations.get(index);
+        if (next.alternative) {
+          declarations.set(
+              index,
+              new Declaration<>(next.function, next.reads, next.writes, false)
+          );
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Compile the steps into an {@link AnvilPipeline}.
+     *
+     * @return the {@code AnvilPipeline}
+     */
+    public AnvilPipeline<T> build() {
+      return new AnvilPipeline<>(declarations);
+    }
+
+    private int indexOf(AnvilFunction<T> function) {
+      for (int index = 0; index < declarations.size(); ++index) {
+        if (declarations.get(index).function == function) {
+          return index;
+        }
+      }
+      throw new IllegalArgumentException("Function is not a step of the pipeline");
+    }
+
+  }
+
+  /**
+   * A declared step of a pipeline.
+   *
+   * @param function the function applied
+   * @param reads the inputs read by the function
+   * @param writes the aspects written by the function
+   * @param alternative whether the step is only applied if the previous steps did not apply
+   */
+  private record Declaration<T>(
+      AnvilFunction<T> function,
+      Set<Input> reads,
+      Set<Aspect> writes,
+      boolean alternative
+  ) {
+
+    private Declaration {
+      reads = reads.isEmpty() ? EnumSet.noneOf(Input.class) : EnumSet.copyOf(reads);
+      writes = writes.isEmpty() ? EnumSet.noneOf(Aspect.class) : EnumSet.copyOf(writes);
+    }
+
+  }
+
+  /**
+   * A compiled step of a pipeline. Declarations are reduced to the flags checked while forging.
+   *
+   * @param function the function applied
+   * @param alternative whether the step is skipped if the previous steps applied
+   * @param modifiesItem whether the function writes to the result item
+   * @param costsLevels whether the function may increase the level cost
+   */
+  private record Step<T>(
+      AnvilFunction<T> function,
+      boolean alternative,
+      boolean modifiesItem,
+      boolean costsLevels
+  ) {}
+
+}
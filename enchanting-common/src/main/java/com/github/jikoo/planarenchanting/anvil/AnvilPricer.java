@@ -0,0 +1,164 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A producer of anvil results for inputs that do not belong to an anvil, i.e. for pricing many
+ * potential combinations at once.
+ *
+ * <p>Batches are evaluated in parallel on a pool owned by the pricer. Results are streamed to a
+ * consumer as they are produced, so the consumer must be safe to call from multiple threads.
+ * Input items are read concurrently and must not be modified until the batch completes. The
+ * {@link AnvilBehavior} in use must also be safe to use from multiple threads.</p>
+ *
+ * <p>The pool is released when the pricer is {@link #close() closed}.</p>
+ *
+ * @param <T> the type of the input and output items
+ */
+@NullMarked
+public final class AnvilPricer<T> implements AutoCloseable {
+
+  private final Function<AnvilInputs, WorkPiece<T>> createPiece;
+  private final AnvilBehavior<T> behavior;
+  private final AnvilFunctionsProvider<T> functions;
+  private final ForkJoinPool pool;
+
+  /**
+   * Construct a new {@code AnvilPricer} using one thread per available processor.
+   *
+   * @param createPiece the method for creating a {@link WorkPiece} from inputs
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   */
+  public AnvilPricer(
+      Function<AnvilInputs, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions
+  ) {
+    this(createPiece, behavior, functions, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Construct a new {@code AnvilPricer}.
+   *
+   * @param createPiece the method for creating a {@link WorkPiece} from inputs
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param parallelism the maximum number of threads used to evaluate batches
+   */
+  public AnvilPricer(
+      Function<AnvilInputs, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      int parallelism
+  ) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    this.createPiece = createPiece;
+    this.behavior = behavior;
+    this.functions = functions;
+    this.pool = new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Produce an {@link AnvilResult} for inputs on the calling thread.
+   *
+   * @param inputs the inputs
+   * @return the {@code AnvilResult} produced
+   */
+  public AnvilResult getResult(AnvilInputs inputs) {
+    return PlanarForge.forge(
+        createPiece.apply(inputs),
+        behavior,
+        functions,
+        inputs.base(),
+        inputs.addition(),
+        WorkPiece::temper,
+        AnvilResult.EMPTY
+    );
+  }
+
+  /**
+   * Produce an {@link AnvilCost} for inputs on the calling thread without creating a result item.
+   *
+   * @param inputs the inputs
+   * @return the {@code AnvilCost} produced
+   */
+  public AnvilCost getCost(AnvilInputs inputs) {
+    WorkPiece<T> piece = createPiece.apply(inputs);
+    piece.setCostOnly();
+    return PlanarForge.forge(
+        piece,
+        behavior,
+        functions,
+        inputs.base(),
+        inputs.addition(),
+        WorkPiece::appraise,
+        AnvilCost.EMPTY
+    );
+  }
+
+  /**
+   * Produce {@link AnvilResult AnvilResults} for a batch of inputs in parallel.
+   *
+   * @param batch the inputs to evaluate
+   * @param consumer the consumer of each input and its result
+   * @return a future completing once all inputs have been evaluated
+   */
+  public CompletableFuture<Void> getResults(
+      List<AnvilInputs> batch,
+      BiConsumer<? super AnvilInputs, ? super AnvilResult> consumer
+  ) {
+    return evaluate(batch, this::getResult, consumer);
+  }
+
+  /**
+   * Produce {@link AnvilCost AnvilCosts} for a batch of inputs in parallel without creating
+   * result items.
+   *
+   * @param batch the inputs to evaluate
+   * @param consumer the consumer of each input and its cost
+   * @return a future completing once all inputs have been evaluated
+   */
+  public CompletableFuture<Void> getCosts(
+      List<AnvilInputs> batch,
+      BiConsumer<? super AnvilInputs, ? super AnvilCost> consumer
+  ) {
+    return evaluate(batch, this::getCost, consumer);
+  }
+
+  /**
+   * Get the {@link Executor} evaluating batches. Tasks are rejected once the pricer is closed.
+   *
+   * @return the {@code Executor} owned by the pricer
+   */
+  Executor getExecutor() {
+    return pool;
+  }
+
+  private <R> CompletableFuture<Void> evaluate(
+      List<AnvilInputs> batch,
+      Function<AnvilInputs, R> evaluator,
+      BiConsumer<? super AnvilInputs, ? super R> consumer
+  ) {
+    // Parallel streams run in the pool that invokes them, bounding the threads in use.
+    return CompletableFuture.runAsync(
+        () -> batch.parallelStream()
+            .forEach(inputs -> consumer.accept(inputs, evaluator.apply(inputs))),
+        pool
+    );
+  }
+
+  @Override
+  public void close() {
+    pool.shutdown();
+  }
+
+}
@@ -3,6 +3,7 @@ package com.github.jikoo.planarenchanting.anvil;
 import com.github.jikoo.planarenchanting.util.ItemUtil;
 import org.bukkit.inventory.ItemStack;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A container for the result of an anvil operation.
@@ -13,9 +14,48 @@ import org.jspecify.annotations.NonNull;
  * @param item the result slot {@link ItemStack}
  * @param levelCost the number of levels to be consumed by the operation
  * @param materialCost the amount of items to be consumed from the addition slot
+ * @param ticket the {@link AnvilTicket} used to validate the result when taken, if issued
  */
-public record AnvilResult(@NonNull ItemStack item, int levelCost, int materialCost) {
+public record AnvilResult(
+    @NonNull ItemStack item,
+    int levelCost,
+    int materialCost,
+    @Nullable AnvilTicket ticket
+) {
 
   public static final AnvilResult EMPTY = new AnvilResult(ItemUtil.AIR, 0, 0);
 
+  /**
+   * Construct a new {@code AnvilResult} without a ticket.
+   *
+   * @param item the result slot {@link ItemStack}
+   * @param levelCost the number of levels to be consumed by the operation
+   * @param materialCost the amount of items to be consumed from the addition slot
+   */
+  public AnvilResult(@NonNull ItemStack item, int levelCost, int materialCost) {
+    this(item, levelCost, materialCost, null);
+  }
+
+  /**
+   * Create a copy of this result carrying a ticket.
+   *
+   * @param ticket the {@link AnvilTicket}
+   * @return the ticketed result
+   */
+  public @NonNull AnvilResult withTicket(@NonNull AnvilTicket ticket) {
+    return new AnvilResult(item, levelCost, materialCost, ticket);
+  }
+
+  /**
+   * Create a result for an operation refused for exceeding the maximum repair cost. No item is
+   * produced, but the level cost is retained so that the anvil displays the operation as too
+   * expensive.
+   *
+   * @param levelCost the number of levels the operation had reached when refused
+   * @return the refused result
+   */
+  public static AnvilResult tooExpensive(int levelCost) {
+    return new AnvilResult(ItemUtil.AIR, levelCost, 0);
+  }
+
 }
@@ -0,0 +1,376 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import com.github.jikoo.planarenchanting.util.ItemFingerprinter;
+import com.github.jikoo.planarenchanting.util.Metrics;
+import com.github.jikoo.planarenchanting.util.MetricsSink;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A size-bounded cache of {@link AnvilResult AnvilResults} that may be shared between
+ * {@link CachedAnvil CachedAnvils}.
+ *
+ * <p>Eviction is frequency-aware: when the cache is full, a new entry is only admitted if its
+ * inputs have been requested more frequently than those of the least recently used entry. This
+ * keeps popular combinations cached even when many one-off combinations are requested.</p>
+ *
+ * <p>Cached results depend on the {@link AnvilBehavior} and registry contents at the time they
+ * were produced. If either changes (i.e. a behavior's configuration is reloaded or datapacks are
+ * reloaded), the cache must be invalidated via {@link #invalidate(AnvilBehavior)} or
+ * {@link #invalidateAll()}.</p>
+ */
+@NullMarked
+public final class AnvilResultCache {
+
+  private final ItemFingerprinter fingerprinter;
+  private final int maximumSize;
+  private final Map<Key, AnvilResult> entries;
+  private final FrequencySketch sketch;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Construct a new {@code AnvilResultCache}.
+   *
+   * @param fingerprinter the {@link ItemFingerprinter} used to hash input items
+   * @param maximumSize the maximum number of results to retain
+   */
+  public AnvilResultCache(ItemFingerprinter fingerprinter, int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("Maximum size must be positive");
+    }
+    this.fingerprinter = fingerprinter;
+    this.maximumSize = maximumSize;
+    this.entries = new LinkedHashMap<>(16, 0.75F, true);
+    this.sketch = new FrequencySketch(maximumSize);
+  }
+
+  /**
+   * Create the key of an anvil operation. The key references the provided items without copying
+   * them, so it must not be retained past the operation. Keys are copied when they are
+   * {@link #put(Key, AnvilResult) stored}.
+   *
+   * @param forge the {@link PlanarForge} performing the operation
+   * @param base the base item
+   * @param addition the added item, or {@code null} if not present
+   * @param renameText the rename text
+   * @param maximumRepairCost the maximum repair cost of the anvil
+   * @param budgeted whether the operation is refused once it reaches the maximum repair cost
+   * @return the key of the operation
+   */
+  Key key(
+      PlanarForge<?> forge,
+      ItemStack base,
+      @Nullable ItemStack addition,
+      @Nullable String renameText,
+      int maximumRepairCost,
+      boolean budgeted
+  ) {
+    return new Key(
+        forge.getBehavior(),
+        forge.getFunctions(),
+        base,
+        fingerprinter.fingerprint(base),
+        base.getAmount(),
+        addition,
+        addition != null ? fingerprinter.fingerprint(addition) : 0,
+        addition != null ? addition.getAmount() : 0,
+        renameText,
+        maximumRepairCost,
+        budgeted
+    );
+  }
+
+  /**
+   * Get a cached result. The returned result is a copy that may be freely modified.
+   *
+   * @param key the key of the operation
+   * @return the cached result or {@code null} if not present
+   */
+  @Nullable AnvilResult get(Key key) {
+    AnvilResult result;
+    synchronized (this) {
+      sketch.increment(key.hashCode());
+      result = entries.get(key);
+    }
+
+    MetricsSink sink = Metrics.getSink();
+    if (result == null) {
+      misses.increment();
+      if (sink != null) {
+        sink.recordOutcome(this, false);
+      }
+      return null;
+    }
+
+    hits.increment();
+    if (sink != null) {
+      sink.recordOutcome(this, true);
+    }
+    return copy(result);
+  }
+
+  /**
+   * Store a result. Copies of the key and result are stored so that later modification of the
+   * provided items does not affect the cache.
+   *
+   * @param key the key of the operation
+   * @param result the result of the operation
+   */
+  void put(Key key, AnvilResult result) {
+    AnvilResult copy = copy(result);
+    synchronized (this) {
+      if (entries.containsKey(key)) {
+        entries.put(key, copy);
+        return;
+      }
+      if (entries.size() < maximumSize) {
+        entries.put(key.copy(), copy);
+        return;
+      }
+
+      Iterator<Entry<Key, AnvilResult>> iterator = entries.entrySet().iterator();
+      Key victim = iterator.next().getKey();
+      if (sketch.frequency(key.hashCode()) <= sketch.frequency(victim.hashCode())) {
+        // Candidate is not used more than the existing entry, don't admit it.
+        return;
+      }
+
+      iterator.remove();
+      evictions.increment();
+      entries.put(key.copy(), copy);
+    }
+  }
+
+  /**
+   * Remove all cached results produced by the given {@link AnvilBehavior}.
+   *
+   * @param behavior the {@code AnvilBehavior} whose results are no longer valid
+   */
+  public synchronized void invalidate(AnvilBehavior<?> behavior) {
+    entries.keySet().removeIf(key -> key.behavior() == behavior);
+  }
+
+  /**
+   * Remove all cached results. This should be done when registries are modified, i.e. when
+   * datapacks are reloaded.
+   */
+  public synchronized void invalidateAll() {
+    entries.clear();
+    sketch.clear();
+  }
+
+  /**
+   * Get the number of results currently cached.
+   *
+   * @return the number of cached results
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Get the number of requests that were answered by the cache.
+   *
+   * @return the number of cache hits
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Get the number of requests that were not answered by the cache.
+   *
+   * @return the number of cache misses
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Get the number of results removed to make room for more frequently requested results.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  private static AnvilResult copy(AnvilResult result) {
+    if (result == AnvilResult.EMPTY) {
+      return result;
+    }
+    return new AnvilResult(
+        result.item().clone(),
+        result.levelCost(),
+        result.materialCost(),
+        result.ticket()
+    );
+  }
+
+  /**
+   * The key of an anvil operation.
+   *
+   * <p>Fingerprints only cover enchanting-relevant details, so they are used for hashing and as a
+   * cheap early rejection. Matches are always confirmed by comparing the full items; results
+   * carry over every other detail of the base item, so a lossy match would leak those details.
+   * As amounts are part of the key, items are compared via {@link ItemStack#isSimilar(ItemStack)},
+   * which ignores them.</p>
+   *
+   * @param behavior the identity of the {@link AnvilBehavior} in use
+   * @param functions the identity of the {@link AnvilFunctionsProvider} or pipeline in use
+   * @param base the base item
+   * @param baseFingerprint the fingerprint of the base item
+   * @param baseAmount the amount of the base item
+   * @param addition the added item, or {@code null} if not present
+   * @param additionFingerprint the fingerprint of the added item, or {@code 0} if not present
+   * @param additionAmount the amount of the added item
+   * @param renameText the rename text
+   * @param maximumRepairCost the maximum repair cost of the anvil
+   * @param budgeted whether the operation is refused once it reaches the maximum repair cost
+   */
+  record Key(
+      Object behavior,
+      Object functions,
+      ItemStack base,
+      long baseFingerprint,
+      int baseAmount,
+      @Nullable ItemStack addition,
+      long additionFingerprint,
+      int additionAmount,
+      @Nullable String renameText,
+      int maximumRepairCost,
+      boolean budgeted
+  ) {
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      // Behavior and function providers are compared by identity.
+      return this == obj || obj instanceof Key other
+          && behavior == other.behavior
+          && functions == other.functions
+          && baseFingerprint == other.baseFingerprint
+          && baseAmount == other.baseAmount
+          && additionFingerprint == other.additionFingerprint
+          && additionAmount == other.additionAmount
+          && maximumRepairCost == other.maximumRepairCost
+          && budgeted == other.budgeted
+          && Objects.equals(renameText, other.renameText)
+          && isSimilar(base, other.base)
+          && isSimilar(addition, other.addition);
+    }
+
+    private static boolean isSimilar(@Nullable ItemStack first, @Nullable ItemStack second) {
+      if (first == second) {
+        return true;
+      }
+      return first != null && first.isSimilar(second);
+    }
+
+    /**
+     * Create a copy of the key that does not reference the original items.
+     *
+     * @return the copied key
+     */
+    private Key copy() {
+      return new Key(
+          behavior,
+          functions,
+          base.clone(),
+          baseFingerprint,
+          baseAmount,
+          addition != null ? addition.clone() : null,
+          additionFingerprint,
+          additionAmount,
+          renameText,
+          maximumRepairCost,
+          budgeted
+      );
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = System.identityHashCode(behavior);
+      hash = 31 * hash + System.identityHashCode(functions);
+      hash = 31 * hash + Long.hashCode(baseFingerprint);
+      hash = 31 * hash + baseAmount;
+      hash = 31 * hash + Long.hashCode(additionFingerprint);
+      hash = 31 * hash + additionAmount;
+      hash = 31 * hash + (renameText != null ? renameText.hashCode() : 0);
+      hash = 31 * hash + maximumRepairCost;
+      return 31 * hash + Boolean.hashCode(budgeted);
+    }
+
+  }
+
+  /**
+   * A count-min sketch of 4-bit access counters used to estimate how frequently keys are
+   * requested. Counters are periodically halved so that old popularity fades.
+   */
+  private static final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAXIMUM_COUNT = 15;
+    private static final int[] SEEDS = { 0x97CB3127, 0xB0F06C7B, 0x4F1BBCDD, 0x1B873593 };
+
+    private final byte[] counters;
+    private final int mask;
+    private final int resetThreshold;
+    private int additions = 0;
+
+    private FrequencySketch(int maximumSize) {
+      int width = Integer.highestOneBit(Math.max(16, maximumSize * 2 - 1)) << 1;
+      this.counters = new byte[width * DEPTH];
+      this.mask = width - 1;
+      this.resetThreshold = width * 10;
+    }
+
+    private void increment(int hash) {
+      boolean added = false;
+      for (int row = 0; row < DEPTH; ++row) {
+        int index = index(hash, row);
+        if (counters[index] < MAXIMUM_COUNT) {
+          ++counters[index];
+          added = true;
+        }
+      }
+
+      if (added && ++additions >= resetThreshold) {
+        for (int i = 0; i < counters.length; ++i) {
+          counters[i] >>= 1;
+        }
+        additions /= 2;
+      }
+    }
+
+    private int frequency(int hash) {
+      int frequency = MAXIMUM_COUNT;
+      for (int row = 0; row < DEPTH; ++row) {
+        frequency = Math.min(frequency, counters[index(hash, row)]);
+      }
+      return frequency;
+    }
+
+    private void clear() {
+      Arrays.fill(counters, (byte) 0);
+      additions = 0;
+    }
+
+    private int index(int hash, int row) {
+      int spread = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+      spread ^= spread >>> 16;
+      return row * (mask + 1) + (spread & mask);
+    }
+
+  }
+
+}
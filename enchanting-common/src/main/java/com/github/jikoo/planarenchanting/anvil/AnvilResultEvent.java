@@ -0,0 +1,59 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A Java Flight Recorder event for producing an anvil result via {@link PlanarForge}.
+ *
+ * <p>By default, only operations taking at least a millisecond are recorded. Fields are only
+ * populated if the event will be committed.</p>
+ */
+@NullMarked
+@Name("com.github.jikoo.planarenchanting.AnvilResult")
+@Label("Anvil Result")
+@Category({"Planar Enchanting", "Anvil"})
+@Description("Production of an anvil result")
+@Threshold("1 ms")
+final class AnvilResultEvent extends Event {
+
+  @Label("Item Type")
+  @Nullable String itemType;
+
+  @Label("Enchantments")
+  @Description("The number of enchantments on the result")
+  int enchantments;
+
+  @Label("Level Cost")
+  int levelCost;
+
+  @Label("Material Cost")
+  int materialCost;
+
+  /**
+   * Populate and commit the event if it is enabled and over its threshold.
+   *
+   * @param base the base item the result was produced for
+   * @param result the produced result
+   */
+  void complete(@Nullable ItemStack base, AnvilResult result) {
+    if (!shouldCommit()) {
+      return;
+    }
+
+    itemType = base == null ? Material.AIR.name() : base.getType().name();
+    enchantments = result == AnvilResult.EMPTY ? 0 : result.item().getEnchantments().size();
+    levelCost = result.levelCost();
+    materialCost = result.materialCost();
+    commit();
+  }
+
+}
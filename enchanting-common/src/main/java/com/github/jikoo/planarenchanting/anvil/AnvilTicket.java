@@ -0,0 +1,33 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A record of the inputs and outcome of an anvil operation, issued by an
+ * {@link AnvilTicketIssuer}. When the result is taken, the ticket can be checked against the
+ * anvil's current state instead of producing the result again.
+ *
+ * <p>The fingerprint covers the items of the operation so that a changed anvil is usually
+ * rejected without comparing items in full. Items are copies owned by the ticket and must not be
+ * modified.</p>
+ *
+ * @param fingerprint the fingerprint of the base, addition, and result items
+ * @param base the base item, or {@code null} if not present
+ * @param addition the added item, or {@code null} if not present
+ * @param renameText the rename text
+ * @param result the result item
+ * @param levelCost the number of levels to be consumed by the operation
+ * @param materialCost the amount of items to be consumed from the addition slot
+ */
+@NullMarked
+public record AnvilTicket(
+    long fingerprint,
+    @Nullable ItemStack base,
+    @Nullable ItemStack addition,
+    @Nullable String renameText,
+    ItemStack result,
+    int levelCost,
+    int materialCost
+) {}
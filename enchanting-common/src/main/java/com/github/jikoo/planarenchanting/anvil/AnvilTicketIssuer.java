@@ -0,0 +1,191 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import com.github.jikoo.planarenchanting.util.FingerprintHasher;
+import com.github.jikoo.planarenchanting.util.ItemFingerprinter;
+import java.util.Objects;
+import org.bukkit.Material;
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An issuer of {@link AnvilTicket AnvilTickets} for validating anvil results when they are taken.
+ *
+ * <p>When a result is produced, a ticket is issued containing copies of the inputs and result
+ * along with the costs. When the player takes the result, checking the ticket against the anvil's
+ * current state only requires comparing the items in the anvil, which is far cheaper than
+ * producing the result again.</p>
+ *
+ * <p>Each ticket carries a fingerprint of its items' types and amounts, along with their
+ * {@link ItemFingerprinter} fingerprints if a fingerprinter is provided. Most changes to the anvil
+ * are rejected by the fingerprint alone. Items are only compared in full when fingerprints match,
+ * including details irrelevant to enchanting such as container contents, so any change to the
+ * anvil invalidates the ticket. Tickets are held by the server and never sent to clients, so they
+ * are not signed.</p>
+ */
+@NullMarked
+public final class AnvilTicketIssuer {
+
+  private static final int BASE_SLOT = 0;
+  private static final int ADDITION_SLOT = 1;
+  private static final int RESULT_SLOT = 2;
+
+  private final @Nullable ItemFingerprinter fingerprinter;
+
+  /**
+   * Construct a new {@code AnvilTicketIssuer} fingerprinting only item types and amounts.
+   */
+  public AnvilTicketIssuer() {
+    this.fingerprinter = null;
+  }
+
+  /**
+   * Construct a new {@code AnvilTicketIssuer}.
+   *
+   * @param fingerprinter the {@link ItemFingerprinter} used to fingerprint items
+   */
+  public AnvilTicketIssuer(ItemFingerprinter fingerprinter) {
+    this.fingerprinter = fingerprinter;
+  }
+
+  /**
+   * Issue a ticket for a result produced from the current state of an {@link AnvilView}.
+   *
+   * @param view the {@code AnvilView}
+   * @param result the {@link AnvilResult} produced
+   * @return the result carrying a ticket, or the result as-is if no item is produced
+   */
+  public AnvilResult issue(AnvilView view, AnvilResult result) {
+    AnvilInventory anvil = view.getTopInventory();
+    return issue(
+        anvil.getItem(BASE_SLOT),
+        anvil.getItem(ADDITION_SLOT),
+        view.getRenameText(),
+        result
+    );
+  }
+
+  /**
+   * Issue a ticket for a result produced from inputs.
+   *
+   * @param base the base item
+   * @param addition the added item
+   * @param renameText the rename text
+   * @param result the {@link AnvilResult} produced
+   * @return the result carrying a ticket, or the result as-is if no item is produced
+   */
+  public AnvilResult issue(
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      @Nullable String renameText,
+      AnvilResult result
+  ) {
+    if (isEmpty(result.item())) {
+      return result;
+    }
+
+    return result.withTicket(new AnvilTicket(
+        fingerprint(base, addition, result.item()),
+        copy(base),
+        copy(addition),
+        renameText,
+        result.item().clone(),
+        result.levelCost(),
+        result.materialCost()
+    ));
+  }
+
+  /**
+   * Check if a ticket is valid for the current state of an {@link AnvilView}. The inputs, result
+   * slot, and costs of the view must all match the ticket.
+   *
+   * @param ticket the {@link AnvilTicket}
+   * @param view the {@code AnvilView}
+   * @return whether the ticket is valid
+   */
+  public boolean isValid(AnvilTicket ticket, AnvilView view) {
+    AnvilInventory anvil = view.getTopInventory();
+    return isValid(
+        ticket,
+        anvil.getItem(BASE_SLOT),
+        anvil.getItem(ADDITION_SLOT),
+        view.getRenameText(),
+        anvil.getItem(RESULT_SLOT),
+        view.getRepairCost(),
+        view.getRepairItemCountCost()
+    );
+  }
+
+  /**
+   * Check if a ticket is valid for an operation.
+   *
+   * @param ticket the {@link AnvilTicket}
+   * @param base the base item
+   * @param addition the added item
+   * @param renameText the rename text
+   * @param result the result item
+   * @param levelCost the number of levels to be consumed by the operation
+   * @param materialCost the amount of items to be consumed from the addition slot
+   * @return whether the ticket is valid
+   */
+  public boolean isValid(
+      AnvilTicket ticket,
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      @Nullable String renameText,
+      @Nullable ItemStack result,
+      int levelCost,
+      int materialCost
+  ) {
+    // Compare cheapest values first.
+    return ticket.levelCost() == levelCost
+        && ticket.materialCost() == materialCost
+        && Objects.equals(ticket.renameText(), renameText)
+        && ticket.fingerprint() == fingerprint(base, addition, result)
+        && matches(ticket.result(), result)
+        && matches(ticket.base(), base)
+        && matches(ticket.addition(), addition);
+  }
+
+  private long fingerprint(
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      @Nullable ItemStack result
+  ) {
+    FingerprintHasher hasher = new FingerprintHasher();
+    put(hasher, base);
+    put(hasher, addition);
+    put(hasher, result);
+    return hasher.hash();
+  }
+
+  private void put(FingerprintHasher hasher, @Nullable ItemStack itemStack) {
+    if (isEmpty(itemStack)) {
+      hasher.putBoolean(false);
+      return;
+    }
+
+    hasher.putBoolean(true).putInt(itemStack.getType().ordinal()).putInt(itemStack.getAmount());
+    if (fingerprinter != null) {
+      hasher.putLong(fingerprinter.fingerprint(itemStack));
+    }
+  }
+
+  private static boolean matches(@Nullable ItemStack expected, @Nullable ItemStack actual) {
+    if (expected == null) {
+      return isEmpty(actual);
+    }
+    return !isEmpty(actual) && expected.equals(actual);
+  }
+
+  private static @Nullable ItemStack copy(@Nullable ItemStack itemStack) {
+    return isEmpty(itemStack) ? null : itemStack.clone();
+  }
+
+  private static boolean isEmpty(@Nullable ItemStack itemStack) {
+    return itemStack == null || itemStack.getType() == Material.AIR || itemStack.getAmount() < 1;
+  }
+
+}
@@ -0,0 +1,133 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An explanation of how an {@link AnvilResult} was produced, recorded by
+ * {@link PlanarForge#explain(org.bukkit.inventory.view.AnvilView)}.
+ *
+ * <p>Each applied {@link AnvilFunction} is recorded in order with the costs it added. Each
+ * enchantment considered while combining enchantments is recorded with the decision made for it
+ * and the level cost it incurred.</p>
+ */
+@NullMarked
+public final class AnvilTrace {
+
+  private static final ThreadLocal<@Nullable AnvilTrace> CURRENT = new ThreadLocal<>();
+
+  private final List<Step> steps = new ArrayList<>();
+  private final List<EnchantDecision> enchantments = new ArrayList<>();
+  private AnvilResult result = AnvilResult.EMPTY;
+
+  /**
+   * Get the produced result.
+   *
+   * @return the {@link AnvilResult}
+   */
+  public AnvilResult getResult() {
+    return result;
+  }
+
+  /**
+   * Get the applied functions in the order they were applied.
+   *
+   * @return the applied steps
+   */
+  public List<Step> getSteps() {
+    return Collections.unmodifiableList(steps);
+  }
+
+  /**
+   * Get the decisions made for enchantments added from the secondary item, in the order they
+   * were considered.
+   *
+   * @return the enchantment decisions
+   */
+  public List<EnchantDecision> getEnchantments() {
+    return Collections.unmodifiableList(enchantments);
+  }
+
+  void setResult(AnvilResult result) {
+    this.result = result;
+  }
+
+  void addStep(AnvilFunction<?> function, int levelCost, int materialCost) {
+    steps.add(new Step(function, levelCost, materialCost));
+  }
+
+  void addEnchant(
+      Enchantment enchantment,
+      Decision decision,
+      int oldLevel,
+      int newLevel,
+      int levelCost
+  ) {
+    enchantments.add(new EnchantDecision(enchantment, decision, oldLevel, newLevel, levelCost));
+  }
+
+  /**
+   * Get the trace recording the function being applied on the current thread.
+   *
+   * @return the trace or {@code null} if the current function is not being traced
+   */
+  static @Nullable AnvilTrace current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Set the trace recording the function being applied on the current thread.
+   *
+   * @param trace the trace or {@code null} to stop tracing
+   */
+  static void setCurrent(@Nullable AnvilTrace trace) {
+    if (trace == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(trace);
+    }
+  }
+
+  /**
+   * An applied {@link AnvilFunction}.
+   *
+   * @param function the function applied
+   * @param levelCost the number of levels added by the function
+   * @param materialCost the amount of items added to the material cost by the function
+   */
+  public record Step(AnvilFunction<?> function, int levelCost, int materialCost) {}
+
+  /**
+   * The decision made for an enchantment being combined into the base item.
+   *
+   * @param enchantment the enchantment
+   * @param decision the decision made
+   * @param oldLevel the level of the enchantment on the base item, or 0 if not present
+   * @param newLevel the level of the enchantment on the result
+   * @param levelCost the level cost incurred on the platform in use
+   */
+  public record EnchantDecision(
+      Enchantment enchantment,
+      Decision decision,
+      int oldLevel,
+      int newLevel,
+      int levelCost
+  ) {}
+
+  /**
+   * Possible outcomes for an enchantment being combined into the base item.
+   */
+  public enum Decision {
+    /** The enchantment was applied. */
+    APPLIED,
+    /** The enchantment conflicts with an enchantment on the base item. */
+    CONFLICTED,
+    /** The enchantment cannot be applied to the base item. */
+    INAPPLICABLE
+  }
+
+}
@@ -0,0 +1,222 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An {@link Anvil} capable of producing results off of the main thread.
+ *
+ * <p>Inputs are captured as {@link AnvilInputs} on the calling thread and the result is produced
+ * by a {@link PlanarForge} on a worker {@link Executor}, by default using virtual threads. As
+ * with {@code PlanarForge}, an {@code AsyncAnvil} may optionally be constructed with a budget;
+ * whether a view bypasses it is decided when inputs are captured. Results are delivered using the
+ * owner {@code Executor}, which should run tasks on the thread that owns the view. Each request
+ * is tagged with a version; if a newer request for the same view was made in the meantime, the
+ * stale result is discarded instead of being delivered.</p>
+ *
+ * <p>As results are produced concurrently, the {@link AnvilBehavior} in use must be safe to use
+ * from multiple threads.</p>
+ *
+ * @param <T> the type of the input and output items
+ */
+@NullMarked
+public final class AsyncAnvil<T> implements Anvil {
+
+  private static final ExecutorService VIRTUAL_THREADS = Executors.newThreadPerTaskExecutor(
+      Thread.ofVirtual().name("planarenchanting-anvil-", 0).factory()
+  );
+
+  private final BiFunction<AnvilView, AnvilInputs, WorkPiece<T>> createPiece;
+  private final PlanarForge<T> forge;
+  private final Executor ownerExecutor;
+  private final Executor workExecutor;
+  private final Map<AnvilView, Long> versions = new ConcurrentHashMap<>();
+  private final AtomicLong nextVersion = new AtomicLong();
+
+  /**
+   * Construct a new {@code AsyncAnvil} producing results on virtual threads.
+   *
+   * @param createPiece the method for creating a {@link WorkPiece} from captured inputs
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param ownerExecutor the {@link Executor} running tasks on the thread owning views
+   */
+  public AsyncAnvil(
+      BiFunction<AnvilView, AnvilInputs, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      Executor ownerExecutor
+  ) {
+    this(createPiece, behavior, functions, null, ownerExecutor, VIRTUAL_THREADS);
+  }
+
+  /**
+   * Construct a new budgeted {@code AsyncAnvil} producing results on virtual threads.
+   *
+   * @see PlanarForge#PlanarForge(Function, AnvilBehavior, AnvilFunctionsProvider, Predicate)
+   * @param createPiece the method for creating a {@link WorkPiece} from captured inputs
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param bypassBudget the check for whether a view is exempt from the budget
+   * @param ownerExecutor the {@link Executor} running tasks on the thread owning views
+   */
+  public AsyncAnvil(
+      BiFunction<AnvilView, AnvilInputs, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      Predicate<AnvilView> bypassBudget,
+      Executor ownerExecutor
+  ) {
+    this(createPiece, behavior, functions, bypassBudget, ownerExecutor, VIRTUAL_THREADS);
+  }
+
+  /**
+   * Construct a new {@code AsyncAnvil}.
+   *
+   * @param createPiece the method for creating a {@link WorkPiece} from captured inputs
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param ownerExecutor the {@link Executor} running tasks on the thread owning views
+   * @param workExecutor the {@link Executor} producing results
+   */
+  public AsyncAnvil(
+      BiFunction<AnvilView, AnvilInputs, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      Executor ownerExecutor,
+      Executor workExecutor
+  ) {
+    this(createPiece, behavior, functions, null, ownerExecutor, workExecutor);
+  }
+
+  /**
+   * Construct a new {@code AsyncAnvil}.
+   *
+   * @param createPiece the method for creating a {@link WorkPiece} from captured inputs
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param bypassBudget the check for whether a view is exempt from the budget, or {@code null}
+   *     if operations are never refused
+   * @param ownerExecutor the {@link Executor} running tasks on the thread owning views
+   * @param workExecutor the {@link Executor} producing results
+   */
+  public AsyncAnvil(
+      BiFunction<AnvilView, AnvilInputs, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      @Nullable Predicate<AnvilView> bypassBudget,
+      Executor ownerExecutor,
+      Executor workExecutor
+  ) {
+    this.createPiece = createPiece;
+    // Pieces are always created from captured copies, even when produced synchronously.
+    Function<AnvilView, WorkPiece<T>> capturePiece =
+        view -> createPiece.apply(view, AnvilInputs.capture(view));
+    this.forge = bypassBudget == null
+        ? new PlanarForge<>(capturePiece, behavior, functions)
+        : new PlanarForge<>(capturePiece, behavior, functions, bypassBudget);
+    this.ownerExecutor = ownerExecutor;
+    this.workExecutor = workExecutor;
+  }
+
+  /**
+   * Produce an {@link AnvilResult} synchronously. Inputs are still captured, so this may be used
+   * interchangeably with {@link #requestResult(AnvilView, Consumer)}.
+   *
+   * @param view the {@link AnvilView} to calculate a result for
+   * @return the {@code AnvilResult} produced
+   */
+  @Override
+  public AnvilResult getResult(AnvilView view) {
+    return forge.getResult(view);
+  }
+
+  /**
+   * Produce an {@link AnvilCost} synchronously without creating a result item. Inputs are still
+   * captured, so the piece never reads the view's live items.
+   *
+   * @param view the {@link AnvilView} to calculate a cost for
+   * @return the {@code AnvilCost} produced
+   */
+  @Override
+  public AnvilCost getCost(AnvilView view) {
+    return forge.getCost(view);
+  }
+
+  /**
+   * Request an {@link AnvilResult} asynchronously. This must be called on the thread owning the
+   * view.
+   *
+   * <p>The callback is run via the owner {@link Executor} if no newer request for the view was
+   * made before the result was produced. Otherwise, the result is discarded. Version tracking for
+   * the view is released once its latest request completes.</p>
+   *
+   * <p>If the result cannot be produced or the callback throws, the returned future completes
+   * exceptionally with the cause. Callers should handle or log failures from the future.</p>
+   *
+   * @param view the {@link AnvilView} to calculate a result for
+   * @param callback the consumer of the result
+   * @return a future completing once the result is delivered or discarded
+   */
+  public CompletableFuture<Void> requestResult(AnvilView view, Consumer<AnvilResult> callback) {
+    AnvilInputs inputs = AnvilInputs.capture(view);
+    // The budget may depend on the view's state, i.e. the player's game mode, so it is decided now.
+    int budget = forge.getBudget(view);
+    long version = nextVersion.incrementAndGet();
+    versions.put(view, version);
+
+    return CompletableFuture
+        .supplyAsync(
+            () -> forge.getResult(createPiece.apply(view, inputs), inputs, budget),
+            workExecutor)
+        .handleAsync(
+            (result, failure) -> {
+              // Only the latest request removes the entry, so newer versions stay tracked.
+              boolean current = versions.remove(view, version);
+              if (failure != null) {
+                throw failure instanceof CompletionException completion
+                    ? completion
+                    : new CompletionException(failure);
+              }
+              if (current) {
+                callback.accept(result);
+              }
+              return null;
+            },
+            ownerExecutor
+        );
+  }
+
+  /**
+   * Discard version tracking for an {@link AnvilView}. Any pending results for the view will be
+   * discarded.
+   *
+   * @param view the {@code AnvilView} that is no longer in use
+   */
+  public void forget(AnvilView view) {
+    versions.remove(view);
+  }
+
+  /**
+   * Get the number of views with pending requests.
+   *
+   * @return the number of tracked views
+   */
+  int getTrackedViews() {
+    return versions.size();
+  }
+
+}
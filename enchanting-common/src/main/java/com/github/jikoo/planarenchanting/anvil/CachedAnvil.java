@@ -0,0 +1,75 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An {@link Anvil} consulting an {@link AnvilResultCache} before producing a result with a
+ * {@link PlanarForge}. Many players combine the same popular inputs, i.e. the same enchanted books
+ * onto the same gear. These results can be shared instead of being recalculated.
+ *
+ * <p>Returned results are always copies; modifying them does not affect the cache.</p>
+ */
+@NullMarked
+public final class CachedAnvil implements Anvil {
+
+  private final PlanarForge<?> forge;
+  private final AnvilResultCache cache;
+
+  /**
+   * Construct a new {@code CachedAnvil}.
+   *
+   * @param forge the {@link PlanarForge} producing results
+   * @param cache the {@link AnvilResultCache} storing results, possibly shared with other anvils
+   */
+  public CachedAnvil(PlanarForge<?> forge, AnvilResultCache cache) {
+    this.forge = forge;
+    this.cache = cache;
+  }
+
+  @Override
+  public AnvilResult getResult(AnvilView view) {
+    AnvilInventory anvil = view.getTopInventory();
+    ItemStack base = anvil.getItem(0);
+    if (isEmpty(base)) {
+      return AnvilResult.EMPTY;
+    }
+
+    ItemStack addition = anvil.getItem(1);
+    AnvilResultCache.Key key = cache.key(
+        forge,
+        base,
+        isEmpty(addition) ? null : addition,
+        view.getRenameText(),
+        view.getMaximumRepairCost(),
+        forge.getBudget(view) != Integer.MAX_VALUE
+    );
+
+    AnvilResult result = cache.get(key);
+    if (result != null) {
+      return result;
+    }
+
+    result = forge.getResult(view);
+    cache.put(key, result);
+    return result;
+  }
+
+  /**
+   * Get the {@link AnvilResultCache} in use.
+   *
+   * @return the cache
+   */
+  public AnvilResultCache getCache() {
+    return cache;
+  }
+
+  private static boolean isEmpty(@Nullable ItemStack itemStack) {
+    return itemStack == null || itemStack.getType() == Material.AIR || itemStack.getAmount() < 1;
+  }
+
+}
@@ -1,15 +1,27 @@
 package com.github.jikoo.planarenchanting.anvil;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.ToIntFunction;
+import com.github.jikoo.planarenchanting.anvil.AnvilTrace.Decision;
+import com.github.jikoo.planarenchanting.util.DataReloads;
 import com.github.jikoo.planarenchanting.util.EnchantData;
 import com.github.jikoo.planarenchanting.util.EnchantmentAccess;
 import com.github.jikoo.planarenchanting.util.EnchantDataService;
 
 import org.bukkit.enchantments.Enchantment;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 /**
  * An {@link AnvilFunction} used to apply and combine enchantments.
@@ -19,12 +31,33 @@ import org.jspecify.annotations.NullMarked;
 @NullMarked
 public class CombineEnchants<T> implements AnvilFunction<T> {
 
+  private static final Set<CombineEnchants<?>> INSTANCES =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  static {
+    DataReloads.register(CombineEnchants::invalidateAll);
+  }
+
   private final EnchantingPlatform platform;
   private final EnchantmentAccess<T> access;
+  // Behaviors are weakly referenced so that kernels do not outlive them.
+  private final Map<AnvilBehavior<T>, Kernel> kernels =
+      Collections.synchronizedMap(new WeakHashMap<>());
+  private volatile @Nullable Kernel lastKernel;
 
   protected CombineEnchants(Platform platform, EnchantmentAccess<T> access) {
+    this(platform.internalPlatform, access);
+    INSTANCES.add(this);
+  }
+
+  private CombineEnchants(EnchantingPlatform platform, EnchantmentAccess<T> access) {
     this.access = access;
-    this.platform = platform.internalPlatform;
+    this.platform = platform;
+  }
+
+  @Override
+  public boolean ignoresResult() {
+    return true;
   }
 
   @Override
@@ -48,7 +81,7 @@ public class CombineEnchants<T> implements AnvilFunction<T> {
         additionEnchants
     );
 
-    int finalCost = mergeResult.levelCost < 0 ? state.getAnvilView().getMaximumRepairCost() : mergeResult.levelCost;
+    int finalCost = mergeResult.levelCost < 0 ? state.getMaximumRepairCost() : mergeResult.levelCost;
 
     return new AnvilFunctionResult<>() {
       @Override
@@ -60,10 +93,86 @@ public class CombineEnchants<T> implements AnvilFunction<T> {
       public void modifyResult(T t) {
         access.addEnchantments(t, mergeResult.enchantments);
       }
+
+      @Override
+      public boolean changesResult() {
+        return !mergeResult.enchantments.equals(baseEnchants);
+      }
     };
 
   }
 
+  /**
+   * Combine an ordered sequence of enchantment sources into a base item in a single pass.
+   *
+   * <p>Each source is treated as if it were added to the result of the previous source in an
+   * anvil: level costs include the prior work of both items, and the prior work of the result
+   * progresses as it would in vanilla. Combination stops at the first source that could not be
+   * applied, either because it would not change the item or because the step would be too
+   * expensive.</p>
+   *
+   * <p>No items are modified. The final enchantments are written by
+   * {@link SequenceResult#modifyResult(Object)}. Prior work is not written; the final value is
+   * available from {@link SequenceResult#getPriorWork()}.</p>
+   *
+   * @param behavior the {@link AnvilBehavior} controlling enchantment application
+   * @param base the base item
+   * @param sources the items to add, in order
+   * @param priorWork the method for obtaining the prior work cost of an item
+   * @param maximumRepairCost the level cost at which a step becomes too expensive
+   * @return the cumulative result of all applied sources
+   */
+  public SequenceResult<T> combineAll(
+      AnvilBehavior<T> behavior,
+      T base,
+      List<? extends T> sources,
+      ToIntFunction<T> priorWork,
+      int maximumRepairCost
+  ) {
+    Map<Enchantment, Integer> enchantments = access.getEnchantments(base);
+    int currentPriorWork = priorWork.applyAsInt(base);
+    int levelCost = 0;
+    List<Integer> stepCosts = new ArrayList<>(sources.size());
+
+    for (T source : sources) {
+      if (!behavior.itemsCombineEnchants(base, source)) {
+        break;
+      }
+
+      Map<Enchantment, Integer> sourceEnchants = access.getEnchantments(source);
+      if (sourceEnchants.isEmpty()) {
+        break;
+      }
+
+      MergeResult mergeResult = getLevelCost(
+          behavior,
+          base,
+          access.isBook(source),
+          enchantments,
+          sourceEnchants
+      );
+
+      if (mergeResult.enchantments.equals(enchantments)) {
+        // Vanilla does not produce a result if nothing changes.
+        break;
+      }
+
+      int sourcePriorWork = priorWork.applyAsInt(source);
+      int enchantCost = mergeResult.levelCost < 0 ? maximumRepairCost : mergeResult.levelCost;
+      int stepCost = currentPriorWork + sourcePriorWork + enchantCost;
+      if (stepCost >= maximumRepairCost) {
+        break;
+      }
+
+      enchantments = mergeResult.enchantments;
+      levelCost += stepCost;
+      stepCosts.add(stepCost);
+      currentPriorWork = Math.max(currentPriorWork, sourcePriorWork) * 2 + 1;
+    }
+
+    return new SequenceResult<>(access, enchantments, levelCost, currentPriorWork, stepCosts);
+  }
+
   /**
    * Produce a {@link MergeResult} for the combination of two sets of enchantments.
    *
@@ -78,36 +187,498 @@ public class CombineEnchants<T> implements AnvilFunction<T> {
       ViewState<T> state,
       Map<Enchantment, Integer> baseEnchants,
       Map<Enchantment, Integer> additionEnchants
+  ) {
+    return getLevelCost(
+        behavior,
+        state.getBase(),
+        access.isBook(state.getAddition()),
+        baseEnchants,
+        additionEnchants
+    );
+  }
+
+  /**
+   * Produce a {@link MergeResult} for the combination of two sets of enchantments without
+   * requiring a {@link ViewState}.
+   *
+   * @param behavior the {@link AnvilBehavior} controlling enchantment application
+   * @param base the base item
+   * @param isFromBook whether the item being added is an enchanted book
+   * @param baseEnchants the enchantments from the base item
+   * @param additionEnchants the enchantments from the item being added and merged
+   * @return the incurred level cost and resulting enchantments
+   */
+  protected MergeResult getLevelCost(
+      AnvilBehavior<T> behavior,
+      T base,
+      boolean isFromBook,
+      Map<Enchantment, Integer> baseEnchants,
+      Map<Enchantment, Integer> additionEnchants
+  ) {
+    Kernel kernel = getKernel(behavior);
+    if (kernel == null) {
+      return merge(
+          behavior,
+          base,
+          isFromBook,
+          baseEnchants,
+          additionEnchants,
+          AnvilTrace.current()
+      );
+    }
+    return kernel.merge(
+        behavior,
+        base,
+        isFromBook,
+        baseEnchants,
+        additionEnchants,
+        AnvilTrace.current()
+    );
+  }
+
+  /**
+   * Merge enchantments by querying the {@link AnvilBehavior} for every conflict.
+   *
+   * @param behavior the {@link AnvilBehavior} controlling enchantment application
+   * @param base the base item
+   * @param isFromBook whether the item being added is an enchanted book
+   * @param baseEnchants the enchantments from the base item
+   * @param additionEnchants the enchantments from the item being added and merged
+   * @param trace the trace to record decisions in, if any
+   * @return the incurred level cost and resulting enchantments
+   */
+  private MergeResult merge(
+      AnvilBehavior<T> behavior,
+      T base,
+      boolean isFromBook,
+      Map<Enchantment, Integer> baseEnchants,
+      Map<Enchantment, Integer> additionEnchants,
+      @Nullable AnvilTrace trace
   ) {
     Map<Enchantment, Integer> newEnchants = new HashMap<>(baseEnchants);
     int levelCost = 0;
-    T base = state.getBase();
-    boolean isFromBook = access.isBook(state.getAddition());
 
     for (Entry<Enchantment, Integer> enchantEntry : additionEnchants.entrySet()) {
       Enchantment newEnchantment = enchantEntry.getKey();
-      if (behavior.enchantApplies(newEnchantment, base)
-          && baseEnchants.keySet().stream()
-              .noneMatch(existingEnchant ->
-                  !Objects.equals(existingEnchant.getKey(), newEnchantment.getKey())
-                      && behavior.enchantsConflict(existingEnchant, newEnchantment))) {
-        int baseCost = platform.getAnvilCost(newEnchantment, isFromBook);
+      int oldLevel = baseEnchants.getOrDefault(newEnchantment, 0);
+      boolean applies = behavior.enchantApplies(newEnchantment, base);
+      if (applies && !conflicts(behavior, baseEnchants.keySet(), newEnchantment)) {
         int addedLevel = enchantEntry.getValue();
-        int oldLevel = baseEnchants.getOrDefault(newEnchantment, 0);
         int newLevel = oldLevel == addedLevel ? addedLevel + 1 : Math.max(oldLevel, addedLevel);
         newLevel = Math.min(newLevel, behavior.getEnchantMaxLevel(newEnchantment));
         newEnchants.put(newEnchantment, newLevel);
 
-        levelCost += platform.getTotalCost(baseCost, oldLevel, newLevel);
+        int cost = platform.getTotalCost(
+            platform.getAnvilCost(newEnchantment, isFromBook),
+            oldLevel,
+            newLevel
+        );
+        levelCost += cost;
+        if (trace != null) {
+          trace.addEnchant(newEnchantment, Decision.APPLIED, oldLevel, newLevel, cost);
+        }
       } else {
-        levelCost += platform.getInapplicableCost();
+        int cost = platform.getInapplicableCost();
+        levelCost += cost;
+        if (trace != null) {
+          Decision decision = applies ? Decision.CONFLICTED : Decision.INAPPLICABLE;
+          trace.addEnchant(newEnchantment, decision, oldLevel, oldLevel, cost);
+        }
       }
     }
     return new MergeResult(levelCost, newEnchants);
   }
 
+  private static <T> boolean conflicts(
+      AnvilBehavior<T> behavior,
+      Collection<Enchantment> existingEnchants,
+      Enchantment newEnchantment
+  ) {
+    for (Enchantment existing : existingEnchants) {
+      if (!Objects.equals(existing.getKey(), newEnchantment.getKey())
+          && behavior.enchantsConflict(existing, newEnchantment)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Create a {@code CombineEnchants} with the same costs and enchantment access that merges
+   * enchantments directly from the {@link AnvilBehavior} on every operation. Nothing is
+   * precomputed or shared with other instances, so it is much slower, but it is a straightforward
+   * reference for verifying results.
+   *
+   * @return the reference {@code CombineEnchants}
+   */
+  public CombineEnchants<T> createReference() {
+    return new Reference<>(platform, access);
+  }
+
+  /**
+   * Discard all precomputed enchantment data.
+   *
+   * <p>Conflicts are only precomputed for behaviors declaring an
+   * {@link AnvilBehavior#getConflictVersion() conflict version}, and are recomputed whenever that
+   * version changes, so this is not required when a behavior's configuration is reloaded. All
+   * instances are invalidated automatically by {@link DataReloads}.</p>
+   */
+  public void invalidate() {
+    kernels.clear();
+    lastKernel = null;
+  }
+
+  private static void invalidateAll() {
+    synchronized (INSTANCES) {
+      for (CombineEnchants<?> instance : INSTANCES) {
+        instance.invalidate();
+      }
+    }
+  }
+
+  private @Nullable Kernel getKernel(AnvilBehavior<T> behavior) {
+    Object version = behavior.getConflictVersion();
+    if (version == null) {
+      // Conflicts may change at any time, so they cannot be precomputed.
+      return null;
+    }
+
+    Kernel kernel = lastKernel;
+    if (kernel != null && kernel.owner.get() == behavior && kernel.version == version) {
+      return kernel;
+    }
+    kernel = kernels.compute(
+        behavior,
+        (key, existing) -> existing != null && existing.version == version
+            ? existing
+            : new Kernel(key, version)
+    );
+    lastKernel = kernel;
+    return kernel;
+  }
+
+  /**
+   * Get the {@link EnchantmentAccess} used to read and write enchantments.
+   *
+   * @return the {@code EnchantmentAccess} in use
+   */
+  EnchantmentAccess<T> getAccess() {
+    return access;
+  }
+
   protected record MergeResult(int levelCost, Map<Enchantment, Integer> enchantments) {}
 
+  /**
+   * A {@code CombineEnchants} merging enchantments without precomputed kernels.
+   *
+   * @param <T> the type of the input items
+   */
+  private static final class Reference<T> extends CombineEnchants<T> {
+
+    private Reference(EnchantingPlatform platform, EnchantmentAccess<T> access) {
+      super(platform, access);
+    }
+
+    @Override
+    protected MergeResult getLevelCost(
+        AnvilBehavior<T> behavior,
+        T base,
+        boolean isFromBook,
+        Map<Enchantment, Integer> baseEnchants,
+        Map<Enchantment, Integer> additionEnchants
+    ) {
+      return super.merge(
+          behavior,
+          base,
+          isFromBook,
+          baseEnchants,
+          additionEnchants,
+          AnvilTrace.current()
+      );
+    }
+
+  }
+
+  /**
+   * The cumulative result of combining a sequence of enchantment sources.
+   *
+   * @param <T> the type of the input items
+   * @see #combineAll(AnvilBehavior, Object, List, ToIntFunction, int)
+   */
+  public static final class SequenceResult<T> implements AnvilFunctionResult<T> {
+
+    private final EnchantmentAccess<T> access;
+    private final Map<Enchantment, Integer> enchantments;
+    private final int levelCost;
+    private final int priorWork;
+    private final List<Integer> stepCosts;
+
+    private SequenceResult(
+        EnchantmentAccess<T> access,
+        Map<Enchantment, Integer> enchantments,
+        int levelCost,
+        int priorWork,
+        List<Integer> stepCosts
+    ) {
+      this.access = access;
+      this.enchantments = Map.copyOf(enchantments);
+      this.levelCost = levelCost;
+      this.priorWork = priorWork;
+      this.stepCosts = List.copyOf(stepCosts);
+    }
+
+    @Override
+    public int getLevelCostIncrease() {
+      return levelCost;
+    }
+
+    @Override
+    public void modifyResult(T modified) {
+      if (!stepCosts.isEmpty()) {
+        access.addEnchantments(modified, enchantments);
+      }
+    }
+
+    @Override
+    public boolean changesResult() {
+      return !stepCosts.isEmpty();
+    }
+
+    /**
+     * Get the number of sources that were applied.
+     *
+     * @return the number of sources applied
+     */
+    public int getApplied() {
+      return stepCosts.size();
+    }
+
+    /**
+     * Get the level cost of each applied source.
+     *
+     * @return the level cost of each step, in order
+     */
+    public List<Integer> getStepCosts() {
+      return stepCosts;
+    }
+
+    /**
+     * Get the prior work cost of the item after all applied sources.
+     *
+     * @return the final prior work cost
+     */
+    public int getPriorWork() {
+      return priorWork;
+    }
+
+    /**
+     * Get the enchantments of the item after all applied sources.
+     *
+     * @return the final enchantments
+     */
+    public Map<Enchantment, Integer> getEnchantments() {
+      return enchantments;
+    }
+
+  }
+
+  /**
+   * A merge kernel operating on dense enchantment ids for a single {@link AnvilBehavior}.
+   *
+   * <p>Enchantments are assigned sequential ids as they are encountered. Anvil costs for each
+   * platform and the set of enchantments conflicting with each enchantment are computed once when
+   * an enchantment is first seen and stored in primitive arrays. The snapshot of known
+   * enchantments is replaced as a whole when new enchantments are added, so merges never lock.</p>
+   *
+   * <p>A kernel is only valid for the {@link AnvilBehavior#getConflictVersion() conflict version}
+   * it was created for. It only weakly references its behavior so that it does not keep its own
+   * entry in the kernel map alive.</p>
+   */
+  private final class Kernel {
+
+    private final WeakReference<AnvilBehavior<T>> owner;
+    private final Object version;
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private Kernel(AnvilBehavior<T> behavior, Object version) {
+      this.owner = new WeakReference<>(behavior);
+      this.version = version;
+    }
+
+    private MergeResult merge(
+        AnvilBehavior<T> behavior,
+        T base,
+        boolean isFromBook,
+        Map<Enchantment, Integer> baseEnchants,
+        Map<Enchantment, Integer> additionEnchants,
+        @Nullable AnvilTrace trace
+    ) {
+      Snapshot known = require(behavior, baseEnchants, additionEnchants);
+      long[] baseIds = new long[known.words()];
+      int[] levels = new int[known.enchantments.length];
+
+      for (Entry<Enchantment, Integer> enchantEntry : baseEnchants.entrySet()) {
+        int id = known.ids.get(enchantEntry.getKey());
+        baseIds[id >>> 6] |= 1L << id;
+        levels[id] = enchantEntry.getValue();
+      }
+
+      long[] newIds = baseIds.clone();
+      int[] costs = isFromBook ? known.bookCosts : known.itemCosts;
+      int levelCost = 0;
+
+      for (Entry<Enchantment, Integer> enchantEntry : additionEnchants.entrySet()) {
+        Enchantment newEnchantment = enchantEntry.getKey();
+        int id = known.ids.get(newEnchantment);
+        boolean applies = behavior.enchantApplies(newEnchantment, base);
+        if (applies && !intersects(known.conflicts[id], baseIds)) {
+          int addedLevel = enchantEntry.getValue();
+          int oldLevel = levels[id];
+          int newLevel = oldLevel == addedLevel ? addedLevel + 1 : Math.max(oldLevel, addedLevel);
+          newLevel = Math.min(newLevel, behavior.getEnchantMaxLevel(newEnchantment));
+          newIds[id >>> 6] |= 1L << id;
+          levels[id] = newLevel;
+
+          int cost = platform.getTotalCost(costs[id], oldLevel, newLevel);
+          levelCost += cost;
+          if (trace != null) {
+            trace.addEnchant(newEnchantment, Decision.APPLIED, oldLevel, newLevel, cost);
+          }
+        } else {
+          int cost = platform.getInapplicableCost();
+          levelCost += cost;
+          if (trace != null) {
+            Decision decision = applies ? Decision.CONFLICTED : Decision.INAPPLICABLE;
+            trace.addEnchant(newEnchantment, decision, levels[id], levels[id], cost);
+          }
+        }
+      }
+
+      Map<Enchantment, Integer> newEnchants =
+          new HashMap<>(baseEnchants.size() + additionEnchants.size());
+      for (int word = 0; word < newIds.length; ++word) {
+        for (long bits = newIds[word]; bits != 0; bits &= bits - 1) {
+          int id = (word << 6) + Long.numberOfTrailingZeros(bits);
+          newEnchants.put(known.enchantments[id], levels[id]);
+        }
+      }
+
+      return new MergeResult(levelCost, newEnchants);
+    }
+
+    private Snapshot require(
+        AnvilBehavior<T> behavior,
+        Map<Enchantment, Integer> baseEnchants,
+        Map<Enchantment, Integer> additionEnchants
+    ) {
+      Snapshot known = snapshot;
+      if (known.ids.keySet().containsAll(baseEnchants.keySet())
+          && known.ids.keySet().containsAll(additionEnchants.keySet())) {
+        return known;
+      }
+
+      synchronized (this) {
+        known = grow(behavior, snapshot, baseEnchants.keySet());
+        known = grow(behavior, known, additionEnchants.keySet());
+        snapshot = known;
+        return known;
+      }
+    }
+
+    private Snapshot grow(
+        AnvilBehavior<T> behavior,
+        Snapshot known,
+        Collection<Enchantment> added
+    ) {
+      Map<Enchantment, Integer> ids = new HashMap<>(known.ids);
+      List<Enchantment> enchantments = new ArrayList<>(Arrays.asList(known.enchantments));
+      for (Enchantment enchantment : added) {
+        if (!ids.containsKey(enchantment)) {
+          ids.put(enchantment, enchantments.size());
+          enchantments.add(enchantment);
+        }
+      }
+
+      int oldSize = known.enchantments.length;
+      int size = enchantments.size();
+      if (size == oldSize) {
+        return known;
+      }
+
+      int words = (size + 63) >>> 6;
+      int[] itemCosts = Arrays.copyOf(known.itemCosts, size);
+      int[] bookCosts = Arrays.copyOf(known.bookCosts, size);
+      long[][] conflicts = new long[size][];
+      for (int id = 0; id < size; ++id) {
+        conflicts[id] = id < oldSize ? Arrays.copyOf(known.conflicts[id], words) : new long[words];
+      }
+
+      for (int id = oldSize; id < size; ++id) {
+        Enchantment enchantment = enchantments.get(id);
+        itemCosts[id] = platform.getAnvilCost(enchantment, false);
+        bookCosts[id] = platform.getAnvilCost(enchantment, true);
+
+        for (int other = 0; other < size; ++other) {
+          Enchantment existing = enchantments.get(other);
+          if (Objects.equals(existing.getKey(), enchantment.getKey())) {
+            continue;
+          }
+          if (behavior.enchantsConflict(existing, enchantment)) {
+            conflicts[id][other >>> 6] |= 1L << other;
+          }
+          // Pairs of new enchantments are covered in both orders by the outer loop.
+          if (other < oldSize && behavior.enchantsConflict(enchantment, existing)) {
+            conflicts[other][id >>> 6] |= 1L << id;
+          }
+        }
+      }
+
+      return new Snapshot(
+          Map.copyOf(ids),
+          enchantments.toArray(new Enchantment[0]),
+          itemCosts,
+          bookCosts,
+          conflicts
+      );
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+      for (int i = 0; i < a.length; ++i) {
+        if ((a[i] & b[i]) != 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * An immutable set of known enchantments.
+     *
+     * @param ids the id of each enchantment
+     * @param enchantments the enchantment for each id
+     * @param itemCosts the anvil cost of each enchantment when added from an item
+     * @param bookCosts the anvil cost of each enchantment when added from a book
+     * @param conflicts the ids of enchantments preventing the addition of each enchantment
+     */
+    private record Snapshot(
+        Map<Enchantment, Integer> ids,
+        Enchantment[] enchantments,
+        int[] itemCosts,
+        int[] bookCosts,
+        long[][] conflicts
+    ) {
+
+      private static final Snapshot EMPTY =
+          new Snapshot(Map.of(), new Enchantment[0], new int[0], new int[0], new long[0][]);
+
+      private int words() {
+        return (enchantments.length + 63) >>> 6;
+      }
+
+    }
+
+  }
+
   public enum Platform {
     JAVA(new Java()),
     BEDROCK(new Bedrock()),;
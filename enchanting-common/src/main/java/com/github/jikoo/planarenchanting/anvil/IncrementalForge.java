@@ -0,0 +1,384 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import com.github.jikoo.planarenchanting.anvil.AnvilPipeline.Input;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An {@link Anvil} producing the same results as {@link PlanarForge} that remembers the inputs
+ * and intermediate {@link AnvilFunctionResult AnvilFunctionResults} of the previous operation
+ * for each {@link AnvilView}.
+ *
+ * <p>Every keystroke in the rename field and every slot change causes a new result to be
+ * requested. When only the rename text or the amount of the added item has changed, functions
+ * reading the changed {@link Input} are recomputed. All other function results are re-applied
+ * from the previous operation.</p>
+ *
+ * <p>Pieces are created from {@link AnvilInputs} captured from the view, so retained function
+ * results never observe later changes to the view's items. Retained results may still read the
+ * state of the piece that computed them, so pieces cannot be pooled via a
+ * {@link WorkPieceArena}.</p>
+ *
+ * <p>As with {@link PlanarForge}, a forge may optionally be constructed with a budget.</p>
+ *
+ * <p>As state is retained per view, views should be released via {@link #forget(AnvilView)} when
+ * they are closed. To prevent unbounded growth, only a limited number of views are remembered.</p>
+ *
+ * @param <T> the type of the input and output items
+ */
+@NullMarked
+public final class IncrementalForge<T> implements Anvil {
+
+  private static final int DEFAULT_MAXIMUM_VIEWS = 256;
+
+  private final BiFunction<AnvilView, AnvilInputs, WorkPiece<T>> createPiece;
+  private final AnvilBehavior<T> behavior;
+  private final AnvilFunctionsProvider<T> functions;
+  private final @Nullable Predicate<AnvilView> bypassBudget;
+  private final Map<AnvilView, Memo<T>> memos;
+
+  /**
+   * Construct a new {@code IncrementalForge}.
+   *
+   * @param createPiece the method for creating a {@link WorkPiece} from captured inputs
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   */
+  public IncrementalForge(
+      BiFunction<AnvilView, AnvilInputs, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions
+  ) {
+    this(createPiece, behavior, functions, null, DEFAULT_MAXIMUM_VIEWS);
+  }
+
+  /**
+   * Construct a new budgeted {@code IncrementalForge}. Operations reaching the maximum repair cost
+   * are refused as soon as it is reached.
+   *
+   * @see PlanarForge#PlanarForge(Function, AnvilBehavior, AnvilFunctionsProvider, Predicate)
+   * @param createPiece the method for creating a {@link WorkPiece} from captured inputs
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param bypassBudget the check for whether a view is exempt from the budget
+   */
+  public IncrementalForge(
+      BiFunction<AnvilView, AnvilInputs, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      Predicate<AnvilView> bypassBudget
+  ) {
+    this(createPiece, behavior, functions, bypassBudget, DEFAULT_MAXIMUM_VIEWS);
+  }
+
+  /**
+   * Construct a new {@code IncrementalForge}.
+   *
+   * @param createPiece the method for creating a {@link WorkPiece} from captured inputs
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param bypassBudget the check for whether a view is exempt from the budget, or {@code null}
+   *     if operations are never refused
+   * @param maximumViews the maximum number of views whose state is retained
+   */
+  public IncrementalForge(
+      BiFunction<AnvilView, AnvilInputs, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      @Nullable Predicate<AnvilView> bypassBudget,
+      int maximumViews
+  ) {
+    if (maximumViews < 1) {
+      throw new IllegalArgumentException("Maximum views must be positive");
+    }
+    this.createPiece = createPiece;
+    this.behavior = behavior;
+    this.functions = functions;
+    this.bypassBudget = bypassBudget;
+    this.memos = new LinkedHashMap<>(16, 0.75F, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<AnvilView, Memo<T>> eldest) {
+        return size() > maximumViews;
+      }
+    };
+  }
+
+  @Override
+  public AnvilResult getResult(AnvilView view) {
+    AnvilInputs inputs = AnvilInputs.capture(view);
+    if (isEmpty(inputs.base())) {
+      memos.remove(view);
+      return AnvilResult.EMPTY;
+    }
+
+    Memo<T> previous = memos.get(view);
+    Memo<T> memo = new Memo<>(inputs, getBudget(view));
+
+    if (previous != null && !previous.isReusableFor(memo)) {
+      previous = null;
+    }
+
+    if (previous != null && previous.isIdenticalTo(memo)) {
+      // Nothing has changed, the previous result can be reused as-is.
+      memo = previous;
+    } else {
+      memo.result = forge(view, memo, previous);
+    }
+
+    memos.put(view, memo);
+
+    AnvilResult result = memo.result;
+    if (isEmpty(result.item())) {
+      // Empty and refused results have no item to protect.
+      return result;
+    }
+    // Results are handed out to callers that may modify them. Keep the stored result pristine.
+    return new AnvilResult(
+        result.item().clone(),
+        result.levelCost(),
+        result.materialCost(),
+        result.ticket()
+    );
+  }
+
+  /**
+   * Discard any retained state for an {@link AnvilView}.
+   *
+   * @param view the {@code AnvilView} that is no longer in use
+   */
+  public void forget(AnvilView view) {
+    memos.remove(view);
+  }
+
+  /**
+   * Discard all retained state.
+   */
+  public void forgetAll() {
+    memos.clear();
+  }
+
+  /**
+   * Get the level cost at which operations in a view are refused.
+   *
+   * @param view the {@link AnvilView}
+   * @return the budget or {@link Integer#MAX_VALUE} if operations are never refused
+   */
+  private int getBudget(AnvilView view) {
+    if (bypassBudget == null || bypassBudget.test(view)) {
+      return Integer.MAX_VALUE;
+    }
+    return view.getMaximumRepairCost();
+  }
+
+  private AnvilResult forge(AnvilView view, Memo<T> memo, @Nullable Memo<T> previous) {
+    WorkPiece<T> piece = createPiece.apply(view, memo.inputs);
+    if (memo.budget != Integer.MAX_VALUE) {
+      piece.setDeferred();
+    }
+
+    Set<Input> changed = getChanged(memo, previous);
+
+    step(piece, memo, previous, Step.PRIOR_WORK_LEVEL_COST, changed);
+
+    ItemStack addition = memo.inputs.addition();
+    if (isEmpty(addition)) {
+      if (step(piece, memo, previous, Step.RENAME, changed) == null) {
+        // If there isn't a rename occurring, nothing is happening.
+        return AnvilResult.EMPTY;
+      }
+
+      // No addition means no other operations to perform.
+      return piece.temper();
+    }
+
+    if (Objects.requireNonNull(memo.inputs.base()).getAmount() != 1) {
+      // Multi-renames are allowed, multi-modifications are not.
+      return AnvilResult.EMPTY;
+    }
+
+    // Level cost only ever increases, so a piece over budget will never become affordable.
+    if (piece.getLevelCost() >= memo.budget) {
+      return AnvilResult.tooExpensive(piece.getLevelCost());
+    }
+
+    step(piece, memo, previous, Step.RENAME, changed);
+    // Apply prior work cost after rename.
+    // Rename also applies a prior work cost but does not increase it.
+    step(piece, memo, previous, Step.SET_ITEM_PRIOR_WORK, changed);
+
+    if (piece.getLevelCost() >= memo.budget) {
+      return AnvilResult.tooExpensive(piece.getLevelCost());
+    }
+
+    if (step(piece, memo, previous, Step.REPAIR_WITH_MATERIAL, changed) == null) {
+      // Only do combination repair if this is not a material repair.
+      step(piece, memo, previous, Step.REPAIR_WITH_COMBINE, changed);
+    }
+
+    if (piece.getLevelCost() >= memo.budget) {
+      return AnvilResult.tooExpensive(piece.getLevelCost());
+    }
+
+    step(piece, memo, previous, Step.COMBINE_ENCHANTS, changed);
+
+    if (piece.getLevelCost() >= memo.budget) {
+      return AnvilResult.tooExpensive(piece.getLevelCost());
+    }
+
+    return piece.temper();
+  }
+
+  /**
+   * Get the {@link Input Inputs} that differ from the previous operation. Without a reusable
+   * previous operation, all inputs are considered changed.
+   *
+   * @param memo the new inputs
+   * @param previous the previous operation
+   * @return the changed inputs
+   */
+  private static <T> Set<Input> getChanged(Memo<T> memo, @Nullable Memo<T> previous) {
+    if (previous == null) {
+      return EnumSet.allOf(Input.class);
+    }
+
+    Set<Input> changed = EnumSet.noneOf(Input.class);
+    if (!Objects.equals(previous.inputs.renameText(), memo.inputs.renameText())) {
+      changed.add(Input.RENAME_TEXT);
+    }
+    if (getAmount(previous.inputs.addition()) != getAmount(memo.inputs.addition())) {
+      changed.add(Input.ADDITION);
+    }
+    return changed;
+  }
+
+  private @Nullable AnvilFunctionResult<T> step(
+      WorkPiece<T> piece,
+      Memo<T> memo,
+      @Nullable Memo<T> previous,
+      Step step,
+      Set<Input> changed
+  ) {
+    AnvilFunctionResult<T> result;
+    if (previous != null
+        && previous.evaluated[step.ordinal()]
+        && !step.readsAny(changed)) {
+      result = previous.results[step.ordinal()];
+    } else {
+      result = piece.compute(behavior, step.function(functions));
+    }
+
+    memo.evaluated[step.ordinal()] = true;
+    memo.results[step.ordinal()] = result;
+
+    if (result != null) {
+      piece.apply(result);
+    }
+
+    return result;
+  }
+
+  private static boolean isEmpty(@Nullable ItemStack itemStack) {
+    return itemStack == null || itemStack.getType() == Material.AIR || itemStack.getAmount() < 1;
+  }
+
+  private static int getAmount(@Nullable ItemStack itemStack) {
+    return isEmpty(itemStack) ? 0 : itemStack.getAmount();
+  }
+
+  /**
+   * The vanilla steps and the {@link Input Inputs} they read, matching
+   * {@link AnvilPipeline#vanilla(AnvilFunctionsProvider)}.
+   */
+  private enum Step {
+    PRIOR_WORK_LEVEL_COST(AnvilFunctionsProvider::addPriorWorkLevelCost, EnumSet.of(Input.BASE)),
+    RENAME(AnvilFunctionsProvider::rename, EnumSet.of(Input.BASE, Input.RENAME_TEXT)),
+    SET_ITEM_PRIOR_WORK(
+        AnvilFunctionsProvider::setItemPriorWork,
+        EnumSet.of(Input.BASE, Input.ADDITION)),
+    REPAIR_WITH_MATERIAL(
+        AnvilFunctionsProvider::repairWithMaterial,
+        EnumSet.of(Input.BASE, Input.ADDITION)),
+    REPAIR_WITH_COMBINE(
+        AnvilFunctionsProvider::repairWithCombine,
+        EnumSet.of(Input.BASE, Input.ADDITION)),
+    COMBINE_ENCHANTS(
+        AnvilFunctionsProvider::combineEnchantsJava,
+        EnumSet.of(Input.BASE, Input.ADDITION));
+
+    private final Function<AnvilFunctionsProvider<?>, AnvilFunction<?>> getter;
+    private final Set<Input> reads;
+
+    Step(Function<AnvilFunctionsProvider<?>, AnvilFunction<?>> getter, Set<Input> reads) {
+      this.getter = getter;
+      this.reads = reads;
+    }
+
+    private boolean readsAny(Set<Input> changed) {
+      for (Input input : changed) {
+        if (reads.contains(input)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> AnvilFunction<T> function(AnvilFunctionsProvider<T> functions) {
+      return (AnvilFunction<T>) getter.apply(functions);
+    }
+  }
+
+  private static final class Memo<T> {
+
+    private final AnvilInputs inputs;
+    private final int budget;
+    private final boolean[] evaluated = new boolean[Step.values().length];
+    @SuppressWarnings("unchecked")
+    private final @Nullable AnvilFunctionResult<T>[] results =
+        new AnvilFunctionResult[Step.values().length];
+    private AnvilResult result = AnvilResult.EMPTY;
+
+    private Memo(AnvilInputs inputs, int budget) {
+      this.inputs = inputs;
+      this.budget = budget;
+    }
+
+    /**
+     * Check if the retained results of this memo may be used for the new inputs. Results may be
+     * reused if the base and budget are unchanged and the addition differs by amount at most.
+     *
+     * @param other the new inputs
+     * @return whether the retained results may be used
+     */
+    private boolean isReusableFor(Memo<T> other) {
+      if (budget != other.budget
+          || inputs.maximumRepairCost() != other.inputs.maximumRepairCost()
+          || !Objects.equals(inputs.base(), other.inputs.base())) {
+        return false;
+      }
+      ItemStack addition = inputs.addition();
+      ItemStack otherAddition = other.inputs.addition();
+      if (isEmpty(addition) || isEmpty(otherAddition)) {
+        return isEmpty(addition) == isEmpty(otherAddition);
+      }
+      return addition.isSimilar(otherAddition);
+    }
+
+    private boolean isIdenticalTo(Memo<T> other) {
+      return getChanged(other, this).isEmpty();
+    }
+
+  }
+
+}
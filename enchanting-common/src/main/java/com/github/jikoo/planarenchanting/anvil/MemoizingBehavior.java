@@ -0,0 +1,256 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import com.github.jikoo.planarenchanting.util.Metrics;
+import com.github.jikoo.planarenchanting.util.MetricsSink;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * An {@link AnvilBehavior} remembering the results of another behavior's enchantment checks.
+ *
+ * <p>Enchantment conflicts are remembered per pair of enchantments, maximum levels per
+ * enchantment, and applicability per enchantment and item type. Results are stored in dense
+ * primitive tables indexed by enchantment ids assigned on first use. Item combination and repair
+ * checks are always passed through.</p>
+ *
+ * <p>The delegate's enchantment checks must depend only on the enchantments and the item's type.
+ * If their results change, i.e. when a configuration or datapacks are reloaded, remembered
+ * results must be discarded via {@link #invalidate()}.</p>
+ *
+ * @param <T> the type of the input items
+ */
+@NullMarked
+public final class MemoizingBehavior<T> implements AnvilBehavior<T> {
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int TYPES = Material.values().length;
+  private static final byte UNKNOWN = 0;
+  private static final byte FALSE = 1;
+  private static final byte TRUE = 2;
+  private static final int UNKNOWN_LEVEL = Integer.MIN_VALUE;
+
+  private final AnvilBehavior<T> delegate;
+  private final Function<T, Material> getType;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private volatile State state = new State();
+
+  /**
+   * Construct a new {@code MemoizingBehavior}.
+   *
+   * @param delegate the {@link AnvilBehavior} whose results are remembered
+   * @param getType the method for obtaining the type of an item
+   */
+  public MemoizingBehavior(AnvilBehavior<T> delegate, Function<T, Material> getType) {
+    this.delegate = delegate;
+    this.getType = getType;
+  }
+
+  @Override
+  public boolean enchantApplies(Enchantment enchantment, T base) {
+    State local = state;
+    int id = local.id(enchantment);
+    int type = getType.apply(base).ordinal();
+    byte[] row = local.table(id).applies[id];
+
+    byte known = row[type];
+    if (known != UNKNOWN) {
+      hit();
+      return known == TRUE;
+    }
+
+    miss();
+    boolean applies = delegate.enchantApplies(enchantment, base);
+    row[type] = applies ? TRUE : FALSE;
+    return applies;
+  }
+
+  @Override
+  public boolean enchantsConflict(Enchantment enchant1, Enchantment enchant2) {
+    State local = state;
+    int id1 = local.id(enchant1);
+    int id2 = local.id(enchant2);
+    byte[] row = local.table(Math.max(id1, id2)).conflicts[id1];
+
+    byte known = row[id2];
+    if (known != UNKNOWN) {
+      hit();
+      return known == TRUE;
+    }
+
+    miss();
+    boolean conflicts = delegate.enchantsConflict(enchant1, enchant2);
+    row[id2] = conflicts ? TRUE : FALSE;
+    return conflicts;
+  }
+
+  @Override
+  public int getEnchantMaxLevel(Enchantment enchantment) {
+    State local = state;
+    int id = local.id(enchantment);
+    int[] maxLevels = local.table(id).maxLevels;
+
+    int known = maxLevels[id];
+    if (known != UNKNOWN_LEVEL) {
+      hit();
+      return known;
+    }
+
+    miss();
+    int maxLevel = delegate.getEnchantMaxLevel(enchantment);
+    maxLevels[id] = maxLevel;
+    return maxLevel;
+  }
+
+  @Override
+  public boolean itemsCombineEnchants(T base, T addition) {
+    return delegate.itemsCombineEnchants(base, addition);
+  }
+
+  @Override
+  public boolean itemRepairedBy(T repaired, T repairMat) {
+    return delegate.itemRepairedBy(repaired, repairMat);
+  }
+
+  /**
+   * Discard all remembered results.
+   */
+  public void invalidate() {
+    state = new State();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Memoized conflicts are retained until {@link #invalidate()}, so precomputed conflicts are
+   * discarded along with them.</p>
+   */
+  @Override
+  public Object getConflictVersion() {
+    return state;
+  }
+
+  /**
+   * Get the number of checks answered from remembered results.
+   *
+   * @return the number of hits
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Get the number of checks passed through to the delegate.
+   *
+   * @return the number of misses
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Get the fraction of checks answered from remembered results.
+   *
+   * @return the hit rate, or {@code 0} if no checks have been made
+   */
+  public double getHitRate() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  private void hit() {
+    hits.increment();
+    MetricsSink sink = Metrics.getSink();
+    if (sink != null) {
+      sink.recordOutcome(this, true);
+    }
+  }
+
+  private void miss() {
+    misses.increment();
+    MetricsSink sink = Metrics.getSink();
+    if (sink != null) {
+      sink.recordOutcome(this, false);
+    }
+  }
+
+  /**
+   * Enchantment ids and the tables indexed by them. Ids and tables are replaced together on
+   * invalidation so that an id is never used with a table it was not assigned for.
+   */
+  private static final class State {
+
+    private final Map<Enchantment, Integer> ids = new ConcurrentHashMap<>();
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+
+    private int id(Enchantment enchantment) {
+      Integer id = ids.get(enchantment);
+      if (id != null) {
+        return id;
+      }
+
+      synchronized (this) {
+        // Ids are only assigned while synchronized, so the size is stable.
+        return ids.computeIfAbsent(enchantment, key -> ids.size());
+      }
+    }
+
+    private Table table(int id) {
+      Table local = table;
+      if (id < local.maxLevels.length) {
+        return local;
+      }
+
+      synchronized (this) {
+        local = table;
+        int capacity = local.maxLevels.length;
+        while (capacity <= id) {
+          capacity <<= 1;
+        }
+        if (capacity != local.maxLevels.length) {
+          local = new Table(local, capacity);
+          table = local;
+        }
+        return local;
+      }
+    }
+
+  }
+
+  /**
+   * Remembered results. Concurrent writes may race, but always write the same value.
+   */
+  private static final class Table {
+
+    private final byte[][] conflicts;
+    private final byte[][] applies;
+    private final int[] maxLevels;
+
+    private Table(int capacity) {
+      this.conflicts = new byte[capacity][capacity];
+      this.applies = new byte[capacity][TYPES];
+      this.maxLevels = new int[capacity];
+      Arrays.fill(maxLevels, UNKNOWN_LEVEL);
+    }
+
+    private Table(Table old, int capacity) {
+      this(capacity);
+      int oldCapacity = old.maxLevels.length;
+      for (int id = 0; id < oldCapacity; ++id) {
+        System.arraycopy(old.conflicts[id], 0, conflicts[id], 0, oldCapacity);
+        // Applicability rows are not resized and may be shared.
+        applies[id] = old.applies[id];
+      }
+      System.arraycopy(old.maxLevels, 0, maxLevels, 0, oldCapacity);
+    }
+
+  }
+
+}
@@ -0,0 +1,38 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import java.util.List;
+import java.util.Map;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * The cheapest order in which to combine enchantment sources into a target item, as produced by a
+ * {@link MergePlanner}.
+ *
+ * <p>Items are identified by index: {@code 0} is the target and {@code n} is the {@code n}th
+ * source, counting from {@code 1}.</p>
+ *
+ * @param levelCost the total level cost of all steps
+ * @param priorWork the prior work cost of the final item
+ * @param enchantments the enchantments of the final item
+ * @param steps the anvil operations to perform, in order
+ */
+@NullMarked
+public record MergePlan(
+    int levelCost,
+    int priorWork,
+    Map<Enchantment, Integer> enchantments,
+    List<Step> steps
+) {
+
+  /**
+   * A single anvil operation. Each slot contains the result of all previous steps combining the
+   * listed items, or the item itself if only one is listed.
+   *
+   * @param base the items making up the base item
+   * @param addition the items making up the added item
+   * @param levelCost the level cost of the operation
+   */
+  public record Step(List<Integer> base, List<Integer> addition, int levelCost) {}
+
+}
@@ -0,0 +1,284 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import com.github.jikoo.planarenchanting.anvil.CombineEnchants.MergeResult;
+import com.github.jikoo.planarenchanting.util.EnchantmentAccess;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A planner for the cheapest order in which to combine several enchantment sources into a target
+ * item.
+ *
+ * <p>Every anvil operation doubles the prior work cost of its result, so the shape of the merge
+ * tree has a large effect on the total cost. The planner considers every merge tree by combining
+ * the cheapest ways of producing each subset of the items. Subsets of the same size are evaluated
+ * in parallel. Trees containing an operation that would be too expensive for the anvil are
+ * discarded.</p>
+ *
+ * <p>Costs are produced using the {@link CombineEnchants} in use, so plans may be made for any
+ * {@link CombineEnchants.Platform Platform}. The enchantments resulting from a subset are assumed
+ * not to depend on the order they were combined in. This is the case unless multiple sources
+ * contain the same enchantment at the same level below its maximum.</p>
+ *
+ * <p>As subsets are evaluated concurrently, the {@link AnvilBehavior} in use must be safe to use
+ * from multiple threads.</p>
+ *
+ * @param <T> the type of the items
+ */
+@NullMarked
+public final class MergePlanner<T> {
+
+  /** The maximum number of items, including the target, that may be planned at once. */
+  public static final int MAXIMUM_ITEMS = 12;
+
+  private final Function<ItemStack, T> createItem;
+  private final AnvilBehavior<T> behavior;
+  private final CombineEnchants<T> combineEnchants;
+  private final ToIntFunction<T> priorWork;
+
+  /**
+   * Construct a new {@code MergePlanner}.
+   *
+   * @param createItem the method for converting an {@link ItemStack} into an item
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param combineEnchants the {@link CombineEnchants} used to calculate costs
+   * @param priorWork the method for obtaining the prior work cost of an item
+   */
+  public MergePlanner(
+      Function<ItemStack, T> createItem,
+      AnvilBehavior<T> behavior,
+      CombineEnchants<T> combineEnchants,
+      ToIntFunction<T> priorWork
+  ) {
+    this.createItem = createItem;
+    this.behavior = behavior;
+    this.combineEnchants = combineEnchants;
+    this.priorWork = priorWork;
+  }
+
+  /**
+   * Plan the cheapest order in which to combine sources into a target.
+   *
+   * @param target the item receiving the enchantments
+   * @param sources the items providing enchantments
+   * @param maximumRepairCost the level cost at which an operation becomes too expensive
+   * @return the cheapest plan or {@code null} if the sources cannot all be combined
+   * @throws IllegalArgumentException if there are more than {@link #MAXIMUM_ITEMS} items
+   */
+  public @Nullable MergePlan plan(
+      ItemStack target,
+      List<ItemStack> sources,
+      int maximumRepairCost
+  ) {
+    int count = sources.size() + 1;
+    if (count > MAXIMUM_ITEMS) {
+      throw new IllegalArgumentException("Cannot plan more than " + MAXIMUM_ITEMS + " items");
+    }
+
+    List<T> items = new ArrayList<>(count);
+    items.add(createItem.apply(target));
+    for (ItemStack source : sources) {
+      items.add(createItem.apply(source));
+    }
+
+    EnchantmentAccess<T> access = combineEnchants.getAccess();
+    int all = (1 << count) - 1;
+    AtomicReferenceArray<Map<Integer, Node>> best = new AtomicReferenceArray<>(all + 1);
+
+    for (int index = 0; index < count; ++index) {
+      T item = items.get(index);
+      Node leaf = new Node(
+          1 << index,
+          priorWork.applyAsInt(item),
+          0,
+          0,
+          access.getEnchantments(item),
+          null,
+          null
+      );
+      best.set(leaf.items, Map.of(leaf.priorWork, leaf));
+    }
+
+    for (int size = 2; size <= count; ++size) {
+      int layer = size;
+      // Subsets of the same size only depend on smaller subsets, so they may be evaluated at once.
+      IntStream.rangeClosed(1, all)
+          .parallel()
+          .filter(subset -> Integer.bitCount(subset) == layer)
+          .forEach(subset ->
+              best.set(subset, merge(items, access, best, subset, maximumRepairCost)));
+    }
+
+    Node cheapest = best.get(all).values().stream()
+        .min(Comparator.comparingInt(Node::totalCost).thenComparingInt(Node::priorWork))
+        .orElse(null);
+
+    if (cheapest == null) {
+      return null;
+    }
+
+    List<MergePlan.Step> steps = new ArrayList<>(count - 1);
+    addSteps(cheapest, steps);
+    return new MergePlan(cheapest.totalCost, cheapest.priorWork, cheapest.enchantments, steps);
+  }
+
+  private Map<Integer, Node> merge(
+      List<T> items,
+      EnchantmentAccess<T> access,
+      AtomicReferenceArray<Map<Integer, Node>> best,
+      int subset,
+      int maximumRepairCost
+  ) {
+    Map<Integer, Node> merged = new HashMap<>();
+    boolean hasTarget = (subset & 1) != 0;
+
+    for (int base = (subset - 1) & subset; base != 0; base = (base - 1) & subset) {
+      if (hasTarget && (base & 1) == 0) {
+        // The target must always remain in the base slot.
+        continue;
+      }
+
+      int addition = subset ^ base;
+      // The lowest item in a subset represents its type.
+      T baseItem = items.get(Integer.numberOfTrailingZeros(base));
+      T additionItem = items.get(Integer.numberOfTrailingZeros(addition));
+      if (!behavior.itemsCombineEnchants(baseItem, additionItem)) {
+        continue;
+      }
+
+      boolean isFromBook = access.isBook(additionItem);
+      for (Node baseNode : best.get(base).values()) {
+        for (Node additionNode : best.get(addition).values()) {
+          Node node = combine(baseItem, isFromBook, baseNode, additionNode, maximumRepairCost);
+          if (node != null) {
+            merged.merge(node.priorWork, node, MergePlanner::cheaper);
+          }
+        }
+      }
+    }
+
+    return prune(merged);
+  }
+
+  private @Nullable Node combine(
+      T baseItem,
+      boolean isFromBook,
+      Node base,
+      Node addition,
+      int maximumRepairCost
+  ) {
+    if (addition.enchantments.isEmpty()) {
+      return null;
+    }
+
+    MergeResult result = combineEnchants.getLevelCost(
+        behavior,
+        baseItem,
+        isFromBook,
+        base.enchantments,
+        addition.enchantments
+    );
+
+    if (result.enchantments().equals(base.enchantments)) {
+      // Vanilla does not produce a result if nothing changes.
+      return null;
+    }
+
+    int enchantCost = result.levelCost() < 0 ? maximumRepairCost : result.levelCost();
+    int stepCost = base.priorWork + addition.priorWork + enchantCost;
+    if (stepCost >= maximumRepairCost) {
+      return null;
+    }
+
+    return new Node(
+        base.items | addition.items,
+        Math.max(base.priorWork, addition.priorWork) * 2 + 1,
+        base.totalCost + addition.totalCost + stepCost,
+        stepCost,
+        result.enchantments(),
+        base,
+        addition
+    );
+  }
+
+  private static Node cheaper(Node a, Node b) {
+    return b.totalCost < a.totalCost ? b : a;
+  }
+
+  /**
+   * Remove any ways of producing a subset that are both more expensive and result in higher prior
+   * work than another way.
+   *
+   * @param nodes the ways of producing the subset by prior work
+   * @return the remaining ways
+   */
+  private static Map<Integer, Node> prune(Map<Integer, Node> nodes) {
+    Map<Integer, Node> pruned = new HashMap<>();
+    int lowestCost = Integer.MAX_VALUE;
+    List<Node> byPriorWork = nodes.values().stream()
+        .sorted(Comparator.comparingInt(Node::priorWork))
+        .toList();
+    for (Node node : byPriorWork) {
+      if (node.totalCost < lowestCost) {
+        lowestCost = node.totalCost;
+        pruned.put(node.priorWork, node);
+      }
+    }
+    return pruned;
+  }
+
+  private static void addSteps(Node node, List<MergePlan.Step> steps) {
+    if (node.base == null || node.addition == null) {
+      return;
+    }
+
+    addSteps(node.base, steps);
+    addSteps(node.addition, steps);
+    steps.add(new MergePlan.Step(
+        indices(node.base.items),
+        indices(node.addition.items),
+        node.stepCost
+    ));
+  }
+
+  private static List<Integer> indices(int items) {
+    List<Integer> indices = new ArrayList<>(Integer.bitCount(items));
+    for (int remaining = items; remaining != 0; remaining &= remaining - 1) {
+      indices.add(Integer.numberOfTrailingZeros(remaining));
+    }
+    return indices;
+  }
+
+  /**
+   * The cheapest known way to produce a subset of items with a specific prior work cost.
+   *
+   * @param items the bitmask of items combined
+   * @param priorWork the prior work cost of the result
+   * @param totalCost the total level cost of all operations producing the result
+   * @param stepCost the level cost of the final operation
+   * @param enchantments the enchantments of the result
+   * @param base the node in the base slot of the final operation, if any
+   * @param addition the node in the addition slot of the final operation, if any
+   */
+  private record Node(
+      int items,
+      int priorWork,
+      int totalCost,
+      int stepCost,
+      Map<Enchantment, Integer> enchantments,
+      @Nullable Node base,
+      @Nullable Node addition
+  ) {}
+
+}
@@ -1,15 +1,31 @@
 package com.github.jikoo.planarenchanting.anvil;
 
+import com.github.jikoo.planarenchanting.util.InputCapture;
+import com.github.jikoo.planarenchanting.util.InputSample.AnvilSample;
+import com.github.jikoo.planarenchanting.util.InputSample.ItemSample;
+import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import org.bukkit.Material;
 import org.bukkit.inventory.AnvilInventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.view.AnvilView;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 /**
  * The default {@link Anvil} implementation. Wraps a {@link WorkPiece}, {@link AnvilBehavior},
  * and {@link AnvilFunctionsProvider} to create an {@link AnvilResult} with vanilla parity.
+ * Alternately, a custom {@link AnvilPipeline} may be used in place of the provider.
+ *
+ * <p>A forge may optionally be constructed with a budget. Vanilla refuses operations costing at
+ * least {@link AnvilView#getMaximumRepairCost()} levels unless the player is in creative mode. A
+ * budgeted forge checks the level cost after each function and stops as soon as the maximum is
+ * reached, producing {@link AnvilResult#tooExpensive(int)} without creating a result item. Whether
+ * a view bypasses the budget is decided by the caller, i.e. by checking the player's game mode.
+ * Renaming without an addition is never refused. As refused operations are not evaluated further,
+ * an operation may be refused even if it would not otherwise have produced a result.</p>
  *
  * @param <T> the type of the input and output items
  */
@@ -18,45 +34,353 @@ public final class PlanarForge<T> implements Anvil {
 
   private final Function<AnvilView, WorkPiece<T>> createPiece;
   private final AnvilBehavior<T> behavior;
-  private final AnvilFunctionsProvider<T> functions;
+  private final @Nullable AnvilFunctionsProvider<T> functions;
+  private final @Nullable AnvilPipeline<T> pipeline;
+  private final @Nullable Predicate<AnvilView> bypassBudget;
 
   public PlanarForge(
       Function<AnvilView, WorkPiece<T>> createPiece,
       AnvilBehavior<T> behavior,
       AnvilFunctionsProvider<T> functions
+  ) {
+    this(createPiece, behavior, functions, null, null);
+  }
+
+  /**
+   * Construct a new budgeted {@code PlanarForge}. Operations reaching the maximum repair cost are
+   * refused as soon as it is reached.
+   *
+   * <p>As with cost-only calculation, functions are passed the base item in place of the result
+   * until the operation is known to be affordable. Functions must only modify the result via
+   * their {@link AnvilFunctionResult}.</p>
+   *
+   * @param createPiece the method for creating a {@link WorkPiece} from a view
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param bypassBudget the check for whether a view is exempt from the budget
+   */
+  public PlanarForge(
+      Function<AnvilView, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      Predicate<AnvilView> bypassBudget
+  ) {
+    this(createPiece, behavior, functions, null, bypassBudget);
+  }
+
+  /**
+   * Construct a new {@code PlanarForge} applying a custom {@link AnvilPipeline}.
+   *
+   * @param createPiece the method for creating a {@link WorkPiece} from a view
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param pipeline the {@code AnvilPipeline} in use
+   */
+  public PlanarForge(
+      Function<AnvilView, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilPipeline<T> pipeline
+  ) {
+    this(createPiece, behavior, null, pipeline, null);
+  }
+
+  /**
+   * Construct a new budgeted {@code PlanarForge} applying a custom {@link AnvilPipeline}.
+   *
+   * @see #PlanarForge(Function, AnvilBehavior, AnvilFunctionsProvider, Predicate)
+   * @param createPiece the method for creating a {@link WorkPiece} from a view
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param pipeline the {@code AnvilPipeline} in use
+   * @param bypassBudget the check for whether a view is exempt from the budget
+   */
+  public PlanarForge(
+      Function<AnvilView, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      AnvilPipeline<T> pipeline,
+      Predicate<AnvilView> bypassBudget
+  ) {
+    this(createPiece, behavior, null, pipeline, bypassBudget);
+  }
+
+  private PlanarForge(
+      Function<AnvilView, WorkPiece<T>> createPiece,
+      AnvilBehavior<T> behavior,
+      @Nullable AnvilFunctionsProvider<T> functions,
+      @Nullable AnvilPipeline<T> pipeline,
+      @Nullable Predicate<AnvilView> bypassBudget
   ) {
     this.createPiece = createPiece;
     this.behavior = behavior;
     this.functions = functions;
+    this.pipeline = pipeline;
+    this.bypassBudget = bypassBudget;
   }
 
   @Override
   public AnvilResult getResult(AnvilView view) {
-    WorkPiece<T> piece = createPiece.apply(view);
+    return getResult(view, null);
+  }
+
+  /**
+   * Produce an {@link AnvilResult} while recording how it was produced. Each applied function is
+   * recorded with the costs it added, and each enchantment combined is recorded with the decision
+   * made for it.
+   *
+   * <p>Tracing records additional data, so it should be used for debugging and explaining
+   * disputed costs rather than for every operation.</p>
+   *
+   * @param view the {@link AnvilView} to produce a result for
+   * @return the {@link AnvilTrace} containing the result
+   */
+  public AnvilTrace explain(AnvilView view) {
+    AnvilTrace trace = new AnvilTrace();
+    trace.setResult(getResult(view, trace));
+    return trace;
+  }
 
+  private AnvilResult getResult(AnvilView view, @Nullable AnvilTrace trace) {
     AnvilInventory anvil = view.getTopInventory();
-    ItemStack base = anvil.getItem(0);
+    return getResult(
+        createPiece.apply(view),
+        anvil.getItem(0),
+        anvil.getItem(1),
+        getBudget(view),
+        trace,
+        () -> AnvilInputs.capture(view)
+    );
+  }
+
+  /**
+   * Produce an {@link AnvilResult} for inputs captured from a view. The view is not accessed, so
+   * this may be called from any thread if the {@link WorkPiece} does not access the view either.
+   *
+   * @param piece the {@code WorkPiece} created from the inputs
+   * @param inputs the captured inputs
+   * @param budget the level cost at which the operation is refused, obtained via
+   *     {@link #getBudget(AnvilView)} when the inputs were captured
+   * @return the {@code AnvilResult} produced
+   */
+  AnvilResult getResult(WorkPiece<T> piece, AnvilInputs inputs, int budget) {
+    return getResult(piece, inputs.base(), inputs.addition(), budget, null, () -> inputs);
+  }
+
+  private AnvilResult getResult(
+      WorkPiece<T> piece,
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      int budget,
+      @Nullable AnvilTrace trace,
+      Supplier<AnvilInputs> sample
+  ) {
+    AnvilResultEvent event = new AnvilResultEvent();
+    event.begin();
+    AnvilResult result;
+    try {
+      InputCapture capture = InputCapture.getInstalled();
+      if (capture != null && capture.sample()) {
+        AnvilInputs inputs = sample.get();
+        capture.record(new AnvilSample(
+            behavior.getClass().getName(),
+            ItemSample.of(inputs.base()),
+            ItemSample.of(inputs.addition()),
+            inputs.renameText(),
+            inputs.maximumRepairCost()));
+      }
+      if (trace != null) {
+        piece.setTrace(trace);
+      }
+      if (budget != Integer.MAX_VALUE) {
+        piece.setDeferred();
+      }
+      result = forge(
+          piece,
+          base,
+          addition,
+          WorkPiece::temper,
+          AnvilResult.EMPTY,
+          budget,
+          refused -> AnvilResult.tooExpensive(refused.getLevelCost())
+      );
+    } finally {
+      piece.release();
+    }
+    event.complete(base, result);
+    return result;
+  }
+
+  /**
+   * Produce an {@link AnvilCost} without creating or modifying a result item.
+   *
+   * @param view the {@link AnvilView} to calculate a cost for
+   * @return the {@code AnvilCost} produced
+   */
+  @Override
+  public AnvilCost getCost(AnvilView view) {
+    AnvilInventory anvil = view.getTopInventory();
+    return getCost(createPiece.apply(view), anvil.getItem(0), anvil.getItem(1), getBudget(view));
+  }
+
+  /**
+   * Produce an {@link AnvilCost} for inputs captured from a view without creating a result item.
+   *
+   * @see #getResult(WorkPiece, AnvilInputs, int)
+   * @param piece the {@code WorkPiece} created from the inputs
+   * @param inputs the captured inputs
+   * @param budget the level cost at which the operation is refused
+   * @return the {@code AnvilCost} produced
+   */
+  AnvilCost getCost(WorkPiece<T> piece, AnvilInputs inputs, int budget) {
+    return getCost(piece, inputs.base(), inputs.addition(), budget);
+  }
+
+  private AnvilCost getCost(
+      WorkPiece<T> piece,
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      int budget
+  ) {
+    try {
+      piece.setCostOnly();
+      return forge(
+          piece,
+          base,
+          addition,
+          WorkPiece::appraise,
+          AnvilCost.EMPTY,
+          budget,
+          refused -> new AnvilCost(refused.getLevelCost(), refused.getMaterialCost())
+      );
+    } finally {
+      piece.release();
+    }
+  }
+
+  private <R> R forge(
+      WorkPiece<T> piece,
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      Function<WorkPiece<T>, R> finish,
+      R empty,
+      int budget,
+      Function<WorkPiece<T>, R> refuse
+  ) {
+    if (pipeline != null) {
+      return pipeline.forge(piece, behavior, base, addition, finish, empty, budget, refuse);
+    }
+    return forge(
+        piece,
+        behavior,
+        Objects.requireNonNull(functions),
+        base,
+        addition,
+        finish,
+        empty,
+        budget,
+        refuse
+    );
+  }
+
+  /**
+   * Get the level cost at which operations in a view are refused.
+   *
+   * @param view the {@link AnvilView}
+   * @return the budget or {@link Integer#MAX_VALUE} if operations are never refused
+   */
+  int getBudget(AnvilView view) {
+    if (bypassBudget == null || bypassBudget.test(view)) {
+      return Integer.MAX_VALUE;
+    }
+    return view.getMaximumRepairCost();
+  }
+
+  /**
+   * Produce an outcome by applying functions to a {@link WorkPiece}.
+   *
+   * @param piece the {@code WorkPiece} to operate on
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param base the base item
+   * @param addition the added item
+   * @param finish the method of finalizing the piece
+   * @param empty the outcome if no operation is occurring
+   * @param <T> the type of the input and output items
+   * @param <R> the type of the outcome
+   * @return the outcome produced
+   */
+  static <T, R> R forge(
+      WorkPiece<T> piece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      Function<WorkPiece<T>, R> finish,
+      R empty
+  ) {
+    return forge(
+        piece,
+        behavior,
+        functions,
+        base,
+        addition,
+        finish,
+        empty,
+        Integer.MAX_VALUE,
+        finish
+    );
+  }
+
+  /**
+   * Produce an outcome by applying functions to a {@link WorkPiece}, refusing any modification
+   * once its level cost reaches a budget.
+   *
+   * @param piece the {@code WorkPiece} to operate on
+   * @param behavior the {@link AnvilBehavior} in use
+   * @param functions the {@link AnvilFunctionsProvider} in use
+   * @param base the base item
+   * @param addition the added item
+   * @param finish the method of finalizing the piece
+   * @param empty the outcome if no operation is occurring
+   * @param budget the level cost at which modifications are refused
+   * @param refuse the method of producing an outcome for a refused piece
+   * @param <T> the type of the input and output items
+   * @param <R> the type of the outcome
+   * @return the outcome produced
+   */
+  static <T, R> R forge(
+      WorkPiece<T> piece,
+      AnvilBehavior<T> behavior,
+      AnvilFunctionsProvider<T> functions,
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      Function<WorkPiece<T>, R> finish,
+      R empty,
+      int budget,
+      Function<WorkPiece<T>, R> refuse
+  ) {
     if (base == null || base.getType() == Material.AIR || base.getAmount() < 1) {
-      return AnvilResult.EMPTY;
+      return empty;
     }
 
     piece.apply(behavior, functions.addPriorWorkLevelCost());
 
-    ItemStack addition = anvil.getItem(1);
     if (addition == null || addition.getType() == Material.AIR || addition.getAmount() < 1) {
       if (!piece.apply(behavior, functions.rename())) {
         // If there isn't a rename occurring, nothing is happening.
-        return AnvilResult.EMPTY;
+        return empty;
       }
 
       // No addition means no other operations to perform.
-      return piece.temper();
+      return finish.apply(piece);
     }
 
     if (base.getAmount() != 1) {
       // Multi-renames are allowed, multi-modifications are not.
       // Vanilla allows multi-modifications "for creative" but the way it does it is problematic.
-      return AnvilResult.EMPTY;
+      return empty;
+    }
+
+    // Level cost only ever increases, so a piece over budget will never become affordable.
+    if (piece.getLevelCost() >= budget) {
+      return refuse.apply(piece);
     }
 
     piece.apply(behavior, functions.rename());
@@ -64,17 +388,42 @@ public final class PlanarForge<T> implements Anvil {
     // Rename also applies a prior work cost but does not increase it.
     piece.apply(behavior, functions.setItemPriorWork());
 
+    if (piece.getLevelCost() >= budget) {
+      return refuse.apply(piece);
+    }
+
     if (!piece.apply(behavior, functions.repairWithMaterial())) {
       // Only do combination repair if this is not a material repair.
       piece.apply(behavior, functions.repairWithCombine());
     }
 
+    if (piece.getLevelCost() >= budget) {
+      return refuse.apply(piece);
+    }
+
     // Differing from vanilla - since we use a custom determination for whether enchantments should
     // transfer (which defaults to indirectly mimicking vanilla), enchantments may need to be
     // applied from a material repair.
     piece.apply(behavior, functions.combineEnchantsJava());
 
-    return piece.temper();
+    if (piece.getLevelCost() >= budget) {
+      return refuse.apply(piece);
+    }
+
+    return finish.apply(piece);
+  }
+
+  AnvilBehavior<T> getBehavior() {
+    return behavior;
+  }
+
+  /**
+   * Get the identity of the functions in use.
+   *
+   * @return the {@link AnvilFunctionsProvider} or {@link AnvilPipeline} in use
+   */
+  Object getFunctions() {
+    return pipeline != null ? pipeline : Objects.requireNonNull(functions);
   }
 
 }
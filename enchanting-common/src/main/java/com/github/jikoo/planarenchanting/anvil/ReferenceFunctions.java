@@ -0,0 +1,71 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * An {@link AnvilFunctionsProvider} combining enchantments with reference
+ * {@link CombineEnchants} instances. All other functions are provided by a delegate.
+ *
+ * @param <T> the type of the input items
+ * @see CombineEnchants#createReference()
+ */
+@NullMarked
+public final class ReferenceFunctions<T> implements AnvilFunctionsProvider<T> {
+
+  private final AnvilFunctionsProvider<T> delegate;
+  private final CombineEnchants<T> combineJava;
+  private final CombineEnchants<T> combineBedrock;
+
+  /**
+   * Construct a new {@code ReferenceFunctions}.
+   *
+   * @param delegate the {@link AnvilFunctionsProvider} providing all other functions
+   * @param java the {@link CombineEnchants} whose reference is used for Java edition costs
+   * @param bedrock the {@link CombineEnchants} whose reference is used for Bedrock edition costs
+   */
+  public ReferenceFunctions(
+      AnvilFunctionsProvider<T> delegate,
+      CombineEnchants<T> java,
+      CombineEnchants<T> bedrock
+  ) {
+    this.delegate = delegate;
+    this.combineJava = java.createReference();
+    this.combineBedrock = bedrock.createReference();
+  }
+
+  @Override
+  public AnvilFunction<T> addPriorWorkLevelCost() {
+    return delegate.addPriorWorkLevelCost();
+  }
+
+  @Override
+  public AnvilFunction<T> rename() {
+    return delegate.rename();
+  }
+
+  @Override
+  public AnvilFunction<T> setItemPriorWork() {
+    return delegate.setItemPriorWork();
+  }
+
+  @Override
+  public AnvilFunction<T> repairWithMaterial() {
+    return delegate.repairWithMaterial();
+  }
+
+  @Override
+  public AnvilFunction<T> repairWithCombine() {
+    return delegate.repairWithCombine();
+  }
+
+  @Override
+  public AnvilFunction<T> combineEnchantsJava() {
+    return combineJava;
+  }
+
+  @Override
+  public AnvilFunction<T> combineEnchantsBedrock() {
+    return combineBedrock;
+  }
+
+}
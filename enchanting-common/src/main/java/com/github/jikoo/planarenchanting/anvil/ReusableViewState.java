@@ -0,0 +1,27 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A {@link ViewState} that may be reused for multiple operations by a {@link WorkPieceArena}.
+ *
+ * @param <T> the type of the input items
+ */
+@NullMarked
+public interface ReusableViewState<T> extends ViewState<T> {
+
+  /**
+   * Reset the state to operate on a new {@link AnvilView}.
+   *
+   * @param view the {@code AnvilView}
+   */
+  void reset(AnvilView view);
+
+  /**
+   * Release all references held by the state. The state is not used again until it is
+   * {@link #reset(AnvilView) reset}.
+   */
+  void clear();
+
+}
@@ -0,0 +1,153 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import com.github.jikoo.planarenchanting.util.ShadowVerifier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An {@link Anvil} verifying a sample of the results of another anvil against a reference
+ * implementation, such as an {@link AnvilPricer} using plain {@link WorkPiece WorkPieces} and the
+ * default functions.
+ *
+ * <p>Sampled inputs and results are copied on the calling thread. Results are equivalent if their
+ * items are equal and their costs match; tickets are not compared. Whether an operation is over
+ * budget depends on the view, i.e. on the player's game mode, so the reference is never budgeted.
+ * A {@link AnvilResult#tooExpensive(int) refused} result is instead equivalent to any reference
+ * result costing at least as many levels as the operation had reached when refused.</p>
+ *
+ * <p>If the reference is an {@link AnvilPricer} passed to the shadow, the shadow owns it, runs
+ * verifications on its pool, and releases it when {@link #close() closed}.</p>
+ */
+@NullMarked
+public final class ShadowAnvil implements Anvil, AutoCloseable {
+
+  private final Anvil anvil;
+  private final ShadowVerifier<AnvilInputs, AnvilResult> verifier;
+  private final @Nullable AnvilPricer<?> pricer;
+
+  /**
+   * Construct a new {@code ShadowAnvil}.
+   *
+   * @param anvil the {@link Anvil} producing results
+   * @param verifier the {@link ShadowVerifier} comparing results to the reference
+   */
+  public ShadowAnvil(Anvil anvil, ShadowVerifier<AnvilInputs, AnvilResult> verifier) {
+    this(anvil, verifier, null);
+  }
+
+  /**
+   * Construct a new {@code ShadowAnvil} running verifications on the common pool.
+   *
+   * @param anvil the {@link Anvil} producing results
+   * @param reference the reference implementation
+   * @param sampleRate the fraction of results verified, between 0 and 1
+   * @param reporter the consumer of divergences, called off of the main thread
+   */
+  public ShadowAnvil(
+      Anvil anvil,
+      Function<AnvilInputs, AnvilResult> reference,
+      double sampleRate,
+      Consumer<ShadowVerifier.Divergence<AnvilInputs, AnvilResult>> reporter
+  ) {
+    this(anvil, new ShadowVerifier<>(reference, ShadowAnvil::isEquivalent, sampleRate, reporter));
+  }
+
+  /**
+   * Construct a new {@code ShadowAnvil} running verifications on the pool of the reference
+   * pricer. The shadow takes ownership of the reference pricer.
+   *
+   * @param anvil the {@link Anvil} producing results
+   * @param reference the {@link AnvilPricer} producing reference results
+   * @param sampleRate the fraction of results verified, between 0 and 1
+   * @param reporter the consumer of divergences, called off of the main thread
+   */
+  public ShadowAnvil(
+      Anvil anvil,
+      AnvilPricer<?> reference,
+      double sampleRate,
+      Consumer<ShadowVerifier.Divergence<AnvilInputs, AnvilResult>> reporter
+  ) {
+    this(
+        anvil,
+        new ShadowVerifier<>(
+            reference::getResult,
+            ShadowAnvil::isEquivalent,
+            sampleRate,
+            reference.getExecutor(),
+            ShadowVerifier.DEFAULT_MAX_PENDING,
+            reporter),
+        reference);
+  }
+
+  private ShadowAnvil(
+      Anvil anvil,
+      ShadowVerifier<AnvilInputs, AnvilResult> verifier,
+      @Nullable AnvilPricer<?> pricer
+  ) {
+    this.anvil = anvil;
+    this.verifier = verifier;
+    this.pricer = pricer;
+  }
+
+  @Override
+  public AnvilResult getResult(AnvilView view) {
+    AnvilResult result = anvil.getResult(view);
+    if (verifier.sample()) {
+      AnvilResult copy = result == AnvilResult.EMPTY
+          ? result
+          : new AnvilResult(result.item().clone(), result.levelCost(), result.materialCost());
+      verifier.verify(AnvilInputs.capture(view), copy);
+    }
+    return result;
+  }
+
+  @Override
+  public AnvilCost getCost(AnvilView view) {
+    return anvil.getCost(view);
+  }
+
+  /**
+   * Get the {@link ShadowVerifier} in use.
+   *
+   * @return the {@code ShadowVerifier}
+   */
+  public ShadowVerifier<AnvilInputs, AnvilResult> getVerifier() {
+    return verifier;
+  }
+
+  /**
+   * Release the reference {@link AnvilPricer} if the shadow owns one. Pending verifications are
+   * completed; later samples are skipped.
+   */
+  @Override
+  public void close() {
+    if (pricer != null) {
+      pricer.close();
+    }
+  }
+
+  /**
+   * Compare two results, ignoring tickets. A refused result is equivalent to a reference result
+   * costing at least as much, as refusal stops an operation before its full cost is known.
+   *
+   * @param expected the reference result
+   * @param actual the produced result
+   * @return whether the results are equivalent
+   */
+  static boolean isEquivalent(AnvilResult expected, AnvilResult actual) {
+    if (isRefused(actual)) {
+      return expected.levelCost() >= actual.levelCost();
+    }
+    return expected.levelCost() == actual.levelCost()
+        && expected.materialCost() == actual.materialCost()
+        && expected.item().equals(actual.item());
+  }
+
+  private static boolean isRefused(AnvilResult result) {
+    return result.levelCost() > 0 && result.item().getType().isAir();
+  }
+
+}
@@ -2,6 +2,7 @@ package com.github.jikoo.planarenchanting.anvil;
 
 import org.bukkit.inventory.view.AnvilView;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A wrapper for an {@link AnvilView} transforming the inputs and output into the correct
@@ -15,10 +16,33 @@ public interface ViewState<T> {
   /**
    * Get the {@link AnvilView} the state is derived from.
    *
+   * <p>If the state was created from {@link AnvilInputs}, the view may be in use by the server
+   * and must not be accessed off of the main thread. States created from inputs without a view
+   * do not support this method.</p>
+   *
    * @return the {@code AnvilView}
+   * @throws IllegalStateException if the state does not belong to an {@code AnvilView}
    */
   AnvilView getAnvilView();
 
+  /**
+   * Get the text entered in the anvil's rename field.
+   *
+   * @return the rename text
+   */
+  default @Nullable String getRenameText() {
+    return getAnvilView().getRenameText();
+  }
+
+  /**
+   * Get the maximum level cost of the anvil.
+   *
+   * @return the maximum repair cost
+   */
+  default int getMaximumRepairCost() {
+    return getAnvilView().getMaximumRepairCost();
+  }
+
   /**
    * Get the base input item.
    *
@@ -1,7 +1,12 @@
 package com.github.jikoo.planarenchanting.anvil;
 
+import com.github.jikoo.planarenchanting.util.Metrics;
+import com.github.jikoo.planarenchanting.util.MetricsSink;
+import java.util.ArrayList;
+import java.util.List;
 import org.bukkit.inventory.view.AnvilView;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A work-in-progress anvil result.
@@ -13,7 +18,15 @@ public final class WorkPiece<T> {
 
   private final ViewState<T> state;
   private final Temperer<T> temperer;
-  final T result;
+  private final @Nullable ReusableViewState<T> reusable;
+  private final List<AnvilFunctionResult<T>> deferred = new ArrayList<>();
+  private boolean leased = false;
+  private @Nullable T result;
+  private boolean resultCreated = false;
+  private boolean costOnly = false;
+  private boolean deferring = false;
+  private boolean changed = false;
+  private @Nullable AnvilTrace trace;
   private int levelCost = 0;
   private int materialCost = 0;
 
@@ -23,9 +36,102 @@ public final class WorkPiece<T> {
    * @param state the {@link ViewState} the state is derived from
    */
   public WorkPiece(ViewState<T> state, Temperer<T> temperer) {
+    this(state, temperer, null);
+  }
+
+  private WorkPiece(
+      ViewState<T> state,
+      Temperer<T> temperer,
+      @Nullable ReusableViewState<T> reusable
+  ) {
     this.state = state;
     this.temperer = temperer;
-    this.result = this.state.createResult();
+    this.reusable = reusable;
+  }
+
+  /**
+   * Create a {@code WorkPiece} that may be reused for multiple operations. The piece must be
+   * {@link #lease(AnvilView) leased} before use.
+   *
+   * @param state the {@link ReusableViewState} the state is derived from
+   * @param temperer the {@link Temperer} finalizing the result
+   * @param <T> the type of the input and output items
+   * @return the reusable piece
+   */
+  static <T> WorkPiece<T> reusable(ReusableViewState<T> state, Temperer<T> temperer) {
+    return new WorkPiece<>(state, temperer, state);
+  }
+
+  /**
+   * Lease a reusable piece for an operation on an {@link AnvilView}.
+   *
+   * @param view the {@code AnvilView}
+   * @return whether the piece was leased, {@code false} if it is already in use
+   */
+  boolean lease(AnvilView view) {
+    if (reusable == null || leased) {
+      return false;
+    }
+    reusable.reset(view);
+    leased = true;
+    return true;
+  }
+
+  /**
+   * Release the piece once its operation is complete, allowing a reusable piece to be leased
+   * again. Pieces that are not reusable are unaffected.
+   */
+  void release() {
+    if (reusable == null) {
+      return;
+    }
+    reusable.clear();
+    result = null;
+    resultCreated = false;
+    costOnly = false;
+    deferred.clear();
+    deferring = false;
+    changed = false;
+    trace = null;
+    levelCost = 0;
+    materialCost = 0;
+    leased = false;
+  }
+
+  /**
+   * Only track costs for the piece. The result is never created and
+   * {@link AnvilFunctionResult#modifyResult(Object)} is never called. Instead, whether the result
+   * would change is determined via {@link AnvilFunctionResult#changesResult()}.
+   *
+   * <p>As no result exists, functions that {@link AnvilFunction#ignoresResult() ignore the result}
+   * are passed the base item in place of it. Any other function creates the result, replaying all
+   * previously applied changes, and the piece stops being cost-only.</p>
+   */
+  void setCostOnly() {
+    this.costOnly = true;
+  }
+
+  /**
+   * Defer changes to the result until it is finalized. The result is not created until
+   * {@link #temper()} or {@link #appraise()} is called, at which point all applied
+   * {@link AnvilFunctionResult AnvilFunctionResults} modify it in order. A piece that is abandoned
+   * before it is finalized never creates a result.
+   *
+   * <p>As with {@link #setCostOnly()}, functions that ignore the result are passed the base item
+   * in place of it, and any other function ends deferral.</p>
+   */
+  void setDeferred() {
+    this.deferring = true;
+  }
+
+  /**
+   * Record each applied {@link AnvilFunction} and the costs it adds. Functions that explain their
+   * decisions, such as {@link CombineEnchants}, record them while they are applied.
+   *
+   * @param trace the {@link AnvilTrace} to record to
+   */
+  void setTrace(AnvilTrace trace) {
+    this.trace = trace;
   }
 
   /**
@@ -92,17 +198,99 @@ public final class WorkPiece<T> {
    * @return whether the {@link AnvilFunction} could apply
    */
   public boolean apply(AnvilBehavior<T> behavior, AnvilFunction<T> function) {
-    if (!function.canApply(behavior, state, result)) {
+    AnvilFunctionEvent event = new AnvilFunctionEvent();
+    event.begin();
+    MetricsSink sink = Metrics.getSink();
+    long start = sink == null ? 0 : System.nanoTime();
+
+    AnvilTrace localTrace = trace;
+    boolean applied = localTrace == null
+        ? applyFunction(behavior, function)
+        : applyTraced(behavior, function, localTrace);
+
+    if (sink != null) {
+      sink.recordLatency(function, System.nanoTime() - start);
+      sink.recordOutcome(function, applied);
+    }
+    event.complete(function, applied, levelCost);
+    return applied;
+  }
+
+  private boolean applyTraced(
+      AnvilBehavior<T> behavior,
+      AnvilFunction<T> function,
+      AnvilTrace trace
+  ) {
+    int startLevelCost = levelCost;
+    int startMaterialCost = materialCost;
+    AnvilTrace previous = AnvilTrace.current();
+    AnvilTrace.setCurrent(trace);
+    boolean applied;
+    try {
+      applied = applyFunction(behavior, function);
+    } finally {
+      AnvilTrace.setCurrent(previous);
+    }
+
+    if (applied) {
+      trace.addStep(function, levelCost - startLevelCost, materialCost - startMaterialCost);
+    }
+    return applied;
+  }
+
+  private boolean applyFunction(AnvilBehavior<T> behavior, AnvilFunction<T> function) {
+    AnvilFunctionResult<T> anvilResult = compute(behavior, function);
+
+    if (anvilResult == null) {
       return false;
     }
 
-    AnvilFunctionResult<T> anvilResult = function.getResult(behavior, state, result);
+    apply(anvilResult);
+
+    return true;
+  }
+
+  /**
+   * Compute the {@link AnvilFunctionResult} of the given {@link AnvilFunction} without applying
+   * it. This allows a result to be retained and re-applied to a later piece with the same inputs.
+   *
+   * @see #apply(AnvilFunctionResult)
+   * @param behavior the definition of behaviors for the anvil
+   * @param function the {@code AnvilFunction} to compute
+   * @return the computed result or {@code null} if the function could not apply
+   */
+  public @Nullable AnvilFunctionResult<T> compute(
+      AnvilBehavior<T> behavior,
+      AnvilFunction<T> function
+  ) {
+    // Never hand out the live base item to functions that may use the result.
+    T current = (costOnly || deferring) && function.ignoresResult()
+        ? state.getBase()
+        : getResult();
+    if (!function.canApply(behavior, state, current)) {
+      return null;
+    }
+
+    return function.getResult(behavior, state, current);
+  }
 
-    anvilResult.modifyResult(result);
+  /**
+   * Apply an {@link AnvilFunctionResult}, modifying the result and costs.
+   *
+   * @param anvilResult the {@code AnvilFunctionResult} to apply
+   */
+  public void apply(AnvilFunctionResult<T> anvilResult) {
+    if (costOnly) {
+      changed |= anvilResult.changesResult();
+      // Retained in case a later function requires the result.
+      deferred.add(anvilResult);
+    } else if (deferring) {
+      deferred.add(anvilResult);
+    } else {
+      anvilResult.modifyResult(getResult());
+    }
     setLevelCost(getLevelCost() + anvilResult.getLevelCostIncrease());
     setMaterialCost(getMaterialCost() + anvilResult.getMaterialCostIncrease());
-
-    return true;
   }
 
   /**
@@ -111,10 +299,59 @@ public final class WorkPiece<T> {
    * @return the finalized result
    */
   public AnvilResult temper() {
-    if (temperer.hasChanged(state.getBase(), state.getAddition(), result)) {
-      return new AnvilResult(temperer.temper(result), levelCost, materialCost);
+    if (costOnly) {
+      throw new IllegalStateException("Cannot temper a cost-only piece");
+    }
+
+    MetricsSink sink = Metrics.getSink();
+    if (sink == null) {
+      return temperResult();
+    }
+
+    long start = System.nanoTime();
+    AnvilResult result = temperResult();
+    sink.recordLatency(MetricsSink.Phase.ANVIL_TEMPER, System.nanoTime() - start);
+    sink.recordOutcome(MetricsSink.Phase.ANVIL_TEMPER, result != AnvilResult.EMPTY);
+    return result;
+  }
+
+  private AnvilResult temperResult() {
+    T current = getResult();
+    if (temperer.hasChanged(state.getBase(), state.getAddition(), current)) {
+      return new AnvilResult(temperer.temper(current), levelCost, materialCost);
     }
     return AnvilResult.EMPTY;
   }
 
+  /**
+   * Finalize the cost of the piece without producing a result item.
+   *
+   * @return the finalized cost
+   */
+  public AnvilCost appraise() {
+    boolean hasChanged = costOnly
+        ? changed
+        : temperer.hasChanged(state.getBase(), state.getAddition(), getResult());
+    if (hasChanged) {
+      return new AnvilCost(levelCost, materialCost);
+    }
+    return AnvilCost.EMPTY;
+  }
+
+  private T getResult() {
+    if (!resultCreated) {
+      result = state.createResult();
+      resultCreated = true;
+    }
+    if (deferring || costOnly) {
+      for (AnvilFunctionResult<T> anvilResult : deferred) {
+        anvilResult.modifyResult(result);
+      }
+      deferred.clear();
+      deferring = false;
+      costOnly = false;
+    }
+    return result;
+  }
+
 }
@@ -0,0 +1,71 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A per-thread pool of {@link WorkPiece WorkPieces} for use in place of creating a new piece for
+ * each operation.
+ *
+ * <p>Each thread retains a single piece and its {@link ReusableViewState}. The piece is leased
+ * when it is created and returned to the arena when the operation owning it releases it. If the
+ * thread's piece is still in use, i.e. the operation is nested in another or the piece was never
+ * released, a new piece is created instead. Steady-state operations on a thread therefore reuse
+ * the same scaffolding rather than allocating it again.</p>
+ *
+ * <p>As pieces are retained per thread, an arena provides no benefit to operations performed on
+ * short-lived threads such as virtual threads. Retained pieces are only discarded when the arena
+ * is {@link #close() closed} on their thread or the arena is garbage collected.</p>
+ *
+ * @param <T> the type of the input and output items
+ */
+@NullMarked
+public final class WorkPieceArena<T> implements Function<AnvilView, WorkPiece<T>> {
+
+  private final Supplier<? extends ReusableViewState<T>> createState;
+  private final Temperer<T> temperer;
+  private final ThreadLocal<WorkPiece<T>> pieces;
+
+  /**
+   * Construct a new {@code WorkPieceArena}.
+   *
+   * @param createState the method for creating a new {@link ReusableViewState}
+   * @param temperer the {@link Temperer} in use
+   */
+  public WorkPieceArena(
+      Supplier<? extends ReusableViewState<T>> createState,
+      Temperer<T> temperer
+  ) {
+    this.createState = createState;
+    this.temperer = temperer;
+    this.pieces = ThreadLocal.withInitial(this::create);
+  }
+
+  @Override
+  public WorkPiece<T> apply(AnvilView view) {
+    WorkPiece<T> piece = pieces.get();
+    if (piece.lease(view)) {
+      return piece;
+    }
+
+    // Thread's piece is in use, fall through to a new piece.
+    piece = create();
+    piece.lease(view);
+    return piece;
+  }
+
+  /**
+   * Discard the piece retained by the calling thread, i.e. from the server thread when the owning
+   * plugin is disabled. If used again, the arena creates a new piece for the thread.
+   */
+  public void close() {
+    pieces.remove();
+  }
+
+  private WorkPiece<T> create() {
+    return WorkPiece.reusable(createState.get(), temperer);
+  }
+
+}
@@ -68,6 +68,24 @@ public class EnchantingTable {
     this.maxLevel = maxLevel;
   }
 
+  /**
+   * Get the {@link Enchantment Enchantments} that may be applied.
+   *
+   * @return the {@code Enchantments}
+   */
+  @NotNull Collection<@NotNull Enchantment> getEnchantments() {
+    return enchantments;
+  }
+
+  /**
+   * Get the {@link Enchantability} of the object to be enchanted.
+   *
+   * @return the {@code Enchantability}
+   */
+  @NotNull Enchantability getEnchantability() {
+    return enchantability;
+  }
+
   /**
    * Get the {@link Enchantment Enchantments} resulting from the enchanting operation.
    *
@@ -76,7 +94,14 @@ public class EnchantingTable {
    * @return the results of the enchanting operation
    */
   public @NotNull Map<Enchantment, Integer> apply(@NotNull Random random, int enchantLevel) {
+    TableApplyEvent event = new TableApplyEvent();
+    event.begin();
+    Map<Enchantment, Integer> selected = select(random, enchantLevel);
+    event.complete(enchantLevel, selected);
+    return selected;
+  }
 
+  private @NotNull Map<Enchantment, Integer> select(@NotNull Random random, int enchantLevel) {
     // Ensure enchantments present.
     if (this.enchantments.isEmpty() || enchantLevel < 1) {
       return Collections.emptyMap();
@@ -0,0 +1,50 @@
+package com.github.jikoo.planarenchanting.table;
+
+import java.util.Map;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A Java Flight Recorder event for selecting enchantments via
+ * {@link EnchantingTable#apply(java.util.Random, int)}.
+ *
+ * <p>By default, only selections taking at least a millisecond are recorded.</p>
+ */
+@NullMarked
+@Name("com.github.jikoo.planarenchanting.TableApply")
+@Label("Enchanting Table Apply")
+@Category({"Planar Enchanting", "Enchanting Table"})
+@Description("Selection of enchantments by an enchanting table")
+@Threshold("1 ms")
+final class TableApplyEvent extends Event {
+
+  @Label("Level Cost")
+  int levelCost;
+
+  @Label("Enchantments")
+  @Description("The number of enchantments selected")
+  int enchantments;
+
+  /**
+   * Populate and commit the event if it is enabled and over its threshold.
+   *
+   * @param levelCost the enchanting level
+   * @param selected the selected enchantments
+   */
+  void complete(int levelCost, Map<Enchantment, Integer> selected) {
+    if (!shouldCommit()) {
+      return;
+    }
+
+    this.levelCost = levelCost;
+    this.enchantments = selected.size();
+    commit();
+  }
+
+}
@@ -0,0 +1,57 @@
+package com.github.jikoo.planarenchanting.table;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import org.bukkit.event.enchantment.EnchantItemEvent;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A Java Flight Recorder event for applying enchantments in
+ * {@link TableEnchantListener#onEnchantItem(EnchantItemEvent)}.
+ *
+ * <p>By default, only enchantments taking at least a millisecond are recorded.</p>
+ */
+@NullMarked
+@Name("com.github.jikoo.planarenchanting.TableEnchant")
+@Label("Enchanting Table Enchant")
+@Category({"Planar Enchanting", "Enchanting Table"})
+@Description("Application of enchantments by an enchanting table")
+@Threshold("1 ms")
+final class TableEnchantEvent extends Event {
+
+  @Label("Item Type")
+  @Nullable String itemType;
+
+  @Label("Button")
+  int button;
+
+  @Label("Level Cost")
+  int levelCost;
+
+  @Label("Enchantments")
+  @Description("The number of enchantments added")
+  int enchantments;
+
+  /**
+   * Populate and commit the event if it is enabled and over its threshold.
+   *
+   * @param event the {@code EnchantItemEvent} handled
+   */
+  void complete(EnchantItemEvent event) {
+    if (!shouldCommit()) {
+      return;
+    }
+
+    itemType = event.getItem().getType().name();
+    button = event.whichButton();
+    levelCost = event.getExpLevelCost();
+    enchantments = event.getEnchantsToAdd().size();
+    commit();
+  }
+
+}
@@ -1,8 +1,21 @@
 package com.github.jikoo.planarenchanting.table;
 
+import com.github.jikoo.planarenchanting.util.InputCapture;
+import com.github.jikoo.planarenchanting.util.InputSample.TableSample;
+import com.github.jikoo.planarenchanting.util.InputSample.TableSample.Operation;
+import com.github.jikoo.planarenchanting.util.Ledger;
+import com.github.jikoo.planarenchanting.util.LedgerEntry;
+import com.github.jikoo.planarenchanting.util.LedgerSink;
+import com.github.jikoo.planarenchanting.util.Metrics;
+import com.github.jikoo.planarenchanting.util.MetricsSink;
+import com.github.jikoo.planarenchanting.util.MetricsSink.Phase;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.IntSupplier;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
 import org.bukkit.enchantments.EnchantmentOffer;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -34,13 +47,20 @@ public abstract class TableEnchantListener implements Listener {
 
   @EventHandler
   public final void onPrepareItemEnchant(@NotNull PrepareItemEnchantEvent event) {
+    TablePrepareEvent flightEvent = new TablePrepareEvent();
+    flightEvent.begin();
+
     // Ensure item is enchantable.
     if (canNotEnchant(event.getEnchanter(), event.getItem())) {
       return;
     }
 
+    MetricsSink sink = Metrics.getSink();
+
     // Get the EnchantingTable instance to be used.
+    long start = start(sink);
     EnchantingTable table = getTable(event.getEnchanter(), event.getItem());
+    record(sink, Phase.TABLE_GET_TABLE, start);
     if (table == null) {
       return;
     }
@@ -49,16 +69,22 @@ public abstract class TableEnchantListener implements Listener {
     random.setSeed(getSeed(event.getEnchanter(), 0));
 
     // Calculate levels offered for bookshelf count.
+    start = start(sink);
     int[] buttonLevels = EnchantingTable.getButtonLevels(random, event.getEnchantmentBonus());
+    record(sink, Phase.TABLE_BUTTON_LEVELS, start);
 
-
+    start = start(sink);
     for (int buttonIndex = 0; buttonIndex < buttonLevels.length; ++buttonIndex) {
       // Seed random with button index.
-      random.setSeed(getSeed(event.getEnchanter(), buttonIndex));
+      long seed = getSeed(event.getEnchanter(), buttonIndex);
+      random.setSeed(seed);
+      capture(table, Operation.OFFER, buttonLevels[buttonIndex], seed);
 
       // Generate and set the offer.
       event.getOffers()[buttonIndex] = table.getOffer(random, buttonLevels[buttonIndex]);
     }
+    record(sink, Phase.TABLE_OFFERS, start);
+    flightEvent.complete(event);
 
     // Force button refresh. This is required for normally unenchantable items.
     // Waiting a tick fixes desync problems that prevent the client from enchanting
@@ -85,22 +111,45 @@ public abstract class TableEnchantListener implements Listener {
 
   @EventHandler
   public final void onEnchantItem(@NotNull EnchantItemEvent event) {
+    TableEnchantEvent flightEvent = new TableEnchantEvent();
+    flightEvent.begin();
+
     // Ensure item is enchantable.
     if (canNotEnchant(event.getEnchanter(), event.getItem())) {
       return;
     }
 
+    MetricsSink sink = Metrics.getSink();
+
     // Get the EnchantingTable instance to be used.
+    long start = start(sink);
     EnchantingTable table = getTable(event.getEnchanter(), event.getItem());
+    record(sink, Phase.TABLE_GET_TABLE, start);
     if (table == null) {
       return;
     }
 
     // Seed the random.
-    random.setSeed(getSeed(event.getEnchanter(), event.whichButton()));
+    long seed = getSeed(event.getEnchanter(), event.whichButton());
+    random.setSeed(seed);
+    capture(table, Operation.APPLY, event.getExpLevelCost(), seed);
 
     // Calculate and set enchantments.
+    start = start(sink);
     event.getEnchantsToAdd().putAll(table.apply(random, event.getExpLevelCost()));
+    record(sink, Phase.TABLE_APPLY, start);
+    flightEvent.complete(event);
+
+    LedgerSink ledger = Ledger.getSink();
+    if (ledger != null) {
+      // Each button consumes one more lapis than the last, starting at one.
+      ledger.record(LedgerEntry.table(
+          event.getItem(),
+          event.getEnchantsToAdd(),
+          event.getExpLevelCost(),
+          event.whichButton() + 1,
+          seed));
+    }
 
     randomizeSeed(event.getEnchanter(), TableEnchantListener::getRandomSeed);
   }
@@ -158,6 +207,60 @@ public abstract class TableEnchantListener implements Listener {
     return ((long) player.getEnchantmentSeed()) + buttonIndex;
   }
 
+  /**
+   * Offer the inputs of an enchanting operation to the installed {@link InputCapture}.
+   *
+   * @param table the {@link EnchantingTable} in use
+   * @param operation the operation performed
+   * @param level the enchanting level
+   * @param seed the seed of the random used
+   */
+  private static void capture(
+      @NotNull EnchantingTable table,
+      @NotNull Operation operation,
+      int level,
+      long seed
+  ) {
+    InputCapture capture = InputCapture.getInstalled();
+    if (capture == null || !capture.sample()) {
+      return;
+    }
+
+    List<NamespacedKey> enchantments = new ArrayList<>();
+    for (Enchantment enchantment : table.getEnchantments()) {
+      enchantments.add(enchantment.getKey());
+    }
+    capture.record(new TableSample(
+        operation,
+        enchantments,
+        table.getEnchantability().value(),
+        level,
+        seed));
+  }
+
+  /**
+   * Start timing a phase if a {@link MetricsSink} is installed.
+   *
+   * @param sink the installed {@code MetricsSink}
+   * @return the start time or 0 if no sink is installed
+   */
+  private static long start(@Nullable MetricsSink sink) {
+    return sink == null ? 0 : System.nanoTime();
+  }
+
+  /**
+   * Record the time taken by a phase if a {@link MetricsSink} is installed.
+   *
+   * @param sink the installed {@code MetricsSink}
+   * @param phase the phase timed
+   * @param start the start time
+   */
+  private static void record(@Nullable MetricsSink sink, @NotNull Phase phase, long start) {
+    if (sink != null) {
+      sink.recordLatency(phase, System.nanoTime() - start);
+    }
+  }
+
   /**
    * Get a random seed.
    *
@@ -0,0 +1,58 @@
+package com.github.jikoo.planarenchanting.table;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+import org.bukkit.enchantments.EnchantmentOffer;
+import org.bukkit.event.enchantment.PrepareItemEnchantEvent;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A Java Flight Recorder event for generating enchanting table offers in
+ * {@link TableEnchantListener#onPrepareItemEnchant(PrepareItemEnchantEvent)}.
+ *
+ * <p>By default, only preparations taking at least a millisecond are recorded.</p>
+ */
+@NullMarked
+@Name("com.github.jikoo.planarenchanting.TablePrepare")
+@Label("Enchanting Table Prepare")
+@Category({"Planar Enchanting", "Enchanting Table"})
+@Description("Generation of enchanting table offers")
+@Threshold("1 ms")
+final class TablePrepareEvent extends Event {
+
+  @Label("Item Type")
+  @Nullable String itemType;
+
+  @Label("Bookshelves")
+  int bookshelves;
+
+  @Label("Offers")
+  @Description("The number of offers generated")
+  int offers;
+
+  /**
+   * Populate and commit the event if it is enabled and over its threshold.
+   *
+   * @param event the {@code PrepareItemEnchantEvent} handled
+   */
+  void complete(PrepareItemEnchantEvent event) {
+    if (!shouldCommit()) {
+      return;
+    }
+
+    itemType = event.getItem().getType().name();
+    bookshelves = event.getEnchantmentBonus();
+    for (EnchantmentOffer offer : event.getOffers()) {
+      if (offer != null) {
+        ++offers;
+      }
+    }
+    commit();
+  }
+
+}
@@ -0,0 +1,96 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A cache of whether {@link Enchantment Enchantments} can be applied to item types.
+ *
+ * <p>For items without custom data, applicability depends only on the item's type. Results are
+ * stored as a pair of bitsets over {@link Material} ordinals per enchantment.</p>
+ *
+ * <p>If an enchantment instance is replaced in the registry, its results are discarded
+ * automatically. Item tags may change without enchantments being replaced, so the cache must
+ * still be invalidated via {@link #invalidate()} when datapacks are reloaded. The
+ * {@link #VANILLA} cache is invalidated by {@link DataReloads}.</p>
+ */
+@NullMarked
+public final class ApplicabilityCache {
+
+  /** The cache shared by vanilla behaviors. */
+  public static final ApplicabilityCache VANILLA = new ApplicabilityCache();
+
+  private static final int WORDS = (Material.values().length + 63) >>> 6;
+
+  static {
+    DataReloads.register(VANILLA::invalidate);
+  }
+
+  private final Map<Enchantment, Row> rows = new ConcurrentHashMap<>();
+
+  /**
+   * Get whether an {@link Enchantment} applies to an item type, performing the check if the
+   * result is not yet known.
+   *
+   * @param enchantment the {@code Enchantment}
+   * @param type the item type
+   * @param check the live applicability check for an item of the type
+   * @return whether the {@code Enchantment} applies
+   */
+  public boolean applies(Enchantment enchantment, Material type, BooleanSupplier check) {
+    Row row = rows.get(enchantment);
+    if (row == null || row.enchantment != enchantment) {
+      // Enchantments are equal by key, so a reloaded registry yields equal but distinct instances.
+      row = new Row(enchantment);
+      rows.put(enchantment, row);
+    }
+
+    int ordinal = type.ordinal();
+    int word = ordinal >>> 6;
+    long bit = 1L << ordinal;
+
+    MetricsSink sink = Metrics.getSink();
+    if ((row.known.get(word) & bit) != 0) {
+      if (sink != null) {
+        sink.recordOutcome(this, true);
+      }
+      return (row.applies.get(word) & bit) != 0;
+    }
+
+    if (sink != null) {
+      sink.recordOutcome(this, false);
+    }
+    boolean applies = check.getAsBoolean();
+    // Set the result before marking it known so that readers never see a known unset result.
+    if (applies) {
+      row.applies.accumulateAndGet(word, bit, (current, added) -> current | added);
+    }
+    row.known.accumulateAndGet(word, bit, (current, added) -> current | added);
+    return applies;
+  }
+
+  /**
+   * Discard all cached results.
+   */
+  public void invalidate() {
+    rows.clear();
+  }
+
+  private static final class Row {
+
+    private final Enchantment enchantment;
+    private final AtomicLongArray known = new AtomicLongArray(WORDS);
+    private final AtomicLongArray applies = new AtomicLongArray(WORDS);
+
+    private Row(Enchantment enchantment) {
+      this.enchantment = enchantment;
+    }
+
+  }
+
+}
@@ -0,0 +1,215 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link LedgerSink} writing entries to rotating binary files.
+ *
+ * <p>Recording an entry only places it in a bounded lock-free queue. A background thread drains
+ * the queue, encodes entries, and writes them to disk. If the queue is full, the entry is dropped
+ * rather than delaying the recording thread; see {@link #getDropped()}.</p>
+ *
+ * <p>Files are named {@code ledger-<timestamp>-<sequence>.bin}, so sorting by name sorts by
+ * creation. Once a file reaches the maximum size, a new file is started. If a maximum number of
+ * files is set, the oldest files in the directory are deleted, including those written by
+ * earlier ledgers. Files may be read with
+ * {@link BinaryLedgerReader}.</p>
+ */
+@NullMarked
+public final class BinaryLedger implements LedgerSink, Closeable {
+
+  static final String PREFIX = "ledger-";
+  static final String SUFFIX = ".bin";
+
+  private static final int DEFAULT_CAPACITY = 8192;
+  private static final long DEFAULT_MAX_FILE_BYTES = 16L << 20;
+  private static final int DEFAULT_MAX_FILES = 16;
+  private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final Path directory;
+  private final long maxFileBytes;
+  private final int maxFiles;
+  private final BoundedRing<LedgerEntry> ring;
+  private final LongAdder dropped = new LongAdder();
+  private final Deque<Path> files = new ArrayDeque<>();
+  private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+  private final Thread writer;
+  private volatile boolean open = true;
+  private volatile @Nullable IOException failure;
+  private @Nullable OutputStream out;
+  private long fileBytes;
+  private int sequence;
+
+  /**
+   * Construct a new {@code BinaryLedger} with default limits: 8192 pending entries, 16 MiB
+   * files, and 16 files retained.
+   *
+   * @param directory the directory to write files to
+   * @throws IOException if the directory cannot be created or listed
+   */
+  public BinaryLedger(Path directory) throws IOException {
+    this(directory, DEFAULT_CAPACITY, DEFAULT_MAX_FILE_BYTES, DEFAULT_MAX_FILES);
+  }
+
+  /**
+   * Construct a new {@code BinaryLedger}.
+   *
+   * @param directory the directory to write files to
+   * @param capacity the maximum number of entries awaiting writing
+   * @param maxFileBytes the size at which a new file is started
+   * @param maxFiles the maximum number of files retained, or 0 to retain all files
+   * @throws IOException if the directory cannot be created or listed
+   */
+  public BinaryLedger(Path directory, int capacity, long maxFileBytes, int maxFiles)
+      throws IOException {
+    if (maxFileBytes < 1) {
+      throw new IllegalArgumentException("Maximum file size must be positive");
+    }
+    if (maxFiles < 0) {
+      throw new IllegalArgumentException("Maximum files must not be negative");
+    }
+    this.directory = Files.createDirectories(directory);
+    // Files left by earlier ledgers count towards the limit so they are pruned on rotation.
+    this.files.addAll(BinaryLedgerReader.files(this.directory));
+    this.maxFileBytes = maxFileBytes;
+    this.maxFiles = maxFiles;
+    this.ring = new BoundedRing<>(capacity);
+    this.writer = new Thread(this::drain, "PlanarEnchanting Ledger Writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  @Override
+  public void record(LedgerEntry entry) {
+    if (!open || !ring.offer(entry)) {
+      dropped.increment();
+    }
+  }
+
+  /**
+   * Get the number of entries dropped because the queue was full, the ledger was closed, or
+   * writing failed.
+   *
+   * @return the number of dropped entries
+   */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * Stop accepting entries, write all pending entries, and close the current file.
+   *
+   * @throws IOException if writing failed at any point
+   */
+  @Override
+  public void close() throws IOException {
+    open = false;
+    LockSupport.unpark(writer);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while closing ledger", e);
+    }
+
+    // Entries offered after the writer's final check are never written. The writer has exited, so
+    // this thread is now the only consumer.
+    while (ring.poll() != null) {
+      dropped.increment();
+    }
+
+    IOException exception = failure;
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private void drain() {
+    try {
+      while (true) {
+        LedgerEntry entry = ring.poll();
+        if (entry != null) {
+          write(entry);
+          continue;
+        }
+
+        // Flush while idle so entries reach disk promptly.
+        OutputStream stream = out;
+        if (stream != null) {
+          stream.flush();
+        }
+
+        if (!open && ring.isEmpty()) {
+          break;
+        }
+        LockSupport.parkNanos(this, IDLE_NANOS);
+      }
+    } catch (IOException e) {
+      failure = e;
+      open = false;
+      // Count entries that will never be written.
+      while (ring.poll() != null) {
+        dropped.increment();
+      }
+    } finally {
+      closeFile();
+    }
+  }
+
+  private void write(LedgerEntry entry) throws IOException {
+    OutputStream stream = out;
+    if (stream == null || fileBytes >= maxFileBytes) {
+      stream = rotate();
+    }
+    fileBytes += LedgerCodec.write(stream, entry, payload);
+  }
+
+  private OutputStream rotate() throws IOException {
+    closeFile();
+
+    Path file = directory.resolve(
+        String.format("%s%013d-%04d%s", PREFIX, System.currentTimeMillis(), sequence++, SUFFIX));
+    OutputStream stream = new BufferedOutputStream(
+        Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    out = stream;
+    fileBytes = LedgerCodec.writeHeader(stream);
+
+    files.addLast(file);
+    while (maxFiles > 0 && files.size() > maxFiles) {
+      Files.deleteIfExists(files.removeFirst());
+    }
+
+    return stream;
+  }
+
+  private void closeFile() {
+    OutputStream stream = out;
+    if (stream == null) {
+      return;
+    }
+
+    out = null;
+    try {
+      stream.close();
+    } catch (IOException e) {
+      if (failure == null) {
+        failure = e;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,134 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A reader for files written by {@link BinaryLedger}.
+ *
+ * <p>A file that is still being written, or that was cut short when the server stopped, may end
+ * part way through an entry. The partial entry is ignored.</p>
+ */
+@NullMarked
+public final class BinaryLedgerReader implements Closeable {
+
+  private final InputStream in;
+
+  /**
+   * Construct a new {@code BinaryLedgerReader}.
+   *
+   * @param in the {@link InputStream} positioned at the start of a ledger file
+   * @throws IOException if the stream does not start with a supported ledger header
+   */
+  public BinaryLedgerReader(InputStream in) throws IOException {
+    this.in = in;
+    LedgerCodec.readHeader(in);
+  }
+
+  /**
+   * Read the next entry.
+   *
+   * @return the {@link LedgerEntry} or {@code null} if no complete entries remain
+   * @throws IOException if the entry cannot be read or is malformed
+   */
+  public @Nullable LedgerEntry next() throws IOException {
+    return LedgerCodec.read(in);
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  /**
+   * Stream the entries of a ledger file. The stream must be closed to release the file.
+   *
+   * @param file the file
+   * @return a stream of {@link LedgerEntry LedgerEntries}
+   * @throws IOException if the file cannot be opened or is not a ledger file
+   * @throws UncheckedIOException during iteration if an entry cannot be read
+   */
+  public static Stream<LedgerEntry> stream(Path file) throws IOException {
+    InputStream in = new BufferedInputStream(Files.newInputStream(file));
+    BinaryLedgerReader reader;
+    try {
+      reader = new BinaryLedgerReader(in);
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+
+    Iterator<LedgerEntry> iterator = new Iterator<>() {
+      private @Nullable LedgerEntry next;
+
+      @Override
+      public boolean hasNext() {
+        if (next == null) {
+          try {
+            next = reader.next();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public LedgerEntry next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        LedgerEntry entry = next;
+        next = null;
+        return entry;
+      }
+    };
+
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(() -> {
+          try {
+            reader.close();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
+  /**
+   * Get the ledger files in a directory, oldest first.
+   *
+   * @param directory the directory written to by a {@link BinaryLedger}
+   * @return the ledger files
+   * @throws IOException if the directory cannot be listed
+   */
+  public static List<Path> files(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths
+          .filter(path -> {
+            String name = path.getFileName().toString();
+            return name.startsWith(BinaryLedger.PREFIX) && name.endsWith(BinaryLedger.SUFFIX);
+          })
+          .sorted()
+          .toList();
+    }
+  }
+
+}
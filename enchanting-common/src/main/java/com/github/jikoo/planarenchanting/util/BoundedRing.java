@@ -0,0 +1,88 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A bounded lock-free queue for many producers and a single consumer.
+ *
+ * <p>Producers claim a slot by advancing the tail and then publish into it. The consumer only
+ * takes from a slot once it is published, so an element being offered may briefly be invisible to
+ * the consumer. Offers fail rather than wait when the queue is full.</p>
+ *
+ * @param <T> the type of element
+ */
+@NullMarked
+final class BoundedRing<T> {
+
+  private final AtomicReferenceArray<@Nullable T> slots;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * Construct a new {@code BoundedRing}.
+   *
+   * @param capacity the minimum capacity, rounded up to a power of two
+   */
+  BoundedRing(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.slots = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  /**
+   * Offer an element. May be called from any thread.
+   *
+   * @param element the element
+   * @return whether the element was added
+   */
+  boolean offer(T element) {
+    long claimed;
+    do {
+      claimed = tail.get();
+      if (claimed - head.get() > mask) {
+        return false;
+      }
+    } while (!tail.compareAndSet(claimed, claimed + 1));
+
+    slots.lazySet((int) claimed & mask, element);
+    return true;
+  }
+
+  /**
+   * Take the next published element. Must only be called from the consuming thread.
+   *
+   * @return the element or {@code null} if none is available
+   */
+  @Nullable T poll() {
+    long next = head.get();
+    int index = (int) next & mask;
+    T element = slots.get(index);
+    if (element == null) {
+      return null;
+    }
+
+    slots.lazySet(index, null);
+    head.set(next + 1);
+    return element;
+  }
+
+  /**
+   * Get whether all claimed slots have been consumed.
+   *
+   * @return whether the queue is empty
+   */
+  boolean isEmpty() {
+    return head.get() == tail.get();
+  }
+
+}
@@ -0,0 +1,24 @@
+package com.github.jikoo.planarenchanting.util;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.ServerLoadEvent;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A {@link Listener} running {@link DataReloads} hooks once the server has loaded or reloaded.
+ *
+ * <p>The server load also covers caches populated before tags were available, i.e. during plugin
+ * load. Datapack reloads that do not reload plugins are not reported by Bukkit; on Paper, a
+ * listener for resource reloads should be registered as well.</p>
+ */
+@NullMarked
+public class DataReloadListener implements Listener {
+
+  @EventHandler(priority = EventPriority.LOWEST)
+  public void onServerLoad(ServerLoadEvent event) {
+    DataReloads.reloaded();
+  }
+
+}
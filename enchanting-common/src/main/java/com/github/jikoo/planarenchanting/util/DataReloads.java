@@ -0,0 +1,53 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Hooks run when the server data that shared caches are derived from is reloaded, i.e. when
+ * datapacks are reloaded and item tags or registry contents may change.
+ *
+ * <p>Caches shared by vanilla behaviors register their invalidation here. Nothing is run unless a
+ * listener calling {@link #reloaded()} is registered, i.e. a {@link DataReloadListener}.</p>
+ */
+@NullMarked
+public final class DataReloads {
+
+  private static final List<Runnable> HOOKS = new CopyOnWriteArrayList<>();
+  private static volatile Object generation = new Object();
+
+  /**
+   * Register a hook to run when server data is reloaded. Hooks are retained permanently and
+   * should only be registered by long-lived caches.
+   *
+   * @param hook the hook
+   */
+  public static void register(Runnable hook) {
+    HOOKS.add(hook);
+  }
+
+  /**
+   * Get a token identifying the current server data. A new token is created each time server
+   * data is reloaded.
+   *
+   * @return the current generation token
+   */
+  public static Object getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Run all registered hooks. This must be called on the main thread after server data is
+   * reloaded.
+   */
+  public static void reloaded() {
+    generation = new Object();
+    for (Runnable hook : HOOKS) {
+      hook.run();
+    }
+  }
+
+  private DataReloads() {}
+
+}
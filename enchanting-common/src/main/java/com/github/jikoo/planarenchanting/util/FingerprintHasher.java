@@ -0,0 +1,137 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.Map;
+import org.bukkit.Keyed;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An incremental 64-bit hash for producing item fingerprints. Values are mixed in as they are
+ * added so that no intermediate representation of the item needs to be built.
+ *
+ * <p>Hashes are stable for the lifetime of the server, but are not intended to be persisted.</p>
+ */
+@NullMarked
+public final class FingerprintHasher {
+
+  private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME_3 = 0x165667B19E3779F9L;
+  private static final long NULL = 0x27D4EB2F165667C5L;
+
+  private long hash = PRIME_3;
+  private int length = 0;
+
+  /**
+   * Add a {@code long} value.
+   *
+   * @param value the value
+   * @return this hasher
+   */
+  public FingerprintHasher putLong(long value) {
+    hash ^= Long.rotateLeft(value * PRIME_2, 31) * PRIME_1;
+    hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_3;
+    ++length;
+    return this;
+  }
+
+  /**
+   * Add an {@code int} value.
+   *
+   * @param value the value
+   * @return this hasher
+   */
+  public FingerprintHasher putInt(int value) {
+    return putLong(value);
+  }
+
+  /**
+   * Add a {@code boolean} value.
+   *
+   * @param value the value
+   * @return this hasher
+   */
+  public FingerprintHasher putBoolean(boolean value) {
+    return putLong(value ? 1 : 0);
+  }
+
+  /**
+   * Add a {@link String} value. {@code null} is distinct from the empty {@code String}.
+   *
+   * @param value the value
+   * @return this hasher
+   */
+  public FingerprintHasher putString(@Nullable String value) {
+    return putLong(hashString(value));
+  }
+
+  /**
+   * Add the key of a {@link Keyed} value.
+   *
+   * @param value the value
+   * @return this hasher
+   */
+  public FingerprintHasher putKey(@Nullable Keyed value) {
+    return putLong(hashKey(value));
+  }
+
+  /**
+   * Add enchantments and their levels. The order of the enchantments does not affect the hash.
+   *
+   * @param enchantments the enchantments
+   * @return this hasher
+   */
+  public FingerprintHasher putEnchantments(Map<Enchantment, Integer> enchantments) {
+    long unordered = 0;
+    for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+      unordered += mix(hashKey(entry.getKey()) * PRIME_1 + entry.getValue());
+    }
+    return putLong(unordered).putInt(enchantments.size());
+  }
+
+  /**
+   * Get the hash of all values added so far.
+   *
+   * @return the hash
+   */
+  public long hash() {
+    return mix(hash + length);
+  }
+
+  private static long hashKey(@Nullable Keyed value) {
+    if (value == null) {
+      return NULL;
+    }
+    NamespacedKey key = value.getKey();
+    return hashString(key.getNamespace()) * PRIME_2 + hashString(key.getKey());
+  }
+
+  private static long hashString(@Nullable String value) {
+    if (value == null) {
+      return NULL;
+    }
+    long stringHash = PRIME_2 + value.length();
+    for (int i = 0; i < value.length(); ++i) {
+      stringHash = Long.rotateLeft(stringHash ^ value.charAt(i) * PRIME_3, 23) * PRIME_1;
+    }
+    return stringHash;
+  }
+
+  /**
+   * Finalize a hash so that every input bit affects every output bit.
+   *
+   * @param value the value to mix
+   * @return the mixed value
+   */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xFF51AFD7ED558CCDL;
+    value ^= value >>> 33;
+    value *= 0xC4CEB9FE1A85EC53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+}
@@ -0,0 +1,350 @@
+package com.github.jikoo.planarenchanting.util;
+
+import com.github.jikoo.planarenchanting.util.InputSample.AnvilSample;
+import com.github.jikoo.planarenchanting.util.InputSample.ItemSample;
+import com.github.jikoo.planarenchanting.util.InputSample.TableSample;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.bukkit.NamespacedKey;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A sampler of real anvil and enchanting table inputs, written to a file for replaying later.
+ *
+ * <p>While a capture is {@link #install(InputCapture) installed}, {@code PlanarForge} and
+ * {@code TableEnchantListener} offer a fraction of their inputs. Sampled inputs are placed in a
+ * bounded lock-free queue and serialized by a background thread, so the sampling thread only pays
+ * for reading the input items. Capture stops once the maximum number of samples is reached.</p>
+ *
+ * <p>Items and enchantments are written by key, so samples can be {@link #read(Path) read}
+ * without a server.</p>
+ */
+@NullMarked
+public final class InputCapture implements Closeable {
+
+  private static final byte[] MAGIC = { 'P', 'E', 'I', 'C' };
+  private static final int VERSION = 3;
+  private static final int ANVIL = 0;
+  private static final int TABLE = 1;
+  private static final int CAPACITY = 1024;
+  private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private static volatile @Nullable InputCapture installed;
+
+  private final double sampleRate;
+  private final int maxSamples;
+  private final BoundedRing<InputSample> ring = new BoundedRing<>(CAPACITY);
+  private final AtomicInteger claimed = new AtomicInteger();
+  private final LongAdder dropped = new LongAdder();
+  private final DataOutputStream out;
+  private final Thread writer;
+  private volatile boolean open = true;
+  private volatile @Nullable IOException failure;
+
+  /**
+   * Construct a new {@code InputCapture}. Any existing file is replaced.
+   *
+   * @param file the file to write samples to
+   * @param sampleRate the fraction of inputs sampled, between 0 and 1
+   * @param maxSamples the maximum number of samples captured
+   * @throws IOException if the file cannot be created
+   */
+  public InputCapture(Path file, double sampleRate, int maxSamples) throws IOException {
+    if (!(sampleRate > 0 && sampleRate <= 1)) {
+      throw new IllegalArgumentException("Sample rate must be greater than 0 and at most 1");
+    }
+    if (maxSamples < 1) {
+      throw new IllegalArgumentException("Maximum samples must be positive");
+    }
+    this.sampleRate = sampleRate;
+    this.maxSamples = maxSamples;
+    this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+        file,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE)));
+    out.write(MAGIC);
+    out.writeByte(VERSION);
+    this.writer = new Thread(this::drain, "PlanarEnchanting Input Capture");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Install an {@code InputCapture}, replacing any existing capture. The replaced capture is not
+   * closed.
+   *
+   * @param capture the {@code InputCapture} or {@code null} to disable capture
+   */
+  public static void install(@Nullable InputCapture capture) {
+    installed = capture;
+  }
+
+  /**
+   * Get the installed {@code InputCapture}.
+   *
+   * @return the {@code InputCapture} or {@code null} if capture is disabled
+   */
+  public static @Nullable InputCapture getInstalled() {
+    return installed;
+  }
+
+  /**
+   * Decide whether to sample the current input. If {@code true}, the caller is expected to
+   * {@link #record(InputSample) record} the input.
+   *
+   * @return whether the input should be sampled
+   */
+  public boolean sample() {
+    return open
+        && claimed.get() < maxSamples
+        && ThreadLocalRandom.current().nextDouble() < sampleRate
+        && claimed.incrementAndGet() <= maxSamples;
+  }
+
+  /**
+   * Record a sample. Input items must be copies that will not be modified.
+   *
+   * @param sample the {@link InputSample}
+   */
+  public void record(InputSample sample) {
+    if (!open || !ring.offer(sample)) {
+      dropped.increment();
+    }
+  }
+
+  /**
+   * Get the number of samples dropped because the queue was full, the capture was closed, or
+   * writing failed.
+   *
+   * @return the number of dropped samples
+   */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * Stop accepting samples, write all pending samples, and close the file.
+   *
+   * @throws IOException if writing failed at any point
+   */
+  @Override
+  public void close() throws IOException {
+    open = false;
+    LockSupport.unpark(writer);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while closing capture", e);
+    }
+
+    IOException exception = failure;
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private void drain() {
+    try (out) {
+      while (true) {
+        InputSample sample = ring.poll();
+        if (sample != null) {
+          write(sample);
+          continue;
+        }
+
+        out.flush();
+        if (!open && ring.isEmpty()) {
+          break;
+        }
+        LockSupport.parkNanos(this, IDLE_NANOS);
+      }
+    } catch (IOException e) {
+      failure = e;
+      open = false;
+      while (ring.poll() != null) {
+        dropped.increment();
+      }
+    }
+  }
+
+  private void write(InputSample sample) throws IOException {
+    switch (sample) {
+      case AnvilSample anvil -> {
+        out.writeByte(ANVIL);
+        out.writeUTF(anvil.behavior());
+        writeItem(anvil.base());
+        writeItem(anvil.addition());
+        String renameText = anvil.renameText();
+        out.writeBoolean(renameText != null);
+        if (renameText != null) {
+          out.writeUTF(renameText);
+        }
+        out.writeInt(anvil.maximumRepairCost());
+      }
+      case TableSample table -> {
+        out.writeByte(TABLE);
+        out.writeByte(table.operation().ordinal());
+        out.writeInt(table.enchantments().size());
+        for (NamespacedKey key : table.enchantments()) {
+          out.writeUTF(key.toString());
+        }
+        out.writeInt(table.enchantability());
+        out.writeInt(table.level());
+        out.writeLong(table.seed());
+      }
+    }
+  }
+
+  private void writeItem(@Nullable ItemSample item) throws IOException {
+    out.writeBoolean(item != null);
+    if (item == null) {
+      return;
+    }
+
+    out.writeUTF(item.type().toString());
+    out.writeInt(item.amount());
+    writeEnchantments(item.enchantments());
+    writeEnchantments(item.storedEnchantments());
+    out.writeInt(item.damage());
+    out.writeInt(item.repairCost());
+    String displayName = item.displayName();
+    out.writeBoolean(displayName != null);
+    if (displayName != null) {
+      out.writeUTF(displayName);
+    }
+  }
+
+  private void writeEnchantments(Map<NamespacedKey, Integer> enchantments) throws IOException {
+    out.writeInt(enchantments.size());
+    for (Map.Entry<NamespacedKey, Integer> entry : enchantments.entrySet()) {
+      out.writeUTF(entry.getKey().toString());
+      out.writeInt(entry.getValue());
+    }
+  }
+
+  /**
+   * Read all samples from a capture file. A sample cut short by the server stopping is ignored.
+   *
+   * @param file the capture file
+   * @return the samples in the order they were written
+   * @throws IOException if the file cannot be read or is not a capture file
+   */
+  public static List<InputSample> read(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      byte[] magic = in.readNBytes(MAGIC.length);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new IOException("Not a capture file");
+      }
+      int version = in.read();
+      if (version != VERSION) {
+        throw new IOException("Unsupported capture version " + version);
+      }
+
+      List<InputSample> samples = new ArrayList<>();
+      try {
+        int type;
+        while ((type = in.read()) >= 0) {
+          samples.add(switch (type) {
+            case ANVIL -> readAnvil(in);
+            case TABLE -> readTable(in);
+            default -> throw new IOException("Unknown sample type " + type);
+          });
+        }
+      } catch (EOFException e) {
+        // Trailing partial sample.
+      }
+      return samples;
+    }
+  }
+
+  private static AnvilSample readAnvil(DataInputStream in) throws IOException {
+    String behavior = in.readUTF();
+    ItemSample base = readItem(in);
+    ItemSample addition = readItem(in);
+    String renameText = in.readBoolean() ? in.readUTF() : null;
+    return new AnvilSample(behavior, base, addition, renameText, in.readInt());
+  }
+
+  private static TableSample readTable(DataInputStream in) throws IOException {
+    int operation = in.readUnsignedByte();
+    TableSample.Operation[] operations = TableSample.Operation.values();
+    if (operation >= operations.length) {
+      throw new IOException("Unknown table operation " + operation);
+    }
+    int size = in.readInt();
+    List<NamespacedKey> enchantments = new ArrayList<>(Math.max(0, Math.min(size, 256)));
+    for (int i = 0; i < size; ++i) {
+      enchantments.add(readKey(in));
+    }
+    return new TableSample(
+        operations[operation],
+        enchantments,
+        in.readInt(),
+        in.readInt(),
+        in.readLong());
+  }
+
+  private static @Nullable ItemSample readItem(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+
+    NamespacedKey type = readKey(in);
+    int amount = in.readInt();
+    Map<NamespacedKey, Integer> enchantments = readEnchantments(in);
+    Map<NamespacedKey, Integer> storedEnchantments = readEnchantments(in);
+    int damage = in.readInt();
+    int repairCost = in.readInt();
+    String displayName = in.readBoolean() ? in.readUTF() : null;
+    return new ItemSample(
+        type,
+        amount,
+        enchantments,
+        storedEnchantments,
+        damage,
+        repairCost,
+        displayName);
+  }
+
+  private static Map<NamespacedKey, Integer> readEnchantments(DataInputStream in)
+      throws IOException {
+    int size = in.readInt();
+    Map<NamespacedKey, Integer> enchantments = new HashMap<>();
+    for (int i = 0; i < size; ++i) {
+      enchantments.put(readKey(in), in.readInt());
+    }
+    return enchantments;
+  }
+
+  private static NamespacedKey readKey(DataInputStream in) throws IOException {
+    String value = in.readUTF();
+    NamespacedKey key = NamespacedKey.fromString(value);
+    if (key == null) {
+      throw new IOException("Malformed key " + value);
+    }
+    return key;
+  }
+
+}
@@ -0,0 +1,196 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.Repairable;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Inputs of an anvil or enchanting table operation captured by {@link InputCapture}.
+ *
+ * <p>Items and enchantments are identified by key so that samples may be read without a
+ * server.</p>
+ */
+@NullMarked
+public sealed interface InputSample {
+
+  /**
+   * The inputs of an anvil operation.
+   *
+   * @param behavior the class name of the anvil behavior in use
+   * @param base the base item, or {@code null} if not present
+   * @param addition the added item, or {@code null} if not present
+   * @param renameText the text entered in the rename field
+   * @param maximumRepairCost the maximum level cost of the anvil
+   */
+  record AnvilSample(
+      String behavior,
+      @Nullable ItemSample base,
+      @Nullable ItemSample addition,
+      @Nullable String renameText,
+      int maximumRepairCost
+  ) implements InputSample {}
+
+  /**
+   * The details of an item relevant to anvil operations.
+   *
+   * @param type the key of the item's type
+   * @param amount the amount of the item
+   * @param enchantments the enchantments applied to the item
+   * @param storedEnchantments the enchantments stored in the item, i.e. by an enchanted book
+   * @param damage the damage of the item
+   * @param repairCost the prior work cost of the item
+   * @param displayName the custom name of the item, or {@code null} if not named
+   */
+  record ItemSample(
+      NamespacedKey type,
+      int amount,
+      Map<NamespacedKey, Integer> enchantments,
+      Map<NamespacedKey, Integer> storedEnchantments,
+      int damage,
+      int repairCost,
+      @Nullable String displayName
+  ) {
+
+    /**
+     * Construct a new {@code ItemSample}. Enchantments are copied.
+     */
+    public ItemSample {
+      enchantments = Map.copyOf(enchantments);
+      storedEnchantments = Map.copyOf(storedEnchantments);
+    }
+
+    /**
+     * Sample the details of an item.
+     *
+     * @param itemStack the item
+     * @return the sample, or {@code null} if the item is empty
+     */
+    public static @Nullable ItemSample of(@Nullable ItemStack itemStack) {
+      if (itemStack == null || itemStack.getType() == Material.AIR || itemStack.getAmount() < 1) {
+        return null;
+      }
+
+      ItemMeta meta = itemStack.hasItemMeta() ? itemStack.getItemMeta() : null;
+      if (meta == null) {
+        return new ItemSample(
+            itemStack.getType().getKey(),
+            itemStack.getAmount(),
+            Map.of(),
+            Map.of(),
+            0,
+            0,
+            null);
+      }
+
+      return new ItemSample(
+          itemStack.getType().getKey(),
+          itemStack.getAmount(),
+          keyed(meta.getEnchants()),
+          meta instanceof EnchantmentStorageMeta storage
+              ? keyed(storage.getStoredEnchants())
+              : Map.of(),
+          meta instanceof Damageable damageable ? damageable.getDamage() : 0,
+          meta instanceof Repairable repairable ? repairable.getRepairCost() : 0,
+          meta.hasDisplayName() ? meta.getDisplayName() : null);
+    }
+
+    /**
+     * Create an item with the sampled details. Enchantments are looked up in the
+     * {@link Registry#ENCHANTMENT enchantment registry}; unknown enchantments are skipped. This
+     * requires a server providing registries and item metadata.
+     *
+     * @return the item
+     */
+    public ItemStack toItemStack() {
+      Material material = Registry.MATERIAL.get(type);
+      ItemStack itemStack = new ItemStack(material == null ? Material.AIR : material, amount);
+      ItemMeta meta = itemStack.getItemMeta();
+      if (meta == null) {
+        return itemStack;
+      }
+
+      for (Map.Entry<NamespacedKey, Integer> entry : enchantments.entrySet()) {
+        Enchantment enchantment = Registry.ENCHANTMENT.get(entry.getKey());
+        if (enchantment != null) {
+          meta.addEnchant(enchantment, entry.getValue(), true);
+        }
+      }
+      if (meta instanceof EnchantmentStorageMeta storage) {
+        for (Map.Entry<NamespacedKey, Integer> entry : storedEnchantments.entrySet()) {
+          Enchantment enchantment = Registry.ENCHANTMENT.get(entry.getKey());
+          if (enchantment != null) {
+            storage.addStoredEnchant(enchantment, entry.getValue(), true);
+          }
+        }
+      }
+      if (damage != 0 && meta instanceof Damageable damageable) {
+        damageable.setDamage(damage);
+      }
+      if (repairCost != 0 && meta instanceof Repairable repairable) {
+        repairable.setRepairCost(repairCost);
+      }
+      if (displayName != null) {
+        meta.setDisplayName(displayName);
+      }
+      itemStack.setItemMeta(meta);
+      return itemStack;
+    }
+
+    private static Map<NamespacedKey, Integer> keyed(Map<Enchantment, Integer> enchantments) {
+      Map<NamespacedKey, Integer> keyed = new HashMap<>();
+      for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+        keyed.put(entry.getKey().getKey(), entry.getValue());
+      }
+      return keyed;
+    }
+
+  }
+
+  /**
+   * The inputs of an enchanting table operation.
+   *
+   * @param operation the operation performed
+   * @param enchantments the keys of the enchantments that may be applied
+   * @param enchantability the enchantability of the item enchanted
+   * @param level the enchanting level
+   * @param seed the seed of the random used
+   */
+  record TableSample(
+      Operation operation,
+      List<NamespacedKey> enchantments,
+      int enchantability,
+      int level,
+      long seed
+  ) implements InputSample {
+
+    /**
+     * Construct a new {@code TableSample}. Enchantments are copied.
+     */
+    public TableSample {
+      enchantments = List.copyOf(enchantments);
+    }
+
+    /**
+     * An enchanting table operation.
+     */
+    public enum Operation {
+      /** Generating an offer while the table is prepared. */
+      OFFER,
+      /** Selecting the enchantments applied when an offer is chosen. */
+      APPLY
+    }
+
+  }
+
+}
@@ -0,0 +1,51 @@
+package com.github.jikoo.planarenchanting.util;
+
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A producer of 64-bit fingerprints for {@link ItemStack ItemStacks}.
+ *
+ * <p>Fingerprints only cover the details of an item relevant to enchanting, i.e. its type,
+ * enchantments, damage, repair cost, and name. Amount is never included. Items with different
+ * fingerprints are never equivalent; items with the same fingerprint are equivalent unless a
+ * hash collision has occurred.</p>
+ *
+ * <p>Because other details such as lore or container contents are ignored, a fingerprint must
+ * never be used as the sole identity of an item where the item itself is carried forward. Use it
+ * as a hash and confirm matches with {@link ItemStack#equals(Object)}.</p>
+ */
+@NullMarked
+public interface ItemFingerprinter {
+
+  /**
+   * Get the fingerprint of an item.
+   *
+   * @param itemStack the item
+   * @return the fingerprint
+   */
+  long fingerprint(ItemStack itemStack);
+
+  /**
+   * Check if two items are equivalent for the purposes of fingerprinting. This compares the same
+   * details as are fingerprinted, but directly.
+   *
+   * @param first the first item
+   * @param second the second item
+   * @return whether the items are equivalent
+   */
+  boolean isEquivalent(ItemStack first, ItemStack second);
+
+  /**
+   * Wrap an {@code ItemFingerprinter} to verify that no collisions occur. Every fingerprinted
+   * item is retained and compared to later items with the same fingerprint. This is costly and
+   * intended for use in tests.
+   *
+   * @param fingerprinter the {@code ItemFingerprinter} to verify
+   * @return the verifying {@code ItemFingerprinter}
+   */
+  static ItemFingerprinter verifying(ItemFingerprinter fingerprinter) {
+    return new VerifyingFingerprinter(fingerprinter);
+  }
+
+}
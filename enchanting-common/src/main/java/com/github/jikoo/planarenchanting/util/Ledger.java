@@ -0,0 +1,37 @@
+package com.github.jikoo.planarenchanting.util;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Access to the installed {@link LedgerSink}.
+ *
+ * <p>Instrumented code reads the sink once per operation and skips creating entries if it is
+ * {@code null}.</p>
+ */
+@NullMarked
+public final class Ledger {
+
+  private static volatile @Nullable LedgerSink sink;
+
+  /**
+   * Install a {@link LedgerSink}, replacing any existing sink.
+   *
+   * @param sink the {@code LedgerSink} or {@code null} to disable recording
+   */
+  public static void install(@Nullable LedgerSink sink) {
+    Ledger.sink = sink;
+  }
+
+  /**
+   * Get the installed {@link LedgerSink}.
+   *
+   * @return the {@code LedgerSink} or {@code null} if recording is disabled
+   */
+  public static @Nullable LedgerSink getSink() {
+    return sink;
+  }
+
+  private Ledger() {}
+
+}
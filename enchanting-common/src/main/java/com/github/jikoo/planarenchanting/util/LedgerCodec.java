@@ -0,0 +1,276 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.bukkit.NamespacedKey;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The binary format of ledger files.
+ *
+ * <p>A file starts with a four byte magic number and a version byte. Each entry follows as a
+ * varint payload length and the payload. Integers in the payload are zigzag-encoded varints and
+ * strings are a varint length followed by UTF-8 bytes:</p>
+ * <ol>
+ *   <li>kind ordinal</li>
+ *   <li>timestamp</li>
+ *   <li>flags: {@code 1} if an addition type is present, {@code 2} if a platform is present</li>
+ *   <li>item type, then the addition type if present</li>
+ *   <li>base, addition, and result enchantments, each as a count of key and level pairs</li>
+ *   <li>level cost, material cost, and seed</li>
+ *   <li>platform if present</li>
+ * </ol>
+ */
+@NullMarked
+final class LedgerCodec {
+
+  static final byte[] MAGIC = { 'P', 'E', 'L', 'G' };
+  static final int VERSION = 1;
+  static final int MAX_PAYLOAD_BYTES = 1 << 20;
+
+  private static final int FLAG_ADDITION = 1;
+  private static final int FLAG_PLATFORM = 2;
+  private static final LedgerEntry.Kind[] KINDS = LedgerEntry.Kind.values();
+
+  /**
+   * Write the file header.
+   *
+   * @param out the {@link OutputStream}
+   * @return the number of bytes written
+   * @throws IOException if the header cannot be written
+   */
+  static int writeHeader(OutputStream out) throws IOException {
+    out.write(MAGIC);
+    out.write(VERSION);
+    return MAGIC.length + 1;
+  }
+
+  /**
+   * Read and validate the file header.
+   *
+   * @param in the {@link InputStream}
+   * @throws IOException if the header cannot be read or is not a supported ledger header
+   */
+  static void readHeader(InputStream in) throws IOException {
+    byte[] header = in.readNBytes(MAGIC.length + 1);
+    if (header.length != MAGIC.length + 1) {
+      throw new IOException("Not a ledger file");
+    }
+    for (int i = 0; i < MAGIC.length; ++i) {
+      if (header[i] != MAGIC[i]) {
+        throw new IOException("Not a ledger file");
+      }
+    }
+    if (header[MAGIC.length] != VERSION) {
+      throw new IOException("Unsupported ledger version " + header[MAGIC.length]);
+    }
+  }
+
+  /**
+   * Write an entry.
+   *
+   * @param out the {@link OutputStream}
+   * @param entry the {@link LedgerEntry}
+   * @param payload a buffer for the payload, reset before use
+   * @return the number of bytes written
+   * @throws IOException if the entry cannot be written
+   */
+  static int write(OutputStream out, LedgerEntry entry, ByteArrayOutputStream payload)
+      throws IOException {
+    payload.reset();
+    writeLong(payload, entry.kind().ordinal());
+    writeLong(payload, entry.timestamp());
+    NamespacedKey additionType = entry.additionType();
+    String platform = entry.platform();
+    int flags = additionType == null ? 0 : FLAG_ADDITION;
+    if (platform != null) {
+      flags |= FLAG_PLATFORM;
+    }
+    writeLong(payload, flags);
+    writeString(payload, entry.itemType().toString());
+    if (additionType != null) {
+      writeString(payload, additionType.toString());
+    }
+    writeEnchantments(payload, entry.baseEnchantments());
+    writeEnchantments(payload, entry.additionEnchantments());
+    writeEnchantments(payload, entry.resultEnchantments());
+    writeLong(payload, entry.levelCost());
+    writeLong(payload, entry.materialCost());
+    writeLong(payload, entry.seed());
+    if (platform != null) {
+      writeString(payload, platform);
+    }
+
+    int length = writeVarInt(out, payload.size());
+    payload.writeTo(out);
+    return length + payload.size();
+  }
+
+  /**
+   * Read an entry. If the stream ends part way through an entry, as may happen if the server
+   * stopped while writing, the partial entry is discarded.
+   *
+   * @param in the {@link InputStream}
+   * @return the {@link LedgerEntry} or {@code null} if no complete entry remains
+   * @throws IOException if the entry cannot be read or is malformed
+   */
+  static @Nullable LedgerEntry read(InputStream in) throws IOException {
+    int length = 0;
+    for (int shift = 0; ; shift += 7) {
+      int read = in.read();
+      if (read < 0) {
+        return null;
+      }
+      if (shift > 28) {
+        throw new IOException("Malformed entry length");
+      }
+      length |= (read & 0x7F) << shift;
+      if ((read & 0x80) == 0) {
+        break;
+      }
+    }
+
+    if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+      throw new IOException("Malformed entry length " + length);
+    }
+
+    byte[] payload = in.readNBytes(length);
+    if (payload.length < length) {
+      return null;
+    }
+
+    try {
+      return decode(ByteBuffer.wrap(payload));
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("Malformed entry", e);
+    }
+  }
+
+  private static LedgerEntry decode(ByteBuffer buffer) throws IOException {
+    int kind = (int) readLong(buffer);
+    if (kind < 0 || kind >= KINDS.length) {
+      throw new IOException("Unknown entry kind " + kind);
+    }
+    long timestamp = readLong(buffer);
+    int flags = (int) readLong(buffer);
+    NamespacedKey itemType = readKey(buffer);
+    NamespacedKey additionType = (flags & FLAG_ADDITION) == 0 ? null : readKey(buffer);
+    Map<NamespacedKey, Integer> base = readEnchantments(buffer);
+    Map<NamespacedKey, Integer> addition = readEnchantments(buffer);
+    Map<NamespacedKey, Integer> result = readEnchantments(buffer);
+    int levelCost = (int) readLong(buffer);
+    int materialCost = (int) readLong(buffer);
+    long seed = readLong(buffer);
+    String platform = (flags & FLAG_PLATFORM) == 0 ? null : readString(buffer);
+
+    return new LedgerEntry(
+        KINDS[kind],
+        timestamp,
+        itemType,
+        additionType,
+        base,
+        addition,
+        result,
+        levelCost,
+        materialCost,
+        seed,
+        platform
+    );
+  }
+
+  private static void writeEnchantments(
+      OutputStream out,
+      Map<NamespacedKey, Integer> enchantments
+  ) throws IOException {
+    writeLong(out, enchantments.size());
+    for (Map.Entry<NamespacedKey, Integer> entry : enchantments.entrySet()) {
+      writeString(out, entry.getKey().toString());
+      writeLong(out, entry.getValue());
+    }
+  }
+
+  private static Map<NamespacedKey, Integer> readEnchantments(ByteBuffer buffer)
+      throws IOException {
+    int size = (int) readLong(buffer);
+    if (size < 0 || size > buffer.remaining()) {
+      throw new IOException("Malformed enchantment count " + size);
+    }
+    Map<NamespacedKey, Integer> enchantments = new HashMap<>();
+    for (int i = 0; i < size; ++i) {
+      enchantments.put(readKey(buffer), (int) readLong(buffer));
+    }
+    return enchantments;
+  }
+
+  private static void writeString(OutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(out, bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) throws IOException {
+    int length = (int) readVarLong(buffer);
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IOException("Malformed string length " + length);
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static NamespacedKey readKey(ByteBuffer buffer) throws IOException {
+    String value = readString(buffer);
+    NamespacedKey key = NamespacedKey.fromString(value);
+    if (key == null) {
+      throw new IOException("Malformed key " + value);
+    }
+    return key;
+  }
+
+  private static void writeLong(OutputStream out, long value) throws IOException {
+    writeVarLong(out, (value << 1) ^ (value >> 63));
+  }
+
+  private static long readLong(ByteBuffer buffer) throws IOException {
+    long value = readVarLong(buffer);
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static int writeVarInt(OutputStream out, int value) throws IOException {
+    return writeVarLong(out, value & 0xFFFFFFFFL);
+  }
+
+  private static int writeVarLong(OutputStream out, long value) throws IOException {
+    int written = 1;
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+      ++written;
+    }
+    out.write((int) value);
+    return written;
+  }
+
+  private static long readVarLong(ByteBuffer buffer) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte read = buffer.get();
+      value |= (long) (read & 0x7F) << shift;
+      if ((read & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  private LedgerCodec() {}
+
+}
@@ -0,0 +1,157 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A record of an enchanting table enchantment or an anvil result.
+ *
+ * <p>Items and enchantments are identified by key so that entries may be read back without a
+ * server. Enchantment maps include enchantments stored on enchanted books.</p>
+ *
+ * @param kind the kind of operation
+ * @param timestamp the time the operation occurred in milliseconds since the epoch
+ * @param itemType the type of the item enchanted or the base item
+ * @param additionType the type of the added item, or {@code null} if there was none
+ * @param baseEnchantments the enchantments on the item enchanted or the base item
+ * @param additionEnchantments the enchantments on the added item
+ * @param resultEnchantments the enchantments added by the table or on the anvil result
+ * @param levelCost the number of levels consumed
+ * @param materialCost the amount of lapis or added items consumed
+ * @param seed the enchantment seed used by the table, or 0 for anvils
+ * @param platform the platform whose costs were used, or {@code null} if unknown
+ */
+@NullMarked
+public record LedgerEntry(
+    Kind kind,
+    long timestamp,
+    NamespacedKey itemType,
+    @Nullable NamespacedKey additionType,
+    Map<NamespacedKey, Integer> baseEnchantments,
+    Map<NamespacedKey, Integer> additionEnchantments,
+    Map<NamespacedKey, Integer> resultEnchantments,
+    int levelCost,
+    int materialCost,
+    long seed,
+    @Nullable String platform
+) {
+
+  /**
+   * Construct a new {@code LedgerEntry}. Enchantment maps are copied.
+   */
+  public LedgerEntry {
+    baseEnchantments = Map.copyOf(baseEnchantments);
+    additionEnchantments = Map.copyOf(additionEnchantments);
+    resultEnchantments = Map.copyOf(resultEnchantments);
+  }
+
+  /**
+   * Create an entry for enchantments applied by an enchanting table.
+   *
+   * @param item the item enchanted
+   * @param added the enchantments added
+   * @param levelCost the number of levels consumed
+   * @param materialCost the amount of lapis consumed
+   * @param seed the enchantment seed used
+   * @return the entry
+   */
+  public static LedgerEntry table(
+      ItemStack item,
+      Map<Enchantment, Integer> added,
+      int levelCost,
+      int materialCost,
+      long seed
+  ) {
+    return new LedgerEntry(
+        Kind.TABLE,
+        System.currentTimeMillis(),
+        item.getType().getKey(),
+        null,
+        getEnchantments(item),
+        Map.of(),
+        keyed(added),
+        levelCost,
+        materialCost,
+        seed,
+        null
+    );
+  }
+
+  /**
+   * Create an entry for a result produced by an anvil.
+   *
+   * @param base the base item
+   * @param addition the added item
+   * @param result the result item
+   * @param levelCost the number of levels consumed
+   * @param materialCost the amount of added items consumed
+   * @param platform the platform whose costs were used, or {@code null} if unknown
+   * @return the entry
+   */
+  public static LedgerEntry anvil(
+      @Nullable ItemStack base,
+      @Nullable ItemStack addition,
+      ItemStack result,
+      int levelCost,
+      int materialCost,
+      @Nullable String platform
+  ) {
+    return new LedgerEntry(
+        Kind.ANVIL,
+        System.currentTimeMillis(),
+        (base == null ? Material.AIR : base.getType()).getKey(),
+        addition == null ? null : addition.getType().getKey(),
+        getEnchantments(base),
+        getEnchantments(addition),
+        getEnchantments(result),
+        levelCost,
+        materialCost,
+        0,
+        platform
+    );
+  }
+
+  private static Map<NamespacedKey, Integer> getEnchantments(@Nullable ItemStack itemStack) {
+    if (itemStack == null || !itemStack.hasItemMeta()) {
+      return Map.of();
+    }
+
+    ItemMeta meta = itemStack.getItemMeta();
+    if (meta == null) {
+      return Map.of();
+    }
+
+    Map<NamespacedKey, Integer> enchantments = keyed(meta.getEnchants());
+    if (meta instanceof EnchantmentStorageMeta storageMeta) {
+      enchantments.putAll(keyed(storageMeta.getStoredEnchants()));
+    }
+    return enchantments;
+  }
+
+  private static Map<NamespacedKey, Integer> keyed(Map<Enchantment, Integer> enchantments) {
+    Map<NamespacedKey, Integer> keyed = new HashMap<>();
+    for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+      keyed.put(entry.getKey().getKey(), entry.getValue());
+    }
+    return keyed;
+  }
+
+  /**
+   * Kinds of recorded operations.
+   */
+  public enum Kind {
+    /** Enchantments applied by an enchanting table. */
+    TABLE,
+    /** A result produced by an anvil. */
+    ANVIL
+  }
+
+}
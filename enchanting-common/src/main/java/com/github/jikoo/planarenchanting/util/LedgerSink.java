@@ -0,0 +1,23 @@
+package com.github.jikoo.planarenchanting.util;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A receiver for {@link LedgerEntry LedgerEntries} describing enchanting table enchantments and
+ * anvil results. A sink is installed via {@link Ledger#install(LedgerSink)}.
+ *
+ * <p>Sinks are called on whichever thread performs the work, usually the server thread. They must
+ * be thread-safe and should return quickly; see {@link BinaryLedger} for a sink that performs
+ * its I/O in the background.</p>
+ */
+@NullMarked
+public interface LedgerSink {
+
+  /**
+   * Record an entry.
+   *
+   * @param entry the {@link LedgerEntry}
+   */
+  void record(LedgerEntry entry);
+
+}
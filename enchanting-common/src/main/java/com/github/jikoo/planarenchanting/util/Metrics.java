@@ -0,0 +1,37 @@
+package com.github.jikoo.planarenchanting.util;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Access to the installed {@link MetricsSink}.
+ *
+ * <p>Instrumented code reads the sink once per operation and skips all measurement if it is
+ * {@code null}, so no clock reads or recording occur unless a sink is installed.</p>
+ */
+@NullMarked
+public final class Metrics {
+
+  private static volatile @Nullable MetricsSink sink;
+
+  /**
+   * Install a {@link MetricsSink}, replacing any existing sink.
+   *
+   * @param sink the {@code MetricsSink} or {@code null} to disable recording
+   */
+  public static void install(@Nullable MetricsSink sink) {
+    Metrics.sink = sink;
+  }
+
+  /**
+   * Get the installed {@link MetricsSink}.
+   *
+   * @return the {@code MetricsSink} or {@code null} if recording is disabled
+   */
+  public static @Nullable MetricsSink getSink() {
+    return sink;
+  }
+
+  private Metrics() {}
+
+}
@@ -0,0 +1,59 @@
+package com.github.jikoo.planarenchanting.util;
+
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A receiver for timings and outcomes recorded while producing anvil results and enchanting
+ * table offers. A sink is installed via {@link Metrics#install(MetricsSink)}.
+ *
+ * <p>Sources identify what was measured:</p>
+ * <ul>
+ *   <li>An {@link com.github.jikoo.planarenchanting.anvil.AnvilFunction AnvilFunction} records
+ *   the time taken to apply it and whether it could apply.</li>
+ *   <li>A {@link Phase} records the time taken by the phase. {@link Phase#ANVIL_TEMPER} also
+ *   records whether a result was produced.</li>
+ *   <li>A cache, i.e. an {@link com.github.jikoo.planarenchanting.anvil.AnvilResultCache
+ *   AnvilResultCache}, {@link com.github.jikoo.planarenchanting.anvil.MemoizingBehavior
+ *   MemoizingBehavior}, or {@link ApplicabilityCache}, records whether each lookup was a
+ *   hit.</li>
+ * </ul>
+ *
+ * <p>Sinks are called on whichever thread performs the work, often the server thread. They must
+ * be thread-safe and should return quickly.</p>
+ */
+@NullMarked
+public interface MetricsSink {
+
+  /**
+   * Record the time taken by a source.
+   *
+   * @param source the source measured
+   * @param nanos the elapsed time in nanoseconds
+   */
+  void recordLatency(Object source, long nanos);
+
+  /**
+   * Record the outcome of a source.
+   *
+   * @param source the source measured
+   * @param positive whether the outcome was positive, i.e. a function applied or a cache hit
+   */
+  void recordOutcome(Object source, boolean positive);
+
+  /**
+   * Phases of operations not otherwise identified by an object.
+   */
+  enum Phase {
+    /** Finalizing an anvil result. The outcome is whether the result is not empty. */
+    ANVIL_TEMPER,
+    /** Obtaining the {@code EnchantingTable} for an item. */
+    TABLE_GET_TABLE,
+    /** Calculating the levels of enchanting table buttons. */
+    TABLE_BUTTON_LEVELS,
+    /** Generating enchanting table offers. */
+    TABLE_OFFERS,
+    /** Generating the enchantments applied by an enchanting table. */
+    TABLE_APPLY
+  }
+
+}
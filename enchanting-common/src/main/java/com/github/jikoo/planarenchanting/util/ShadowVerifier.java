@@ -0,0 +1,173 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A verifier re-running a sample of operations through a reference implementation and reporting
+ * any results that differ.
+ *
+ * <p>The calling thread only decides whether to sample and, if so, hands over a copy of the
+ * inputs and the result. The reference implementation and comparison run on an {@link Executor}.
+ * If too many verifications are already pending, samples are skipped rather than queued.</p>
+ *
+ * @param <I> the type of inputs
+ * @param <R> the type of result
+ */
+@NullMarked
+public final class ShadowVerifier<I, R> {
+
+  /** The default maximum number of verifications awaiting completion. */
+  public static final int DEFAULT_MAX_PENDING = 64;
+
+  private final Function<? super I, ? extends R> reference;
+  private final BiPredicate<? super R, ? super R> equivalence;
+  private final double sampleRate;
+  private final Executor executor;
+  private final int maxPending;
+  private final Consumer<? super Divergence<I, R>> reporter;
+  private final AtomicInteger pending = new AtomicInteger();
+  private final LongAdder verified = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder diverged = new LongAdder();
+
+  /**
+   * Construct a new {@code ShadowVerifier} running verifications on the common pool.
+   *
+   * @param reference the reference implementation
+   * @param equivalence the method determining whether results match
+   * @param sampleRate the fraction of operations verified, between 0 and 1
+   * @param reporter the consumer of divergences, called from the executor
+   */
+  public ShadowVerifier(
+      Function<? super I, ? extends R> reference,
+      BiPredicate<? super R, ? super R> equivalence,
+      double sampleRate,
+      Consumer<? super Divergence<I, R>> reporter
+  ) {
+    this(reference, equivalence, sampleRate, ForkJoinPool.commonPool(), DEFAULT_MAX_PENDING,
+        reporter);
+  }
+
+  /**
+   * Construct a new {@code ShadowVerifier}.
+   *
+   * @param reference the reference implementation
+   * @param equivalence the method determining whether results match
+   * @param sampleRate the fraction of operations verified, between 0 and 1
+   * @param executor the {@link Executor} running verifications
+   * @param maxPending the maximum number of verifications awaiting completion
+   * @param reporter the consumer of divergences, called from the executor
+   */
+  public ShadowVerifier(
+      Function<? super I, ? extends R> reference,
+      BiPredicate<? super R, ? super R> equivalence,
+      double sampleRate,
+      Executor executor,
+      int maxPending,
+      Consumer<? super Divergence<I, R>> reporter
+  ) {
+    if (!(sampleRate >= 0 && sampleRate <= 1)) {
+      throw new IllegalArgumentException("Sample rate must be between 0 and 1");
+    }
+    if (maxPending < 1) {
+      throw new IllegalArgumentException("Maximum pending verifications must be positive");
+    }
+    this.reference = reference;
+    this.equivalence = equivalence;
+    this.sampleRate = sampleRate;
+    this.executor = executor;
+    this.maxPending = maxPending;
+    this.reporter = reporter;
+  }
+
+  /**
+   * Decide whether to verify the current operation. If {@code true}, the caller is expected to
+   * {@link #verify(Object, Object) verify} the operation.
+   *
+   * @return whether the operation should be verified
+   */
+  public boolean sample() {
+    return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  /**
+   * Verify an operation in the background. Inputs and result must be copies that will not be
+   * modified.
+   *
+   * @param inputs the inputs of the operation
+   * @param actual the result produced
+   */
+  public void verify(I inputs, R actual) {
+    if (pending.incrementAndGet() > maxPending) {
+      pending.decrementAndGet();
+      skipped.increment();
+      return;
+    }
+
+    try {
+      executor.execute(() -> {
+        try {
+          R expected = reference.apply(inputs);
+          verified.increment();
+          if (!equivalence.test(expected, actual)) {
+            diverged.increment();
+            reporter.accept(new Divergence<>(inputs, expected, actual));
+          }
+        } finally {
+          pending.decrementAndGet();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      pending.decrementAndGet();
+      skipped.increment();
+    }
+  }
+
+  /**
+   * Get the number of operations verified.
+   *
+   * @return the number of verified operations
+   */
+  public long getVerified() {
+    return verified.sum();
+  }
+
+  /**
+   * Get the number of sampled operations skipped because too many verifications were pending.
+   *
+   * @return the number of skipped operations
+   */
+  public long getSkipped() {
+    return skipped.sum();
+  }
+
+  /**
+   * Get the number of operations whose result differed from the reference.
+   *
+   * @return the number of divergent operations
+   */
+  public long getDiverged() {
+    return diverged.sum();
+  }
+
+  /**
+   * An operation whose result differed from the reference implementation.
+   *
+   * @param inputs the inputs of the operation
+   * @param expected the result of the reference implementation
+   * @param actual the result produced
+   * @param <I> the type of inputs
+   * @param <R> the type of result
+   */
+  public record Divergence<I, R>(I inputs, R expected, R actual) {}
+
+}
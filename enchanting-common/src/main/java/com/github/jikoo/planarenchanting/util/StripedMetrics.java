@@ -0,0 +1,226 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link MetricsSink} aggregating recordings in memory for later inspection.
+ *
+ * <p>All counters are {@link LongAdder LongAdders}, so recording from many threads does not
+ * contend on a single value. Latencies are stored in a histogram with power-of-two buckets;
+ * percentiles are accurate to within a factor of two.</p>
+ *
+ * <p>Sources are not retained. Recordings are grouped by {@link Phase} or by the name of the
+ * source's class, so recordings of all instances of a class are combined and discarded instances
+ * do not outlive their use.</p>
+ */
+@NullMarked
+public final class StripedMetrics implements MetricsSink {
+
+  private static final int BUCKETS = 64;
+
+  private final Map<Object, Latency> latencies = new ConcurrentHashMap<>();
+  private final Map<Object, Outcomes> outcomes = new ConcurrentHashMap<>();
+
+  @Override
+  public void recordLatency(Object source, long nanos) {
+    Object key = getKey(source);
+    Latency latency = latencies.get(key);
+    if (latency == null) {
+      latency = latencies.computeIfAbsent(key, ignored -> new Latency());
+    }
+    latency.record(nanos);
+  }
+
+  @Override
+  public void recordOutcome(Object source, boolean positive) {
+    Object key = getKey(source);
+    Outcomes outcome = outcomes.get(key);
+    if (outcome == null) {
+      outcome = outcomes.computeIfAbsent(key, ignored -> new Outcomes());
+    }
+    (positive ? outcome.positive : outcome.negative).increment();
+  }
+
+  /**
+   * Get the recorded latencies of all sources.
+   *
+   * @return an unmodifiable view of latencies by source key
+   * @see #getKey(Object)
+   */
+  public Map<Object, Latency> getLatencies() {
+    return Collections.unmodifiableMap(latencies);
+  }
+
+  /**
+   * Get the recorded outcomes of all sources.
+   *
+   * @return an unmodifiable view of outcomes by source key
+   * @see #getKey(Object)
+   */
+  public Map<Object, Outcomes> getOutcomes() {
+    return Collections.unmodifiableMap(outcomes);
+  }
+
+  /**
+   * Get the recorded latency of a source.
+   *
+   * @param source the source
+   * @return the recorded latency or {@code null} if none has been recorded
+   */
+  public @Nullable Latency getLatency(Object source) {
+    return latencies.get(getKey(source));
+  }
+
+  /**
+   * Get the recorded outcomes of a source.
+   *
+   * @param source the source
+   * @return the recorded outcomes or {@code null} if none have been recorded
+   */
+  public @Nullable Outcomes getOutcomes(Object source) {
+    return outcomes.get(getKey(source));
+  }
+
+  /**
+   * Get the key recordings of a source are grouped by. Enum constants such as {@link Phase} are
+   * their own keys; other sources are keyed by the name of their class.
+   *
+   * @param source the source
+   * @return the key of the source
+   */
+  public static Object getKey(Object source) {
+    return source instanceof Enum<?> ? source : source.getClass().getName();
+  }
+
+  /**
+   * Discard all recordings.
+   */
+  public void reset() {
+    latencies.clear();
+    outcomes.clear();
+  }
+
+  /**
+   * A histogram of latencies recorded for a source.
+   */
+  public static final class Latency {
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    private Latency() {
+      for (int i = 0; i < BUCKETS; ++i) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    private void record(long nanos) {
+      nanos = Math.max(0, nanos);
+      // Bucket i holds values in [2^(i-1), 2^i), bucket 0 holds 0.
+      buckets[Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(nanos))].increment();
+      count.increment();
+      totalNanos.add(nanos);
+    }
+
+    /**
+     * Get the number of recordings.
+     *
+     * @return the number of recordings
+     */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /**
+     * Get the total recorded time.
+     *
+     * @return the total time in nanoseconds
+     */
+    public long getTotalNanos() {
+      return totalNanos.sum();
+    }
+
+    /**
+     * Get an upper bound for a percentile of recorded latencies.
+     *
+     * @param percentile the percentile, from 0 to 1
+     * @return the upper bound of the bucket containing the percentile in nanoseconds, or 0 if
+     *     nothing has been recorded
+     */
+    public long getPercentileNanos(double percentile) {
+      if (percentile < 0 || percentile > 1) {
+        throw new IllegalArgumentException("Percentile must be between 0 and 1");
+      }
+
+      long[] counts = new long[BUCKETS];
+      long total = 0;
+      for (int i = 0; i < BUCKETS; ++i) {
+        counts[i] = buckets[i].sum();
+        total += counts[i];
+      }
+
+      if (total == 0) {
+        return 0;
+      }
+
+      long target = Math.max(1, (long) Math.ceil(total * percentile));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; ++i) {
+        seen += counts[i];
+        if (seen >= target) {
+          return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+        }
+      }
+      return Long.MAX_VALUE;
+    }
+
+  }
+
+  /**
+   * Counts of positive and negative outcomes recorded for a source.
+   */
+  public static final class Outcomes {
+
+    private final LongAdder positive = new LongAdder();
+    private final LongAdder negative = new LongAdder();
+
+    private Outcomes() {}
+
+    /**
+     * Get the number of positive outcomes.
+     *
+     * @return the number of positive outcomes
+     */
+    public long getPositiveCount() {
+      return positive.sum();
+    }
+
+    /**
+     * Get the number of negative outcomes.
+     *
+     * @return the number of negative outcomes
+     */
+    public long getNegativeCount() {
+      return negative.sum();
+    }
+
+    /**
+     * Get the ratio of positive outcomes to all outcomes.
+     *
+     * @return the ratio of positive outcomes or {@link Double#NaN} if nothing has been recorded
+     */
+    public double getPositiveRatio() {
+      long positives = positive.sum();
+      long total = positives + negative.sum();
+      return total == 0 ? Double.NaN : (double) positives / total;
+    }
+
+  }
+
+}
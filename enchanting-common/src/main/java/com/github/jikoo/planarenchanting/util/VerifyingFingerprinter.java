@@ -0,0 +1,43 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * An {@link ItemFingerprinter} that verifies that fingerprints do not collide.
+ *
+ * @see ItemFingerprinter#verifying(ItemFingerprinter)
+ */
+@NullMarked
+final class VerifyingFingerprinter implements ItemFingerprinter {
+
+  private final ItemFingerprinter delegate;
+  private final Map<Long, ItemStack> seen = new ConcurrentHashMap<>();
+
+  VerifyingFingerprinter(ItemFingerprinter delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public long fingerprint(ItemStack itemStack) {
+    long fingerprint = delegate.fingerprint(itemStack);
+    ItemStack previous = seen.putIfAbsent(fingerprint, itemStack.clone());
+    if (previous != null && !delegate.isEquivalent(previous, itemStack)) {
+      throw new IllegalStateException(String.format(
+          "Fingerprint collision on %016x: %s and %s",
+          fingerprint,
+          previous,
+          itemStack
+      ));
+    }
+    return fingerprint;
+  }
+
+  @Override
+  public boolean isEquivalent(ItemStack first, ItemStack second) {
+    return delegate.isEquivalent(first, second);
+  }
+
+}
@@ -0,0 +1,314 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.github.jikoo.planarenchanting.util.Ledger;
+import com.github.jikoo.planarenchanting.util.LedgerEntry;
+import com.github.jikoo.planarenchanting.util.LedgerSink;
+import java.util.UUID;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.PrepareAnvilEvent;
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AnvilListenerTest {
+
+  private Plugin plugin;
+  private BukkitScheduler scheduler;
+  private AnvilView view;
+  private AnvilInventory inventory;
+  private ItemStack base;
+  private ItemStack resultItem;
+  private Anvil anvil;
+  private @Nullable Anvil listenerAnvil;
+
+  @BeforeEach
+  void beforeEach() {
+    plugin = mock();
+    Server server = mock();
+    doReturn(server).when(plugin).getServer();
+    scheduler = mock();
+    doReturn(scheduler).when(server).getScheduler();
+
+    view = mock();
+    inventory = mock();
+    doReturn(inventory).when(view).getTopInventory();
+    HumanEntity player = mock();
+    doReturn(UUID.randomUUID()).when(player).getUniqueId();
+    doReturn(view).when(player).getOpenInventory();
+    doReturn(player).when(view).getPlayer();
+
+    base = item();
+    doReturn(base).when(inventory).getItem(0);
+    resultItem = item();
+    doReturn(resultItem).when(inventory).getItem(2);
+
+    anvil = mock();
+    doReturn(new AnvilResult(resultItem, 5, 1)).when(anvil).getResult(view);
+    listenerAnvil = anvil;
+  }
+
+  @AfterEach
+  void afterEach() {
+    Ledger.install(null);
+  }
+
+  private static ItemStack item() {
+    ItemStack item = mock();
+    doReturn(1).when(item).getAmount();
+    doReturn(item).when(item).clone();
+    doReturn(Material.STONE).when(item).getType();
+    return item;
+  }
+
+  private AnvilListener listener(int maximumComputes) {
+    return new AnvilListener(plugin, maximumComputes) {
+      @Override
+      protected @Nullable Anvil getAnvil(AnvilView view) {
+        return listenerAnvil;
+      }
+    };
+  }
+
+  private PrepareAnvilEvent prepare(AnvilListener listener) {
+    PrepareAnvilEvent event = mock();
+    doReturn(view).when(event).getView();
+    listener.onPrepareAnvil(event);
+    return event;
+  }
+
+  private void clickResult(AnvilListener listener, int playerLevel) {
+    listener.onInventoryClick(click(playerLevel));
+  }
+
+  private InventoryClickEvent takeResult(AnvilListener listener) {
+    InventoryClickEvent event = click(5);
+    listener.onTakeResult(event);
+    return event;
+  }
+
+  private InventoryClickEvent click(int playerLevel) {
+    Player player = mock();
+    doReturn(UUID.randomUUID()).when(player).getUniqueId();
+    doReturn(playerLevel).when(player).getLevel();
+    doReturn(player).when(view).getPlayer();
+    doReturn(5).when(view).getRepairCost();
+    doReturn(1).when(view).getRepairItemCountCost();
+
+    InventoryClickEvent event = mock();
+    doReturn(view).when(event).getView();
+    doReturn(2).when(event).getRawSlot();
+    doReturn(InventoryAction.PICKUP_ALL).when(event).getAction();
+    return event;
+  }
+
+  @Test
+  void invalidMaximumComputes() {
+    assertThrows(IllegalArgumentException.class, () -> listener(0));
+  }
+
+  @Test
+  void prepareNoAnvil() {
+    listenerAnvil = null;
+    PrepareAnvilEvent event = prepare(listener(20));
+
+    verify(event, never()).setResult(any());
+    verify(scheduler, never()).runTask(any(Plugin.class), any(Runnable.class));
+  }
+
+  @Test
+  void prepareSetsResultAndFlushesCosts() {
+    AnvilListener listener = listener(20);
+    PrepareAnvilEvent event = prepare(listener);
+
+    verify(event).setResult(resultItem);
+    verify(scheduler).runTask(eq(plugin), any(Runnable.class));
+    verify(view, never()).setRepairCost(anyInt());
+
+    listener.flush();
+
+    verify(view).setRepairCost(5);
+    verify(view).setRepairItemCountCost(1);
+  }
+
+  @Test
+  void prepareChangedResultNotFlushed() {
+    AnvilListener listener = listener(20);
+    prepare(listener);
+    doReturn(null).when(inventory).getItem(2);
+
+    listener.flush();
+
+    verify(view, never()).setRepairCost(anyInt());
+  }
+
+  @Test
+  void prepareDebounced() {
+    AnvilListener listener = listener(20);
+    prepare(listener);
+    PrepareAnvilEvent event = prepare(listener);
+
+    verify(anvil, times(1)).getResult(view);
+    verify(event).setResult(resultItem);
+    verify(scheduler, times(1)).runTask(eq(plugin), any(Runnable.class));
+  }
+
+  @Test
+  void prepareChangedInputsRecomputed() {
+    AnvilListener listener = listener(20);
+    prepare(listener);
+    ItemStack addition = item();
+    doReturn(addition).when(inventory).getItem(1);
+    prepare(listener);
+
+    verify(anvil, times(2)).getResult(view);
+  }
+
+  @Test
+  void prepareDebounceExpiresOnFlush() {
+    AnvilListener listener = listener(20);
+    prepare(listener);
+    listener.flush();
+    prepare(listener);
+
+    verify(anvil, times(2)).getResult(view);
+  }
+
+  @Test
+  void prepareThrottled() {
+    AnvilListener listener = listener(1);
+    prepare(listener);
+    doReturn(item()).when(inventory).getItem(1);
+    PrepareAnvilEvent event = prepare(listener);
+
+    verify(anvil, times(1)).getResult(view);
+    verify(event).setResult(null);
+
+    listener.flush();
+
+    // The player is still over the limit, so the view is retried later.
+    verify(anvil, times(1)).getResult(view);
+    verify(view, never()).setItem(anyInt(), any());
+    verify(scheduler, times(2)).runTask(eq(plugin), any(Runnable.class));
+  }
+
+  @Test
+  void prepareThrottledClosed() {
+    AnvilListener listener = listener(1);
+    prepare(listener);
+    doReturn(item()).when(inventory).getItem(1);
+    prepare(listener);
+    doReturn(mock(AnvilView.class)).when(view.getPlayer()).getOpenInventory();
+
+    listener.flush();
+
+    // Closed views are discarded rather than retried.
+    verify(scheduler, times(1)).runTask(eq(plugin), any(Runnable.class));
+    verify(view, never()).setItem(anyInt(), any());
+  }
+
+  @Test
+  void prepareNotRecorded() {
+    LedgerSink ledger = mock();
+    Ledger.install(ledger);
+    AnvilListener listener = listener(20);
+    prepare(listener);
+    listener.flush();
+
+    verify(ledger, never()).record(any());
+  }
+
+  @Test
+  void takeResultRecorded() {
+    LedgerSink ledger = mock();
+    Ledger.install(ledger);
+    clickResult(listener(20), 5);
+
+    verify(ledger).record(any(LedgerEntry.class));
+  }
+
+  @Test
+  void takeResultTooExpensiveNotRecorded() {
+    LedgerSink ledger = mock();
+    Ledger.install(ledger);
+    clickResult(listener(20), 4);
+
+    verify(ledger, never()).record(any());
+  }
+
+  @Test
+  void takeResultTicketValid() {
+    AnvilListener listener = listener(20);
+    prepare(listener);
+    listener.flush();
+    InventoryClickEvent event = takeResult(listener);
+
+    verify(anvil, times(1)).getResult(view);
+    verify(event, never()).setCancelled(true);
+  }
+
+  @Test
+  void takeResultTicketInvalidUnchanged() {
+    AnvilListener listener = listener(20);
+    prepare(listener);
+    listener.flush();
+    doReturn(item()).when(inventory).getItem(1);
+    InventoryClickEvent event = takeResult(listener);
+
+    verify(anvil, times(2)).getResult(view);
+    verify(event, never()).setCancelled(true);
+  }
+
+  @Test
+  void takeResultTicketInvalidChanged() {
+    AnvilListener listener = listener(20);
+    prepare(listener);
+    listener.flush();
+    ItemStack changed = item();
+    doReturn(new AnvilResult(changed, 5, 1)).when(anvil).getResult(view);
+    doReturn(item()).when(inventory).getItem(1);
+    InventoryClickEvent event = takeResult(listener);
+
+    verify(event).setCancelled(true);
+    verify(view).setItem(2, changed);
+  }
+
+  @Test
+  void takeResultTicketDiscardedOnClose() {
+    AnvilListener listener = listener(20);
+    prepare(listener);
+    listener.flush();
+    InventoryCloseEvent close = mock();
+    doReturn(view).when(close).getView();
+    listener.onInventoryClose(close);
+    takeResult(listener);
+
+    verify(anvil, times(2)).getResult(view);
+  }
+
+}
@@ -0,0 +1,271 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.github.jikoo.planarenchanting.anvil.AnvilPipeline.Aspect;
+import com.github.jikoo.planarenchanting.anvil.AnvilPipeline.Input;
+import java.util.EnumSet;
+import java.util.Set;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AnvilPipelineTest {
+
+  private static final Set<Input> BASE = EnumSet.of(Input.BASE);
+  private static final Set<Input> BOTH = EnumSet.of(Input.BASE, Input.ADDITION);
+  private static final Set<Aspect> COST = EnumSet.of(Aspect.LEVEL_COST);
+  private static final Set<Aspect> NAME = EnumSet.of(Aspect.NAME, Aspect.LEVEL_COST);
+  private static final Set<Aspect> DURABILITY = EnumSet.of(Aspect.DURABILITY);
+
+  private AnvilBehavior<Void> behavior;
+  private ItemStack base;
+  private ItemStack addition;
+  private WorkPiece<Void> piece;
+  private int levelCost;
+
+  @BeforeEach
+  void beforeEach() {
+    behavior = mock();
+    base = mock();
+    doReturn(1).when(base).getAmount();
+    addition = mock();
+    doReturn(1).when(addition).getAmount();
+    levelCost = 0;
+    piece = mock();
+    doAnswer(invocation -> levelCost).when(piece).getLevelCost();
+    doAnswer(invocation -> {
+      AnvilFunction<Void> function = invocation.getArgument(1);
+      return function.canApply(behavior, mock(), null);
+    }).when(piece).apply(any(), any());
+  }
+
+  private AnvilFunction<Void> function(boolean applies) {
+    AnvilFunction<Void> function = mock();
+    doReturn(applies).when(function).canApply(any(), any(), any());
+    return function;
+  }
+
+  private <R> R forge(
+      AnvilPipeline<Void> pipeline,
+      @Nullable ItemStack addition,
+      R finished,
+      R empty
+  ) {
+    return pipeline.forge(
+        piece,
+        behavior,
+        base,
+        addition,
+        finishedPiece -> finished,
+        empty,
+        40,
+        refused -> empty
+    );
+  }
+
+  @Test
+  void vanillaOrder() {
+    AnvilFunctionsProvider<Void> functions = mock();
+    AnvilFunction<Void> priorWork = function(true);
+    AnvilFunction<Void> rename = function(true);
+    AnvilFunction<Void> setPriorWork = function(true);
+    AnvilFunction<Void> repairMaterial = function(true);
+    AnvilFunction<Void> repairCombine = function(true);
+    AnvilFunction<Void> combine = function(true);
+    doReturn(priorWork).when(functions).addPriorWorkLevelCost();
+    doReturn(rename).when(functions).rename();
+    doReturn(setPriorWork).when(functions).setItemPriorWork();
+    doReturn(repairMaterial).when(functions).repairWithMaterial();
+    doReturn(repairCombine).when(functions).repairWithCombine();
+    doReturn(combine).when(functions).combineEnchantsJava();
+
+    AnvilPipeline<Void> pipeline = AnvilPipeline.vanilla(functions);
+
+    assertThat(
+        "Addition steps are pruned without addition",
+        pipeline.getFunctions(false),
+        contains(priorWork, rename)
+    );
+    assertThat(
+        "All steps are present with addition",
+        pipeline.getFunctions(true),
+        contains(priorWork, rename, setPriorWork, repairMaterial, repairCombine, combine)
+    );
+  }
+
+  @Test
+  void forgeWithoutAdditionPruned() {
+    AnvilFunction<Void> rename = function(true);
+    AnvilFunction<Void> repair = function(true);
+    AnvilPipeline<Void> pipeline = AnvilPipeline.<Void>builder()
+        .add(rename, BASE, NAME)
+        .add(repair, BOTH, DURABILITY)
+        .build();
+
+    assertThat("Result is finished", forge(pipeline, null, "result", "empty"), is("result"));
+    verify(repair, never()).canApply(any(), any(), any());
+  }
+
+  @Test
+  void forgeWithoutAdditionUnchanged() {
+    AnvilFunction<Void> cost = function(true);
+    AnvilFunction<Void> rename = function(false);
+    AnvilPipeline<Void> pipeline = AnvilPipeline.<Void>builder()
+        .add(cost, BASE, COST)
+        .add(rename, BASE, NAME)
+        .build();
+
+    assertThat(
+        "Result is empty if item is not modified",
+        forge(pipeline, null, "result", "empty"),
+        is("empty")
+    );
+  }
+
+  @Test
+  void forgeMultipleBase() {
+    doReturn(2).when(base).getAmount();
+    AnvilFunction<Void> repair = function(true);
+    AnvilPipeline<Void> pipeline = AnvilPipeline.<Void>builder()
+        .add(repair, BOTH, DURABILITY)
+        .build();
+
+    assertThat("Result is empty", forge(pipeline, addition, "result", "empty"), is("empty"));
+    verify(repair, never()).canApply(any(), any(), any());
+  }
+
+  @Test
+  void forgeAlternativeSkipped() {
+    AnvilFunction<Void> material = function(true);
+    AnvilFunction<Void> combine = function(true);
+    AnvilPipeline<Void> pipeline = AnvilPipeline.<Void>builder()
+        .add(material, BOTH, DURABILITY)
+        .otherwise(combine, BOTH, DURABILITY)
+        .build();
+
+    assertThat("Result is finished", forge(pipeline, addition, "result", "empty"), is("result"));
+    verify(combine, never()).canApply(any(), any(), any());
+  }
+
+  @Test
+  void forgeAlternativeApplied() {
+    AnvilFunction<Void> material = function(false);
+    AnvilFunction<Void> combine = function(true);
+    AnvilPipeline<Void> pipeline = AnvilPipeline.<Void>builder()
+        .add(material, BOTH, DURABILITY)
+        .otherwise(combine, BOTH, DURABILITY)
+        .build();
+
+    forge(pipeline, addition, "result", "empty");
+    verify(combine).canApply(any(), any(), any());
+  }
+
+  @Test
+  void forgeAlternativeHeadPruned() {
+    AnvilFunction<Void> withAddition = function(true);
+    AnvilFunction<Void> withoutAddition = function(true);
+    AnvilPipeline<Void> pipeline = AnvilPipeline.<Void>builder()
+        .add(withAddition, BOTH, NAME)
+        .otherwise(withoutAddition, BASE, NAME)
+        .build();
+
+    assertThat("Result is finished", forge(pipeline, null, "result", "empty"), is("result"));
+    verify(withoutAddition).canApply(any(), any(), any());
+  }
+
+  @Test
+  void forgeBudget() {
+    AnvilFunction<Void> expensive = mock();
+    doAnswer(invocation -> {
+      levelCost = 40;
+      return true;
+    }).when(expensive).canApply(any(), any(), any());
+    AnvilFunction<Void> later = function(true);
+    AnvilPipeline<Void> pipeline = AnvilPipeline.<Void>builder()
+        .add(expensive, BOTH, COST)
+        .add(later, BOTH, DURABILITY)
+        .build();
+
+    AnvilResult refused = AnvilResult.tooExpensive(40);
+    AnvilResult result = pipeline.forge(
+        piece,
+        behavior,
+        base,
+        addition,
+        finished -> AnvilResult.EMPTY,
+        AnvilResult.EMPTY,
+        40,
+        expensivePiece -> refused
+    );
+
+    assertThat("Result is refused", result, is(sameInstance(refused)));
+    verify(later, never()).canApply(any(), any(), any());
+  }
+
+  @Test
+  void builderInsert() {
+    AnvilFunction<Void> first = function(true);
+    AnvilFunction<Void> material = function(true);
+    AnvilFunction<Void> combine = function(true);
+    AnvilFunction<Void> before = function(true);
+    AnvilFunction<Void> after = function(true);
+    AnvilPipeline<Void> pipeline = AnvilPipeline.<Void>builder()
+        .add(first, BASE, COST)
+        .add(material, BOTH, DURABILITY)
+        .otherwise(combine, BOTH, DURABILITY)
+        .build()
+        .toBuilder()
+        .addBefore(combine, before, BASE, COST)
+        .addAfter(material, after, BASE, COST)
+        .build();
+
+    assertThat(
+        "Steps are not inserted between alternatives",
+        pipeline.getFunctions(true),
+        contains(first, before, material, combine, after)
+    );
+  }
+
+  @Test
+  void builderRemovePromotesAlternative() {
+    AnvilFunction<Void> material = function(false);
+    AnvilFunction<Void> combine = function(true);
+    AnvilFunction<Void> other = function(true);
+    AnvilPipeline<Void> pipeline = AnvilPipeline.<Void>builder()
+        .add(material, BOTH, DURABILITY)
+        .otherwise(combine, BOTH, DURABILITY)
+        .otherwise(other, BOTH, DURABILITY)
+        .remove(material)
+        .build();
+
+    forge(pipeline, addition, "result", "empty");
+    verify(combine).canApply(any(), any(), any());
+    verify(other, never()).canApply(any(), any(), any());
+  }
+
+  @Test
+  void builderMissing() {
+    AnvilPipeline.Builder<Void> builder = AnvilPipeline.builder();
+    AnvilFunction<Void> function = function(true);
+
+    assertThrows(IllegalArgumentException.class, () -> builder.remove(function));
+    assertThrows(IllegalStateException.class, () -> builder.otherwise(function, BASE, COST));
+  }
+
+}
@@ -0,0 +1,113 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.Mockito;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AnvilPricerTest {
+
+  private AnvilResult forgeResult;
+  private AnvilCost forgeCost;
+  private AnvilPricer<Void> pricer;
+
+  @BeforeEach
+  void beforeEach() {
+    forgeResult = mock();
+    forgeCost = new AnvilCost(3, 1);
+    pricer = new AnvilPricer<>(
+        inputs -> {
+          WorkPiece<Void> piece = mock();
+          doReturn(forgeResult).when(piece).temper();
+          doReturn(forgeCost).when(piece).appraise();
+          doReturn(true).when(piece).apply(any(), any());
+          return piece;
+        },
+        mock(),
+        mock(Mockito.RETURNS_MOCKS),
+        2
+    );
+  }
+
+  @AfterEach
+  void afterEach() {
+    pricer.close();
+  }
+
+  private static AnvilInputs inputs() {
+    ItemStack base = mock();
+    doReturn(1).when(base).getAmount();
+    ItemStack addition = mock();
+    doReturn(1).when(addition).getAmount();
+    return new AnvilInputs(base, addition, null, 40);
+  }
+
+  @Test
+  void invalidParallelism() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new AnvilPricer<Void>(inputs -> mock(), mock(), mock(), 0)
+    );
+  }
+
+  @Test
+  void getResult() {
+    assertThat("Result is produced", pricer.getResult(inputs()), is(forgeResult));
+  }
+
+  @Test
+  void getResultEmptyBase() {
+    AnvilInputs inputs = new AnvilInputs(null, null, "name", 40);
+
+    assertThat("Result is empty for null base", pricer.getResult(inputs), is(AnvilResult.EMPTY));
+  }
+
+  @Test
+  void getCost() {
+    assertThat("Cost is produced", pricer.getCost(inputs()), is(forgeCost));
+  }
+
+  @Test
+  void getResults() {
+    List<AnvilInputs> batch = new ArrayList<>();
+    for (int i = 0; i < 16; ++i) {
+      batch.add(inputs());
+    }
+    Map<AnvilInputs, AnvilResult> results = new ConcurrentHashMap<>();
+
+    pricer.getResults(batch, results::put).join();
+
+    assertThat("All inputs are evaluated", results, is(aMapWithSize(batch.size())));
+    assertThat("Results are produced", results.values(), everyItem(is(forgeResult)));
+  }
+
+  @Test
+  void getCosts() {
+    List<AnvilInputs> batch = List.of(inputs(), inputs());
+    Map<AnvilInputs, AnvilCost> costs = new ConcurrentHashMap<>();
+
+    pricer.getCosts(batch, costs::put).join();
+
+    assertThat("All inputs are evaluated", costs, is(aMapWithSize(batch.size())));
+    assertThat("Costs are produced", costs.values(), everyItem(is(forgeCost)));
+  }
+
+}
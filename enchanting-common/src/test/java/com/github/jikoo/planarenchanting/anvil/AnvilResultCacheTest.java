@@ -0,0 +1,179 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AnvilResultCacheTest {
+
+  private AnvilBehavior<?> behavior;
+  private AnvilFunctionsProvider<?> functions;
+  private AnvilResultCache cache;
+  private Map<Long, ItemStack> items;
+
+  @BeforeEach
+  void beforeEach() {
+    behavior = mock();
+    functions = mock();
+    cache = new AnvilResultCache(mock(), 2);
+    items = new HashMap<>();
+  }
+
+  private AnvilResultCache.Key key(long base) {
+    return key(behavior, base);
+  }
+
+  private AnvilResultCache.Key key(Object behavior, long base) {
+    return key(behavior, items.computeIfAbsent(base, ignored -> item()), base);
+  }
+
+  private static ItemStack item() {
+    ItemStack item = mock();
+    doReturn(item).when(item).clone();
+    return item;
+  }
+
+  private AnvilResultCache.Key key(Object behavior, ItemStack base, long fingerprint) {
+    return new AnvilResultCache.Key(
+        behavior, functions, base, fingerprint, 1, null, 0, 0, null, 40, false);
+  }
+
+  private static AnvilResult result() {
+    ItemStack item = mock();
+    ItemStack copy = mock();
+    doReturn(copy).when(item).clone();
+    doReturn(copy).when(copy).clone();
+    return new AnvilResult(item, 1, 0);
+  }
+
+  @Test
+  void invalidSize() {
+    assertThrows(IllegalArgumentException.class, () -> new AnvilResultCache(mock(), 0));
+  }
+
+  @Test
+  void getMiss() {
+    assertThat("Absent key yields null", cache.get(key(1)), is(nullValue()));
+    assertThat("Miss is counted", cache.getMissCount(), is(1L));
+    assertThat("No hit is counted", cache.getHitCount(), is(0L));
+  }
+
+  @Test
+  void getHit() {
+    AnvilResult result = result();
+    cache.put(key(1), result);
+    AnvilResult cached = cache.get(key(1));
+
+    assertThat("Present key yields result", cached, is(not(nullValue())));
+    assertThat("Hit is counted", cache.getHitCount(), is(1L));
+    assertThat("Result is copied", cached, is(not(sameInstance(result))));
+    assertThat("Level cost is retained", cached.levelCost(), is(result.levelCost()));
+  }
+
+  @Test
+  void getEmpty() {
+    cache.put(key(1), AnvilResult.EMPTY);
+
+    assertThat("Empty result is cached", cache.get(key(1)), is(AnvilResult.EMPTY));
+  }
+
+  @Test
+  void keyIdentity() {
+    cache.put(key(1), result());
+
+    assertThat(
+        "Results of other behaviors are not shared",
+        cache.get(key(mock(AnvilBehavior.class), 1)),
+        is(nullValue())
+    );
+  }
+
+  @Test
+  void keyFullItem() {
+    cache.put(key(1), result());
+
+    assertThat(
+        "Items with matching fingerprints must be equal",
+        cache.get(key(behavior, mock(), 1)),
+        is(nullValue())
+    );
+  }
+
+  @Test
+  void keyCopiedOnInsert() {
+    ItemStack base = item();
+    ItemStack copy = item();
+    doReturn(copy).when(base).clone();
+    doReturn(true).when(base).isSimilar(copy);
+    doReturn(true).when(copy).isSimilar(base);
+
+    assertThat("Miss does not copy items", cache.get(key(behavior, base, 1)), is(nullValue()));
+    verify(base, never()).clone();
+
+    cache.put(key(behavior, base, 1), result());
+    verify(base).clone();
+
+    assertThat("Similar item hits", cache.get(key(behavior, base, 1)), is(not(nullValue())));
+    verify(base).clone();
+  }
+
+  @Test
+  void admission() {
+    cache.put(key(1), result());
+    cache.put(key(2), result());
+    // Make existing entries popular.
+    cache.get(key(1));
+    cache.get(key(2));
+
+    cache.put(key(3), result());
+    assertThat("Unpopular candidate is not admitted", cache.get(key(3)), is(nullValue()));
+
+    for (int i = 0; i < 3; ++i) {
+      cache.get(key(3));
+    }
+    cache.put(key(3), result());
+    assertThat("Popular candidate is admitted", cache.get(key(3)), is(not(nullValue())));
+    assertThat("Size is bounded", cache.size(), is(2));
+    assertThat("Eviction is counted", cache.getEvictionCount(), is(1L));
+  }
+
+  @Test
+  void invalidate() {
+    cache.put(key(1), result());
+    Object other = mock(AnvilBehavior.class);
+    cache.put(key(other, 1), result());
+
+    cache.invalidate(behavior);
+
+    assertThat("Invalidated behavior is removed", cache.get(key(1)), is(nullValue()));
+    assertThat("Other behavior is retained", cache.get(key(other, 1)), is(not(nullValue())));
+  }
+
+  @Test
+  void invalidateAll() {
+    cache.put(key(1), result());
+    cache.put(key(2), result());
+
+    cache.invalidateAll();
+
+    assertThat("All entries are removed", cache.size(), is(0));
+  }
+
+}
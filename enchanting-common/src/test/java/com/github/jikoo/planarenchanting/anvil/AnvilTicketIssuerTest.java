@@ -0,0 +1,162 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import com.github.jikoo.planarenchanting.util.ItemFingerprinter;
+import org.bukkit.Material;
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AnvilTicketIssuerTest {
+
+  private AnvilTicketIssuer issuer;
+  private AnvilView view;
+  private AnvilInventory inventory;
+  private ItemStack resultItem;
+
+  @BeforeEach
+  void beforeEach() {
+    issuer = new AnvilTicketIssuer();
+
+    view = mock();
+    inventory = mock();
+    doReturn(inventory).when(view).getTopInventory();
+    doReturn("name").when(view).getRenameText();
+    ItemStack base = item();
+    doReturn(base).when(inventory).getItem(0);
+    ItemStack addition = item();
+    doReturn(addition).when(inventory).getItem(1);
+    resultItem = item();
+    doReturn(resultItem).when(inventory).getItem(2);
+    doReturn(5).when(view).getRepairCost();
+    doReturn(1).when(view).getRepairItemCountCost();
+  }
+
+  private static ItemStack item() {
+    // Mocks are only equal to themselves, so copies must be the same instance.
+    ItemStack item = mock();
+    doReturn(1).when(item).getAmount();
+    doReturn(item).when(item).clone();
+    doReturn(Material.STONE).when(item).getType();
+    return item;
+  }
+
+  private AnvilTicket issue() {
+    AnvilResult result = issuer.issue(view, new AnvilResult(resultItem, 5, 1));
+    AnvilTicket ticket = result.ticket();
+    assertThat("Ticket is issued", ticket, is(notNullValue()));
+    return ticket;
+  }
+
+  @Test
+  void issueEmpty() {
+    AnvilResult result = issuer.issue(view, AnvilResult.EMPTY);
+
+    assertThat("Empty result is not ticketed", result, is(sameInstance(AnvilResult.EMPTY)));
+    assertThat("Empty result has no ticket", result.ticket(), is(nullValue()));
+  }
+
+  @Test
+  void validUnchanged() {
+    AnvilTicket ticket = issue();
+
+    assertThat("Ticket is valid for unchanged view", issuer.isValid(ticket, view), is(true));
+  }
+
+  @Test
+  void invalidRenameText() {
+    AnvilTicket ticket = issue();
+    doReturn("other").when(view).getRenameText();
+
+    assertThat("Ticket is invalid for changed name", issuer.isValid(ticket, view), is(false));
+  }
+
+  @Test
+  void invalidInput() {
+    AnvilTicket ticket = issue();
+    ItemStack addition = item();
+    doReturn(addition).when(inventory).getItem(1);
+
+    assertThat("Ticket is invalid for changed input", issuer.isValid(ticket, view), is(false));
+  }
+
+  @Test
+  void invalidNonEnchantingChange() {
+    AnvilTicket ticket = issue();
+    // I.e. a container with different contents but identical enchanting-relevant details.
+    ItemStack base = item();
+    doReturn(base).when(inventory).getItem(0);
+
+    assertThat("Ticket is invalid for any changed detail", issuer.isValid(ticket, view), is(false));
+  }
+
+  @Test
+  void invalidRemovedInput() {
+    AnvilTicket ticket = issue();
+    doReturn(null).when(inventory).getItem(1);
+
+    assertThat("Ticket is invalid for removed input", issuer.isValid(ticket, view), is(false));
+  }
+
+  @Test
+  void invalidResult() {
+    AnvilTicket ticket = issue();
+    ItemStack result = item();
+    doReturn(result).when(inventory).getItem(2);
+
+    assertThat("Ticket is invalid for changed result", issuer.isValid(ticket, view), is(false));
+  }
+
+  @Test
+  void invalidAmount() {
+    AnvilTicket ticket = issue();
+    doReturn(2).when(resultItem).getAmount();
+
+    assertThat("Ticket is invalid for changed amount", issuer.isValid(ticket, view), is(false));
+  }
+
+  @Test
+  void validFingerprinted() {
+    ItemFingerprinter fingerprinter = mock();
+    doReturn(1L).when(fingerprinter).fingerprint(any());
+    issuer = new AnvilTicketIssuer(fingerprinter);
+    AnvilTicket ticket = issue();
+
+    assertThat("Ticket is valid for unchanged view", issuer.isValid(ticket, view), is(true));
+  }
+
+  @Test
+  void invalidFingerprint() {
+    ItemFingerprinter fingerprinter = mock();
+    doReturn(1L).when(fingerprinter).fingerprint(any());
+    issuer = new AnvilTicketIssuer(fingerprinter);
+    AnvilTicket ticket = issue();
+    // Identical items with different fingerprints are rejected without being compared.
+    doReturn(2L).when(fingerprinter).fingerprint(resultItem);
+
+    assertThat("Ticket is invalid for changed fingerprint", issuer.isValid(ticket, view), is(false));
+  }
+
+  @Test
+  void invalidCost() {
+    AnvilTicket ticket = issue();
+    doReturn(1).when(view).getRepairCost();
+
+    assertThat("Ticket is invalid for changed cost", issuer.isValid(ticket, view), is(false));
+  }
+
+}
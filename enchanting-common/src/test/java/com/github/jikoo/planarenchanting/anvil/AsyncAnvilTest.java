@@ -0,0 +1,200 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.Mockito;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AsyncAnvilTest {
+
+  private AnvilView view;
+  private AnvilInventory inventory;
+  private List<Runnable> ownerTasks;
+  private AnvilResult forgeResult;
+  private AsyncAnvil<Void> anvil;
+
+  @BeforeEach
+  void beforeEach() {
+    view = mock();
+    inventory = mock();
+    doReturn(inventory).when(view).getTopInventory();
+
+    ItemStack base = mockItem();
+    doReturn(base).when(inventory).getItem(0);
+    ItemStack addition = mockItem();
+    doReturn(addition).when(inventory).getItem(1);
+
+    forgeResult = mock();
+    ownerTasks = new ArrayList<>();
+    Executor direct = Runnable::run;
+    anvil = new AsyncAnvil<>(
+        (localView, inputs) -> {
+          WorkPiece<Void> piece = mock();
+          doReturn(forgeResult).when(piece).temper();
+          doReturn(true).when(piece).apply(any(), any());
+          return piece;
+        },
+        mock(),
+        mock(Mockito.RETURNS_MOCKS),
+        ownerTasks::add,
+        direct
+    );
+  }
+
+  private static ItemStack mockItem() {
+    ItemStack itemStack = mock();
+    doReturn(1).when(itemStack).getAmount();
+    doReturn(itemStack).when(itemStack).clone();
+    return itemStack;
+  }
+
+  private void runOwnerTasks() {
+    List<Runnable> tasks = List.copyOf(ownerTasks);
+    ownerTasks.clear();
+    tasks.forEach(Runnable::run);
+  }
+
+  @Test
+  void getResult() {
+    assertThat("Result is produced synchronously", anvil.getResult(view), is(forgeResult));
+  }
+
+  @Test
+  void getResultEmptyBase() {
+    doReturn(null).when(inventory).getItem(0);
+
+    assertThat("Result is empty for null base", anvil.getResult(view), is(AnvilResult.EMPTY));
+  }
+
+  @Test
+  void requestResult() {
+    List<AnvilResult> results = new ArrayList<>();
+    anvil.requestResult(view, results::add);
+
+    assertThat("Result is delivered on owner", results, is(empty()));
+    runOwnerTasks();
+    assertThat("Result is delivered", results, contains(sameInstance(forgeResult)));
+    assertThat("View is no longer tracked", anvil.getTrackedViews(), is(0));
+  }
+
+  @Test
+  void requestResultBudgeted() {
+    List<Runnable> workTasks = new ArrayList<>();
+    List<AnvilView> bypassChecks = new ArrayList<>();
+    AsyncAnvil<Void> budgeted = new AsyncAnvil<>(
+        (localView, inputs) -> {
+          WorkPiece<Void> piece = mock();
+          doReturn(forgeResult).when(piece).temper();
+          doReturn(40).when(piece).getLevelCost();
+          return piece;
+        },
+        mock(),
+        mock(Mockito.RETURNS_MOCKS),
+        localView -> {
+          bypassChecks.add(localView);
+          return false;
+        },
+        ownerTasks::add,
+        workTasks::add
+    );
+    doReturn(40).when(view).getMaximumRepairCost();
+
+    List<AnvilResult> results = new ArrayList<>();
+    budgeted.requestResult(view, results::add);
+    assertThat("Budget is decided on the requesting thread", bypassChecks, contains(view));
+
+    workTasks.forEach(Runnable::run);
+    runOwnerTasks();
+    assertThat("Operation is refused", results, contains(AnvilResult.tooExpensive(40)));
+  }
+
+  @Test
+  void getCostCapturesInputs() {
+    List<AnvilInputs> captured = new ArrayList<>();
+    AsyncAnvil<Void> capturing = new AsyncAnvil<>(
+        (localView, inputs) -> {
+          captured.add(inputs);
+          return mock();
+        },
+        mock(),
+        mock(Mockito.RETURNS_MOCKS),
+        ownerTasks::add,
+        Runnable::run
+    );
+    ItemStack base = inventory.getItem(0);
+
+    capturing.getCost(view);
+
+    assertThat("Inputs are captured", captured.size(), is(1));
+    verify(base).clone();
+  }
+
+  @Test
+  void requestResultFailure() {
+    RuntimeException failure = new IllegalStateException();
+    AsyncAnvil<Void> failing = new AsyncAnvil<>(
+        (localView, inputs) -> {
+          throw failure;
+        },
+        mock(),
+        mock(Mockito.RETURNS_MOCKS),
+        ownerTasks::add,
+        Runnable::run
+    );
+    List<AnvilResult> results = new ArrayList<>();
+    CompletableFuture<Void> future = failing.requestResult(view, results::add);
+    runOwnerTasks();
+
+    assertThat("No result is delivered", results, is(empty()));
+    assertThat("Future is failed", future.isCompletedExceptionally(), is(true));
+    ExecutionException thrown = assertThrows(ExecutionException.class, future::get);
+    assertThat("Failure is propagated", thrown.getCause(), is(sameInstance(failure)));
+    assertThat("View is no longer tracked", failing.getTrackedViews(), is(0));
+  }
+
+  @Test
+  void requestResultStale() {
+    List<AnvilResult> stale = new ArrayList<>();
+    anvil.requestResult(view, stale::add);
+    List<AnvilResult> current = new ArrayList<>();
+    anvil.requestResult(view, current::add);
+    runOwnerTasks();
+
+    assertThat("Stale result is discarded", stale, is(empty()));
+    assertThat("Current result is delivered", current, contains(sameInstance(forgeResult)));
+    assertThat("View is no longer tracked", anvil.getTrackedViews(), is(0));
+  }
+
+  @Test
+  void requestResultForgotten() {
+    List<AnvilResult> results = new ArrayList<>();
+    anvil.requestResult(view, results::add);
+    anvil.forget(view);
+    runOwnerTasks();
+
+    assertThat("Result for forgotten view is discarded", results, is(empty()));
+  }
+
+}
@@ -5,6 +5,7 @@ import static org.hamcrest.Matchers.aMapWithSize;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.is;
@@ -15,20 +16,25 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import com.github.jikoo.planarenchanting.anvil.AnvilTrace.Decision;
 import com.github.jikoo.planarenchanting.anvil.CombineEnchants.MergeResult;
 import com.github.jikoo.planarenchanting.anvil.CombineEnchants.Platform;
+import com.github.jikoo.planarenchanting.anvil.CombineEnchants.SequenceResult;
+import com.github.jikoo.planarenchanting.util.DataReloads;
 import com.github.jikoo.planarenchanting.util.EnchantData;
 import com.github.jikoo.planarenchanting.util.EnchantmentAccess;
 import com.github.jikoo.planarenchanting.util.EnchantDataService;
 
+import java.util.List;
 import java.util.Map;
 import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.Registry;
 import org.bukkit.enchantments.Enchantment;
-import org.bukkit.inventory.view.AnvilView;
 import org.jspecify.annotations.NullMarked;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -153,6 +159,136 @@ class CombineEnchantsTest {
     );
   }
 
+  @Test
+  void getLevelCostConflictsPrecomputed() {
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(true).when(behavior).enchantsConflict(any(), any());
+    doReturn(new Object()).when(behavior).getConflictVersion();
+
+    Enchantment enchantment = mock();
+    doReturn(NamespacedKey.minecraft("a")).when(enchantment).getKey();
+    Map<Enchantment, Integer> base = Map.of(enchantment, 1);
+    enchantment = mock();
+    doReturn(NamespacedKey.minecraft("b")).when(enchantment).getKey();
+    Map<Enchantment, Integer> added = Map.of(enchantment, 1);
+
+    CombineEnchants<Void> function = new CombineEnchants<>(Platform.JAVA, access);
+    function.getLevelCost(behavior, state, base, added);
+    MergeResult result = function.getLevelCost(behavior, state, base, added);
+
+    assertThat("Conflicting enchantment is not added", result.enchantments(), is(base));
+    // Each ordering of the pair is checked once.
+    verify(behavior, times(2)).enchantsConflict(any(), any());
+
+    function.invalidate();
+    function.getLevelCost(behavior, state, base, added);
+
+    verify(behavior, times(4)).enchantsConflict(any(), any());
+
+    DataReloads.reloaded();
+    function.getLevelCost(behavior, state, base, added);
+
+    verify(behavior, times(6)).enchantsConflict(any(), any());
+
+    doReturn(new Object()).when(behavior).getConflictVersion();
+    function.getLevelCost(behavior, state, base, added);
+
+    verify(behavior, times(8)).enchantsConflict(any(), any());
+  }
+
+  @Test
+  void getLevelCostConflictsUnversioned() {
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(true).when(behavior).enchantsConflict(any(), any());
+
+    Enchantment enchantment = mock();
+    doReturn(NamespacedKey.minecraft("a")).when(enchantment).getKey();
+    Map<Enchantment, Integer> base = Map.of(enchantment, 1);
+    enchantment = mock();
+    doReturn(NamespacedKey.minecraft("b")).when(enchantment).getKey();
+    Map<Enchantment, Integer> added = Map.of(enchantment, 1);
+
+    CombineEnchants<Void> function = new CombineEnchants<>(Platform.JAVA, access);
+    function.getLevelCost(behavior, state, base, added);
+    doReturn(false).when(behavior).enchantsConflict(any(), any());
+    MergeResult result = function.getLevelCost(behavior, state, base, added);
+
+    assertThat("Changed conflict is respected", result.enchantments(), is(aMapWithSize(2)));
+    verify(behavior, times(2)).enchantsConflict(any(), any());
+  }
+
+  @Test
+  void getLevelCostConflictsMemoized() {
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(true).when(behavior).enchantsConflict(any(), any());
+    MemoizingBehavior<Void> memoizing = new MemoizingBehavior<>(behavior, item -> Material.STONE);
+
+    Enchantment enchantment = mock();
+    doReturn(NamespacedKey.minecraft("a")).when(enchantment).getKey();
+    Map<Enchantment, Integer> base = Map.of(enchantment, 1);
+    enchantment = mock();
+    doReturn(NamespacedKey.minecraft("b")).when(enchantment).getKey();
+    Map<Enchantment, Integer> added = Map.of(enchantment, 1);
+
+    CombineEnchants<Void> function = new CombineEnchants<>(Platform.JAVA, access);
+    function.getLevelCost(memoizing, state, base, added);
+    function.getLevelCost(memoizing, state, base, added);
+
+    verify(behavior, times(2)).enchantsConflict(any(), any());
+
+    memoizing.invalidate();
+    doReturn(false).when(behavior).enchantsConflict(any(), any());
+    MergeResult result = function.getLevelCost(memoizing, state, base, added);
+
+    assertThat("Invalidated conflict is respected", result.enchantments(), is(aMapWithSize(2)));
+    verify(behavior, times(4)).enchantsConflict(any(), any());
+  }
+
+  @Test
+  void getLevelCostReferenceNotPrecomputed() {
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(true).when(behavior).enchantsConflict(any(), any());
+
+    Enchantment enchantment = mock();
+    doReturn(NamespacedKey.minecraft("a")).when(enchantment).getKey();
+    Map<Enchantment, Integer> base = Map.of(enchantment, 1);
+    enchantment = mock();
+    doReturn(NamespacedKey.minecraft("b")).when(enchantment).getKey();
+    Map<Enchantment, Integer> added = Map.of(enchantment, 1);
+
+    CombineEnchants<Void> function = new CombineEnchants<>(Platform.JAVA, access).createReference();
+    function.getLevelCost(behavior, state, base, added);
+    MergeResult result = function.getLevelCost(behavior, state, base, added);
+
+    assertThat("Conflicting enchantment is not added", result.enchantments(), is(base));
+    verify(behavior, times(2)).enchantsConflict(any(), any());
+  }
+
+  @ParameterizedTest
+  @CsvSource({"JAVA,true", "JAVA,false", "BEDROCK,true", "BEDROCK,false"})
+  void getLevelCostReferenceMatches(Platform platform, boolean conflict) {
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(3).when(behavior).getEnchantMaxLevel(any());
+    doReturn(conflict).when(behavior).enchantsConflict(any(), any());
+    doReturn(new Object()).when(behavior).getConflictVersion();
+
+    Enchantment first = mock();
+    doReturn(NamespacedKey.minecraft("a")).when(first).getKey();
+    doReturn(4).when(EnchantDataService.PROVIDER.of(first)).getAnvilCost();
+    Enchantment second = mock();
+    doReturn(NamespacedKey.minecraft("b")).when(second).getKey();
+    doReturn(2).when(EnchantDataService.PROVIDER.of(second)).getAnvilCost();
+
+    Map<Enchantment, Integer> base = Map.of(first, 1);
+    Map<Enchantment, Integer> added = Map.of(first, 1, second, 2);
+
+    CombineEnchants<Void> function = new CombineEnchants<>(platform, access);
+    MergeResult expected = function.createReference().getLevelCost(behavior, state, base, added);
+    MergeResult actual = function.getLevelCost(behavior, state, base, added);
+
+    assertThat("Optimized merge matches reference", actual, is(expected));
+  }
+
   @Test
   void getLevelCostNonconflictingAdded() {
     doReturn(true).when(behavior).enchantApplies(any(), any());
@@ -205,6 +341,68 @@ class CombineEnchantsTest {
     );
   }
 
+  @Test
+  void getLevelCostTraced() {
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(2).when(behavior).getEnchantMaxLevel(any());
+
+    Enchantment enchantment = mock();
+    doReturn(NamespacedKey.minecraft("a")).when(enchantment).getKey();
+    Map<Enchantment, Integer> base = Map.of(enchantment, 1);
+    Map<Enchantment, Integer> added = Map.of(enchantment, 1);
+
+    EnchantData data = EnchantDataService.PROVIDER.of(enchantment);
+    doReturn(5).when(data).getAnvilCost();
+
+    CombineEnchants<Void> function = new CombineEnchants<>(Platform.JAVA, access);
+    AnvilTrace trace = new AnvilTrace();
+    AnvilTrace.setCurrent(trace);
+    try {
+      function.getLevelCost(behavior, state, base, added);
+    } finally {
+      AnvilTrace.setCurrent(null);
+    }
+
+    assertThat(
+        "Applied enchantment is traced",
+        trace.getEnchantments(),
+        contains(new AnvilTrace.EnchantDecision(enchantment, Decision.APPLIED, 1, 2, 10))
+    );
+  }
+
+  @Test
+  void getLevelCostTracedRejected() {
+    doReturn(true).when(behavior).enchantsConflict(any(), any());
+
+    Enchantment baseEnchant = mock();
+    doReturn(NamespacedKey.minecraft("a")).when(baseEnchant).getKey();
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    Enchantment conflicting = mock();
+    doReturn(NamespacedKey.minecraft("b")).when(conflicting).getKey();
+    Enchantment inapplicable = mock();
+    doReturn(NamespacedKey.minecraft("c")).when(inapplicable).getKey();
+    doReturn(false).when(behavior).enchantApplies(inapplicable, null);
+
+    CombineEnchants<Void> function = new CombineEnchants<>(Platform.JAVA, access);
+    AnvilTrace trace = new AnvilTrace();
+    AnvilTrace.setCurrent(trace);
+    try {
+      function.getLevelCost(behavior, state, Map.of(baseEnchant, 1), Map.of(conflicting, 2));
+      function.getLevelCost(behavior, state, Map.of(), Map.of(inapplicable, 3));
+    } finally {
+      AnvilTrace.setCurrent(null);
+    }
+
+    assertThat(
+        "Rejected enchantments are traced",
+        trace.getEnchantments(),
+        contains(
+            new AnvilTrace.EnchantDecision(conflicting, Decision.CONFLICTED, 0, 0, 1),
+            new AnvilTrace.EnchantDecision(inapplicable, Decision.INAPPLICABLE, 0, 0, 1)
+        )
+    );
+  }
+
   @ParameterizedTest
   @CsvSource({"JAVA,2,1,2", "JAVA,1,2,2", "BEDROCK,2,1,0", "BEDROCK,1,2,1"})
   void getLevelCostUsesHigher(
@@ -368,19 +566,35 @@ class CombineEnchantsTest {
     );
     assertThat("Final cost is expected", result.getLevelCostIncrease(), is(5));
     assertThat("Material cost is not specified", result.getMaterialCostIncrease(), is(0));
+    assertThat("Result changes enchantments", result.changesResult(), is(true));
 
     verify(access, never()).addEnchantments(any(), any());
     result.modifyResult(resultStack);
     verify(access).addEnchantments(any(), any());
   }
 
+  @Test
+  void getResultUnchanged() {
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(1).when(behavior).getEnchantMaxLevel(any());
+
+    Enchantment enchantment = mock();
+    EnchantData data = EnchantDataService.PROVIDER.of(enchantment);
+    doReturn(5).when(data).getAnvilCost();
+    doReturn(Map.of(enchantment, 1)).when(access).getEnchantments(any());
+
+    CombineEnchants<Void> function = new CombineEnchants<>(Platform.JAVA, access);
+    AnvilFunctionResult<Void> result = function.getResult(behavior, state, resultStack);
+
+    assertThat("Result is not empty", result, is(not(AnvilFunctionResult.empty())));
+    assertThat("Result does not change enchantments", result.changesResult(), is(false));
+  }
+
   @Test
   void getResultNegative() {
     doReturn(true).when(behavior).enchantApplies(any(), any());
 
-    AnvilView view = mock();
-    doReturn(99).when(view).getMaximumRepairCost();
-    doReturn(view).when(state).getAnvilView();
+    doReturn(99).when(state).getMaximumRepairCost();
 
     Enchantment enchantment = mock();
     EnchantData data = EnchantDataService.PROVIDER.of(enchantment);
@@ -398,4 +612,100 @@ class CombineEnchantsTest {
     assertThat("Final cost is expected", result.getLevelCostIncrease(), is(99));
   }
 
+  @Test
+  void combineAll() {
+    EnchantmentAccess<String> access = mock();
+    AnvilBehavior<String> behavior = mock();
+    doReturn(true).when(behavior).itemsCombineEnchants(any(), any());
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(1).when(behavior).getEnchantMaxLevel(any());
+
+    Enchantment first = mockCombineEnchant("first");
+    Enchantment second = mockCombineEnchant("second");
+    doReturn(Map.of()).when(access).getEnchantments("base");
+    doReturn(Map.of(first, 1)).when(access).getEnchantments("first");
+    doReturn(Map.of(second, 1)).when(access).getEnchantments("second");
+
+    CombineEnchants<String> function = new CombineEnchants<>(Platform.JAVA, access);
+    SequenceResult<String> result = function.combineAll(
+        behavior,
+        "base",
+        List.of("first", "second"),
+        item -> 0,
+        40
+    );
+
+    assertThat("All sources are applied", result.getApplied(), is(2));
+    // Second step includes the prior work cost of the first.
+    assertThat("Step costs are expected", result.getStepCosts(), contains(5, 6));
+    assertThat("Level cost is total of steps", result.getLevelCostIncrease(), is(11));
+    assertThat("Prior work progresses", result.getPriorWork(), is(3));
+    assertThat(
+        "Enchantments are combined",
+        result.getEnchantments(),
+        is(allOf(aMapWithSize(2), hasEntry(first, 1), hasEntry(second, 1)))
+    );
+    assertThat("Result changes enchantments", result.changesResult(), is(true));
+
+    verify(access, never()).addEnchantments(any(), any());
+    result.modifyResult("result");
+    verify(access, times(1)).addEnchantments(any(), any());
+  }
+
+  @Test
+  void combineAllTooExpensive() {
+    EnchantmentAccess<String> access = mock();
+    AnvilBehavior<String> behavior = mock();
+    doReturn(true).when(behavior).itemsCombineEnchants(any(), any());
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(1).when(behavior).getEnchantMaxLevel(any());
+
+    doReturn(Map.of()).when(access).getEnchantments("base");
+    doReturn(Map.of(mockCombineEnchant("first"), 1)).when(access).getEnchantments("first");
+    doReturn(Map.of(mockCombineEnchant("second"), 1)).when(access).getEnchantments("second");
+
+    CombineEnchants<String> function = new CombineEnchants<>(Platform.JAVA, access);
+    SequenceResult<String> result = function.combineAll(
+        behavior,
+        "base",
+        List.of("first", "second"),
+        item -> 0,
+        6
+    );
+
+    assertThat("Combination stops when too expensive", result.getApplied(), is(1));
+    assertThat("Level cost excludes skipped step", result.getLevelCostIncrease(), is(5));
+    assertThat("Prior work excludes skipped step", result.getPriorWork(), is(1));
+  }
+
+  @Test
+  void combineAllUnchanged() {
+    EnchantmentAccess<String> access = mock();
+    AnvilBehavior<String> behavior = mock();
+    doReturn(true).when(behavior).itemsCombineEnchants(any(), any());
+    doReturn(Map.of()).when(access).getEnchantments(any());
+
+    CombineEnchants<String> function = new CombineEnchants<>(Platform.JAVA, access);
+    SequenceResult<String> result = function.combineAll(
+        behavior,
+        "base",
+        List.of("first"),
+        item -> 0,
+        40
+    );
+
+    assertThat("No sources are applied", result.getApplied(), is(0));
+    assertThat("Result does not change enchantments", result.changesResult(), is(false));
+    result.modifyResult("result");
+    verify(access, never()).addEnchantments(any(), any());
+  }
+
+  private static Enchantment mockCombineEnchant(String key) {
+    Enchantment enchantment = mock();
+    doReturn(NamespacedKey.minecraft(key)).when(enchantment).getKey();
+    EnchantData data = EnchantDataService.PROVIDER.of(enchantment);
+    doReturn(5).when(data).getAnvilCost();
+    return enchantment;
+  }
+
 }
@@ -0,0 +1,252 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.AnvilInventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IncrementalForgeTest {
+
+  private AnvilView view;
+  private AnvilInventory inventory;
+  private ItemStack base;
+  private ItemStack addition;
+  private AnvilFunctionsProvider<Void> functions;
+  private AnvilFunction<Void> priorWorkCost;
+  private AnvilFunction<Void> rename;
+  private AnvilFunction<Void> priorWork;
+  private AnvilFunction<Void> repairMaterial;
+  private AnvilFunction<Void> repairCombine;
+  private AnvilFunction<Void> combineEnchants;
+  private IncrementalForge<Void> anvil;
+
+  @BeforeEach
+  void beforeEach() {
+    view = mock();
+    inventory = mock();
+    doReturn(inventory).when(view).getTopInventory();
+
+    base = mockItem();
+    doReturn(base).when(inventory).getItem(0);
+    addition = mockItem();
+    doReturn(addition).when(inventory).getItem(1);
+
+    functions = mock();
+    priorWorkCost = mockFunction();
+    doReturn(priorWorkCost).when(functions).addPriorWorkLevelCost();
+    rename = mockFunction();
+    doReturn(rename).when(functions).rename();
+    priorWork = mockFunction();
+    doReturn(priorWork).when(functions).setItemPriorWork();
+    repairMaterial = mockFunction();
+    doReturn(repairMaterial).when(functions).repairWithMaterial();
+    repairCombine = mockFunction();
+    doReturn(repairCombine).when(functions).repairWithCombine();
+    combineEnchants = mockFunction();
+    doReturn(combineEnchants).when(functions).combineEnchantsJava();
+
+    ViewState<Void> state = mock();
+    Temperer<Void> temperer = mock();
+    doReturn(true).when(temperer).hasChanged(any(), any(), any());
+    ItemStack result = mockItem();
+    doReturn(result).when(temperer).temper(any());
+
+    anvil = new IncrementalForge<>(
+        (localView, inputs) -> new WorkPiece<>(state, temperer),
+        mock(),
+        functions
+    );
+  }
+
+  private static ItemStack mockItem() {
+    ItemStack itemStack = mock();
+    doReturn(Material.DIAMOND_SWORD).when(itemStack).getType();
+    doReturn(1).when(itemStack).getAmount();
+    doReturn(itemStack).when(itemStack).clone();
+    doReturn(true).when(itemStack).isSimilar(itemStack);
+    return itemStack;
+  }
+
+  private static AnvilFunction<Void> mockFunction() {
+    AnvilFunction<Void> function = mock();
+    doReturn(true).when(function).canApply(any(), any(), any());
+    AnvilFunctionResult<Void> result = mock();
+    doReturn(1).when(result).getLevelCostIncrease();
+    doReturn(result).when(function).getResult(any(), any(), any());
+    return function;
+  }
+
+  @Test
+  void getResultEmptyBase() {
+    doReturn(null).when(inventory).getItem(0);
+
+    assertThat("Result is empty for null base", anvil.getResult(view), is(AnvilResult.EMPTY));
+  }
+
+  @Test
+  void getResultMultipleBase() {
+    doReturn(2).when(base).getAmount();
+
+    assertThat(
+        "Result is empty for multiple base with addition",
+        anvil.getResult(view),
+        is(AnvilResult.EMPTY)
+    );
+  }
+
+  @Test
+  void getResultUnchanged() {
+    AnvilResult first = anvil.getResult(view);
+    AnvilResult second = anvil.getResult(view);
+
+    assertThat("Result is not empty", first, is(not(AnvilResult.EMPTY)));
+    assertThat("Unchanged inputs yield same costs", second.levelCost(), is(first.levelCost()));
+
+    verify(priorWorkCost).getResult(any(), any(), any());
+    verify(rename).getResult(any(), any(), any());
+    verify(priorWork).getResult(any(), any(), any());
+    verify(repairMaterial).getResult(any(), any(), any());
+    verify(combineEnchants).getResult(any(), any(), any());
+  }
+
+  @Test
+  void getResultRenameChanged() {
+    doReturn("first").when(view).getRenameText();
+    anvil.getResult(view);
+    doReturn("second").when(view).getRenameText();
+    AnvilResult result = anvil.getResult(view);
+
+    assertThat("Result is not empty", result, is(not(AnvilResult.EMPTY)));
+    // Prior work cost, rename, prior work, material repair, and enchantments each cost 1.
+    assertThat("Reused results are applied", result.levelCost(), is(5));
+
+    verify(rename, times(2)).getResult(any(), any(), any());
+    verify(priorWorkCost).getResult(any(), any(), any());
+    verify(priorWork).getResult(any(), any(), any());
+    verify(repairMaterial).getResult(any(), any(), any());
+    verify(combineEnchants).getResult(any(), any(), any());
+  }
+
+  @Test
+  void getResultAmountChanged() {
+    anvil.getResult(view);
+    ItemStack moreAddition = mockItem();
+    doReturn(2).when(moreAddition).getAmount();
+    doReturn(true).when(addition).isSimilar(moreAddition);
+    doReturn(moreAddition).when(inventory).getItem(1);
+    AnvilResult result = anvil.getResult(view);
+
+    assertThat("Result is not empty", result, is(not(AnvilResult.EMPTY)));
+    assertThat("Reused results are applied", result.levelCost(), is(5));
+
+    // Functions reading the addition are recomputed.
+    verify(priorWork, times(2)).getResult(any(), any(), any());
+    verify(repairMaterial, times(2)).getResult(any(), any(), any());
+    verify(combineEnchants, times(2)).getResult(any(), any(), any());
+    verify(priorWorkCost).getResult(any(), any(), any());
+    verify(rename).getResult(any(), any(), any());
+  }
+
+  @Test
+  void getResultCapturesInputs() {
+    AnvilInputs[] captured = new AnvilInputs[1];
+    ViewState<Void> state = mock();
+    Temperer<Void> temperer = mock();
+    IncrementalForge<Void> capturing = new IncrementalForge<>(
+        (localView, inputs) -> {
+          captured[0] = inputs;
+          return new WorkPiece<>(state, temperer);
+        },
+        mock(),
+        functions
+    );
+    doReturn("name").when(view).getRenameText();
+
+    capturing.getResult(view);
+
+    assertThat("Inputs are captured", captured[0], is(not(nullValue())));
+    assertThat("Rename text is captured", captured[0].renameText(), is("name"));
+    verify(base).clone();
+    verify(addition).clone();
+  }
+
+  @Test
+  void getResultTooExpensive() {
+    ViewState<Void> state = mock();
+    Temperer<Void> temperer = mock();
+    IncrementalForge<Void> budgeted = new IncrementalForge<>(
+        (localView, inputs) -> new WorkPiece<>(state, temperer),
+        mock(),
+        functions,
+        localView -> false
+    );
+    doReturn(2).when(view).getMaximumRepairCost();
+
+    AnvilResult result = budgeted.getResult(view);
+
+    // Prior work cost, rename, and prior work each cost 1, exceeding the budget.
+    assertThat("Refused level cost is retained", result.levelCost(), is(3));
+    assertThat("No item is produced", result.item().getType(), is(Material.AIR));
+    verify(repairMaterial, never()).getResult(any(), any(), any());
+    verify(combineEnchants, never()).getResult(any(), any(), any());
+    verify(temperer, never()).temper(any());
+  }
+
+  @Test
+  void getResultBudgetChanged() {
+    IncrementalForge<Void> budgeted = new IncrementalForge<>(
+        (localView, inputs) -> new WorkPiece<>(mock(), mock()),
+        mock(),
+        functions,
+        localView -> false
+    );
+    doReturn(40).when(view).getMaximumRepairCost();
+    budgeted.getResult(view);
+    doReturn(2).when(view).getMaximumRepairCost();
+
+    assertThat("Reduced budget is respected", budgeted.getResult(view).levelCost(), is(3));
+    verify(priorWorkCost, times(2)).getResult(any(), any(), any());
+  }
+
+  @Test
+  void getResultAdditionChanged() {
+    anvil.getResult(view);
+    ItemStack otherAddition = mockItem();
+    doReturn(otherAddition).when(inventory).getItem(1);
+    anvil.getResult(view);
+
+    verify(priorWorkCost, times(2)).getResult(any(), any(), any());
+    verify(rename, times(2)).getResult(any(), any(), any());
+    verify(priorWork, times(2)).getResult(any(), any(), any());
+    verify(repairMaterial, times(2)).getResult(any(), any(), any());
+    verify(combineEnchants, times(2)).getResult(any(), any(), any());
+  }
+
+  @Test
+  void forget() {
+    anvil.getResult(view);
+    anvil.forget(view);
+    anvil.getResult(view);
+
+    verify(priorWorkCost, times(2)).getResult(any(), any(), any());
+    verify(combineEnchants, times(2)).getResult(any(), any(), any());
+  }
+
+}
@@ -0,0 +1,124 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MemoizingBehaviorTest {
+
+  private AnvilBehavior<Material> delegate;
+  private MemoizingBehavior<Material> behavior;
+  private Enchantment enchant1;
+  private Enchantment enchant2;
+
+  @BeforeEach
+  void beforeEach() {
+    delegate = mock();
+    behavior = new MemoizingBehavior<>(delegate, material -> material);
+    enchant1 = mock();
+    enchant2 = mock();
+  }
+
+  @Test
+  void enchantApplies() {
+    doReturn(true).when(delegate).enchantApplies(enchant1, Material.DIAMOND_SWORD);
+
+    Material sword = Material.DIAMOND_SWORD;
+    assertThat("Result is delegated", behavior.enchantApplies(enchant1, sword), is(true));
+    assertThat("Result is remembered", behavior.enchantApplies(enchant1, sword), is(true));
+    assertThat("Types are separate", behavior.enchantApplies(enchant1, Material.BOOK), is(false));
+
+    verify(delegate, times(1)).enchantApplies(enchant1, Material.DIAMOND_SWORD);
+    verify(delegate, times(1)).enchantApplies(enchant1, Material.BOOK);
+  }
+
+  @Test
+  void enchantsConflict() {
+    doReturn(true).when(delegate).enchantsConflict(enchant1, enchant2);
+
+    assertThat("Result is delegated", behavior.enchantsConflict(enchant1, enchant2), is(true));
+    assertThat("Result is remembered", behavior.enchantsConflict(enchant1, enchant2), is(true));
+    assertThat("Order is respected", behavior.enchantsConflict(enchant2, enchant1), is(false));
+
+    verify(delegate, times(1)).enchantsConflict(enchant1, enchant2);
+    verify(delegate, times(1)).enchantsConflict(enchant2, enchant1);
+  }
+
+  @Test
+  void getEnchantMaxLevel() {
+    doReturn(0).when(delegate).getEnchantMaxLevel(enchant1);
+
+    assertThat("Result is delegated", behavior.getEnchantMaxLevel(enchant1), is(0));
+    assertThat("Result is remembered", behavior.getEnchantMaxLevel(enchant1), is(0));
+
+    verify(delegate, times(1)).getEnchantMaxLevel(enchant1);
+  }
+
+  @Test
+  void manyEnchantments() {
+    doReturn(true).when(delegate).enchantsConflict(any(), any());
+
+    Enchantment first = mock();
+    Enchantment last = first;
+    for (int i = 0; i < 200; ++i) {
+      last = mock();
+      behavior.getEnchantMaxLevel(last);
+    }
+
+    assertThat("Tables grow", behavior.enchantsConflict(first, last), is(true));
+    assertThat("Grown tables remember", behavior.enchantsConflict(first, last), is(true));
+    verify(delegate, times(1)).enchantsConflict(first, last);
+  }
+
+  @Test
+  void passThrough() {
+    doReturn(true).when(delegate).itemsCombineEnchants(any(), any());
+    doReturn(true).when(delegate).itemRepairedBy(any(), any());
+
+    behavior.itemsCombineEnchants(Material.DIAMOND_SWORD, Material.BOOK);
+    behavior.itemsCombineEnchants(Material.DIAMOND_SWORD, Material.BOOK);
+    behavior.itemRepairedBy(Material.DIAMOND_SWORD, Material.DIAMOND);
+    behavior.itemRepairedBy(Material.DIAMOND_SWORD, Material.DIAMOND);
+
+    verify(delegate, times(2)).itemsCombineEnchants(Material.DIAMOND_SWORD, Material.BOOK);
+    verify(delegate, times(2)).itemRepairedBy(Material.DIAMOND_SWORD, Material.DIAMOND);
+  }
+
+  @Test
+  void invalidate() {
+    behavior.getEnchantMaxLevel(enchant1);
+    behavior.invalidate();
+    behavior.getEnchantMaxLevel(enchant1);
+
+    verify(delegate, times(2)).getEnchantMaxLevel(enchant1);
+  }
+
+  @Test
+  void stats() {
+    assertThat("Hit rate is 0 without checks", behavior.getHitRate(), is(0.0));
+
+    behavior.getEnchantMaxLevel(enchant1);
+    behavior.getEnchantMaxLevel(enchant1);
+    behavior.getEnchantMaxLevel(enchant1);
+    behavior.getEnchantMaxLevel(enchant2);
+
+    assertThat("Hits are counted", behavior.getHitCount(), is(2L));
+    assertThat("Misses are counted", behavior.getMissCount(), is(2L));
+    assertThat("Hit rate is calculated", behavior.getHitRate(), is(closeTo(0.5, 0.001)));
+  }
+
+}
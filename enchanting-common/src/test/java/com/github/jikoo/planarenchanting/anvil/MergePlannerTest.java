@@ -0,0 +1,186 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+
+import com.github.jikoo.planarenchanting.anvil.CombineEnchants.Platform;
+import com.github.jikoo.planarenchanting.util.EnchantData;
+import com.github.jikoo.planarenchanting.util.EnchantDataService;
+import com.github.jikoo.planarenchanting.util.EnchantmentAccess;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.MockedStatic;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MergePlannerTest {
+
+  private MockedStatic<Bukkit> bukkit;
+  private EnchantmentAccess<ItemStack> access;
+  private AnvilBehavior<ItemStack> behavior;
+  private ItemStack target;
+
+  @BeforeAll
+  void setUp() {
+    bukkit = mockStatic(Bukkit.class);
+    bukkit.when(() -> Bukkit.getRegistry(any())).thenAnswer(inv -> {
+      Registry<Enchantment> registry = mock();
+      doAnswer(invocation -> {
+        NamespacedKey key = invocation.getArgument(0);
+        Enchantment enchant = mock();
+        doReturn(key).when(enchant).getKey();
+        return enchant;
+      }).when(registry).getOrThrow(any());
+      return registry;
+    });
+  }
+
+  @AfterAll
+  void tearDown() {
+    bukkit.close();
+  }
+
+  @BeforeEach
+  void beforeEach() {
+    access = mock();
+    doReturn(Map.of()).when(access).getEnchantments(any());
+    behavior = mock();
+    doReturn(true).when(behavior).itemsCombineEnchants(any(), any());
+    doReturn(true).when(behavior).enchantApplies(any(), any());
+    doReturn(1).when(behavior).getEnchantMaxLevel(any());
+    target = mock();
+  }
+
+  private MergePlanner<ItemStack> planner(Platform platform) {
+    return new MergePlanner<>(
+        itemStack -> itemStack,
+        behavior,
+        new CombineEnchants<>(platform, access),
+        itemStack -> 0
+    );
+  }
+
+  private List<ItemStack> books(int count) {
+    List<ItemStack> books = new ArrayList<>();
+    for (int i = 0; i < count; ++i) {
+      Enchantment enchantment = mock();
+      doReturn(NamespacedKey.minecraft("enchantment" + i)).when(enchantment).getKey();
+      EnchantData data = EnchantDataService.PROVIDER.of(enchantment);
+      // Costs 1 level when applied from a book.
+      doReturn(2).when(data).getAnvilCost();
+
+      ItemStack book = mock();
+      doReturn(true).when(access).isBook(book);
+      doReturn(Map.of(enchantment, 1)).when(access).getEnchantments(book);
+      books.add(book);
+    }
+    return books;
+  }
+
+  @ParameterizedTest
+  @EnumSource(Platform.class)
+  void planSingle(Platform platform) {
+    MergePlan plan = planner(platform).plan(target, books(1), 40);
+
+    assertThat("Plan is possible", plan, is(notNullValue()));
+    assertThat("Cost is enchantment cost", plan.levelCost(), is(1));
+    assertThat("Prior work is increased", plan.priorWork(), is(1));
+    assertThat("Enchantment is applied", plan.enchantments(), is(aMapWithSize(1)));
+    assertThat("Plan has single step", plan.steps(), hasSize(1));
+    MergePlan.Step step = plan.steps().getFirst();
+    assertThat("Target is base", step.base(), contains(0));
+    assertThat("Book is addition", step.addition(), contains(1));
+    assertThat("Step cost is enchantment cost", step.levelCost(), is(1));
+  }
+
+  @ParameterizedTest
+  @EnumSource(Platform.class)
+  void planCheapestOrder(Platform platform) {
+    MergePlan plan = planner(platform).plan(target, books(4), 40);
+
+    // Applying books one at a time costs 1 + 2 + 4 + 8 = 15 levels.
+    // Merging in pairs costs 1 + 1 + 4 + 4 = 10 levels.
+    assertThat("Plan is possible", plan, is(notNullValue()));
+    assertThat("Cheapest order is found", plan.levelCost(), is(10));
+    assertThat("Prior work reflects tree depth", plan.priorWork(), is(7));
+    assertThat("All enchantments are applied", plan.enchantments(), is(aMapWithSize(4)));
+    assertThat("Each book is added in a step", plan.steps(), hasSize(4));
+    assertThat(
+        "Step costs total plan cost",
+        plan.steps().stream().mapToInt(MergePlan.Step::levelCost).sum(),
+        is(10)
+    );
+    assertThat("Final step contains target", plan.steps().getLast().base().getFirst(), is(0));
+  }
+
+  @Test
+  void planPriorWork() {
+    List<ItemStack> books = books(1);
+    MergePlanner<ItemStack> planner = new MergePlanner<>(
+        itemStack -> itemStack,
+        behavior,
+        new CombineEnchants<>(Platform.JAVA, access),
+        itemStack -> itemStack == target ? 3 : 1
+    );
+    MergePlan plan = planner.plan(target, books, 40);
+
+    assertThat("Plan is possible", plan, is(notNullValue()));
+    assertThat("Cost includes prior work", plan.levelCost(), is(5));
+    assertThat("Prior work is doubled", plan.priorWork(), is(7));
+  }
+
+  @Test
+  void planTooExpensive() {
+    MergePlanner<ItemStack> planner = planner(Platform.JAVA);
+    List<ItemStack> books = books(3);
+
+    assertThat("Plan is possible under cap", planner.plan(target, books, 5), is(notNullValue()));
+    assertThat("Expensive steps are pruned", planner.plan(target, books, 4), is(nullValue()));
+  }
+
+  @Test
+  void planIncompatible() {
+    doReturn(false).when(behavior).itemsCombineEnchants(any(), any());
+
+    assertThat(
+        "Incompatible items cannot be planned",
+        planner(Platform.JAVA).plan(target, books(2), 40),
+        is(nullValue())
+    );
+  }
+
+  @Test
+  void planTooManyItems() {
+    MergePlanner<ItemStack> planner = planner(Platform.JAVA);
+    List<ItemStack> books = Collections.nCopies(MergePlanner.MAXIMUM_ITEMS, target);
+
+    assertThrows(IllegalArgumentException.class, () -> planner.plan(target, books, 40));
+  }
+
+}
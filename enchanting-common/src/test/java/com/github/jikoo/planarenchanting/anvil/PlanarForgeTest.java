@@ -10,6 +10,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import java.util.function.Function;
 import org.bukkit.Material;
 import org.bukkit.inventory.AnvilInventory;
 import org.bukkit.inventory.ItemStack;
@@ -28,9 +29,13 @@ class PlanarForgeTest {
   private AnvilInventory inventory;
   private ItemStack base;
   private ItemStack addition;
+  private AnvilBehavior<Void> behavior;
   private AnvilFunctionsProvider<Void> functions;
+  private Function<AnvilView, WorkPiece<Void>> createPiece;
+  private int levelCost;
   private PlanarForge<Void> anvil;
   private AnvilResult forgeResult;
+  private AnvilCost forgeCost;
 
   @BeforeEach
   void beforeEach() {
@@ -47,26 +52,27 @@ class PlanarForgeTest {
 
     ViewState<Void> state = mock();
 
-    AnvilBehavior<Void> behavior = mock();
+    behavior = mock();
     functions = mock(Mockito.RETURNS_MOCKS);
     forgeResult = mock();
-    anvil = new PlanarForge<>(
-        localView -> {
-          WorkPiece<Void> piece = mock();
-          doReturn(forgeResult).when(piece).temper();
-          doAnswer(invocation -> {
-            AnvilFunction<Void> function = invocation.getArgument(1);
-            if (function.canApply(behavior, state, mock())) {
-              function.getResult(behavior, state, mock());
-              return true;
-            }
-            return false;
-          }).when(piece).apply(any(), any());
-          return piece;
-        },
-        behavior,
-        functions
-    );
+    forgeCost = new AnvilCost(3, 1);
+    levelCost = 0;
+    createPiece = localView -> {
+      WorkPiece<Void> piece = mock();
+      doReturn(forgeResult).when(piece).temper();
+      doReturn(forgeCost).when(piece).appraise();
+      doAnswer(invocation -> levelCost).when(piece).getLevelCost();
+      doAnswer(invocation -> {
+        AnvilFunction<Void> function = invocation.getArgument(1);
+        if (function.canApply(behavior, state, mock())) {
+          function.getResult(behavior, state, mock());
+          return true;
+        }
+        return false;
+      }).when(piece).apply(any(), any());
+      return piece;
+    };
+    anvil = new PlanarForge<>(createPiece, behavior, functions);
   }
 
   @Test
@@ -202,4 +208,84 @@ class PlanarForgeTest {
     verify(functions).combineEnchantsJava();
   }
 
+  @Test
+  void getCostNullBase() {
+    doReturn(null).when(inventory).getItem(0);
+
+    assertThat("Cost is empty for null base", anvil.getCost(view), is(AnvilCost.EMPTY));
+  }
+
+  @Test
+  void getCost() {
+    assertThat("Cost is expected value", anvil.getCost(view), is(forgeCost));
+
+    verify(functions).combineEnchantsJava();
+  }
+
+  @Test
+  void getResultBudgetPriorWork() {
+    doReturn(40).when(view).getMaximumRepairCost();
+    levelCost = 40;
+    PlanarForge<Void> budgeted = new PlanarForge<>(createPiece, behavior, functions, v -> false);
+
+    AnvilResult result = budgeted.getResult(view);
+    assertThat("Result is too expensive", result, is(AnvilResult.tooExpensive(40)));
+
+    verify(functions).addPriorWorkLevelCost();
+    verify(functions, never()).rename();
+    verify(functions, never()).combineEnchantsJava();
+  }
+
+  @Test
+  void getResultBudgetFinalCost() {
+    doReturn(40).when(view).getMaximumRepairCost();
+    AnvilFunction<Void> combine = mock();
+    doReturn(true).when(combine).canApply(any(), any(), any());
+    doAnswer(invocation -> {
+      levelCost = 45;
+      return mock(AnvilFunctionResult.class);
+    }).when(combine).getResult(any(), any(), any());
+    doReturn(combine).when(functions).combineEnchantsJava();
+    PlanarForge<Void> budgeted = new PlanarForge<>(createPiece, behavior, functions, v -> false);
+
+    assertThat(
+        "Result is too expensive",
+        budgeted.getResult(view),
+        is(AnvilResult.tooExpensive(45))
+    );
+    assertThat("Cost is refused cost", budgeted.getCost(view), is(new AnvilCost(45, 0)));
+  }
+
+  @Test
+  void getResultBudgetAffordable() {
+    doReturn(40).when(view).getMaximumRepairCost();
+    levelCost = 39;
+    PlanarForge<Void> budgeted = new PlanarForge<>(createPiece, behavior, functions, v -> false);
+
+    assertThat("Result is forged", budgeted.getResult(view), is(sameInstance(forgeResult)));
+  }
+
+  @Test
+  void getResultBudgetBypass() {
+    doReturn(40).when(view).getMaximumRepairCost();
+    levelCost = 40;
+    PlanarForge<Void> budgeted = new PlanarForge<>(createPiece, behavior, functions, v -> true);
+
+    assertThat("Result is forged", budgeted.getResult(view), is(sameInstance(forgeResult)));
+    verify(functions).combineEnchantsJava();
+  }
+
+  @Test
+  void getResultBudgetRenameOnly() {
+    doReturn(40).when(view).getMaximumRepairCost();
+    doReturn(null).when(inventory).getItem(1);
+    levelCost = 40;
+    AnvilFunction<Void> rename = mock();
+    doReturn(true).when(rename).canApply(any(), any(), any());
+    doReturn(rename).when(functions).rename();
+    PlanarForge<Void> budgeted = new PlanarForge<>(createPiece, behavior, functions, v -> false);
+
+    assertThat("Rename is not refused", budgeted.getResult(view), is(sameInstance(forgeResult)));
+  }
+
 }
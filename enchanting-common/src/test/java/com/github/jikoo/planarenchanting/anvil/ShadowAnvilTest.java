@@ -0,0 +1,60 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShadowAnvilTest {
+
+  private static ItemStack item(Material type) {
+    ItemStack itemStack = mock();
+    doReturn(type).when(itemStack).getType();
+    return itemStack;
+  }
+
+  @Test
+  void matchingResultsEquivalent() {
+    ItemStack item = item(Material.DIAMOND_SWORD);
+    assertThat(
+        "Equal results are equivalent",
+        ShadowAnvil.isEquivalent(new AnvilResult(item, 5, 1), new AnvilResult(item, 5, 1)),
+        is(true));
+    assertThat(
+        "Differing costs are not equivalent",
+        ShadowAnvil.isEquivalent(new AnvilResult(item, 5, 1), new AnvilResult(item, 6, 1)),
+        is(false));
+  }
+
+  @Test
+  void refusedResultEquivalentToCostlierReference() {
+    AnvilResult refused = new AnvilResult(item(Material.AIR), 40, 0);
+    ItemStack item = item(Material.DIAMOND_SWORD);
+
+    assertThat(
+        "Refused result matches reference reaching the same cost",
+        ShadowAnvil.isEquivalent(new AnvilResult(item, 40, 1), refused),
+        is(true));
+    assertThat(
+        "Refused result matches costlier reference",
+        ShadowAnvil.isEquivalent(new AnvilResult(item, 47, 1), refused),
+        is(true));
+    assertThat(
+        "Refused result does not match cheaper reference",
+        ShadowAnvil.isEquivalent(new AnvilResult(item, 39, 1), refused),
+        is(false));
+    assertThat(
+        "Refused result does not match empty reference",
+        ShadowAnvil.isEquivalent(AnvilResult.EMPTY, refused),
+        is(false));
+  }
+
+}
@@ -0,0 +1,100 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.view.AnvilView;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WorkPieceArenaTest {
+
+  private AnvilView view;
+  private ReusableViewState<Void> state;
+  private Temperer<Void> temperer;
+  private WorkPieceArena<Void> arena;
+
+  @BeforeEach
+  void beforeEach() {
+    view = mock();
+    state = mock();
+    temperer = mock();
+    arena = new WorkPieceArena<>(() -> state, temperer);
+  }
+
+  @Test
+  void applyResetsState() {
+    arena.apply(view);
+
+    verify(state).reset(view);
+  }
+
+  @Test
+  void releasedPieceReused() {
+    WorkPiece<Void> piece = arena.apply(view);
+    piece.release();
+
+    assertThat("Released piece is reused", arena.apply(view), is(sameInstance(piece)));
+  }
+
+  @Test
+  void leasedPieceNotReused() {
+    WorkPiece<Void> piece = arena.apply(view);
+
+    assertThat("Leased piece is not reused", arena.apply(view), is(not(sameInstance(piece))));
+  }
+
+  @Test
+  void releaseClearsPiece() {
+    WorkPiece<Void> piece = arena.apply(view);
+    piece.setCostOnly();
+    piece.setLevelCost(10);
+    piece.setMaterialCost(2);
+    piece.release();
+
+    verify(state).clear();
+    assertThat("Level cost is reset", piece.getLevelCost(), is(0));
+    assertThat("Material cost is reset", piece.getMaterialCost(), is(0));
+
+    // Cost-only pieces cannot be tempered, so a successful temper means the mode was reset.
+    doReturn(true).when(temperer).hasChanged(any(), any(), any());
+    doReturn(mock(ItemStack.class)).when(temperer).temper(any());
+    arena.apply(view).temper();
+    verify(temperer).temper(any());
+  }
+
+  @Test
+  void releaseDiscardsDeferred() {
+    WorkPiece<Void> piece = arena.apply(view);
+    piece.setDeferred();
+    AnvilFunctionResult<Void> result = mock();
+    piece.apply(result);
+    piece.release();
+
+    arena.apply(view).appraise();
+
+    verify(result, never()).modifyResult(any());
+  }
+
+  @Test
+  void closeDiscardsPiece() {
+    WorkPiece<Void> piece = arena.apply(view);
+    piece.release();
+    arena.close();
+
+    assertThat("Closed piece is not reused", arena.apply(view), is(not(sameInstance(piece))));
+  }
+
+}
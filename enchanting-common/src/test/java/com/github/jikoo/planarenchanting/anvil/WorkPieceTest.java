@@ -1,17 +1,32 @@
 package com.github.jikoo.planarenchanting.anvil;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import com.github.jikoo.planarenchanting.util.Metrics;
+import com.github.jikoo.planarenchanting.util.MetricsSink;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class WorkPieceTest {
 
@@ -24,6 +39,11 @@ class WorkPieceTest {
     temperer = mock();
   }
 
+  @AfterEach
+  void tearDown() {
+    Metrics.install(null);
+  }
+
   @Test
   void applyFalse() {
     AnvilFunction<Void> function = mock();
@@ -79,4 +99,168 @@ class WorkPieceTest {
     );
   }
 
+  @Test
+  void appraiseCostOnlyChanged() {
+    AnvilFunction<Void> function = mock();
+    doReturn(true).when(function).canApply(any(), any(), any());
+    doReturn(true).when(function).ignoresResult();
+    AnvilFunctionResult<Void> result = mock();
+    doReturn(2).when(result).getLevelCostIncrease();
+    doReturn(true).when(result).changesResult();
+    doReturn(result).when(function).getResult(any(), any(), any());
+    WorkPiece<Void> piece = new WorkPiece<>(state, temperer);
+    piece.setCostOnly();
+
+    piece.apply(mock(), function);
+
+    assertThat("Changed piece has cost", piece.appraise(), is(new AnvilCost(2, 0)));
+    verify(result, never()).modifyResult(any());
+    verify(state, never()).createResult();
+    verify(temperer, never()).hasChanged(any(), any(), any());
+  }
+
+  @Test
+  void appraiseCostOnlyUnchanged() {
+    AnvilFunction<Void> function = mock();
+    doReturn(true).when(function).canApply(any(), any(), any());
+    doReturn(true).when(function).ignoresResult();
+    AnvilFunctionResult<Void> result = mock();
+    doReturn(2).when(result).getLevelCostIncrease();
+    doReturn(result).when(function).getResult(any(), any(), any());
+    WorkPiece<Void> piece = new WorkPiece<>(state, temperer);
+    piece.setCostOnly();
+
+    piece.apply(mock(), function);
+
+    assertThat("Unchanged piece has empty cost", piece.appraise(), is(AnvilCost.EMPTY));
+  }
+
+  @Test
+  void appraiseCostOnlyUsesResult() {
+    AnvilFunction<Void> ignoring = mock();
+    doReturn(true).when(ignoring).canApply(any(), any(), any());
+    doReturn(true).when(ignoring).ignoresResult();
+    AnvilFunctionResult<Void> first = mock();
+    doReturn(first).when(ignoring).getResult(any(), any(), any());
+    AnvilFunction<Void> using = mock();
+    doReturn(true).when(using).canApply(any(), any(), any());
+    AnvilFunctionResult<Void> second = mock();
+    doReturn(second).when(using).getResult(any(), any(), any());
+    WorkPiece<Void> piece = new WorkPiece<>(state, temperer);
+    piece.setCostOnly();
+
+    piece.apply(mock(), ignoring);
+    verify(state, never()).createResult();
+
+    piece.apply(mock(), using);
+    verify(state).createResult();
+    verify(first).modifyResult(any());
+    verify(second).modifyResult(any());
+  }
+
+  @Test
+  void temperCostOnly() {
+    WorkPiece<Void> piece = new WorkPiece<>(state, temperer);
+    piece.setCostOnly();
+
+    assertThrows(IllegalStateException.class, piece::temper);
+  }
+
+  @Test
+  void temperDeferred() {
+    AnvilFunction<Void> function = mock();
+    doReturn(true).when(function).canApply(any(), any(), any());
+    doReturn(true).when(function).ignoresResult();
+    AnvilFunctionResult<Void> result = mock();
+    doReturn(2).when(result).getLevelCostIncrease();
+    doReturn(result).when(function).getResult(any(), any(), any());
+    WorkPiece<Void> piece = new WorkPiece<>(state, temperer);
+    piece.setDeferred();
+
+    piece.apply(mock(), function);
+
+    assertThat("Cost is tracked", piece.getLevelCost(), is(2));
+    verify(state, never()).createResult();
+    verify(result, never()).modifyResult(any());
+
+    piece.temper();
+
+    verify(state).createResult();
+    verify(result).modifyResult(any());
+  }
+
+  @Test
+  void applyRecordsMetrics() {
+    MetricsSink sink = mock();
+    Metrics.install(sink);
+    AnvilFunction<Void> function = mock();
+    WorkPiece<Void> piece = new WorkPiece<>(state, temperer);
+
+    piece.apply(mock(), function);
+
+    verify(sink).recordLatency(eq(function), anyLong());
+    verify(sink).recordOutcome(function, false);
+  }
+
+  @Test
+  void temperRecordsMetrics() {
+    MetricsSink sink = mock();
+    Metrics.install(sink);
+    WorkPiece<Void> piece = new WorkPiece<>(state, temperer);
+
+    piece.temper();
+
+    verify(sink).recordLatency(eq(MetricsSink.Phase.ANVIL_TEMPER), anyLong());
+    verify(sink).recordOutcome(MetricsSink.Phase.ANVIL_TEMPER, false);
+  }
+
+  @Test
+  void applyEmitsFlightEvent(@TempDir Path directory) throws IOException {
+    AnvilFunction<Void> function = mock();
+    WorkPiece<Void> piece = new WorkPiece<>(state, temperer);
+    Path file = directory.resolve("recording.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable(AnvilFunctionEvent.class).withoutThreshold();
+      recording.start();
+      piece.apply(mock(), function);
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    assertThat("Event is recorded", events.size(), is(1));
+    assertThat(
+        "Function is recorded",
+        events.getFirst().getClass("function").getName(),
+        is(function.getClass().getName())
+    );
+    assertThat("Outcome is recorded", events.getFirst().getBoolean("applied"), is(false));
+  }
+
+  @Test
+  void applyTraced() {
+    AnvilFunction<Void> function = mock();
+    doReturn(true).when(function).canApply(any(), any(), any());
+    AnvilFunctionResult<Void> result = mock();
+    doReturn(3).when(result).getLevelCostIncrease();
+    doReturn(1).when(result).getMaterialCostIncrease();
+    doReturn(result).when(function).getResult(any(), any(), any());
+    AnvilFunction<Void> inapplicable = mock();
+    WorkPiece<Void> piece = new WorkPiece<>(state, temperer);
+    AnvilTrace trace = new AnvilTrace();
+    piece.setTrace(trace);
+    piece.setLevelCost(2);
+
+    piece.apply(mock(), function);
+    piece.apply(mock(), inapplicable);
+
+    assertThat(
+        "Applied function is traced with cost deltas",
+        trace.getSteps(),
+        contains(new AnvilTrace.Step(function, 3, 1))
+    );
+    assertThat("Trace is not current after apply", AnvilTrace.current(), is(nullValue()));
+  }
+
 }
@@ -0,0 +1,78 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ApplicabilityCacheTest {
+
+  private ApplicabilityCache cache;
+  private Enchantment enchantment;
+  private AtomicInteger checks;
+
+  @BeforeEach
+  void beforeEach() {
+    cache = new ApplicabilityCache();
+    enchantment = mock();
+    checks = new AtomicInteger();
+  }
+
+  private boolean applies(Material type, boolean result) {
+    return cache.applies(enchantment, type, () -> {
+      checks.incrementAndGet();
+      return result;
+    });
+  }
+
+  @Test
+  void appliesCached() {
+    assertThat("Live result is used", applies(Material.DIAMOND_SWORD, true), is(true));
+    assertThat("Cached result is used", applies(Material.DIAMOND_SWORD, false), is(true));
+    assertThat("Check is performed once", checks.get(), is(1));
+  }
+
+  @Test
+  void appliesNegativeCached() {
+    assertThat("Live result is used", applies(Material.STICK, false), is(false));
+    assertThat("Cached result is used", applies(Material.STICK, true), is(false));
+    assertThat("Check is performed once", checks.get(), is(1));
+  }
+
+  @Test
+  void appliesPerType() {
+    applies(Material.DIAMOND_SWORD, true);
+    assertThat("Types are cached separately", applies(Material.STICK, false), is(false));
+    assertThat("Check is performed per type", checks.get(), is(2));
+  }
+
+  @Test
+  void invalidate() {
+    applies(Material.DIAMOND_SWORD, true);
+    cache.invalidate();
+    assertThat("Result is rechecked", applies(Material.DIAMOND_SWORD, false), is(false));
+    assertThat("Check is performed again", checks.get(), is(2));
+  }
+
+  @Test
+  void invalidateVanillaOnReload() {
+    ApplicabilityCache.VANILLA.applies(enchantment, Material.DIAMOND_SWORD, () -> true);
+    DataReloads.reloaded();
+
+    assertThat(
+        "Vanilla cache is invalidated on reload",
+        ApplicabilityCache.VANILLA.applies(enchantment, Material.DIAMOND_SWORD, () -> false),
+        is(false)
+    );
+  }
+
+}
@@ -0,0 +1,141 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.bukkit.NamespacedKey;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BinaryLedgerTest {
+
+  @Test
+  void entriesRoundTrip(@TempDir Path directory) throws IOException {
+    LedgerEntry table = table(-4_000_000_000L);
+    LedgerEntry anvil = new LedgerEntry(
+        LedgerEntry.Kind.ANVIL,
+        1_700_000_000_000L,
+        NamespacedKey.minecraft("diamond_sword"),
+        NamespacedKey.minecraft("enchanted_book"),
+        Map.of(NamespacedKey.minecraft("sharpness"), 4),
+        Map.of(NamespacedKey.minecraft("sharpness"), 4, NamespacedKey.minecraft("looting"), 3),
+        Map.of(NamespacedKey.minecraft("sharpness"), 5, NamespacedKey.minecraft("looting"), 3),
+        11,
+        1,
+        0,
+        "JAVA"
+    );
+
+    try (BinaryLedger ledger = new BinaryLedger(directory)) {
+      ledger.record(table);
+      ledger.record(anvil);
+    }
+
+    assertThat("Entries are read back", read(directory), contains(table, anvil));
+  }
+
+  @Test
+  void filesRotate(@TempDir Path directory) throws IOException {
+    List<LedgerEntry> entries = new ArrayList<>();
+    try (BinaryLedger ledger = new BinaryLedger(directory, 16, 1, 2)) {
+      for (int i = 0; i < 5; ++i) {
+        LedgerEntry entry = table(i);
+        entries.add(entry);
+        ledger.record(entry);
+      }
+    }
+
+    assertThat("Oldest files are deleted", BinaryLedgerReader.files(directory), hasSize(2));
+    assertThat("Newest entries are retained", read(directory), is(entries.subList(3, 5)));
+  }
+
+  @Test
+  void filesRotateAcrossLedgers(@TempDir Path directory) throws IOException {
+    List<LedgerEntry> entries = new ArrayList<>();
+    for (int run = 0; run < 3; ++run) {
+      try (BinaryLedger ledger = new BinaryLedger(directory, 16, 1, 2)) {
+        LedgerEntry entry = table(run);
+        entries.add(entry);
+        ledger.record(entry);
+      }
+    }
+
+    assertThat("Earlier ledgers' files are deleted", BinaryLedgerReader.files(directory), hasSize(2));
+    assertThat("Newest entries are retained", read(directory), is(entries.subList(1, 3)));
+  }
+
+  @Test
+  void partialEntryIgnored(@TempDir Path directory) throws IOException {
+    LedgerEntry first = table(1);
+    try (BinaryLedger ledger = new BinaryLedger(directory)) {
+      ledger.record(first);
+      ledger.record(table(2));
+    }
+
+    Path file = BinaryLedgerReader.files(directory).getFirst();
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+    assertThat("Complete entries are read", read(directory), contains(first));
+  }
+
+  @Test
+  void recordAfterCloseDropped(@TempDir Path directory) throws IOException {
+    BinaryLedger ledger = new BinaryLedger(directory);
+    ledger.close();
+
+    ledger.record(table(1));
+
+    assertThat("Entry is dropped", ledger.getDropped(), is(1L));
+  }
+
+  @Test
+  void invalidHeaderRejected() {
+    assertThrows(
+        IOException.class,
+        () -> new BinaryLedgerReader(new ByteArrayInputStream(new byte[] { 'P', 'E', 'L' })));
+  }
+
+  private static LedgerEntry table(long seed) {
+    return new LedgerEntry(
+        LedgerEntry.Kind.TABLE,
+        1_700_000_000_000L,
+        NamespacedKey.minecraft("book"),
+        null,
+        Map.of(),
+        Map.of(),
+        Map.of(NamespacedKey.minecraft("mending"), 1),
+        30,
+        3,
+        seed,
+        null
+    );
+  }
+
+  private static List<LedgerEntry> read(Path directory) throws IOException {
+    List<LedgerEntry> entries = new ArrayList<>();
+    for (Path file : BinaryLedgerReader.files(directory)) {
+      try (Stream<LedgerEntry> stream = BinaryLedgerReader.stream(file)) {
+        stream.forEach(entries::add);
+      }
+    }
+    return entries;
+  }
+
+}
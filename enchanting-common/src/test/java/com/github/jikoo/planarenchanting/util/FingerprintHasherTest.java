@@ -0,0 +1,91 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+
+@NullMarked
+class FingerprintHasherTest {
+
+  private static Enchantment enchantment(String key) {
+    Enchantment enchantment = mock();
+    doReturn(NamespacedKey.minecraft(key)).when(enchantment).getKey();
+    return enchantment;
+  }
+
+  @Test
+  void hashStable() {
+    assertThat(
+        "Same values yield same hash",
+        new FingerprintHasher().putInt(1).putString("name").hash(),
+        is(new FingerprintHasher().putInt(1).putString("name").hash())
+    );
+  }
+
+  @Test
+  void hashOrdered() {
+    assertThat(
+        "Value order affects hash",
+        new FingerprintHasher().putInt(1).putInt(2).hash(),
+        is(not(new FingerprintHasher().putInt(2).putInt(1).hash()))
+    );
+  }
+
+  @Test
+  void hashLength() {
+    assertThat(
+        "Additional zero value affects hash",
+        new FingerprintHasher().putInt(0).hash(),
+        is(not(new FingerprintHasher().putInt(0).putInt(0).hash()))
+    );
+  }
+
+  @Test
+  void hashNullString() {
+    assertThat(
+        "Null string differs from empty string",
+        new FingerprintHasher().putString(null).hash(),
+        is(not(new FingerprintHasher().putString("").hash()))
+    );
+  }
+
+  @Test
+  void hashEnchantmentsUnordered() {
+    Enchantment first = enchantment("first");
+    Enchantment second = enchantment("second");
+    Map<Enchantment, Integer> forward = new LinkedHashMap<>();
+    forward.put(first, 1);
+    forward.put(second, 2);
+    Map<Enchantment, Integer> reverse = new LinkedHashMap<>();
+    reverse.put(second, 2);
+    reverse.put(first, 1);
+
+    assertThat(
+        "Enchantment order does not affect hash",
+        new FingerprintHasher().putEnchantments(forward).hash(),
+        is(new FingerprintHasher().putEnchantments(reverse).hash())
+    );
+  }
+
+  @Test
+  void hashEnchantmentsLevels() {
+    Enchantment first = enchantment("first");
+    Enchantment second = enchantment("second");
+
+    assertThat(
+        "Enchantment levels affect hash",
+        new FingerprintHasher().putEnchantments(Map.of(first, 1, second, 2)).hash(),
+        is(not(new FingerprintHasher().putEnchantments(Map.of(first, 2, second, 1)).hash()))
+    );
+  }
+
+}
@@ -0,0 +1,138 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.Repairable;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HeadlessServerTest {
+
+  private final NamespacedKey tagKey = NamespacedKey.minecraft("diamond_tool_materials");
+
+  @BeforeAll
+  void beforeAll() {
+    HeadlessServer.install(
+        Map.of(
+            NamespacedKey.minecraft("sharpness"),
+            new HeadlessEnchantment.Definition(
+                5,
+                false,
+                false,
+                Set.of(NamespacedKey.minecraft("smite")),
+                Set.of(Material.DIAMOND_SWORD))),
+        Map.of(tagKey, Set.of(Material.DIAMOND)));
+  }
+
+  @Test
+  void registryBacked() {
+    assertThat("Server is headless", HeadlessServer.isInstalled(), is(true));
+    assertThat(
+        "Enchantment is headless",
+        Enchantment.SHARPNESS,
+        is(instanceOf(HeadlessEnchantment.class)));
+    assertThat("Definition is used", Enchantment.SHARPNESS.getMaxLevel(), is(5));
+    assertThat(
+        "Exclusive enchantments conflict",
+        Enchantment.SHARPNESS.conflictsWith(Enchantment.SMITE),
+        is(true));
+    assertThat(
+        "Baked data is used",
+        new HeadlessEnchantProvider().of(Enchantment.SHARPNESS).getAnvilCost(),
+        is(1));
+  }
+
+  @Test
+  void undefinedRequiresDefinition() {
+    assertThat(
+        "Undefined enchantment is registered",
+        Enchantment.SMITE,
+        is(instanceOf(HeadlessEnchantment.class)));
+    assertThat(
+        "Undefined enchantment has no definition",
+        ((HeadlessEnchantment) Enchantment.SMITE).isDefined(),
+        is(false));
+    assertThrows(IllegalStateException.class, Enchantment.SMITE::getMaxLevel);
+  }
+
+  @Test
+  void itemTagsSupplied() {
+    Tag<Material> tag = Bukkit.getTag(Tag.REGISTRY_ITEMS, tagKey, Material.class);
+
+    assertThat("Supplied tag is present", tag, is(notNullValue()));
+    assertThat(
+        "Tag contains values",
+        Objects.requireNonNull(tag).isTagged(Material.DIAMOND),
+        is(true));
+    assertThat(
+        "Other tags are absent",
+        Bukkit.getTag(Tag.REGISTRY_ITEMS, NamespacedKey.minecraft("logs"), Material.class),
+        is(nullValue()));
+  }
+
+  @Test
+  void itemMetaStored() {
+    ItemStack itemStack = new ItemStack(Material.DIAMOND_SWORD);
+    assertThat("Plain item has no meta", itemStack.hasItemMeta(), is(false));
+
+    ItemMeta meta = Objects.requireNonNull(itemStack.getItemMeta());
+    meta.addEnchant(Enchantment.SHARPNESS, 4, true);
+    meta.setDisplayName("Blade");
+    ((Damageable) meta).setDamage(10);
+    ((Repairable) meta).setRepairCost(3);
+    itemStack.setItemMeta(meta);
+
+    ItemStack copy = itemStack.clone();
+    ItemMeta copyMeta = Objects.requireNonNull(copy.getItemMeta());
+    assertThat("Item has meta", copy.hasItemMeta(), is(true));
+    assertThat(
+        "Enchantments are stored",
+        copyMeta.getEnchants(),
+        hasEntry(Enchantment.SHARPNESS, 4));
+    assertThat("Name is stored", copyMeta.getDisplayName(), is("Blade"));
+    assertThat("Damage is stored", ((Damageable) copyMeta).getDamage(), is(10));
+    assertThat("Prior work is stored", ((Repairable) copyMeta).getRepairCost(), is(3));
+    assertThat("Copies are equal", copy, is(itemStack));
+
+    ((Damageable) copyMeta).setDamage(0);
+    copy.setItemMeta(copyMeta);
+    assertThat("Changed copies are not equal", copy, is(not(itemStack)));
+  }
+
+  @Test
+  void bookMetaStoresEnchantments() {
+    ItemStack book = new ItemStack(Material.ENCHANTED_BOOK);
+    ItemMeta meta = book.getItemMeta();
+
+    assertThat("Book meta stores enchantments", meta, is(instanceOf(EnchantmentStorageMeta.class)));
+    assertThat(
+        "Other items do not store enchantments",
+        new ItemStack(Material.DIAMOND_SWORD).getItemMeta(),
+        is(not(instanceOf(EnchantmentStorageMeta.class))));
+    assertThat("Air has no meta", new ItemStack(Material.AIR).getItemMeta(), is(nullValue()));
+  }
+
+}
@@ -0,0 +1,103 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.jikoo.planarenchanting.util.InputSample.AnvilSample;
+import com.github.jikoo.planarenchanting.util.InputSample.ItemSample;
+import com.github.jikoo.planarenchanting.util.InputSample.TableSample;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.bukkit.NamespacedKey;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class InputCaptureTest {
+
+  @Test
+  void samplesRoundTrip(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("capture.bin");
+    TableSample first = new TableSample(
+        TableSample.Operation.OFFER,
+        List.of(NamespacedKey.minecraft("sharpness"), NamespacedKey.minecraft("looting")),
+        10,
+        30,
+        -12345L
+    );
+    TableSample second = new TableSample(TableSample.Operation.APPLY, List.of(), 1, 1, 0);
+
+    try (InputCapture capture = new InputCapture(file, 1, 10)) {
+      capture.record(first);
+      capture.record(second);
+    }
+
+    assertThat("Samples are read back", InputCapture.read(file), contains(first, second));
+  }
+
+  @Test
+  void anvilSamplesRoundTrip(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("capture.bin");
+    ItemSample base = new ItemSample(
+        NamespacedKey.minecraft("diamond_sword"),
+        1,
+        Map.of(NamespacedKey.minecraft("sharpness"), 3, NamespacedKey.minecraft("looting"), 1),
+        Map.of(),
+        12,
+        3,
+        "Blade"
+    );
+    ItemSample addition = new ItemSample(
+        NamespacedKey.minecraft("enchanted_book"),
+        1,
+        Map.of(),
+        Map.of(NamespacedKey.minecraft("sharpness"), 3),
+        0,
+        1,
+        null
+    );
+    AnvilSample first = new AnvilSample("example.Behavior", base, addition, "Renamed", 40);
+    AnvilSample second = new AnvilSample("example.Behavior", base, null, null, 40);
+
+    try (InputCapture capture = new InputCapture(file, 1, 10)) {
+      capture.record(first);
+      capture.record(second);
+    }
+
+    assertThat("Samples are read back", InputCapture.read(file), contains(first, second));
+  }
+
+  @Test
+  void sampleLimited(@TempDir Path directory) throws IOException {
+    try (InputCapture capture = new InputCapture(directory.resolve("capture.bin"), 1, 2)) {
+      assertThat("First sample is taken", capture.sample(), is(true));
+      assertThat("Second sample is taken", capture.sample(), is(true));
+      assertThat("Samples over the limit are not taken", capture.sample(), is(false));
+    }
+  }
+
+  @Test
+  void closedCaptureDoesNotSample(@TempDir Path directory) throws IOException {
+    InputCapture capture = new InputCapture(directory.resolve("capture.bin"), 1, 2);
+    capture.close();
+
+    assertThat("Closed capture does not sample", capture.sample(), is(false));
+  }
+
+  @Test
+  void invalidFileRejected(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("capture.bin");
+    Files.write(file, new byte[] { 'P', 'E', 'L', 'G', 1 });
+
+    assertThrows(IOException.class, () -> InputCapture.read(file));
+  }
+
+}
@@ -0,0 +1,53 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemFingerprinterTest {
+
+  private ItemFingerprinter delegate;
+  private ItemFingerprinter verifying;
+
+  @BeforeEach
+  void beforeEach() {
+    delegate = mock();
+    doReturn(1L).when(delegate).fingerprint(any());
+    verifying = ItemFingerprinter.verifying(delegate);
+  }
+
+  private static ItemStack mockItem() {
+    ItemStack itemStack = mock();
+    doReturn(itemStack).when(itemStack).clone();
+    return itemStack;
+  }
+
+  @Test
+  void verifyingEquivalent() {
+    ItemStack first = mockItem();
+    ItemStack second = mockItem();
+    doReturn(true).when(delegate).isEquivalent(first, second);
+
+    assertThat("Fingerprint is delegated", verifying.fingerprint(first), is(1L));
+    assertThat("Equivalent items may share fingerprint", verifying.fingerprint(second), is(1L));
+  }
+
+  @Test
+  void verifyingCollision() {
+    verifying.fingerprint(mockItem());
+
+    assertThrows(IllegalStateException.class, () -> verifying.fingerprint(mockItem()));
+  }
+
+}
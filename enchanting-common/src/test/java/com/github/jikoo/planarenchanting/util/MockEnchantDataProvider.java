@@ -2,8 +2,8 @@ package com.github.jikoo.planarenchanting.util;
 
 import static org.mockito.Mockito.mock;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import com.github.jikoo.planarenchanting.util.EnchantData.Provider;
 import org.bukkit.enchantments.Enchantment;
 import org.jspecify.annotations.NullMarked;
@@ -11,7 +11,7 @@ import org.jspecify.annotations.NullMarked;
 @NullMarked
 public class MockEnchantDataProvider implements Provider {
 
-  private Map<Enchantment, EnchantData> enchants = new HashMap<>();
+  private final Map<Enchantment, EnchantData> enchants = new ConcurrentHashMap<>();
 
   @Override
   public EnchantData of(Enchantment enchantment) {
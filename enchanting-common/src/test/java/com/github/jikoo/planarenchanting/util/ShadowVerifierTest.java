@@ -0,0 +1,76 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShadowVerifierTest {
+
+  @Test
+  void divergenceReported() {
+    List<ShadowVerifier.Divergence<Integer, Integer>> divergences = new ArrayList<>();
+    ShadowVerifier<Integer, Integer> verifier = new ShadowVerifier<>(
+        value -> value * 2,
+        Objects::equals,
+        1,
+        Runnable::run,
+        1,
+        divergences::add
+    );
+
+    verifier.verify(2, 4);
+    verifier.verify(3, 7);
+
+    assertThat(
+        "Divergent result is reported",
+        divergences,
+        contains(new ShadowVerifier.Divergence<>(3, 6, 7)));
+    assertThat("Both results are verified", verifier.getVerified(), is(2L));
+    assertThat("One result diverged", verifier.getDiverged(), is(1L));
+  }
+
+  @Test
+  void pendingLimited() {
+    List<Runnable> tasks = new ArrayList<>();
+    List<ShadowVerifier.Divergence<Integer, Integer>> divergences = new ArrayList<>();
+    ShadowVerifier<Integer, Integer> verifier = new ShadowVerifier<>(
+        value -> value,
+        Objects::equals,
+        1,
+        tasks::add,
+        1,
+        divergences::add
+    );
+
+    verifier.verify(1, 2);
+    verifier.verify(1, 2);
+
+    assertThat("Sample over the limit is skipped", verifier.getSkipped(), is(1L));
+    assertThat("Nothing is reported before verification", divergences, is(empty()));
+
+    tasks.forEach(Runnable::run);
+    verifier.verify(1, 2);
+
+    assertThat("Sample is accepted once pending completes", verifier.getSkipped(), is(1L));
+    assertThat("Pending verifications are queued", tasks.size(), is(2));
+  }
+
+  @Test
+  void zeroRateNeverSamples() {
+    ShadowVerifier<Integer, Integer> verifier =
+        new ShadowVerifier<>(value -> value, Objects::equals, 0, divergence -> {});
+
+    assertThat("Zero rate does not sample", verifier.sample(), is(false));
+  }
+
+}
@@ -0,0 +1,123 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import com.github.jikoo.planarenchanting.util.MetricsSink.Phase;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StripedMetricsTest {
+
+  private StripedMetrics metrics;
+
+  @BeforeEach
+  void beforeEach() {
+    metrics = new StripedMetrics();
+  }
+
+  @AfterEach
+  void afterEach() {
+    Metrics.install(null);
+  }
+
+  @Test
+  void latencyRecorded() {
+    metrics.recordLatency(Phase.TABLE_OFFERS, 100);
+    metrics.recordLatency(Phase.TABLE_OFFERS, 300);
+
+    StripedMetrics.Latency latency = metrics.getLatency(Phase.TABLE_OFFERS);
+    assertThat("Latency is recorded", latency, is(notNullValue()));
+    assertThat("Count is recorded", latency.getCount(), is(2L));
+    assertThat("Total is recorded", latency.getTotalNanos(), is(400L));
+    assertThat(
+        "Unrecorded source has no latency",
+        metrics.getLatency(Phase.TABLE_APPLY),
+        is(nullValue())
+    );
+  }
+
+  @Test
+  void latencyPercentile() {
+    for (int i = 0; i < 99; ++i) {
+      metrics.recordLatency(Phase.TABLE_OFFERS, 100);
+    }
+    metrics.recordLatency(Phase.TABLE_OFFERS, 5_000);
+
+    StripedMetrics.Latency latency = metrics.getLatency(Phase.TABLE_OFFERS);
+    assertThat("Latency is recorded", latency, is(notNullValue()));
+    assertThat("Median is bucket upper bound", latency.getPercentileNanos(0.5), is(127L));
+    assertThat("Maximum is bucket upper bound", latency.getPercentileNanos(1), is(8_191L));
+    assertThrows(IllegalArgumentException.class, () -> latency.getPercentileNanos(2));
+  }
+
+  @Test
+  void outcomesRecorded() {
+    metrics.recordOutcome(Phase.ANVIL_TEMPER, true);
+    metrics.recordOutcome(Phase.ANVIL_TEMPER, true);
+    metrics.recordOutcome(Phase.ANVIL_TEMPER, false);
+    metrics.recordOutcome(Phase.ANVIL_TEMPER, false);
+
+    StripedMetrics.Outcomes outcomes = metrics.getOutcomes(Phase.ANVIL_TEMPER);
+    assertThat("Outcomes are recorded", outcomes, is(notNullValue()));
+    assertThat("Positive outcomes are counted", outcomes.getPositiveCount(), is(2L));
+    assertThat("Negative outcomes are counted", outcomes.getNegativeCount(), is(2L));
+    assertThat("Ratio is calculated", outcomes.getPositiveRatio(), is(0.5));
+  }
+
+  @Test
+  void reset() {
+    metrics.recordLatency(Phase.TABLE_OFFERS, 100);
+    metrics.recordOutcome(Phase.ANVIL_TEMPER, true);
+
+    metrics.reset();
+
+    assertThat("Latencies are discarded", metrics.getLatencies().isEmpty(), is(true));
+    assertThat("Outcomes are discarded", metrics.getOutcomes().isEmpty(), is(true));
+  }
+
+  @Test
+  void cacheRecordsOutcomes() {
+    Metrics.install(metrics);
+    ApplicabilityCache cache = new ApplicabilityCache();
+    Enchantment enchantment = mock();
+
+    cache.applies(enchantment, Material.DIAMOND_SWORD, () -> true);
+    cache.applies(enchantment, Material.DIAMOND_SWORD, () -> true);
+
+    StripedMetrics.Outcomes outcomes = metrics.getOutcomes(cache);
+    assertThat("Outcomes are recorded", outcomes, is(notNullValue()));
+    assertThat("Hit is recorded", outcomes.getPositiveCount(), is(1L));
+    assertThat("Miss is recorded", outcomes.getNegativeCount(), is(1L));
+  }
+
+  @Test
+  void sourcesNotRetained() {
+    ApplicabilityCache first = new ApplicabilityCache();
+    ApplicabilityCache second = new ApplicabilityCache();
+    metrics.recordOutcome(first, true);
+    metrics.recordOutcome(second, false);
+
+    assertThat(
+        "Sources are keyed by class name",
+        metrics.getOutcomes().keySet(),
+        contains(ApplicabilityCache.class.getName())
+    );
+    StripedMetrics.Outcomes outcomes = metrics.getOutcomes(first);
+    assertThat("Outcomes are recorded", outcomes, is(notNullValue()));
+    assertThat("Instances are combined", outcomes.getNegativeCount(), is(1L));
+  }
+
+}
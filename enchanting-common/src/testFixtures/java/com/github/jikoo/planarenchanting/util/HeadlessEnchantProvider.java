@@ -0,0 +1,24 @@
+package com.github.jikoo.planarenchanting.util;
+
+import com.github.jikoo.planarenchanting.util.EnchantData.Provider;
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * An {@link Provider EnchantData.Provider} for enchantments provided by a {@link HeadlessServer}.
+ * Data is held by each {@link HeadlessEnchantment}, so no lookup is performed.
+ *
+ * <p>To use, register the provider as a service in place of a platform-dependent provider.</p>
+ */
+@NullMarked
+public class HeadlessEnchantProvider implements Provider {
+
+  @Override
+  public EnchantData of(Enchantment enchantment) {
+    if (enchantment instanceof HeadlessEnchantment headless) {
+      return headless.getData();
+    }
+    throw new IllegalArgumentException("Enchantment " + enchantment.getKey() + " is not headless");
+  }
+
+}
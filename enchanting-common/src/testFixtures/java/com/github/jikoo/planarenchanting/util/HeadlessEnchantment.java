@@ -0,0 +1,174 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.enchantments.EnchantmentTarget;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An in-memory {@link Enchantment} provided by a {@link HeadlessServer}.
+ *
+ * <p>Weights and costs are pre-baked. Details not included in baked data, such as maximum level,
+ * exclusivity, and supported items, must be supplied by a {@link Definition}. Vanilla definitions
+ * are not shipped, as they depend on item tags. An enchantment without a definition may still be
+ * looked up, but throws an {@link IllegalStateException} if any of those details are used.</p>
+ */
+@NullMarked
+public final class HeadlessEnchantment extends Enchantment {
+
+  private final NamespacedKey key;
+  private final @Nullable Definition definition;
+  private final EnchantData data;
+
+  HeadlessEnchantment(
+      NamespacedKey key,
+      @Nullable Definition definition,
+      Function<Enchantment, EnchantData> data
+  ) {
+    this.key = key;
+    this.definition = definition;
+    this.data = data.apply(this);
+  }
+
+  /**
+   * Get the pre-baked {@link EnchantData} of the enchantment.
+   *
+   * @return the {@code EnchantData}
+   */
+  public EnchantData getData() {
+    return data;
+  }
+
+  /**
+   * Get whether the enchantment has a {@link Definition}.
+   *
+   * @return true if the enchantment is defined
+   */
+  public boolean isDefined() {
+    return definition != null;
+  }
+
+  /**
+   * Get the {@link Definition} of the enchantment.
+   *
+   * @return the {@code Definition}
+   * @throws IllegalStateException if no definition was supplied
+   */
+  public Definition getDefinition() {
+    if (definition == null) {
+      throw new IllegalStateException("No definition was supplied for " + key);
+    }
+    return definition;
+  }
+
+  @Override
+  public NamespacedKey getKey() {
+    return key;
+  }
+
+  @Override
+  public String getTranslationKey() {
+    return "enchantment." + key.getNamespace() + '.' + key.getKey();
+  }
+
+  @Deprecated
+  @Override
+  public String getName() {
+    return key.getKey().toUpperCase(Locale.ROOT);
+  }
+
+  @Override
+  public int getMaxLevel() {
+    return getDefinition().maxLevel();
+  }
+
+  @Override
+  public int getStartLevel() {
+    return 1;
+  }
+
+  @Deprecated
+  @Override
+  public EnchantmentTarget getItemTarget() {
+    throw new UnsupportedOperationException("Headless enchantments do not have item targets");
+  }
+
+  @Override
+  public boolean isTreasure() {
+    return getDefinition().treasure();
+  }
+
+  @Deprecated
+  @Override
+  public boolean isCursed() {
+    return getDefinition().cursed();
+  }
+
+  @Override
+  public boolean conflictsWith(Enchantment other) {
+    if (equals(other)) {
+      return true;
+    }
+    return getDefinition().exclusive().contains(other.getKey())
+        || other instanceof HeadlessEnchantment headless
+        && headless.getDefinition().exclusive().contains(key);
+  }
+
+  @Override
+  public boolean canEnchantItem(ItemStack item) {
+    return getDefinition().supported().contains(item.getType());
+  }
+
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    return this == obj || obj instanceof HeadlessEnchantment other && key.equals(other.key);
+  }
+
+  @Override
+  public int hashCode() {
+    return key.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "HeadlessEnchantment{" + key + '}';
+  }
+
+  /**
+   * Details of an enchantment that are not included in pre-baked data.
+   *
+   * @param maxLevel the maximum level of the enchantment
+   * @param treasure whether the enchantment is a treasure enchantment
+   * @param cursed whether the enchantment is a curse
+   * @param exclusive the keys of enchantments the enchantment conflicts with
+   * @param supported the item types the enchantment may be applied to
+   */
+  public record Definition(
+      int maxLevel,
+      boolean treasure,
+      boolean cursed,
+      Set<NamespacedKey> exclusive,
+      Set<Material> supported
+  ) {
+
+    /**
+     * Construct a new {@code Definition}. Sets are copied.
+     */
+    public Definition {
+      exclusive = Set.copyOf(exclusive);
+      supported = supported.isEmpty()
+          ? Set.of()
+          : Collections.unmodifiableSet(EnumSet.copyOf(supported));
+    }
+
+  }
+
+}
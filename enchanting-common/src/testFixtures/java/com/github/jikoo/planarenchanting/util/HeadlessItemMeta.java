@@ -0,0 +1,259 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.Repairable;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * In-memory {@link ItemMeta} provided by the item factory of a {@link HeadlessServer}.
+ *
+ * <p>Only the details used by anvil operations are stored: the custom name, enchantments, stored
+ * enchantments of an {@link Material#ENCHANTED_BOOK}, damage, and prior work. Other components are
+ * absent; their {@code has} and {@code is} checks return {@code false} and any other access throws
+ * an {@link UnsupportedOperationException}.</p>
+ */
+@NullMarked
+final class HeadlessItemMeta implements InvocationHandler {
+
+  private final boolean book;
+  private @Nullable String displayName;
+  private final Map<Enchantment, Integer> enchants;
+  private final Map<Enchantment, Integer> storedEnchants;
+  private int damage;
+  private int repairCost;
+
+  private HeadlessItemMeta(boolean book) {
+    this.book = book;
+    this.enchants = new LinkedHashMap<>();
+    this.storedEnchants = new LinkedHashMap<>();
+  }
+
+  private HeadlessItemMeta(HeadlessItemMeta other, boolean book) {
+    this.book = book;
+    this.displayName = other.displayName;
+    this.enchants = new LinkedHashMap<>(other.enchants);
+    this.storedEnchants = book ? new LinkedHashMap<>(other.storedEnchants) : new LinkedHashMap<>();
+    this.damage = other.damage;
+    this.repairCost = other.repairCost;
+  }
+
+  /**
+   * Create empty meta for a type of item.
+   *
+   * @param type the {@link Material} of the item
+   * @return the meta, or {@code null} if the type cannot have meta
+   */
+  static @Nullable ItemMeta create(Material type) {
+    if (type.isAir()) {
+      return null;
+    }
+    return new HeadlessItemMeta(type == Material.ENCHANTED_BOOK).createProxy();
+  }
+
+  /**
+   * Get the state backing headless meta.
+   *
+   * @param meta the meta
+   * @return the state, or {@code null} if the meta is not headless
+   */
+  static @Nullable HeadlessItemMeta of(@Nullable ItemMeta meta) {
+    if (meta != null
+        && Proxy.isProxyClass(meta.getClass())
+        && Proxy.getInvocationHandler(meta) instanceof HeadlessItemMeta state) {
+      return state;
+    }
+    return null;
+  }
+
+  /**
+   * Check whether meta may be used for a type of item.
+   *
+   * @param type the {@link Material} of the item
+   * @return whether the meta is applicable
+   */
+  boolean isApplicable(Material type) {
+    return !type.isAir() && (!book || type == Material.ENCHANTED_BOOK);
+  }
+
+  /**
+   * Get meta for a type of item, copying applicable details if the meta does not suit the type.
+   *
+   * @param meta the existing meta
+   * @param type the {@link Material} of the item
+   * @return the meta for the type
+   */
+  ItemMeta asMetaFor(ItemMeta meta, Material type) {
+    boolean targetBook = type == Material.ENCHANTED_BOOK;
+    return book == targetBook ? meta : new HeadlessItemMeta(this, targetBook).createProxy();
+  }
+
+  /**
+   * Check whether meta has no details set.
+   *
+   * @return whether the meta is empty
+   */
+  boolean isEmpty() {
+    return displayName == null
+        && enchants.isEmpty()
+        && storedEnchants.isEmpty()
+        && damage == 0
+        && repairCost == 0;
+  }
+
+  private ItemMeta createProxy() {
+    Class<?> type = book ? BookMeta.class : Meta.class;
+    return (ItemMeta) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, this);
+  }
+
+  @Override
+  public @Nullable Object invoke(Object proxy, Method method, @Nullable Object @Nullable [] args)
+      throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      return switch (method.getName()) {
+        case "equals" -> Objects.requireNonNull(args)[0] instanceof ItemMeta other
+            && equals(of(other));
+        case "hashCode" -> hashCode();
+        default -> toString();
+      };
+    }
+
+    return switch (method.getName()) {
+      case "clone" -> new HeadlessItemMeta(this, book).createProxy();
+      case "hasDisplayName" -> displayName != null;
+      case "getDisplayName" -> displayName == null ? "" : displayName;
+      case "setDisplayName" -> {
+        String name = (String) Objects.requireNonNull(args)[0];
+        displayName = name == null || name.isEmpty() ? null : name;
+        yield null;
+      }
+      case "hasEnchants" -> !enchants.isEmpty();
+      case "hasEnchant" -> enchants.containsKey(arg(args));
+      case "getEnchantLevel" -> enchants.getOrDefault(arg(args), 0);
+      case "getEnchants" -> Collections.unmodifiableMap(new LinkedHashMap<>(enchants));
+      case "addEnchant" -> add(enchants, Objects.requireNonNull(args));
+      case "removeEnchant" -> enchants.remove(arg(args)) != null;
+      case "removeEnchantments" -> {
+        enchants.clear();
+        yield null;
+      }
+      case "hasConflictingEnchant" -> conflicts(enchants, arg(args));
+      case "hasStoredEnchants" -> !storedEnchants.isEmpty();
+      case "hasStoredEnchant" -> storedEnchants.containsKey(arg(args));
+      case "getStoredEnchantLevel" -> storedEnchants.getOrDefault(arg(args), 0);
+      case "getStoredEnchants" -> Collections.unmodifiableMap(new LinkedHashMap<>(storedEnchants));
+      case "addStoredEnchant" -> add(storedEnchants, Objects.requireNonNull(args));
+      case "removeStoredEnchant" -> storedEnchants.remove(arg(args)) != null;
+      case "hasConflictingStoredEnchant" -> conflicts(storedEnchants, arg(args));
+      case "hasDamage" -> damage > 0;
+      case "getDamage" -> damage;
+      case "setDamage" -> {
+        damage = (int) Objects.requireNonNull(args)[0];
+        yield null;
+      }
+      case "hasRepairCost" -> repairCost > 0;
+      case "getRepairCost" -> repairCost;
+      case "setRepairCost" -> {
+        repairCost = (int) Objects.requireNonNull(args)[0];
+        yield null;
+      }
+      default -> {
+        if (method.isDefault()) {
+          yield InvocationHandler.invokeDefault(proxy, method, args);
+        }
+        String name = method.getName();
+        if ((args == null || args.length == 0)
+            && method.getReturnType() == boolean.class
+            && (name.startsWith("has") || name.startsWith("is"))) {
+          // Components that are not modelled are never present.
+          yield false;
+        }
+        throw new UnsupportedOperationException("Headless item meta does not support " + name);
+      }
+    };
+  }
+
+  private static Enchantment arg(@Nullable Object @Nullable [] args) {
+    return (Enchantment) Objects.requireNonNull(Objects.requireNonNull(args)[0]);
+  }
+
+  private static boolean add(Map<Enchantment, Integer> enchantments, @Nullable Object[] args) {
+    Enchantment enchantment = arg(args);
+    int level = (int) Objects.requireNonNull(args[1]);
+    boolean ignoreLevelRestriction = (boolean) Objects.requireNonNull(args[2]);
+    if (!ignoreLevelRestriction
+        && (level < enchantment.getStartLevel() || level > enchantment.getMaxLevel())) {
+      return false;
+    }
+    Integer previous = enchantments.put(enchantment, level);
+    return previous == null || previous != level;
+  }
+
+  private static boolean conflicts(Map<Enchantment, Integer> enchantments, Enchantment other) {
+    for (Enchantment enchantment : enchantments.keySet()) {
+      if (!enchantment.equals(other) && enchantment.conflictsWith(other)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    return this == obj || obj instanceof HeadlessItemMeta other
+        && book == other.book
+        && damage == other.damage
+        && repairCost == other.repairCost
+        && Objects.equals(displayName, other.displayName)
+        && enchants.equals(other.enchants)
+        && storedEnchants.equals(other.storedEnchants);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(book, displayName, enchants, storedEnchants, damage, repairCost);
+  }
+
+  @Override
+  public String toString() {
+    return "HeadlessItemMeta{"
+        + "displayName=" + displayName
+        + ", enchants=" + enchants
+        + ", storedEnchants=" + storedEnchants
+        + ", damage=" + damage
+        + ", repairCost=" + repairCost
+        + '}';
+  }
+
+  /**
+   * The meta of most items. Damage and prior work apply to any item, as with a real server.
+   */
+  interface Meta extends Damageable, Repairable {
+
+    @Override
+    Meta clone();
+
+  }
+
+  /**
+   * The meta of an enchanted book.
+   */
+  interface BookMeta extends Meta, EnchantmentStorageMeta {
+
+    @Override
+    BookMeta clone();
+
+  }
+
+}
@@ -0,0 +1,306 @@
+package com.github.jikoo.planarenchanting.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.Server;
+import org.bukkit.Tag;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A minimal in-memory {@link Server} allowing the library's real {@link ItemStack} and
+ * {@link org.bukkit.inventory.meta.ItemMeta ItemMeta} code to run without a running server, i.e.
+ * for benchmarks, simulations, and replaying captured inputs.
+ *
+ * <p>The server provides registries, item tags, and an {@link ItemFactory}. The enchantment
+ * registry contains a {@link HeadlessEnchantment} for each pre-baked enchantment and each
+ * additional definition. Enchantments used in anvil operations must be defined; see
+ * {@link HeadlessEnchantment}. All other registries are empty. Item tags are only present if
+ * supplied. Item metadata is held in memory and only supports the details used by anvil
+ * operations; see {@link HeadlessItemMeta}. Any other method throws an
+ * {@link UnsupportedOperationException}.</p>
+ *
+ * <p>Only one server may exist in a JVM. A headless server cannot be installed alongside a real
+ * or mocked server.</p>
+ */
+@NullMarked
+public final class HeadlessServer {
+
+  private static final Function<Enchantment, EnchantData> UNKNOWN_DATA =
+      // Model unknown data off of Unbreaking, as MetaEnchantProvider does.
+      BakedEnchantData.create(5, 2, lvl -> 5 + 8 * (lvl - 1), lvl -> 55 + 8 * (lvl - 1));
+
+  /**
+   * Install a headless server without item tags.
+   *
+   * @param definitions the definitions of enchantments by key
+   * @throws IllegalStateException if a server is already installed
+   * @see #install(Map, Map)
+   */
+  public static void install(Map<NamespacedKey, HeadlessEnchantment.Definition> definitions) {
+    install(definitions, Map.of());
+  }
+
+  /**
+   * Install a headless server. Pre-baked enchantments without a definition are registered, but
+   * cannot be applied, combined, or checked for conflicts. Enchantments that are not pre-baked but
+   * are defined use the same costs as unknown enchantments on a real server.
+   *
+   * <p>Most repair materials are defined by item tags. Items repaired by tags that are not
+   * supplied are only repaired by combination.</p>
+   *
+   * @param definitions the definitions of enchantments by key
+   * @param itemTags the contents of item tags by key
+   * @throws IllegalStateException if a server is already installed
+   */
+  public static synchronized void install(
+      Map<NamespacedKey, HeadlessEnchantment.Definition> definitions,
+      Map<NamespacedKey, ? extends Collection<Material>> itemTags
+  ) {
+    if (Bukkit.getServer() != null) {
+      throw new IllegalStateException("A server is already installed");
+    }
+
+    EnchantmentRegistry enchantments = new EnchantmentRegistry(definitions);
+    Map<Class<?>, Registry<?>> registries = new ConcurrentHashMap<>();
+    registries.put(Enchantment.class, createRegistry(enchantments));
+    Map<NamespacedKey, Tag<Material>> tags = new HashMap<>();
+    itemTags.forEach((key, values) -> tags.put(key, createTag(key, values)));
+    ItemFactory itemFactory = createItemFactory();
+    Logger logger = Logger.getLogger(HeadlessServer.class.getName());
+
+    Server server = createProxy(Server.class, (proxy, method, args) -> switch (method.getName()) {
+      case "getRegistry" -> registries.computeIfAbsent(
+          (Class<?>) args[0],
+          ignored -> createRegistry(new EmptyRegistry()));
+      case "getTag" -> Tag.REGISTRY_ITEMS.equals(args[0]) && args[2] == Material.class
+          ? tags.get((NamespacedKey) args[1])
+          : null;
+      case "getItemFactory" -> itemFactory;
+      case "getLogger" -> logger;
+      case "getName" -> "Headless";
+      case "getVersion", "getBukkitVersion" -> "headless";
+      default -> unsupported(method);
+    });
+
+    Bukkit.setServer(server);
+  }
+
+  /**
+   * Get whether the installed server is a headless server.
+   *
+   * @return true if a headless server is installed
+   */
+  public static boolean isInstalled() {
+    Server server = Bukkit.getServer();
+    return server != null
+        && Proxy.isProxyClass(server.getClass())
+        && Proxy.getInvocationHandler(server) instanceof Handler;
+  }
+
+  private static Registry<?> createRegistry(RegistryContents<?> contents) {
+    return createProxy(Registry.class, (proxy, method, args) -> switch (method.getName()) {
+      case "get" -> args != null && args.length == 1 && args[0] instanceof NamespacedKey key
+          ? contents.get(key)
+          : unsupported(method);
+      case "getOrThrow" -> {
+        NamespacedKey key = (NamespacedKey) args[0];
+        Object value = contents.get(key);
+        if (value == null) {
+          throw new IllegalArgumentException("No registry entry for " + key);
+        }
+        yield value;
+      }
+      case "stream" -> contents.stream();
+      case "iterator" -> contents.stream().iterator();
+      default -> method.isDefault()
+          ? InvocationHandler.invokeDefault(proxy, method, args)
+          : unsupported(method);
+    });
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Tag<Material> createTag(NamespacedKey key, Collection<Material> values) {
+    Set<Material> materials = values.isEmpty()
+        ? Set.of()
+        : Collections.unmodifiableSet(EnumSet.copyOf(values));
+    return createProxy(Tag.class, (proxy, method, args) -> switch (method.getName()) {
+      case "getKey" -> key;
+      case "isTagged" -> materials.contains(args[0]);
+      case "getValues" -> materials;
+      default -> unsupported(method);
+    });
+  }
+
+  private static ItemFactory createItemFactory() {
+    return createProxy(ItemFactory.class, (proxy, method, args) -> switch (method.getName()) {
+      case "getItemMeta" -> HeadlessItemMeta.create((Material) args[0]);
+      case "isApplicable" -> {
+        HeadlessItemMeta meta = getMeta(args[0]);
+        yield meta == null || meta.isApplicable(getType(args[1]));
+      }
+      case "asMetaFor" -> {
+        HeadlessItemMeta meta = Objects.requireNonNull(getMeta(args[0]));
+        yield meta.asMetaFor((ItemMeta) args[0], getType(args[1]));
+      }
+      case "equals" -> {
+        // As on a real server, missing meta is equal to empty meta.
+        HeadlessItemMeta first = getMeta(args[0]);
+        HeadlessItemMeta second = getMeta(args[1]);
+        if (first == null || second == null) {
+          yield (first == null || first.isEmpty()) && (second == null || second.isEmpty());
+        }
+        yield first.equals(second);
+      }
+      case "updateMaterial" -> args[1];
+      default -> unsupported(method);
+    });
+  }
+
+  private static @Nullable HeadlessItemMeta getMeta(@Nullable Object meta) {
+    if (meta == null) {
+      return null;
+    }
+    HeadlessItemMeta headless = HeadlessItemMeta.of((ItemMeta) meta);
+    if (headless == null) {
+      throw new IllegalArgumentException("Meta " + meta + " was not created by a headless server");
+    }
+    return headless;
+  }
+
+  private static Material getType(@Nullable Object type) {
+    return type instanceof ItemStack itemStack ? itemStack.getType() : (Material) type;
+  }
+
+  private static <T> T createProxy(Class<T> type, Handler handler) {
+    Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    return type.cast(proxy);
+  }
+
+  private static Object unsupported(Method method) {
+    throw new UnsupportedOperationException(
+        "Headless server does not support " + method.getDeclaringClass().getSimpleName()
+            + '#' + method.getName());
+  }
+
+  private HeadlessServer() {
+    throw new IllegalStateException("Cannot instantiate static helper container.");
+  }
+
+  /**
+   * An {@link InvocationHandler} that also handles methods declared by {@link Object}.
+   */
+  @FunctionalInterface
+  private interface Handler extends InvocationHandler {
+
+    @Nullable Object handle(Object proxy, Method method, @Nullable Object @Nullable [] args)
+        throws Throwable;
+
+    @Override
+    default @Nullable Object invoke(Object proxy, Method method, @Nullable Object @Nullable [] args)
+        throws Throwable {
+      if (method.getDeclaringClass() == Object.class) {
+        return switch (method.getName()) {
+          case "equals" -> proxy == Objects.requireNonNull(args)[0];
+          case "hashCode" -> System.identityHashCode(proxy);
+          default -> "Headless" + proxy.getClass().getInterfaces()[0].getSimpleName();
+        };
+      }
+      return handle(proxy, method, args);
+    }
+
+  }
+
+  private interface RegistryContents<T> {
+
+    @Nullable T get(NamespacedKey key);
+
+    Stream<T> stream();
+
+  }
+
+  private static final class EmptyRegistry implements RegistryContents<Object> {
+
+    @Override
+    public @Nullable Object get(NamespacedKey key) {
+      return null;
+    }
+
+    @Override
+    public Stream<Object> stream() {
+      return Stream.empty();
+    }
+
+  }
+
+  private static final class EnchantmentRegistry implements RegistryContents<Enchantment> {
+
+    private final Set<NamespacedKey> keys;
+    private final Map<NamespacedKey, HeadlessEnchantment.Definition> definitions;
+    private final Map<NamespacedKey, Function<Enchantment, EnchantData>> data;
+    private final Map<NamespacedKey, Enchantment> enchantments = new ConcurrentHashMap<>();
+
+    private EnchantmentRegistry(Map<NamespacedKey, HeadlessEnchantment.Definition> definitions) {
+      this.data = new HashMap<>();
+      for (var entry : BakedEnchantData.get().entrySet()) {
+        if (entry.getKey() != null) {
+          data.put(entry.getKey(), entry.getValue());
+        }
+      }
+      // Pre-baked enchantments are always registered so that Enchantment constants resolve.
+      Set<NamespacedKey> all = new HashSet<>(data.keySet());
+      all.addAll(definitions.keySet());
+      this.keys = Collections.unmodifiableSet(all);
+      this.definitions = Map.copyOf(definitions);
+    }
+
+    @Override
+    public @Nullable Enchantment get(NamespacedKey key) {
+      Enchantment enchantment = enchantments.get(key);
+      if (enchantment != null) {
+        return enchantment;
+      }
+
+      if (!keys.contains(key)) {
+        return null;
+      }
+
+      // Enchantments are created lazily rather than with computeIfAbsent. Creating the first
+      // enchantment initializes Enchantment, which looks up its constants in this registry.
+      enchantment = new HeadlessEnchantment(
+          key,
+          definitions.get(key),
+          data.getOrDefault(key, UNKNOWN_DATA));
+      Enchantment existing = enchantments.putIfAbsent(key, enchantment);
+      return existing != null ? existing : enchantment;
+    }
+
+    @Override
+    public Stream<Enchantment> stream() {
+      return keys.stream().map(this::get).filter(Objects::nonNull);
+    }
+
+  }
+
+}
@@ -18,6 +18,11 @@ import org.jspecify.annotations.NullMarked;
 public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<ItemStack> {
 
   public static final AnvilFunction<ItemStack> PRIOR_WORK_LEVEL_COST = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<ItemStack> behavior,
@@ -38,10 +43,20 @@ public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<Ite
         public int getLevelCostIncrease() {
           return get(state.getBase(), REPAIR_COST) + get(state.getAddition(), REPAIR_COST);
         }
+
+        @Override
+        public boolean changesResult() {
+          return false;
+        }
       };
     }
   };
   public static final AnvilFunction<ItemStack> RENAME = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<ItemStack> behavior,
@@ -49,7 +64,7 @@ public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<Ite
         ItemStack result
     ) {
       Component data = state.getBase().getData(CUSTOM_NAME);
-      String anvilText = state.getAnvilView().getRenameText();
+      String anvilText = state.getRenameText();
 
       // If the names aren't the same, the rename can be applied.
       if (data == null) {
@@ -73,7 +88,7 @@ public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<Ite
 
         @Override
         public void modifyResult(ItemStack modified) {
-          String anvilText = state.getAnvilView().getRenameText();
+          String anvilText = state.getRenameText();
 
           if (anvilText == null || anvilText.isEmpty()) {
             modified.resetData(CUSTOM_NAME);
@@ -84,10 +99,21 @@ public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<Ite
           int priorCost = Math.max(get(state.getBase(), REPAIR_COST), get(state.getAddition(), REPAIR_COST));
           modified.setData(REPAIR_COST, priorCost);
         }
+
+        @Override
+        public boolean changesResult() {
+          // Name changes are ignored if there is an addition.
+          return state.getAddition().isEmpty();
+        }
       };
     }
   };
   public static final AnvilFunction<ItemStack> UPDATE_PRIOR_WORK_COST = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<ItemStack> behavior,
@@ -112,10 +138,20 @@ public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<Ite
           );
           modified.setData(REPAIR_COST, priorCost * 2 + 1);
         }
+
+        @Override
+        public boolean changesResult() {
+          return false;
+        }
       };
     }
   };
   public static final AnvilFunction<ItemStack> REPAIR_WITH_MATERIAL = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<ItemStack> behavior,
@@ -163,10 +199,20 @@ public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<Ite
         public void modifyResult(ItemStack modified) {
           modified.setData(DAMAGE, resultDamage);
         }
+
+        @Override
+        public boolean changesResult() {
+          return resultDamage != damage;
+        }
       };
     }
   };
   public static final AnvilFunction<ItemStack> REPAIR_WITH_COMBINATION = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<ItemStack> behavior,
@@ -222,9 +268,16 @@ public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<Ite
         public void modifyResult(ItemStack modified) {
           modified.setData(DAMAGE, resultDamage);
         }
+
+        @Override
+        public boolean changesResult() {
+          return resultDamage != damage;
+        }
       };
     }
   };
+  private static final CombineEnchants<ItemStack> COMBINE_JAVA;
+  private static final CombineEnchants<ItemStack> COMBINE_BEDROCK;
   public static final AnvilFunction<ItemStack> COMBINE_ENCHANTMENTS_JAVA;
   public static final AnvilFunction<ItemStack> COMBINE_ENCHANTMENTS_BEDROCK;
 
@@ -232,8 +285,10 @@ public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<Ite
 
   static {
     ComponentEnchantmentAccess access = new ComponentEnchantmentAccess();
-    COMBINE_ENCHANTMENTS_JAVA = new CombineEnchants<>(CombineEnchants.Platform.JAVA, access);
-    COMBINE_ENCHANTMENTS_BEDROCK = new CombineEnchants<>(CombineEnchants.Platform.BEDROCK, access);
+    COMBINE_JAVA = new CombineEnchants<>(CombineEnchants.Platform.JAVA, access);
+    COMBINE_BEDROCK = new CombineEnchants<>(CombineEnchants.Platform.BEDROCK, access);
+    COMBINE_ENCHANTMENTS_JAVA = COMBINE_JAVA;
+    COMBINE_ENCHANTMENTS_BEDROCK = COMBINE_BEDROCK;
   }
 
   private ComponentAnvilFunctions() {}
@@ -273,6 +328,28 @@ public final class ComponentAnvilFunctions implements AnvilFunctionsProvider<Ite
     return COMBINE_ENCHANTMENTS_BEDROCK;
   }
 
+  /**
+   * Get the shared {@link CombineEnchants} instance for a platform. Unlike
+   * {@link #COMBINE_ENCHANTMENTS_JAVA} and {@link #COMBINE_ENCHANTMENTS_BEDROCK}, this exposes
+   * the additional API of {@code CombineEnchants}, i.e. combining several sources at once.
+   *
+   * @param platform the platform whose costs are mimicked
+   * @return the {@code CombineEnchants} instance
+   */
+  public static CombineEnchants<ItemStack> getCombineEnchants(CombineEnchants.Platform platform) {
+    return platform == CombineEnchants.Platform.JAVA ? COMBINE_JAVA : COMBINE_BEDROCK;
+  }
+
+  /**
+   * Get the prior work cost of an item.
+   *
+   * @param itemStack the item
+   * @return the prior work cost
+   */
+  public static int getPriorWork(ItemStack itemStack) {
+    return get(itemStack, REPAIR_COST);
+  }
+
   private static int get(ItemStack itemStack, DataComponentType.Valued<Integer> type) {
     Integer data = itemStack.getData(type);
     return data != null ? data : 0;
@@ -0,0 +1,37 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import io.papermc.paper.datacomponent.item.Repairable;
+import io.papermc.paper.registry.RegistryKey;
+import io.papermc.paper.registry.TypedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.ItemType;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A {@link ComponentVanillaBehavior} reading every check directly from the server instead of
+ * shared caches and indexes. It is slower, but is a straightforward reference for verifying
+ * results.
+ */
+@NullMarked
+public class ComponentReferenceBehavior extends ComponentVanillaBehavior {
+
+  @Override
+  public boolean enchantApplies(Enchantment enchantment, ItemStack base) {
+    return enchantment.canEnchantItem(base);
+  }
+
+  @Override
+  public boolean itemRepairedBy(ItemStack repaired, ItemStack repairMat) {
+    Repairable repairable = repaired.getData(DataComponentTypes.REPAIRABLE);
+
+    if (repairable == null) {
+      return false;
+    }
+
+    TypedKey<ItemType> itemKey = TypedKey.create(RegistryKey.ITEM, repairMat.getType().getKey());
+    return repairable.types().contains(itemKey);
+  }
+
+}
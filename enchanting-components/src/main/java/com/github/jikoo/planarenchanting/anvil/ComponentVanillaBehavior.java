@@ -1,5 +1,8 @@
 package com.github.jikoo.planarenchanting.anvil;
 
+import com.github.jikoo.planarenchanting.util.ApplicabilityCache;
+import com.github.jikoo.planarenchanting.util.ComponentRepairIndex;
+import com.github.jikoo.planarenchanting.util.DataReloads;
 import io.papermc.paper.datacomponent.DataComponentTypes;
 import io.papermc.paper.datacomponent.item.Repairable;
 import io.papermc.paper.registry.RegistryKey;
@@ -9,6 +12,7 @@ import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ItemType;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 /**
  * Data component-based {@link AnvilBehavior}.
@@ -16,9 +20,31 @@ import org.jspecify.annotations.NullMarked;
 @NullMarked
 public class ComponentVanillaBehavior implements AnvilBehavior<ItemStack> {
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Vanilla conflicts only change when server data is reloaded. Subclasses may report
+   * conflicts differently, so they must declare their own version to have conflicts
+   * precomputed.</p>
+   */
+  @Override
+  public @Nullable Object getConflictVersion() {
+    return getClass() == ComponentVanillaBehavior.class ? DataReloads.getGeneration() : null;
+  }
+
   @Override
   public boolean enchantApplies(Enchantment enchantment, ItemStack base) {
-    return enchantment.canEnchantItem(base);
+    if (base.isDataOverridden(DataComponentTypes.ITEM_MODEL)
+        || base.isDataOverridden(DataComponentTypes.CUSTOM_MODEL_DATA)) {
+      // Custom items may be handled specially by other plugins.
+      return enchantment.canEnchantItem(base);
+    }
+
+    return ApplicabilityCache.VANILLA.applies(
+        enchantment,
+        base.getType(),
+        () -> enchantment.canEnchantItem(base)
+    );
   }
 
   @Override
@@ -28,6 +54,10 @@ public class ComponentVanillaBehavior implements AnvilBehavior<ItemStack> {
 
   @Override
   public boolean itemRepairedBy(ItemStack repaired, ItemStack repairMat) {
+    if (!repaired.isDataOverridden(DataComponentTypes.REPAIRABLE)) {
+      return ComponentRepairIndex.VANILLA.isRepairedBy(repaired, repairMat.getType());
+    }
+
     Repairable repairable = repaired.getData(DataComponentTypes.REPAIRABLE);
 
     if (repairable == null) {
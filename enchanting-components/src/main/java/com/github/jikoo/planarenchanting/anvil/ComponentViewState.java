@@ -3,16 +3,33 @@ package com.github.jikoo.planarenchanting.anvil;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.view.AnvilView;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A {@link ViewState} for raw item access.
  */
 @NullMarked
-public class ComponentViewState implements ViewState<ItemStack> {
+public class ComponentViewState implements ReusableViewState<ItemStack> {
 
-  private final AnvilView view;
-  private final ItemStack base;
-  private final ItemStack addition;
+  private @Nullable AnvilView view;
+  private ItemStack base;
+  private ItemStack addition;
+  private @Nullable AnvilInputs inputs;
+  private final boolean reusable;
+
+  /**
+   * Construct a new reusable {@code ComponentViewState} with no contents. The state must be
+   * {@link #reset(AnvilView) reset} before use.
+   *
+   * @see WorkPieceArena
+   */
+  public ComponentViewState() {
+    this.view = null;
+    this.base = ItemStack.empty();
+    this.addition = ItemStack.empty();
+    this.inputs = null;
+    this.reusable = true;
+  }
 
   public ComponentViewState(AnvilView view) {
     this.view = view;
@@ -20,13 +37,76 @@ public class ComponentViewState implements ViewState<ItemStack> {
     this.base = stack != null ? stack : ItemStack.empty();
     stack = view.getItem(1);
     this.addition = stack != null ? stack : ItemStack.empty();
+    this.inputs = null;
+    this.reusable = false;
+  }
+
+  /**
+   * Construct a new {@code ComponentViewState} operating on inputs that do not belong to an
+   * {@link AnvilView}. {@link #getAnvilView()} is unsupported.
+   *
+   * @param inputs the inputs
+   */
+  public ComponentViewState(AnvilInputs inputs) {
+    this(null, inputs);
+  }
+
+  /**
+   * Construct a new {@code ComponentViewState} operating on a snapshot of the view's inputs. The
+   * view itself is not accessed.
+   *
+   * @param view the {@link AnvilView} the inputs were captured from, if any
+   * @param inputs the captured inputs
+   */
+  public ComponentViewState(@Nullable AnvilView view, AnvilInputs inputs) {
+    this.view = view;
+    ItemStack stack = inputs.base();
+    this.base = stack != null ? stack : ItemStack.empty();
+    stack = inputs.addition();
+    this.addition = stack != null ? stack : ItemStack.empty();
+    this.inputs = inputs;
+    this.reusable = false;
+  }
+
+  @Override
+  public void reset(AnvilView view) {
+    if (!reusable) {
+      throw new IllegalStateException("State is not reusable");
+    }
+    this.view = view;
+    ItemStack stack = view.getItem(0);
+    this.base = stack != null ? stack : ItemStack.empty();
+    stack = view.getItem(1);
+    this.addition = stack != null ? stack : ItemStack.empty();
+    this.inputs = null;
+  }
+
+  @Override
+  public void clear() {
+    this.view = null;
+    this.base = ItemStack.empty();
+    this.addition = ItemStack.empty();
+    this.inputs = null;
   }
 
   @Override
   public AnvilView getAnvilView() {
+    if (view == null) {
+      throw new IllegalStateException("State was not created from an AnvilView");
+    }
     return view;
   }
 
+  @Override
+  public @Nullable String getRenameText() {
+    return inputs != null ? inputs.renameText() : getAnvilView().getRenameText();
+  }
+
+  @Override
+  public int getMaximumRepairCost() {
+    return inputs != null ? inputs.maximumRepairCost() : getAnvilView().getMaximumRepairCost();
+  }
+
   @Override
   public ItemStack getBase() {
     return base;
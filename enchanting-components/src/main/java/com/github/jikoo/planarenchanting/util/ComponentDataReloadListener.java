@@ -0,0 +1,20 @@
+package com.github.jikoo.planarenchanting.util;
+
+import io.papermc.paper.event.server.ServerResourcesReloadedEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A {@link DataReloadListener} also running {@link DataReloads} hooks when Paper reloads server
+ * resources, i.e. via the {@code /minecraft:reload} command.
+ */
+@NullMarked
+public class ComponentDataReloadListener extends DataReloadListener {
+
+  @EventHandler(priority = EventPriority.LOWEST)
+  public void onResourcesReloaded(ServerResourcesReloadedEvent event) {
+    DataReloads.reloaded();
+  }
+
+}
@@ -0,0 +1,80 @@
+package com.github.jikoo.planarenchanting.util;
+
+import io.papermc.paper.datacomponent.DataComponentType;
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import io.papermc.paper.datacomponent.item.Enchantable;
+import io.papermc.paper.datacomponent.item.ItemEnchantments;
+import java.util.List;
+import java.util.Objects;
+import org.bukkit.inventory.ItemStack;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * An {@link ItemFingerprinter} for {@link DataComponentType DataComponent}-based items.
+ *
+ * <p>Only components relevant to enchanting are hashed, and only if they are patched on the item.
+ * Unpatched components are determined by the item's type, which is always hashed.</p>
+ */
+@NullMarked
+public final class ComponentFingerprinter implements ItemFingerprinter {
+
+  public static final ComponentFingerprinter INSTANCE = new ComponentFingerprinter();
+
+  private final List<DataComponentType.Valued<?>> components = List.of(
+      DataComponentTypes.ENCHANTMENTS,
+      DataComponentTypes.STORED_ENCHANTMENTS,
+      DataComponentTypes.DAMAGE,
+      DataComponentTypes.MAX_DAMAGE,
+      DataComponentTypes.REPAIR_COST,
+      DataComponentTypes.CUSTOM_NAME,
+      DataComponentTypes.REPAIRABLE,
+      DataComponentTypes.ENCHANTABLE
+  );
+
+  @Override
+  public long fingerprint(ItemStack itemStack) {
+    FingerprintHasher hasher = new FingerprintHasher().putKey(itemStack.getType());
+
+    for (int i = 0; i < components.size(); ++i) {
+      DataComponentType.Valued<?> type = components.get(i);
+      if (!itemStack.isDataOverridden(type)) {
+        continue;
+      }
+
+      hasher.putInt(i);
+      Object data = itemStack.getData(type);
+      if (data instanceof ItemEnchantments enchantments) {
+        hasher.putEnchantments(enchantments.enchantments());
+      } else if (data instanceof Integer value) {
+        hasher.putInt(value);
+      } else if (data instanceof Enchantable enchantable) {
+        hasher.putInt(enchantable.value());
+      } else {
+        // Removed components have no data. Other data (names, repair item sets) are immutable
+        // values with structural hash codes.
+        hasher.putBoolean(data != null).putInt(Objects.hashCode(data));
+      }
+    }
+
+    return hasher.hash();
+  }
+
+  @Override
+  public boolean isEquivalent(ItemStack first, ItemStack second) {
+    if (first.getType() != second.getType()) {
+      return false;
+    }
+
+    for (DataComponentType.Valued<?> type : components) {
+      if (first.isDataOverridden(type) != second.isDataOverridden(type)
+          || !Objects.equals(first.getData(type), second.getData(type))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private ComponentFingerprinter() {}
+
+}
@@ -0,0 +1,96 @@
+package com.github.jikoo.planarenchanting.util;
+
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import io.papermc.paper.datacomponent.item.Repairable;
+import io.papermc.paper.registry.TypedKey;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.ItemType;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An index of the materials repairing each item type by default.
+ *
+ * <p>The default {@link DataComponentTypes#REPAIRABLE REPAIRABLE} set of an item type is converted
+ * to a bitset over {@link Material} ordinals the first time an item of the type is checked. Items
+ * overriding their {@code REPAIRABLE} component are not handled by the index.</p>
+ *
+ * <p>Default components and tags may change when datapacks are reloaded, so the index must be
+ * invalidated via {@link #invalidate()} when that happens. The {@link #VANILLA} index is
+ * invalidated by {@link DataReloads}.</p>
+ */
+@NullMarked
+public final class ComponentRepairIndex {
+
+  private static final Material[] MATERIALS = Material.values();
+  private static final long[] NOT_REPAIRABLE = new long[0];
+  private static final Map<String, Integer> ORDINALS_BY_KEY = new HashMap<>();
+
+  static {
+    for (Material material : MATERIALS) {
+      if (!material.name().startsWith("LEGACY_")) {
+        ORDINALS_BY_KEY.put(material.getKey().asString(), material.ordinal());
+      }
+    }
+  }
+
+  /** The index shared by vanilla behaviors. */
+  public static final ComponentRepairIndex VANILLA = new ComponentRepairIndex();
+
+  static {
+    DataReloads.register(VANILLA::invalidate);
+  }
+
+  private volatile AtomicReferenceArray<long[]> repairMaterials =
+      new AtomicReferenceArray<>(MATERIALS.length);
+
+  /**
+   * Get whether an item is repaired by a material according to the item type's default
+   * {@link DataComponentTypes#REPAIRABLE REPAIRABLE} component.
+   *
+   * @param repaired the item repaired, which must not override its {@code REPAIRABLE} component
+   * @param repairMat the type of the item used to repair
+   * @return whether the item is repaired by the material
+   */
+  public boolean isRepairedBy(ItemStack repaired, Material repairMat) {
+    AtomicReferenceArray<long[]> local = repairMaterials;
+    int type = repaired.getType().ordinal();
+    long[] materials = local.get(type);
+
+    if (materials == null) {
+      materials = index(repaired.getData(DataComponentTypes.REPAIRABLE));
+      local.set(type, materials);
+    }
+
+    int ordinal = repairMat.ordinal();
+    int word = ordinal >>> 6;
+    return word < materials.length && (materials[word] & (1L << ordinal)) != 0;
+  }
+
+  /**
+   * Discard all indexed item types.
+   */
+  public void invalidate() {
+    repairMaterials = new AtomicReferenceArray<>(MATERIALS.length);
+  }
+
+  private static long[] index(@Nullable Repairable repairable) {
+    if (repairable == null) {
+      return NOT_REPAIRABLE;
+    }
+
+    long[] materials = new long[(MATERIALS.length + 63) >>> 6];
+    for (TypedKey<ItemType> key : repairable.types().values()) {
+      Integer ordinal = ORDINALS_BY_KEY.get(key.asString());
+      if (ordinal != null) {
+        materials[ordinal >>> 6] |= 1L << ordinal;
+      }
+    }
+    return materials;
+  }
+
+}
@@ -20,7 +20,6 @@ import java.util.stream.Stream;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.view.AnvilView;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -116,9 +115,7 @@ class ComponentAnvilFunctionsTest {
       ViewState<ItemStack> state = mock();
       ItemStack resultStack = mock();
 
-      AnvilView view = mock();
-      doReturn(anvilName).when(view).getRenameText();
-      doReturn(view).when(state).getAnvilView();
+      doReturn(anvilName).when(state).getRenameText();
 
       ItemStack stack = mock();
       doReturn(baseName).when(stack).getData(DataComponentTypes.CUSTOM_NAME);
@@ -134,9 +131,7 @@ class ComponentAnvilFunctionsTest {
       ViewState<ItemStack> state = mock();
       ItemStack resultStack = mock();
 
-      AnvilView view = mock();
-      doReturn(anvilText).when(view).getRenameText();
-      doReturn(view).when(state).getAnvilView();
+      doReturn(anvilText).when(state).getRenameText();
 
       ItemStack stack = mock();
       doReturn(stack).when(state).getBase();
@@ -164,9 +159,7 @@ class ComponentAnvilFunctionsTest {
       doReturn(stack).when(state).getBase();
       doReturn(stack).when(state).getAddition();
 
-      AnvilView view = mock();
-      doReturn("sample text").when(view).getRenameText();
-      doReturn(view).when(state).getAnvilView();
+      doReturn("sample text").when(state).getRenameText();
 
       AnvilFunctionResult<ItemStack> result = function.getResult(behavior, state, resultStack);
 
@@ -577,6 +570,16 @@ class ComponentAnvilFunctionsTest {
         functions.combineEnchantsBedrock(),
         is(sameInstance(ComponentAnvilFunctions.COMBINE_ENCHANTMENTS_BEDROCK))
     );
+    assertThat(
+        "Typed combiner is the provided function",
+        ComponentAnvilFunctions.getCombineEnchants(CombineEnchants.Platform.JAVA),
+        is(sameInstance(functions.combineEnchantsJava()))
+    );
+    assertThat(
+        "Typed combiner is the provided function",
+        ComponentAnvilFunctions.getCombineEnchants(CombineEnchants.Platform.BEDROCK),
+        is(sameInstance(functions.combineEnchantsBedrock()))
+    );
   }
 
 }
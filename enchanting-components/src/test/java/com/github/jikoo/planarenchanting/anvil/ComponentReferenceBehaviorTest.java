@@ -0,0 +1,84 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.github.jikoo.planarenchanting.util.mock.ServerMocks;
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import io.papermc.paper.datacomponent.item.Repairable;
+import io.papermc.paper.registry.set.RegistryKeySet;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.ItemType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ComponentReferenceBehaviorTest {
+
+  private ComponentReferenceBehavior behavior;
+
+  @BeforeAll
+  void setUp() {
+    ServerMocks.mockServer();
+    // Touch to initialize and ensure mocking is complete.
+    DataComponentTypes.REPAIR_COST.key();
+  }
+
+  @BeforeEach
+  void setUpEach() {
+    behavior = new ComponentReferenceBehavior();
+  }
+
+  @Test
+  void enchantAppliesNotCached() {
+    Enchantment enchantment = mock();
+    doReturn(true).when(enchantment).canEnchantItem(any());
+    ItemStack base = mock();
+    doReturn(Material.DIAMOND_SWORD).when(base).getType();
+
+    behavior.enchantApplies(enchantment, base);
+    assertThat("Enchantment applies", behavior.enchantApplies(enchantment, base), is(true));
+    verify(enchantment, times(2)).canEnchantItem(base);
+  }
+
+  @Test
+  void itemRepairedByNotIndexed() {
+    RegistryKeySet<ItemType> types = mock();
+    doReturn(true).when(types).contains(any());
+    Repairable repairable = mock();
+    doReturn(types).when(repairable).types();
+    ItemStack base = mock();
+    doReturn(Material.DIAMOND_PICKAXE).when(base).getType();
+    doReturn(repairable).when(base).getData(DataComponentTypes.REPAIRABLE);
+    ItemStack addition = mock();
+    doReturn(Material.DIAMOND).when(addition).getType();
+
+    behavior.itemRepairedBy(base, addition);
+    assertThat("Item is repaired by material", behavior.itemRepairedBy(base, addition), is(true));
+    verify(base, times(2)).getData(DataComponentTypes.REPAIRABLE);
+  }
+
+  @Test
+  void itemRepairedByNotRepairable() {
+    ItemStack base = mock();
+    doReturn(Material.DIAMOND_PICKAXE).when(base).getType();
+    ItemStack addition = mock();
+    doReturn(Material.DIAMOND).when(addition).getType();
+
+    assertThat(
+        "Item without Repairable is not repairable",
+        behavior.itemRepairedBy(base, addition),
+        is(false)
+    );
+  }
+
+}
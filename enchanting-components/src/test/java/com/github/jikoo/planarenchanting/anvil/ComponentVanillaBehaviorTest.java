@@ -5,13 +5,19 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import com.github.jikoo.planarenchanting.util.ComponentRepairIndex;
 import com.github.jikoo.planarenchanting.util.mock.ServerMocks;
 import io.papermc.paper.datacomponent.DataComponentTypes;
 import io.papermc.paper.datacomponent.item.Repairable;
+import io.papermc.paper.registry.RegistryKey;
+import io.papermc.paper.registry.TypedKey;
 import io.papermc.paper.registry.set.RegistryKeySet;
+import java.util.List;
 import org.bukkit.Material;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemStack;
@@ -39,6 +45,7 @@ class ComponentVanillaBehaviorTest {
   @BeforeEach
   void setUpEach() {
     behavior = new ComponentVanillaBehavior();
+    ComponentRepairIndex.VANILLA.invalidate();
   }
 
   @ParameterizedTest
@@ -48,13 +55,49 @@ class ComponentVanillaBehaviorTest {
     doReturn(applies).when(enchantment).canEnchantItem(any());
     assertThat(
         "Behavior applies if enchant applies",
-        behavior.enchantApplies(enchantment, mock()),
+        behavior.enchantApplies(enchantment, mockStack(Material.DIAMOND_SWORD)),
         is(applies)
     );
     verify(enchantment).canEnchantItem(any());
     verifyNoMoreInteractions(enchantment);
   }
 
+  @Test
+  void enchantAppliesCachedByType() {
+    Enchantment enchantment = mock();
+    doReturn(true).when(enchantment).canEnchantItem(any());
+
+    behavior.enchantApplies(enchantment, mockStack(Material.DIAMOND_SWORD));
+    assertThat(
+        "Cached result is used for same type",
+        behavior.enchantApplies(enchantment, mockStack(Material.DIAMOND_SWORD)),
+        is(true)
+    );
+    verify(enchantment, times(1)).canEnchantItem(any());
+
+    behavior.enchantApplies(enchantment, mockStack(Material.DIAMOND_AXE));
+    verify(enchantment, times(2)).canEnchantItem(any());
+  }
+
+  @Test
+  void enchantAppliesCustomItem() {
+    Enchantment enchantment = mock();
+    doReturn(true).when(enchantment).canEnchantItem(any());
+    ItemStack base = mockStack(Material.DIAMOND_SWORD);
+    doReturn(true).when(base).isDataOverridden(DataComponentTypes.CUSTOM_MODEL_DATA);
+
+    behavior.enchantApplies(enchantment, base);
+    behavior.enchantApplies(enchantment, base);
+
+    verify(enchantment, times(2)).canEnchantItem(any());
+  }
+
+  private static ItemStack mockStack(Material type) {
+    ItemStack itemStack = mock();
+    doReturn(type).when(itemStack).getType();
+    return itemStack;
+  }
+
   @ParameterizedTest
   @CsvSource({
       "DIAMOND,DIAMOND,true",
@@ -79,6 +122,7 @@ class ComponentVanillaBehaviorTest {
   @Test
   void itemRepairedByNotRepairable() {
     ItemStack base = mock();
+    doReturn(true).when(base).isDataOverridden(DataComponentTypes.REPAIRABLE);
     ItemStack addition = mock();
 
     assertThat(
@@ -96,6 +140,7 @@ class ComponentVanillaBehaviorTest {
     Repairable repairable = mock();
     doReturn(types).when(repairable).types();
     ItemStack base = mock();
+    doReturn(true).when(base).isDataOverridden(DataComponentTypes.REPAIRABLE);
     doReturn(repairable).when(base).getData(DataComponentTypes.REPAIRABLE);
     ItemStack addition = mock();
     doReturn(Material.DIRT).when(addition).getType();
@@ -107,4 +152,39 @@ class ComponentVanillaBehaviorTest {
     );
   }
 
+  @Test
+  void itemRepairedByIndexed() {
+    RegistryKeySet<ItemType> types = mock();
+    TypedKey<ItemType> diamond = TypedKey.create(RegistryKey.ITEM, Material.DIAMOND.getKey());
+    doReturn(List.of(diamond)).when(types).values();
+    Repairable repairable = mock();
+    doReturn(types).when(repairable).types();
+    ItemStack base = mock();
+    doReturn(Material.DIAMOND_PICKAXE).when(base).getType();
+    doReturn(repairable).when(base).getData(DataComponentTypes.REPAIRABLE);
+    ItemStack addition = mock();
+    doReturn(Material.DIAMOND).when(addition).getType();
+    ItemStack other = mock();
+    doReturn(Material.DIRT).when(other).getType();
+
+    assertThat("Item is repaired by material", behavior.itemRepairedBy(base, addition), is(true));
+    assertThat("Item is not repaired by other", behavior.itemRepairedBy(base, other), is(false));
+    verify(base, times(1)).getData(DataComponentTypes.REPAIRABLE);
+    verify(types, never()).contains(any());
+  }
+
+  @Test
+  void itemRepairedByIndexedNotRepairable() {
+    ItemStack base = mock();
+    doReturn(Material.DIAMOND_PICKAXE).when(base).getType();
+    ItemStack addition = mock();
+    doReturn(Material.DIAMOND).when(addition).getType();
+
+    assertThat(
+        "Item type without Repairable is not repairable",
+        behavior.itemRepairedBy(base, addition),
+        is(false)
+    );
+  }
+
 }
@@ -5,10 +5,12 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.view.AnvilView;
@@ -102,4 +104,29 @@ class ComponentViewStateTest {
     assertThat("Result is not base", state.createResult(), is(not(sameInstance(stack))));
   }
 
+  @Test
+  void getInputs() {
+    AnvilView view = mock();
+    ItemStack base = mock();
+    ItemStack addition = mock();
+    AnvilInputs inputs = new AnvilInputs(base, addition, "name", 40);
+
+    ComponentViewState state = new ComponentViewState(view, inputs);
+
+    assertThat("Base is captured value", state.getBase(), is(base));
+    assertThat("Addition is captured value", state.getAddition(), is(addition));
+    assertThat("Rename text is captured value", state.getRenameText(), is("name"));
+    assertThat("Maximum cost is captured value", state.getMaximumRepairCost(), is(40));
+    verifyNoInteractions(view);
+  }
+
+  @Test
+  void getAnvilViewDetached() {
+    ComponentViewState state = new ComponentViewState(new AnvilInputs(null, null, "name", 40));
+
+    assertThrows(IllegalStateException.class, state::getAnvilView);
+    assertThat("Rename text is available", state.getRenameText(), is("name"));
+    assertThat("Base is empty", state.getBase().isEmpty(), is(true));
+  }
+
 }
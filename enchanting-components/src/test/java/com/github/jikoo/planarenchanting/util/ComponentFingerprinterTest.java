@@ -0,0 +1,104 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import com.github.jikoo.planarenchanting.util.mock.ServerMocks;
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ComponentFingerprinterTest {
+
+  @BeforeAll
+  void setUp() {
+    // DataComponentTypes are fetched from the server registry.
+    ServerMocks.mockServer();
+    // Touch to initialize.
+    DataComponentTypes.DAMAGE.key();
+  }
+
+  private static ItemStack mockItem(Material type) {
+    ItemStack itemStack = mock();
+    doReturn(type).when(itemStack).getType();
+    return itemStack;
+  }
+
+  private static ItemStack mockDamaged(int damage) {
+    ItemStack itemStack = mockItem(Material.DIAMOND_SWORD);
+    doReturn(true).when(itemStack).isDataOverridden(DataComponentTypes.DAMAGE);
+    doReturn(damage).when(itemStack).getData(DataComponentTypes.DAMAGE);
+    return itemStack;
+  }
+
+  @Test
+  void fingerprintSame() {
+    ItemStack first = mockDamaged(1);
+    ItemStack second = mockDamaged(1);
+
+    assertThat(
+        "Same components yield same fingerprint",
+        ComponentFingerprinter.INSTANCE.fingerprint(first),
+        is(ComponentFingerprinter.INSTANCE.fingerprint(second))
+    );
+    assertThat(
+        "Same components are equivalent",
+        ComponentFingerprinter.INSTANCE.isEquivalent(first, second),
+        is(true)
+    );
+  }
+
+  @Test
+  void fingerprintType() {
+    ItemStack first = mockItem(Material.DIAMOND_SWORD);
+    ItemStack second = mockItem(Material.IRON_SWORD);
+
+    assertThat(
+        "Type affects fingerprint",
+        ComponentFingerprinter.INSTANCE.fingerprint(first),
+        is(not(ComponentFingerprinter.INSTANCE.fingerprint(second)))
+    );
+    assertThat(
+        "Different types are not equivalent",
+        ComponentFingerprinter.INSTANCE.isEquivalent(first, second),
+        is(false)
+    );
+  }
+
+  @Test
+  void fingerprintPatched() {
+    ItemStack first = mockDamaged(1);
+    ItemStack second = mockDamaged(2);
+
+    assertThat(
+        "Patched component affects fingerprint",
+        ComponentFingerprinter.INSTANCE.fingerprint(first),
+        is(not(ComponentFingerprinter.INSTANCE.fingerprint(second)))
+    );
+    assertThat(
+        "Different patched components are not equivalent",
+        ComponentFingerprinter.INSTANCE.isEquivalent(first, second),
+        is(false)
+    );
+  }
+
+  @Test
+  void fingerprintUnpatched() {
+    ItemStack first = mockItem(Material.DIAMOND_SWORD);
+    ItemStack second = mockDamaged(0);
+
+    assertThat(
+        "Patch presence affects fingerprint",
+        ComponentFingerprinter.INSTANCE.fingerprint(first),
+        is(not(ComponentFingerprinter.INSTANCE.fingerprint(second)))
+    );
+  }
+
+}
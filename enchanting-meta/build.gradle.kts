@@ -9,4 +9,5 @@ dependencies {
   }
 
   testImplementation(libs.org.spigotmc.spigot.api)
+  testImplementation(testFixtures(project(":enchanting-common")))
 }
@@ -14,6 +14,11 @@ import org.jspecify.annotations.Nullable;
 public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCachedStack> {
 
   public static final AnvilFunction<MetaCachedStack> PRIOR_WORK_LEVEL_COST = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<MetaCachedStack> behavior,
@@ -35,10 +40,20 @@ public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCach
           return getRepairCost(state.getBase().getMeta())
               + getRepairCost(state.getAddition().getMeta());
         }
+
+        @Override
+        public boolean changesResult() {
+          return false;
+        }
       };
     }
   };
   public static final AnvilFunction<MetaCachedStack> RENAME = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<MetaCachedStack> behavior,
@@ -53,7 +68,7 @@ public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCach
 
       // If names are not the same, can be applied.
       String customName = itemMeta.hasDisplayName() ? itemMeta.getDisplayName() : null;
-      String anvilText = state.getAnvilView().getRenameText();
+      String anvilText = state.getRenameText();
       if (customName == null) {
         return anvilText != null && !anvilText.isEmpty();
       }
@@ -80,7 +95,7 @@ public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCach
             return;
           }
 
-          String name = state.getAnvilView().getRenameText();
+          String name = state.getRenameText();
           if (name != null && name.isEmpty()) {
             name = null;
           }
@@ -93,10 +108,21 @@ public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCach
             repairable.setRepairCost(repairCost);
           }
         }
+
+        @Override
+        public boolean changesResult() {
+          // Name changes are ignored if there is an addition.
+          return state.getAddition().getItem().getType() == Material.AIR;
+        }
       };
     }
   };
   public static final AnvilFunction<MetaCachedStack> UPDATE_PRIOR_WORK_COST = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<MetaCachedStack> behavior,
@@ -123,10 +149,20 @@ public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCach
             repairable.setRepairCost(priorRepairCost * 2 + 1);
           }
         }
+
+        @Override
+        public boolean changesResult() {
+          return false;
+        }
       };
     }
   };
   public static final AnvilFunction<MetaCachedStack> REPAIR_WITH_MATERIAL = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<MetaCachedStack> behavior,
@@ -181,10 +217,20 @@ public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCach
             damageable.setDamage(resultDamage);
           }
         }
+
+        @Override
+        public boolean changesResult() {
+          return resultDamage != missingDurability;
+        }
       };
     }
   };
   public static final AnvilFunction<MetaCachedStack> REPAIR_WITH_COMBINATION = new AnvilFunction<>() {
+    @Override
+    public boolean ignoresResult() {
+      return true;
+    }
+
     @Override
     public boolean canApply(
         AnvilBehavior<MetaCachedStack> behavior,
@@ -237,9 +283,16 @@ public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCach
             damageable.setDamage(resultDamage);
           }
         }
+
+        @Override
+        public boolean changesResult() {
+          return resultDamage != missingDurability;
+        }
       };
     }
   };
+  private static final CombineEnchants<MetaCachedStack> COMBINE_JAVA;
+  private static final CombineEnchants<MetaCachedStack> COMBINE_BEDROCK;
   public static final AnvilFunction<MetaCachedStack> COMBINE_ENCHANTMENTS_JAVA;
   public static final AnvilFunction<MetaCachedStack> COMBINE_ENCHANTMENTS_BEDROCK;
 
@@ -247,8 +300,10 @@ public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCach
 
   static {
     MetaEnchantmentAccess access = new MetaEnchantmentAccess();
-    COMBINE_ENCHANTMENTS_JAVA = new CombineEnchants<>(CombineEnchants.Platform.JAVA, access);
-    COMBINE_ENCHANTMENTS_BEDROCK = new CombineEnchants<>(CombineEnchants.Platform.BEDROCK, access);
+    COMBINE_JAVA = new CombineEnchants<>(CombineEnchants.Platform.JAVA, access);
+    COMBINE_BEDROCK = new CombineEnchants<>(CombineEnchants.Platform.BEDROCK, access);
+    COMBINE_ENCHANTMENTS_JAVA = COMBINE_JAVA;
+    COMBINE_ENCHANTMENTS_BEDROCK = COMBINE_BEDROCK;
   }
 
   private MetaAnvilFunctions() {}
@@ -288,6 +343,28 @@ public final class MetaAnvilFunctions implements AnvilFunctionsProvider<MetaCach
     return COMBINE_ENCHANTMENTS_BEDROCK;
   }
 
+  /**
+   * Get the shared {@link CombineEnchants} instance for a platform. Unlike
+   * {@link #COMBINE_ENCHANTMENTS_JAVA} and {@link #COMBINE_ENCHANTMENTS_BEDROCK}, this exposes
+   * the additional API of {@code CombineEnchants}, i.e. combining several sources at once.
+   *
+   * @param platform the platform whose costs are mimicked
+   * @return the {@code CombineEnchants} instance
+   */
+  public static CombineEnchants<MetaCachedStack> getCombineEnchants(CombineEnchants.Platform platform) {
+    return platform == CombineEnchants.Platform.JAVA ? COMBINE_JAVA : COMBINE_BEDROCK;
+  }
+
+  /**
+   * Get the prior work cost of an item.
+   *
+   * @param metaCachedStack the item
+   * @return the prior work cost
+   */
+  public static int getPriorWork(MetaCachedStack metaCachedStack) {
+    return getRepairCost(metaCachedStack.getMeta());
+  }
+
   private static int getRepairCost(@Nullable ItemMeta itemMeta) {
     if (itemMeta instanceof Repairable repairable) {
       return repairable.getRepairCost();
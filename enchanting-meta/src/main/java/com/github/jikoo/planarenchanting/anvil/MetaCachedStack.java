@@ -14,8 +14,10 @@ import org.jetbrains.annotations.Nullable;
  */
 public class MetaCachedStack {
 
-  private final @NotNull ItemStack itemStack;
-  private final @NotNull CachedValue<@Nullable ItemMeta> metaCache;
+  private @NotNull ItemStack itemStack;
+  // The supplier reads the current item so that the cache can be reused across resets.
+  private final @NotNull CachedValue<@Nullable ItemMeta> metaCache =
+      new CachedValue<>(() -> this.itemStack.getItemMeta());
 
   /**
    * Wrap an {@link ItemStack}. If null, the constant {@link ItemUtil#AIR} will be used instead.
@@ -23,8 +25,18 @@ public class MetaCachedStack {
    * @param item the item to wrap
    */
   public MetaCachedStack(@Nullable ItemStack item) {
+    reset(item);
+  }
+
+  /**
+   * Wrap a different {@link ItemStack}, discarding the cached meta. This allows a wrapper to be
+   * reused by a {@link ReusableViewState}.
+   *
+   * @param item the item to wrap
+   */
+  void reset(@Nullable ItemStack item) {
     this.itemStack = item == null ? ItemUtil.AIR : item;
-    this.metaCache = new CachedValue<>(this.itemStack::getItemMeta);
+    this.metaCache.invalidate();
   }
 
   /**
@@ -0,0 +1,19 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import org.bukkit.enchantments.Enchantment;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A {@link MetaVanillaBehavior} checking enchantment applicability directly instead of using the
+ * shared {@link com.github.jikoo.planarenchanting.util.ApplicabilityCache ApplicabilityCache}. It
+ * is slower, but is a straightforward reference for verifying results.
+ */
+@NullMarked
+public class MetaReferenceBehavior extends MetaVanillaBehavior {
+
+  @Override
+  public boolean enchantApplies(Enchantment enchantment, MetaCachedStack base) {
+    return enchantment.canEnchantItem(base.getItem());
+  }
+
+}
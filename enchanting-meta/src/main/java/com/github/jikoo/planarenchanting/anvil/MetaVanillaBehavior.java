@@ -1,10 +1,8 @@
 package com.github.jikoo.planarenchanting.anvil;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.Predicate;
+import com.github.jikoo.planarenchanting.util.ApplicabilityCache;
+import com.github.jikoo.planarenchanting.util.DataReloads;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
@@ -12,18 +10,46 @@ import org.bukkit.Registry;
 import org.bukkit.Tag;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemType;
+import org.bukkit.inventory.meta.ItemMeta;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 /**
  * {@link org.bukkit.inventory.meta.ItemMeta}-based {@link AnvilBehavior}.
  * Uses pre-baked data to cover missing API.
+ *
+ * <p>Repair checks are indexed by {@link Material} ordinal. Baked repair material lists are
+ * compiled into bitsets when the class is loaded. Repair tags are compiled into bitsets the first
+ * time an item of a type they repair is checked, and are recompiled after {@link DataReloads}.</p>
  */
 @NullMarked
 public class MetaVanillaBehavior implements AnvilBehavior<MetaCachedStack> {
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Vanilla conflicts only change when server data is reloaded. Subclasses may report
+   * conflicts differently, so they must declare their own version to have conflicts
+   * precomputed.</p>
+   */
+  @Override
+  public @Nullable Object getConflictVersion() {
+    return getClass() == MetaVanillaBehavior.class ? DataReloads.getGeneration() : null;
+  }
+
   @Override
   public boolean enchantApplies(Enchantment enchantment, MetaCachedStack base) {
-    return enchantment.canEnchantItem(base.getItem());
+    ItemMeta itemMeta = base.getMeta();
+    if (itemMeta != null && itemMeta.hasCustomModelData()) {
+      // Custom items may be handled specially by other plugins.
+      return enchantment.canEnchantItem(base.getItem());
+    }
+
+    return ApplicabilityCache.VANILLA.applies(
+        enchantment,
+        base.getItem().getType(),
+        () -> enchantment.canEnchantItem(base.getItem())
+    );
   }
 
   @Override
@@ -34,55 +60,87 @@ public class MetaVanillaBehavior implements AnvilBehavior<MetaCachedStack> {
 
   @Override
   public boolean itemRepairedBy(MetaCachedStack repaired, MetaCachedStack repairMat) {
-    Predicate<Material> predicate = MATERIALS_TO_REPAIRABLE.get(repaired.getItem().getType());
-    return predicate != null && predicate.test(repairMat.getItem().getType());
+    int type = repaired.getItem().getType().ordinal();
+    long[] materials = LISTED[type];
+    if (materials == null) {
+      materials = getTagged(type);
+    }
+
+    int ordinal = repairMat.getItem().getType().ordinal();
+    int word = ordinal >>> 6;
+    return word < materials.length && (materials[word] & (1L << ordinal)) != 0;
   }
 
-  private static final Map<Material, Predicate<Material>> MATERIALS_TO_REPAIRABLE = new HashMap<>();
+  private static final int WORDS = (Material.values().length + 63) >>> 6;
+  private static final long[] NOT_REPAIRABLE = new long[0];
+  /** Repair materials defined by lists, indexed by repaired material ordinal. */
+  private static final long[][] LISTED = new long[Material.values().length][];
+  /** Tags defining repair materials, indexed by repaired material ordinal. */
+  private static final @Nullable NamespacedKey[] TAGS = new NamespacedKey[Material.values().length];
+  /**
+   * Repair materials defined by tags, indexed by repaired material ordinal. Tag contents change
+   * when datapacks are reloaded, so they are compiled on first use and discarded by
+   * {@link DataReloads}.
+   */
+  private static volatile AtomicReferenceArray<long[]> tagged =
+      new AtomicReferenceArray<>(Material.values().length);
 
   static {
     loadTags();
     loadLists();
+    DataReloads.register(() -> tagged = new AtomicReferenceArray<>(Material.values().length));
+  }
+
+  private static long[] getTagged(int type) {
+    AtomicReferenceArray<long[]> local = tagged;
+    long[] materials = local.get(type);
+    if (materials == null) {
+      NamespacedKey tagKey = TAGS[type];
+      materials = tagKey == null ? NOT_REPAIRABLE : compileTag(tagKey);
+      local.set(type, materials);
+    }
+    return materials;
   }
 
   private static void loadTags() {
-    Map<NamespacedKey, Predicate<Material>> tags = new HashMap<>();
     for (var entry : BakedRepairableData.getTags().entrySet()) {
       if (entry.getKey() == null || entry.getValue() == null) {
         continue;
       }
 
       Material mat = Registry.MATERIAL.get(entry.getKey());
-      if (mat == null) {
-        continue;
+      if (mat != null) {
+        TAGS[mat.ordinal()] = entry.getValue();
+      }
+    }
+  }
+
+  private static long[] compileTag(NamespacedKey tagKey) {
+    // Prefer Material tags as they're officially supported.
+    Tag<Material> matTag = Bukkit.getTag(Tag.REGISTRY_ITEMS, tagKey, Material.class);
+    if (matTag != null) {
+      long[] materials = new long[WORDS];
+      for (Material material : matTag.getValues()) {
+        int ordinal = material.ordinal();
+        materials[ordinal >>> 6] |= 1L << ordinal;
       }
+      return materials;
+    }
 
-      Predicate<Material> predicate = tags.computeIfAbsent(
-          entry.getValue(),
-          tagKey -> {
-            // Prefer Material tags as they're officially supported.
-            Tag<Material> matTag = Bukkit.getTag(Tag.REGISTRY_ITEMS, entry.getValue(), Material.class);
-            if (matTag != null) {
-              return matTag::isTagged;
-            }
-
-            // Fall through to ItemType tags.
-            Tag<ItemType> typeTag = Bukkit.getTag(Tag.REGISTRY_ITEMS, entry.getValue(), ItemType.class);
-            if (typeTag == null) {
-              return null;
-            }
-            return localMat -> {
-              ItemType localType = localMat.asItemType();
-              return localType != null && typeTag.isTagged(localType);
-            };
-
-          }
-      );
-
-      if (predicate != null) {
-        MATERIALS_TO_REPAIRABLE.put(mat, predicate);
+    // Fall through to ItemType tags.
+    Tag<ItemType> typeTag = Bukkit.getTag(Tag.REGISTRY_ITEMS, tagKey, ItemType.class);
+    if (typeTag == null) {
+      return NOT_REPAIRABLE;
+    }
+    long[] materials = new long[WORDS];
+    for (ItemType itemType : typeTag.getValues()) {
+      Material material = Registry.MATERIAL.get(itemType.getKey());
+      if (material != null) {
+        int ordinal = material.ordinal();
+        materials[ordinal >>> 6] |= 1L << ordinal;
       }
     }
+    return materials;
   }
 
   private static void loadLists() {
@@ -96,19 +154,22 @@ public class MetaVanillaBehavior implements AnvilBehavior<MetaCachedStack> {
         continue;
       }
 
-      Set<Material> values = new HashSet<>();
+      long[] materials = new long[WORDS];
+      boolean empty = true;
       for (NamespacedKey key : entry.getValue()) {
         if (key == null) {
           continue;
         }
         Material value = Registry.MATERIAL.get(key);
         if (value != null) {
-          values.add(value);
+          int ordinal = value.ordinal();
+          materials[ordinal >>> 6] |= 1L << ordinal;
+          empty = false;
         }
       }
 
-      if (!values.isEmpty()) {
-        MATERIALS_TO_REPAIRABLE.put(type, values::contains);
+      if (!empty) {
+        LISTED[type.ordinal()] = materials;
       }
     }
   }
@@ -2,29 +2,112 @@ package com.github.jikoo.planarenchanting.anvil;
 
 import org.bukkit.inventory.view.AnvilView;
 import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
 
 /**
  * A {@link ViewState} wrapping contents with a {@link MetaCachedStack} for repeated meta
  * modification.
+ *
+ * <p>When reused via {@link #reset(AnvilView)}, the state's wrappers are reused as well. The result
+ * wrapper is only valid until the state is next reset or cleared.</p>
  */
 @NullMarked
-public class MetaViewState implements ViewState<MetaCachedStack> {
+public class MetaViewState implements ReusableViewState<MetaCachedStack> {
 
-  private final AnvilView view;
+  private @Nullable AnvilView view;
   private final MetaCachedStack base;
   private final MetaCachedStack addition;
+  private @Nullable AnvilInputs inputs;
+  private @Nullable MetaCachedStack result;
+  private final boolean reusable;
+
+  /**
+   * Construct a new reusable {@code MetaViewState} with no contents. The state must be
+   * {@link #reset(AnvilView) reset} before use.
+   *
+   * @see WorkPieceArena
+   */
+  public MetaViewState() {
+    this.view = null;
+    this.base = new MetaCachedStack(null);
+    this.addition = new MetaCachedStack(null);
+    this.inputs = null;
+    this.reusable = true;
+  }
 
   public MetaViewState(AnvilView view) {
     this.view = view;
     this.base = new MetaCachedStack(view.getItem(0));
     this.addition = new MetaCachedStack(view.getItem(1));
+    this.inputs = null;
+    this.reusable = false;
+  }
+
+  /**
+   * Construct a new {@code MetaViewState} operating on inputs that do not belong to an
+   * {@link AnvilView}. {@link #getAnvilView()} is unsupported.
+   *
+   * @param inputs the inputs
+   */
+  public MetaViewState(AnvilInputs inputs) {
+    this(null, inputs);
+  }
+
+  /**
+   * Construct a new {@code MetaViewState} operating on a snapshot of the view's inputs. The
+   * view itself is not accessed.
+   *
+   * @param view the {@link AnvilView} the inputs were captured from, if any
+   * @param inputs the captured inputs
+   */
+  public MetaViewState(@Nullable AnvilView view, AnvilInputs inputs) {
+    this.view = view;
+    this.base = new MetaCachedStack(inputs.base());
+    this.addition = new MetaCachedStack(inputs.addition());
+    this.inputs = inputs;
+    this.reusable = false;
+  }
+
+  @Override
+  public void reset(AnvilView view) {
+    if (!reusable) {
+      throw new IllegalStateException("State is not reusable");
+    }
+    this.view = view;
+    this.base.reset(view.getItem(0));
+    this.addition.reset(view.getItem(1));
+    this.inputs = null;
+  }
+
+  @Override
+  public void clear() {
+    this.view = null;
+    this.base.reset(null);
+    this.addition.reset(null);
+    this.inputs = null;
+    if (this.result != null) {
+      this.result.reset(null);
+    }
   }
 
   @Override
   public AnvilView getAnvilView() {
+    if (view == null) {
+      throw new IllegalStateException("State was not created from an AnvilView");
+    }
     return view;
   }
 
+  @Override
+  public @Nullable String getRenameText() {
+    return inputs != null ? inputs.renameText() : getAnvilView().getRenameText();
+  }
+
+  @Override
+  public int getMaximumRepairCost() {
+    return inputs != null ? inputs.maximumRepairCost() : getAnvilView().getMaximumRepairCost();
+  }
+
   @Override
   public MetaCachedStack getBase() {
     return base;
@@ -37,7 +120,15 @@ public class MetaViewState implements ViewState<MetaCachedStack> {
 
   @Override
   public MetaCachedStack createResult() {
-    return new MetaCachedStack(base.getItem().clone());
+    if (!reusable) {
+      return new MetaCachedStack(base.getItem().clone());
+    }
+    if (result == null) {
+      result = new MetaCachedStack(base.getItem().clone());
+    } else {
+      result.reset(base.getItem().clone());
+    }
+    return result;
   }
 
 }
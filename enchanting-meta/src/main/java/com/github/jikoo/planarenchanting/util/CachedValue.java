@@ -11,8 +11,9 @@ import org.jetbrains.annotations.Nullable;
  */
 public class CachedValue<T> {
 
-  private @Nullable Supplier<T> supplier;
+  private final @NotNull Supplier<T> supplier;
   private T value;
+  private boolean cached;
 
   /**
    * Construct a new {@code CachedValue}.
@@ -29,12 +30,20 @@ public class CachedValue<T> {
    * @return the cached value
    */
   public T get() {
-    if (supplier != null) {
+    if (!cached) {
       value = supplier.get();
-      supplier = null;
+      cached = true;
     }
 
     return value;
   }
 
+  /**
+   * Discard the cached value. It will be fetched again on the next request.
+   */
+  public void invalidate() {
+    value = null;
+    cached = false;
+  }
+
 }
@@ -0,0 +1,99 @@
+package com.github.jikoo.planarenchanting.util;
+
+import com.github.jikoo.planarenchanting.anvil.MetaCachedStack;
+import java.util.Map;
+import java.util.Objects;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.EnchantmentStorageMeta;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.Repairable;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An {@link ItemFingerprinter} for {@link ItemMeta}-based items.
+ *
+ * <p>As obtaining an item's meta creates a copy, {@link #fingerprint(MetaCachedStack)} should be
+ * preferred where a {@link MetaCachedStack} is already available.</p>
+ */
+@NullMarked
+public final class MetaFingerprinter implements ItemFingerprinter {
+
+  public static final MetaFingerprinter INSTANCE = new MetaFingerprinter();
+
+  @Override
+  public long fingerprint(ItemStack itemStack) {
+    return fingerprint(new MetaCachedStack(itemStack));
+  }
+
+  /**
+   * Get the fingerprint of an item using its cached meta.
+   *
+   * @param itemStack the item
+   * @return the fingerprint
+   */
+  public long fingerprint(MetaCachedStack itemStack) {
+    FingerprintHasher hasher = new FingerprintHasher().putKey(itemStack.getItem().getType());
+    ItemMeta meta = itemStack.getMeta();
+    if (meta == null) {
+      return hasher.putBoolean(false).hash();
+    }
+
+    return hasher
+        .putBoolean(true)
+        .putEnchantments(meta.getEnchants())
+        .putEnchantments(getStoredEnchants(meta))
+        .putInt(getDamage(meta))
+        .putInt(getMaxDamage(meta))
+        .putInt(getRepairCost(meta))
+        .putString(getDisplayName(meta))
+        .hash();
+  }
+
+  @Override
+  public boolean isEquivalent(ItemStack first, ItemStack second) {
+    if (first.getType() != second.getType()) {
+      return false;
+    }
+
+    ItemMeta firstMeta = first.getItemMeta();
+    ItemMeta secondMeta = second.getItemMeta();
+    if (firstMeta == null || secondMeta == null) {
+      return firstMeta == secondMeta;
+    }
+
+    return firstMeta.getEnchants().equals(secondMeta.getEnchants())
+        && getStoredEnchants(firstMeta).equals(getStoredEnchants(secondMeta))
+        && getDamage(firstMeta) == getDamage(secondMeta)
+        && getMaxDamage(firstMeta) == getMaxDamage(secondMeta)
+        && getRepairCost(firstMeta) == getRepairCost(secondMeta)
+        && Objects.equals(getDisplayName(firstMeta), getDisplayName(secondMeta));
+  }
+
+  private static Map<Enchantment, Integer> getStoredEnchants(ItemMeta meta) {
+    return meta instanceof EnchantmentStorageMeta storage ? storage.getStoredEnchants() : Map.of();
+  }
+
+  private static int getDamage(ItemMeta meta) {
+    return meta instanceof Damageable damageable ? damageable.getDamage() : -1;
+  }
+
+  private static int getMaxDamage(ItemMeta meta) {
+    return meta instanceof Damageable damageable && damageable.hasMaxDamage()
+        ? damageable.getMaxDamage()
+        : -1;
+  }
+
+  private static int getRepairCost(ItemMeta meta) {
+    return meta instanceof Repairable repairable ? repairable.getRepairCost() : -1;
+  }
+
+  private static @Nullable String getDisplayName(ItemMeta meta) {
+    return meta.hasDisplayName() ? meta.getDisplayName() : null;
+  }
+
+  private MetaFingerprinter() {}
+
+}
@@ -0,0 +1,137 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import com.github.jikoo.planarenchanting.util.HeadlessEnchantment;
+import com.github.jikoo.planarenchanting.util.HeadlessServer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.Repairable;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+@NullMarked
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HeadlessMetaAnvilTest {
+
+  private AnvilPricer<MetaCachedStack> pricer;
+
+  @BeforeAll
+  void beforeAll() {
+    HeadlessServer.install(
+        Map.of(
+            NamespacedKey.minecraft("sharpness"),
+            new HeadlessEnchantment.Definition(
+                5,
+                false,
+                false,
+                Set.of(NamespacedKey.minecraft("smite")),
+                Set.of(Material.DIAMOND_SWORD))),
+        Map.of(NamespacedKey.minecraft("diamond_tool_materials"), Set.of(Material.DIAMOND)));
+    pricer = new AnvilPricer<>(
+        inputs -> new WorkPiece<>(new MetaViewState(inputs), MetaTemperer.INSTANCE),
+        new MetaVanillaBehavior(),
+        MetaAnvilFunctions.INSTANCE,
+        1);
+  }
+
+  @AfterAll
+  void afterAll() {
+    pricer.close();
+  }
+
+  private static ItemStack item(Material type, int amount, int damage, int sharpness) {
+    ItemStack itemStack = new ItemStack(type, amount);
+    ItemMeta meta = Objects.requireNonNull(itemStack.getItemMeta());
+    ((Damageable) meta).setDamage(damage);
+    if (sharpness > 0) {
+      meta.addEnchant(Enchantment.SHARPNESS, sharpness, true);
+    }
+    itemStack.setItemMeta(meta);
+    return itemStack;
+  }
+
+  private static ItemMeta getMeta(AnvilResult result) {
+    return Objects.requireNonNull(result.item().getItemMeta());
+  }
+
+  private AnvilResult getResult(
+      ItemStack base,
+      @Nullable ItemStack addition,
+      @Nullable String renameText
+  ) {
+    return pricer.getResult(new AnvilInputs(base, addition, renameText, 40));
+  }
+
+  @Test
+  void combineEnchantments() {
+    ItemStack base = item(Material.DIAMOND_SWORD, 1, 0, 4);
+    ItemStack addition = base.clone();
+
+    AnvilResult result = getResult(base, addition, null);
+
+    assertThat(
+        "Enchantments are combined",
+        getMeta(result).getEnchants(),
+        hasEntry(Enchantment.SHARPNESS, 5));
+    assertThat("Prior work is increased", ((Repairable) getMeta(result)).getRepairCost(), is(1));
+    assertThat("Base is not modified", base, is(addition));
+    assertThat("Result is a copy", result.item(), is(not(base)));
+  }
+
+  @Test
+  void repairWithMaterial() {
+    ItemStack base = item(Material.DIAMOND_SWORD, 1, 1000, 0);
+    ItemStack addition = new ItemStack(Material.DIAMOND, 2);
+
+    AnvilResult result = getResult(base, addition, null);
+
+    assertThat("Level cost is per material", result.levelCost(), is(2));
+    assertThat("Material cost is per material", result.materialCost(), is(2));
+    assertThat(
+        "Damage is repaired",
+        ((Damageable) getMeta(result)).getDamage(),
+        is(1000 - 2 * (Material.DIAMOND_SWORD.getMaxDurability() / 4)));
+    assertThat(
+        "Cost matches result",
+        pricer.getCost(new AnvilInputs(base, addition, null, 40)),
+        is(new AnvilCost(2, 2)));
+  }
+
+  @Test
+  void rename() {
+    AnvilResult result = getResult(new ItemStack(Material.DIAMOND_SWORD), null, "Blade");
+
+    assertThat("Rename costs a level", result.levelCost(), is(1));
+    assertThat("Item is renamed", getMeta(result).getDisplayName(), is("Blade"));
+  }
+
+  @Test
+  void noChange() {
+    ItemStack base = new ItemStack(Material.DIAMOND_SWORD);
+
+    assertThat(
+        "Result is empty without changes",
+        getResult(base, null, null),
+        is(AnvilResult.EMPTY));
+    assertThat(
+        "Cost is empty without changes",
+        pricer.getCost(new AnvilInputs(base, new ItemStack(Material.DIRT), null, 40)),
+        is(AnvilCost.EMPTY));
+  }
+
+}
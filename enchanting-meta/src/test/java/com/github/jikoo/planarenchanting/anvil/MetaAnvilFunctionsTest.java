@@ -21,7 +21,6 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.Damageable;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.Repairable;
-import org.bukkit.inventory.view.AnvilView;
 import org.jspecify.annotations.NonNull;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -168,9 +167,7 @@ class MetaAnvilFunctionsTest {
       doReturn(meta).when(metaStack).getMeta();
       doReturn(metaStack).when(state).getBase();
 
-      AnvilView view = mock();
-      doReturn(anvilName).when(view).getRenameText();
-      doReturn(view).when(state).getAnvilView();
+      doReturn(anvilName).when(state).getRenameText();
 
       assertThat("Rename requires different name", function.canApply(behavior, state, resultStack), is(canApply));
     }
@@ -181,9 +178,7 @@ class MetaAnvilFunctionsTest {
       ViewState<MetaCachedStack> state = mock();
       MetaCachedStack resultStack = mock();
 
-      AnvilView view = mock();
-      doReturn("sample text").when(view).getRenameText();
-      doReturn(view).when(state).getAnvilView();
+      doReturn("sample text").when(state).getRenameText();
 
       AnvilFunctionResult<MetaCachedStack> result = function.getResult(behavior, state, resultStack);
 
@@ -202,9 +197,7 @@ class MetaAnvilFunctionsTest {
       ViewState<MetaCachedStack> state = mock();
       MetaCachedStack resultStack = mock();
 
-      AnvilView view = mock();
-      doReturn("sample text").when(view).getRenameText();
-      doReturn(view).when(state).getAnvilView();
+      doReturn("sample text").when(state).getRenameText();
 
       AnvilFunctionResult<MetaCachedStack> result = function.getResult(behavior, state, resultStack);
 
@@ -231,9 +224,7 @@ class MetaAnvilFunctionsTest {
       ViewState<MetaCachedStack> state = mock();
       MetaCachedStack resultStack = mock();
 
-      AnvilView view = mock();
-      doReturn(anvilText).when(view).getRenameText();
-      doReturn(view).when(state).getAnvilView();
+      doReturn(anvilText).when(state).getRenameText();
       MetaCachedStack metaStack = mock();
       doReturn(metaStack).when(state).getBase();
       doReturn(metaStack).when(state).getAddition();
@@ -876,6 +867,16 @@ class MetaAnvilFunctionsTest {
         functions.combineEnchantsBedrock(),
         is(sameInstance(MetaAnvilFunctions.COMBINE_ENCHANTMENTS_BEDROCK))
     );
+    assertThat(
+        "Typed combiner is the provided function",
+        MetaAnvilFunctions.getCombineEnchants(CombineEnchants.Platform.JAVA),
+        is(sameInstance(functions.combineEnchantsJava()))
+    );
+    assertThat(
+        "Typed combiner is the provided function",
+        MetaAnvilFunctions.getCombineEnchants(CombineEnchants.Platform.BEDROCK),
+        is(sameInstance(functions.combineEnchantsBedrock()))
+    );
   }
 
 }
@@ -29,4 +29,17 @@ class MetaCachedStackTest {
     verifyNoMoreInteractions(itemStack);
   }
 
+  @Test
+  void resetDiscardsMeta() {
+    ItemStack itemStack = mock();
+    MetaCachedStack stack = new MetaCachedStack(itemStack);
+    stack.getMeta();
+
+    ItemStack other = mock();
+    stack.reset(other);
+    assertThat("Reset item is wrapped", stack.getItem(), is(other));
+    stack.getMeta();
+    verify(other).getItemMeta();
+  }
+
 }
@@ -0,0 +1,55 @@
+package com.github.jikoo.planarenchanting.anvil;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Registry;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.MockedStatic;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MetaReferenceBehaviorTest {
+
+  private MockedStatic<Bukkit> bukkit;
+
+  @BeforeAll
+  void setUp() {
+    bukkit = mockStatic();
+    // All tags will be nonexistent
+    bukkit.when(() -> Bukkit.getRegistry(any())).thenAnswer(invocation -> mock(Registry.class));
+  }
+
+  @AfterAll
+  void tearDownAll() {
+    bukkit.close();
+  }
+
+  @Test
+  void enchantAppliesNotCached() {
+    MetaReferenceBehavior behavior = new MetaReferenceBehavior();
+    Enchantment enchantment = mock();
+    doReturn(true).when(enchantment).canEnchantItem(any());
+    ItemStack itemStack = mock();
+    doReturn(Material.DIAMOND_SWORD).when(itemStack).getType();
+    MetaCachedStack base = mock();
+    doReturn(itemStack).when(base).getItem();
+
+    behavior.enchantApplies(enchantment, base);
+    assertThat("Enchantment applies", behavior.enchantApplies(enchantment, base), is(true));
+    verify(enchantment, times(2)).canEnchantItem(itemStack);
+  }
+
+}
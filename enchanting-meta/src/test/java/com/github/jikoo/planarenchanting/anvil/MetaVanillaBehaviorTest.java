@@ -5,13 +5,17 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import com.github.jikoo.planarenchanting.util.DataReloads;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
@@ -20,6 +24,7 @@ import org.bukkit.Tag;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ItemType;
+import org.bukkit.inventory.meta.ItemMeta;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -46,10 +51,10 @@ class MetaVanillaBehaviorTest {
     bukkit.when(() -> Bukkit.getTag(eq("items"), argThat(isDiamondTag), eq(Material.class)))
         .thenAnswer(invocation -> {
           Tag<Material> tag = mock();
-          doAnswer(invIsTagged -> {
-            Material argument = invIsTagged.getArgument(0);
-            return argument.getKey().getKey().contains("diamond");
-          }).when(tag).isTagged(any());
+          Set<Material> values = Arrays.stream(Material.values())
+              .filter(material -> !material.name().startsWith("LEGACY_") && material.name().contains("DIAMOND"))
+              .collect(Collectors.toSet());
+          doReturn(values).when(tag).getValues();
           return tag;
         });
     // Set up for fallthrough to ItemType tag for all gold stuff
@@ -58,10 +63,15 @@ class MetaVanillaBehaviorTest {
     bukkit.when(() -> Bukkit.getTag(eq("items"), argThat(isGoldTag), eq(ItemType.class)))
         .thenAnswer(invocation -> {
           Tag<ItemType> tag = mock();
-          doAnswer(invIsTagged -> {
-            ItemType argument = invIsTagged.getArgument(0);
-            return argument.getKey().getKey().contains("gold");
-          }).when(tag).isTagged(any());
+          Set<ItemType> values = Arrays.stream(Material.values())
+              .filter(material -> !material.name().startsWith("LEGACY_") && material.name().contains("GOLD"))
+              .map(material -> {
+                ItemType type = mock();
+                doReturn(material.getKey()).when(type).getKey();
+                return type;
+              })
+              .collect(Collectors.toSet());
+          doReturn(values).when(tag).getValues();
           return tag;
         });
     // All other tags will be nonexistent
@@ -86,13 +96,53 @@ class MetaVanillaBehaviorTest {
     doReturn(applies).when(enchantment).canEnchantItem(any());
     assertThat(
         "Behavior applies if enchant applies",
-        behavior.enchantApplies(enchantment, mock()),
+        behavior.enchantApplies(enchantment, mockStack(Material.DIAMOND_SWORD)),
         is(applies)
     );
     verify(enchantment).canEnchantItem(any());
     verifyNoMoreInteractions(enchantment);
   }
 
+  @Test
+  void enchantAppliesCachedByType() {
+    Enchantment enchantment = mock();
+    doReturn(true).when(enchantment).canEnchantItem(any());
+
+    behavior.enchantApplies(enchantment, mockStack(Material.DIAMOND_SWORD));
+    assertThat(
+        "Cached result is used for same type",
+        behavior.enchantApplies(enchantment, mockStack(Material.DIAMOND_SWORD)),
+        is(true)
+    );
+    verify(enchantment, times(1)).canEnchantItem(any());
+
+    behavior.enchantApplies(enchantment, mockStack(Material.DIAMOND_AXE));
+    verify(enchantment, times(2)).canEnchantItem(any());
+  }
+
+  @Test
+  void enchantAppliesCustomItem() {
+    Enchantment enchantment = mock();
+    doReturn(true).when(enchantment).canEnchantItem(any());
+    MetaCachedStack base = mockStack(Material.DIAMOND_SWORD);
+    ItemMeta itemMeta = mock();
+    doReturn(true).when(itemMeta).hasCustomModelData();
+    doReturn(itemMeta).when(base).getMeta();
+
+    behavior.enchantApplies(enchantment, base);
+    behavior.enchantApplies(enchantment, base);
+
+    verify(enchantment, times(2)).canEnchantItem(any());
+  }
+
+  private static MetaCachedStack mockStack(Material type) {
+    ItemStack itemStack = mock();
+    doReturn(type).when(itemStack).getType();
+    MetaCachedStack stack = mock();
+    doReturn(itemStack).when(stack).getItem();
+    return stack;
+  }
+
   @ParameterizedTest
   @CsvSource({
       "DIAMOND,DIAMOND,true",
@@ -153,14 +203,8 @@ class MetaVanillaBehaviorTest {
     MetaCachedStack base = mock();
     doReturn(baseStack).when(base).getItem();
 
-    NamespacedKey key = mock();
-    doReturn("gold").when(key).getKey();
-    ItemType type = mock();
-    doReturn(key).when(type).getKey();
-    Material material = mock();
-    doReturn(type).when(material).asItemType();
     ItemStack additionStack = mock();
-    doReturn(material).when(additionStack).getType();
+    doReturn(Material.GOLD_INGOT).when(additionStack).getType();
     MetaCachedStack addition = mock();
     doReturn(additionStack).when(addition).getItem();
 
@@ -181,4 +225,28 @@ class MetaVanillaBehaviorTest {
     assertThat("Item is not repairable", behavior.itemRepairedBy(base, addition), is(false));
   }
 
+  @Test
+  void repairTagsCompiledUntilReload() {
+    ItemStack baseStack = mock();
+    doReturn(Material.DIAMOND_SWORD).when(baseStack).getType();
+    MetaCachedStack base = mock();
+    doReturn(baseStack).when(base).getItem();
+    ItemStack additionStack = mock();
+    doReturn(Material.DIAMOND).when(additionStack).getType();
+    MetaCachedStack addition = mock();
+    doReturn(additionStack).when(addition).getItem();
+
+    DataReloads.reloaded();
+    bukkit.clearInvocations();
+    behavior.itemRepairedBy(base, addition);
+    behavior.itemRepairedBy(base, addition);
+
+    bukkit.verify(() -> Bukkit.getTag(eq("items"), any(), eq(Material.class)), times(1));
+
+    DataReloads.reloaded();
+    assertThat("Item is repairable", behavior.itemRepairedBy(base, addition), is(true));
+
+    bukkit.verify(() -> Bukkit.getTag(eq("items"), any(), eq(Material.class)), times(2));
+  }
+
 }
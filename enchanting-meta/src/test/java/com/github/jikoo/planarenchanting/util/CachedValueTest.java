@@ -5,6 +5,7 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.only;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.util.Arrays;
@@ -32,6 +33,19 @@ class CachedValueTest {
     verify(supplier, only()).get();
   }
 
+  @ParameterizedTest
+  @MethodSource("getBooleans")
+  void testInvalidate(Boolean value) {
+    Supplier<Boolean> supplier = mock();
+    doReturn(value).when(supplier).get();
+    var cache = new CachedValue<>(supplier);
+    cache.get();
+    cache.invalidate();
+
+    assertThat("Value must be supplied as expected", cache.get(), is(value));
+    verify(supplier, times(2)).get();
+  }
+
   private static Collection<Boolean> getBooleans() {
     return Arrays.asList(
         Boolean.TRUE,
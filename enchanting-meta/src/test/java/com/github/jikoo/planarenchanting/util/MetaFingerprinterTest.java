@@ -0,0 +1,84 @@
+package com.github.jikoo.planarenchanting.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Map;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.Damageable;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.Repairable;
+import org.junit.jupiter.api.Test;
+
+class MetaFingerprinterTest {
+
+  private static ItemStack mockItem(int damage, Map<Enchantment, Integer> enchantments) {
+    ItemStack itemStack = mock();
+    doReturn(Material.DIAMOND_SWORD).when(itemStack).getType();
+    ItemMeta meta = mock(
+        ItemMeta.class,
+        withSettings().extraInterfaces(Damageable.class, Repairable.class)
+    );
+    doReturn(damage).when((Damageable) meta).getDamage();
+    doReturn(enchantments).when(meta).getEnchants();
+    doReturn(meta).when(itemStack).getItemMeta();
+    return itemStack;
+  }
+
+  @Test
+  void fingerprintSame() {
+    Enchantment enchantment = mock();
+    doReturn(NamespacedKey.minecraft("sharpness")).when(enchantment).getKey();
+    ItemStack first = mockItem(1, Map.of(enchantment, 1));
+    ItemStack second = mockItem(1, Map.of(enchantment, 1));
+
+    assertThat(
+        "Same details yield same fingerprint",
+        MetaFingerprinter.INSTANCE.fingerprint(first),
+        is(MetaFingerprinter.INSTANCE.fingerprint(second))
+    );
+    assertThat(
+        "Same details are equivalent",
+        MetaFingerprinter.INSTANCE.isEquivalent(first, second),
+        is(true)
+    );
+  }
+
+  @Test
+  void fingerprintDamage() {
+    ItemStack first = mockItem(1, Map.of());
+    ItemStack second = mockItem(2, Map.of());
+
+    assertThat(
+        "Damage affects fingerprint",
+        MetaFingerprinter.INSTANCE.fingerprint(first),
+        is(not(MetaFingerprinter.INSTANCE.fingerprint(second)))
+    );
+    assertThat(
+        "Different damage is not equivalent",
+        MetaFingerprinter.INSTANCE.isEquivalent(first, second),
+        is(false)
+    );
+  }
+
+  @Test
+  void fingerprintNoMeta() {
+    ItemStack first = mock();
+    doReturn(Material.DIAMOND_SWORD).when(first).getType();
+    ItemStack second = mockItem(0, Map.of());
+
+    assertThat(
+        "Missing meta affects fingerprint",
+        MetaFingerprinter.INSTANCE.fingerprint(first),
+        is(not(MetaFingerprinter.INSTANCE.fingerprint(second)))
+    );
+  }
+
+}